@@ -0,0 +1,30 @@
+package com.railway.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: the JMH command line, writing results as JSON (jmh-result.json
+ * unless -rff says otherwise) so runs on two commits can be put side by side with CompareResults.
+ *
+ * <pre>
+ *   java -jar benchmarks/target/benchmarks.jar -rff before.json
+ *   java -jar benchmarks/target/benchmarks.jar -rff after.json
+ *   java -cp benchmarks/target/benchmarks.jar com.railway.benchmark.CompareResults before.json after.json
+ * </pre>
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
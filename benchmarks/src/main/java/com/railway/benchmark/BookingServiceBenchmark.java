@@ -0,0 +1,80 @@
+package com.railway.benchmark;
+
+import com.railway.dao.TrainDAO;
+import com.railway.model.Train;
+import com.railway.service.BookingService;
+import com.railway.service.TrainService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingService.bookTicket and TrainService.searchTrains end to end (seat ledger, admission
+ * control, connection pool, JDBC metrics and the DAOs) against the embedded database.
+ *
+ * Bookings go to a train of their own with seats enough for the whole run, so no iteration sees a
+ * sold-out train; the tables grow by one Passenger and one Ticket row per booking. The contended
+ * variant books on that one train from four threads, which is what admission control queues.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+
+    private static final String TRAIN = "BENCH1";
+    private static final LocalDate SEARCH_DATE = LocalDate.of(2025, 11, 25);
+
+    private BookingService bookingService;
+    private TrainService trainService;
+
+    @Setup
+    public void setUp() throws Exception {
+        EmbeddedDatabase.start();
+        TrainDAO trainDAO = new TrainDAO();
+        if (trainDAO.getTrainByNumber(TRAIN) == null) {
+            Train train = new Train(TRAIN, "Benchmark Express", "Benchmark Central", "Benchmark Park",
+                    LocalDate.of(2030, 1, 1), new BigDecimal("10.00"));
+            train.setTotalSeats(50_000_000);
+            trainDAO.addTrain(train);
+        }
+        bookingService = new BookingService();
+        trainService = new TrainService();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String bookTicket() throws Exception {
+        return bookingService.bookTicket("john_doe", "Bench Passenger", 30, "M", TRAIN);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String bookTicketContended() throws Exception {
+        return bookingService.bookTicket("john_doe", "Bench Passenger", 30, "M", TRAIN);
+    }
+
+    // What GET /api/trains/search does: the search, then seat counts for the trains found
+    @Benchmark
+    @Threads(1)
+    public List<Train> searchTrains() throws Exception {
+        List<Train> trains = trainService.searchTrains("New York", "Chicago", SEARCH_DATE);
+        trainService.populateAvailableSeats(trains);
+        return trains;
+    }
+}
@@ -0,0 +1,95 @@
+package com.railway.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files benchmark by benchmark and exits with status 1 if any got
+ * slower than the threshold (10% by default). A change within the two runs' error margins is not
+ * counted, however large, so noisy benchmarks do not fail a build on their own.
+ *
+ * Usage: CompareResults before.json after.json [thresholdPercent]
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults before.json after.json [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> before = load(new File(args[0]));
+        Map<String, JsonNode> after = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.println(String.format(Locale.ROOT, "%-70s %14s %14s %9s", "Benchmark", "Before", "After", "Change"));
+        for (Map.Entry<String, JsonNode> entry : after.entrySet()) {
+            JsonNode old = before.get(entry.getKey());
+            JsonNode now = entry.getValue();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            double newScore = now.path("primaryMetric").path("score").asDouble();
+            if (old == null) {
+                System.out.println(String.format(Locale.ROOT, "%-70s %14s %14.3f %9s  %s",
+                        entry.getKey(), "-", newScore, "new", unit));
+                continue;
+            }
+            double oldScore = old.path("primaryMetric").path("score").asDouble();
+            double margin = error(old) + error(now);
+            // Throughput: higher is better; every other mode measures time
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+            double worse = higherIsBetter ? -change : change;
+            boolean regressed = worse > threshold && Math.abs(newScore - oldScore) > margin;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format(Locale.ROOT, "%-70s %14.3f %14.3f %+8.1f%%  %s%s",
+                    entry.getKey(), oldScore, newScore, change, unit, regressed ? "  REGRESSION" : ""));
+        }
+
+        System.out.println();
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) more than " + threshold + "% slower");
+            System.exit(1);
+        }
+        System.out.println("No regressions over " + threshold + "%");
+    }
+
+    // Benchmark name plus its @Param values, e.g. JsonSerializationBenchmark.trainList(size=1000)
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String name = result.path("benchmark").asText();
+            name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+            StringBuilder key = new StringBuilder(name);
+            JsonNode params = result.path("params");
+            if (params.size() > 0) {
+                key.append('(');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText())
+                            .append(fields.hasNext() ? "," : "");
+                }
+                key.append(')');
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,105 @@
+package com.railway.benchmark;
+
+import com.railway.util.DatabaseConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory H2 database in SQL Server mode, created from the same database_setup.sql that sets
+ * up a real server (packaged into the benchmark jar), so the DAOs run their production SQL against
+ * the production schema and sample data without a database server.
+ *
+ * H2 has no INCLUDE columns or filtered indexes; those are created as plain indexes on their key
+ * columns. Numbers are for comparing one commit with another, not for predicting SQL Server.
+ */
+public final class EmbeddedDatabase {
+
+    public static final String URL = "jdbc:h2:mem:railway;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+
+    private static final String SETUP_SCRIPT = "/database_setup.sql";
+    private static final Pattern GO = Pattern.compile("(?m)^GO\\s*$");
+    private static final Pattern COMMENT = Pattern.compile("(?m)--.*$");
+    private static final Pattern INCLUDE = Pattern.compile("(?is)\\s+INCLUDE\\s*\\([^)]*\\)(\\s+WHERE\\s+.*)?$");
+
+    private static boolean started;
+
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     * Points DatabaseConnection at the in-memory database and loads the schema and sample data,
+     * once per JVM. Must run before anything else touches DatabaseConnection.
+     */
+    public static void start() throws SQLException, IOException {
+        start(URL);
+    }
+
+    /**
+     * Like start(), for any H2 URL in SQL Server mode (e.g. a file database that outlives the
+     * JVM). The setup script is only run if the database has no Train table yet.
+     */
+    public static synchronized void start(String url) throws SQLException, IOException {
+        if (started) {
+            return;
+        }
+        System.setProperty("db.driver", "org.h2.Driver");
+        System.setProperty("db.url", url);
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        // Slow-statement lines would only add noise to the benchmark output
+        System.setProperty("jdbc.slowQueryMs", "-1");
+        // The migrations are written for SQL Server and MySQL; the setup script already has every version
+        System.setProperty("schema.migrate", "false");
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            if (!hasSchema(conn)) {
+                for (String sql : statements(setupScript())) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+        started = true;
+    }
+
+    private static boolean hasSchema(Connection conn) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, "TRAIN", null)) {
+            return rs.next();
+        }
+    }
+
+    private static String setupScript() throws IOException {
+        try (InputStream in = EmbeddedDatabase.class.getResourceAsStream(SETUP_SCRIPT)) {
+            if (in == null) {
+                throw new IOException(SETUP_SCRIPT + " is not on the classpath; build with mvn -f benchmarks/pom.xml package");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // The tables and data only: everything from the first CREATE TABLE up to the closing PRINTs,
+    // without the CREATE DATABASE / USE preamble
+    private static String[] statements(String script) {
+        int start = script.indexOf("CREATE TABLE");
+        int end = script.indexOf("PRINT", start);
+        String body = COMMENT.matcher(script.substring(start, end < 0 ? script.length() : end)).replaceAll("");
+        String[] statements = GO.matcher(body).replaceAll(";").split(";");
+        int count = 0;
+        for (String sql : statements) {
+            String trimmed = sql.trim();
+            if (!trimmed.isEmpty()) {
+                statements[count++] = trimmed.startsWith("CREATE INDEX") ? INCLUDE.matcher(trimmed).replaceAll("") : trimmed;
+            }
+        }
+        String[] result = new String[count];
+        System.arraycopy(statements, 0, result, 0, count);
+        return result;
+    }
+}
@@ -0,0 +1,100 @@
+package com.railway.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
+import com.railway.model.Train;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the controllers' response bodies: the {success, data, count} map TrainController returns
+ * for a train list, and the same for a list of bookings. The ObjectMapper is built the way Spring
+ * Boot builds the application's (Jackson2ObjectMapperBuilder, ISO dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"15", "1000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Map<String, Object> trainResponse;
+    private Map<String, Object> ticketResponse;
+
+    @Setup
+    public void setUp() {
+        List<Train> trains = new ArrayList<>(size);
+        List<Ticket> tickets = new ArrayList<>(size);
+        LocalDate date = LocalDate.of(2025, 11, 25);
+        for (int i = 0; i < size; i++) {
+            Train train = new Train();
+            train.setTrainNumber(String.format("T%03d", i));
+            train.setTrainName("Express East");
+            train.setSource("New York");
+            train.setDestination("Chicago");
+            train.setDate(date.plusDays(i % 30));
+            train.setCost(new BigDecimal("89.99"));
+            train.setTotalSeats(100);
+            train.setAvailableSeats(100 - i % 100);
+            trains.add(train);
+
+            Ticket ticket = new Ticket();
+            ticket.setPnr(String.format("PNR%07d", i));
+            ticket.setTrainNumber(train.getTrainNumber());
+            ticket.setDate(train.getDate());
+            ticket.setSource(train.getSource());
+            ticket.setDestination(train.getDestination());
+            ticket.setAmount(train.getCost());
+            ticket.setStatus(TicketStatus.CONFIRMED);
+            ticket.setBookingDate(LocalDateTime.of(2025, 11, 1, 9, 30));
+            ticket.setUsername("john_doe");
+            tickets.add(ticket);
+        }
+        trainResponse = response(trains);
+        ticketResponse = response(tickets);
+    }
+
+    private static Map<String, Object> response(List<?> data) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        response.put("count", data.size());
+        return response;
+    }
+
+    @Benchmark
+    public byte[] trainList() throws Exception {
+        return objectMapper.writeValueAsBytes(trainResponse);
+    }
+
+    @Benchmark
+    public byte[] ticketList() throws Exception {
+        return objectMapper.writeValueAsBytes(ticketResponse);
+    }
+}
@@ -0,0 +1,506 @@
+package com.railway.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.railway.RailwayApiApplication;
+import com.railway.util.ConnectionPoolStats;
+import com.railway.util.DatabaseConnection;
+import com.railway.util.LatencyHistogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test of the whole application on one machine: the API started in this JVM against an
+ * embedded H2 database in SQL Server mode, filled with a synthetic railway of the requested size
+ * (see SyntheticData), and driven through its REST endpoints by a mix of operations:
+ *
+ * <pre>
+ *   search   GET    /api/trains/search?source&amp;destination&amp;fromDate&amp;toDate   (a week around a train's date)
+ *   book     POST   /api/bookings                                           (an upcoming train, busy ones more often)
+ *   cancel   DELETE /api/bookings/{pnr}?username                            (a ticket booked earlier in the run)
+ *   profile  GET    /api/users/{username}
+ *   history  GET    /api/bookings/user/{username}
+ * </pre>
+ *
+ * Searches follow route popularity (a random train's route, so routes with more trains come up
+ * more often) and users are picked with the same skew as the seeded tickets. Each of the
+ * {@code concurrency} client threads sends its next request as soon as the last one is answered.
+ * After the warm-up, throughput and latency percentiles are reported per operation; bookings
+ * turned away because the train is sold out or busy (429) count as rejected, not failed.
+ *
+ * The in-memory database holds a few million tickets in a few GB of heap; for more, give a file
+ * (--db=/path/to/railway, created and seeded on the first run and reused after that, so later
+ * runs start at once). Any option not listed below is passed on to the application, e.g.
+ * --railway.threads.virtual=true; pool and other database.properties settings go in as -D.
+ *
+ * <pre>
+ *   java -cp benchmarks/target/benchmarks.jar com.railway.benchmark.LoadTest
+ *       [--db=mem|FILE] [--cities=40] [--trains=20000] [--users=50000] [--tickets=500000] [--days=120] [--seed=42]
+ *       [--concurrency=32] [--warmup=10] [--duration=60] [--mix=search=60,book=15,cancel=5,profile=10,history=10]
+ *       [--json=FILE]
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String MEMORY_URL = "jdbc:h2:mem:loadtest;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+    private static final String DEFAULT_MIX = "search=60,book=15,cancel=5,profile=10,history=10";
+    private static final List<String> OPERATIONS = Arrays.asList("search", "book", "cancel", "profile", "history");
+    private static final List<String> OPTIONS = Arrays.asList("db", "cities", "trains", "users", "tickets", "days",
+            "seed", "concurrency", "warmup", "duration", "mix", "json");
+    private static final Pattern PNR = Pattern.compile("\"pnr\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Workload workload;
+    private final int[] mix;
+    private final ConcurrentLinkedQueue<String[]> bookedDuringRun = new ConcurrentLinkedQueue<>();
+    private volatile Map<String, OperationStats> stats;
+
+    private LoadTest(HttpClient client, String baseUrl, Workload workload, int[] mix) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.workload = workload;
+        this.mix = mix;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = arg.startsWith("--") && eq > 2 ? arg.substring(2, eq) : null;
+            if (name != null && OPTIONS.contains(name)) {
+                options.put(name, arg.substring(eq + 1));
+            } else {
+                appArgs.add(arg);
+            }
+        }
+        String db = options.getOrDefault("db", "mem");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int[] mix = parseMix(options.getOrDefault("mix", DEFAULT_MIX));
+
+        System.out.println("═══════════════════════════════════════════════");
+        System.out.println("  EMBEDDED DATABASE LOAD TEST");
+        System.out.println("═══════════════════════════════════════════════\n");
+
+        String url = "mem".equals(db) ? MEMORY_URL : "jdbc:h2:file:" + new File(db).getAbsolutePath() + ";MODE=MSSQLServer";
+        EmbeddedDatabase.start(url);
+        seed(url, options);
+        Workload workload = Workload.load(url);
+        System.out.printf(Locale.ROOT, "Workload: %,d trains (%,d upcoming), %,d users%n",
+                workload.trainCount(), workload.upcomingCount(), workload.userCount());
+
+        List<String> springArgs = new ArrayList<>(Arrays.asList(
+                "--server.port=0",
+                "--railway.ledger.reconcile-interval-seconds=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.railway=WARN"));
+        springArgs.addAll(appArgs);
+        long started = System.nanoTime();
+        ConfigurableApplicationContext context = SpringApplication.run(RailwayApiApplication.class,
+                springArgs.toArray(new String[0]));
+        System.out.printf(Locale.ROOT, "Application started in %.1f s%n", (System.nanoTime() - started) / 1e9);
+
+        int failed;
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            LoadTest test = new LoadTest(client, "http://localhost:" + port, workload, mix);
+            System.out.println("Clients: " + concurrency + ", mix: " + options.getOrDefault("mix", DEFAULT_MIX) +
+                    ", database pool: " + DatabaseConnection.getPoolStats().getMaxPoolSize() + " connections");
+            System.out.println("Warming up for " + warmupSeconds + " s, then measuring for " + durationSeconds + " s\n");
+
+            Map<String, OperationStats> results = test.run(concurrency, warmupSeconds, durationSeconds);
+            failed = report(results, durationSeconds, options.get("json"), options);
+        } finally {
+            context.close();
+        }
+
+        System.out.println();
+        System.out.println(failed == 0 ? "✓ Load test finished" : "✗ " + failed + " request(s) failed");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // --- Data ---
+
+    private static void seed(String url, Map<String, String> options) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, "sa", "")) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM [User] WHERE Username = ?")) {
+                stmt.setString(1, SyntheticData.username(0));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        System.out.println("Reusing the data already in the database");
+                        return;
+                    }
+                }
+            }
+
+            SyntheticData data = new SyntheticData(
+                    Integer.parseInt(options.getOrDefault("cities", "40")),
+                    Integer.parseInt(options.getOrDefault("trains", "20000")),
+                    Integer.parseInt(options.getOrDefault("users", "50000")),
+                    Integer.parseInt(options.getOrDefault("tickets", "500000")),
+                    Integer.parseInt(options.getOrDefault("days", "120")),
+                    Long.parseLong(options.getOrDefault("seed", "42")));
+            long started = System.nanoTime();
+            int confirmed = data.load(conn, LocalDate.now());
+            try (Statement stmt = conn.createStatement()) {
+                // Fresh statistics for the optimizer now that the tables are full
+                stmt.execute("ANALYZE");
+            }
+            System.out.printf(Locale.ROOT, "Seeded %,d confirmed tickets in %.1f s%n",
+                    confirmed, (System.nanoTime() - started) / 1e9);
+        }
+    }
+
+    /**
+     * What the clients pick from, read back from the database so a reused file database needs
+     * no generator options: every synthetic train's route and date, the upcoming ones weighted
+     * by the seats already sold (busy trains stay busy), and the number of synthetic users.
+     */
+    private static final class Workload {
+        private final String[] source;
+        private final String[] destination;
+        private final LocalDate[] date;
+        private final String[] upcoming;
+        private final long[] upcomingWeight;
+        private final ZipfSampler users;
+        private final int userCount;
+
+        private Workload(List<String[]> trains, List<Long> weights, List<String> upcoming, int userCount) {
+            source = new String[trains.size()];
+            destination = new String[trains.size()];
+            date = new LocalDate[trains.size()];
+            for (int i = 0; i < trains.size(); i++) {
+                source[i] = trains.get(i)[0];
+                destination[i] = trains.get(i)[1];
+                date[i] = LocalDate.parse(trains.get(i)[2]);
+            }
+            this.upcoming = upcoming.toArray(new String[0]);
+            upcomingWeight = new long[weights.size()];
+            long sum = 0;
+            for (int i = 0; i < weights.size(); i++) {
+                sum += weights.get(i);
+                upcomingWeight[i] = sum;
+            }
+            this.userCount = userCount;
+            users = new ZipfSampler(userCount, 0.5);
+        }
+
+        static Workload load(String url) throws SQLException {
+            List<String[]> trains = new ArrayList<>();
+            List<String> upcoming = new ArrayList<>();
+            List<Long> weights = new ArrayList<>();
+            LocalDate today = LocalDate.now();
+            int userCount;
+            try (Connection conn = DriverManager.getConnection(url, "sa", "");
+                 Statement stmt = conn.createStatement()) {
+                String prefix = SyntheticData.TRAIN_PREFIX;
+                try (ResultSet rs = stmt.executeQuery("SELECT TrainNumber, Source, Destination, Date, Seats, BookedSeats " +
+                        "FROM Train WHERE TrainNumber LIKE '" + prefix + "%' ORDER BY TrainNumber")) {
+                    while (rs.next()) {
+                        LocalDate date = rs.getDate("Date").toLocalDate();
+                        trains.add(new String[]{rs.getString("Source"), rs.getString("Destination"), date.toString()});
+                        if (!date.isBefore(today)) {
+                            upcoming.add(rs.getString("TrainNumber"));
+                            weights.add(1L + rs.getInt("BookedSeats"));
+                        }
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM [User] WHERE Username LIKE '" +
+                        SyntheticData.USER_PREFIX + "%'")) {
+                    rs.next();
+                    userCount = rs.getInt(1);
+                }
+            }
+            if (trains.isEmpty() || upcoming.isEmpty() || userCount == 0) {
+                throw new IllegalStateException("The database has no synthetic upcoming trains or users to load-test with");
+            }
+            return new Workload(trains, weights, upcoming, userCount);
+        }
+
+        int trainCount() { return source.length; }
+
+        int upcomingCount() { return upcoming.length; }
+
+        int userCount() { return userCount; }
+
+        int randomTrain(Random random) {
+            return random.nextInt(source.length);
+        }
+
+        String upcomingTrain(Random random) {
+            long pick = (long) (random.nextDouble() * upcomingWeight[upcomingWeight.length - 1]);
+            int index = Arrays.binarySearch(upcomingWeight, pick + 1);
+            return upcoming[index >= 0 ? index : -index - 1];
+        }
+
+        String user(Random random) {
+            return SyntheticData.username(users.sample(random));
+        }
+    }
+
+    // --- Running ---
+
+    private Map<String, OperationStats> run(int concurrency, int warmupSeconds, int durationSeconds)
+            throws InterruptedException {
+        stats = newStats();
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + durationSeconds * 1_000_000_000L;
+        AtomicInteger clientIds = new AtomicInteger();
+
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread client = new Thread(() -> {
+                Random random = new Random(clientIds.incrementAndGet());
+                while (System.nanoTime() < end) {
+                    execute(random);
+                }
+            }, "load-client-" + i);
+            clients.add(client);
+            client.start();
+        }
+
+        long now = System.nanoTime();
+        if (warmupEnd > now) {
+            Thread.sleep((warmupEnd - now) / 1_000_000);
+        }
+        Map<String, OperationStats> measured = newStats();
+        stats = measured;
+        for (Thread client : clients) {
+            client.join();
+        }
+        return measured;
+    }
+
+    private static Map<String, OperationStats> newStats() {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            stats.put(operation, new OperationStats());
+        }
+        // Every request again, for overall percentiles
+        stats.put("total", new OperationStats());
+        return stats;
+    }
+
+    private void execute(Random random) {
+        int pick = random.nextInt(mix[mix.length - 1]);
+        int index = 0;
+        while (pick >= mix[index]) {
+            index++;
+        }
+        String operation = OPERATIONS.get(index);
+        String[] booked = null;
+        if ("cancel".equals(operation)) {
+            booked = bookedDuringRun.poll();
+            if (booked == null) {
+                // Nothing of ours to cancel yet: book instead, so there is something next time
+                operation = "book";
+            }
+        }
+
+        HttpRequest request;
+        String user = workload.user(random);
+        switch (operation) {
+            case "search": {
+                int train = workload.randomTrain(random);
+                LocalDate date = workload.date[train];
+                request = get("/api/trains/search?source=" + encode(workload.source[train]) +
+                        "&destination=" + encode(workload.destination[train]) +
+                        "&fromDate=" + date.minusDays(3) + "&toDate=" + date.plusDays(3));
+                break;
+            }
+            case "book":
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/bookings"))
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT,
+                                "{\"username\":\"%s\",\"passengerName\":\"Load Passenger\",\"age\":%d," +
+                                        "\"gender\":\"%s\",\"trainNumber\":\"%s\"}",
+                                user, 18 + random.nextInt(60), random.nextBoolean() ? "M" : "F",
+                                workload.upcomingTrain(random))))
+                        .build();
+                break;
+            case "cancel":
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/bookings/" + booked[0] +
+                        "?username=" + encode(booked[1])))
+                        .timeout(Duration.ofSeconds(60))
+                        .DELETE()
+                        .build();
+                break;
+            case "profile":
+                request = get("/api/users/" + user);
+                break;
+            default:
+                request = get("/api/bookings/user/" + user);
+                break;
+        }
+
+        Map<String, OperationStats> current = stats;
+        long start = System.nanoTime();
+        Outcome outcome;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                outcome = Outcome.OK;
+                if ("book".equals(operation)) {
+                    Matcher pnr = PNR.matcher(response.body());
+                    if (pnr.find()) {
+                        bookedDuringRun.add(new String[]{pnr.group(1), user});
+                    }
+                }
+            } else if (status == 429 || response.body().contains("No seats available")) {
+                outcome = Outcome.REJECTED;
+            } else {
+                outcome = Outcome.FAILED;
+            }
+        } catch (Exception e) {
+            outcome = Outcome.FAILED;
+        }
+        long nanos = System.nanoTime() - start;
+        current.get(operation).record(nanos, outcome);
+        current.get("total").record(nanos, outcome);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // Cumulative weights in OPERATIONS order, e.g. "search=60,book=40" -> {60, 100, 100, 100, 100}
+    private static int[] parseMix(String spec) {
+        int[] weights = new int[OPERATIONS.size()];
+        for (String part : spec.split(",")) {
+            String[] entry = part.trim().split("=");
+            int index = OPERATIONS.indexOf(entry[0].trim());
+            if (entry.length != 2 || index < 0) {
+                throw new IllegalArgumentException("Bad --mix entry '" + part + "'; operations are " + OPERATIONS);
+            }
+            weights[index] = Integer.parseInt(entry[1].trim());
+        }
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        if (weights[weights.length - 1] <= 0) {
+            throw new IllegalArgumentException("--mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+
+    private enum Outcome { OK, REJECTED, FAILED }
+
+    private static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        void record(long nanos, Outcome outcome) {
+            latency.record(nanos);
+            if (outcome == Outcome.REJECTED) {
+                rejected.increment();
+            } else if (outcome == Outcome.FAILED) {
+                failed.increment();
+            }
+        }
+    }
+
+    // --- Reporting ---
+
+    // Prints the table (and writes the JSON file if asked) and returns the number of failed requests
+    private static int report(Map<String, OperationStats> results, int durationSeconds, String jsonFile,
+                              Map<String, String> options) throws Exception {
+        System.out.println(String.format(Locale.ROOT, "%-8s %10s %9s %9s %7s %9s %9s %9s %9s %9s",
+                "", "requests", "req/s", "rejected", "failed", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Map.Entry<String, OperationStats> entry : results.entrySet()) {
+            OperationStats operation = entry.getValue();
+            if (operation.latency.getCount() == 0) {
+                continue;
+            }
+            printRow(entry.getKey(), operation, durationSeconds);
+            if (!"total".equals(entry.getKey())) {
+                operations.put(entry.getKey(), summary(operation, durationSeconds));
+            }
+        }
+        OperationStats total = results.get("total");
+
+        ConnectionPoolStats pool = DatabaseConnection.getPoolStats();
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Database pool: %d connections, %,d acquisitions, %,d timeouts since startup%n",
+                pool.getMaxPoolSize(), pool.getAcquireCount(), pool.getTimeoutCount());
+
+        if (jsonFile != null) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("options", options);
+            json.put("durationSeconds", durationSeconds);
+            json.put("operations", operations);
+            json.put("total", summary(total, durationSeconds));
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(jsonFile), json);
+            System.out.println("Results written to " + jsonFile);
+        }
+        // A run that got no answer at all counts as failed too
+        return total.latency.getCount() == 0 ? 1 : (int) Math.min(Integer.MAX_VALUE, total.failed.sum());
+    }
+
+    private static void printRow(String name, OperationStats operation, int durationSeconds) {
+        LatencyHistogram latency = operation.latency;
+        System.out.println(String.format(Locale.ROOT, "%-8s %,10d %,9.0f %,9d %,7d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                name, latency.getCount(), (double) latency.getCount() / durationSeconds,
+                operation.rejected.sum(), operation.failed.sum(),
+                latency.getP50Millis(), latency.getP95Millis(), latency.getP99Millis(), latency.getP999Millis(),
+                latency.getMaxMillis()));
+    }
+
+    private static Map<String, Object> summary(OperationStats operation, int durationSeconds) {
+        LatencyHistogram latency = operation.latency;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latency.getCount());
+        summary.put("requestsPerSecond", (double) latency.getCount() / durationSeconds);
+        summary.put("rejected", operation.rejected.sum());
+        summary.put("failed", operation.failed.sum());
+        summary.put("averageMillis", latency.getAverageMillis());
+        summary.put("p50Millis", latency.getP50Millis());
+        summary.put("p95Millis", latency.getP95Millis());
+        summary.put("p99Millis", latency.getP99Millis());
+        summary.put("p999Millis", latency.getP999Millis());
+        summary.put("maxMillis", latency.getMaxMillis());
+        return summary;
+    }
+}
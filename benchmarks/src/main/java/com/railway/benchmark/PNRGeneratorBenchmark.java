@@ -0,0 +1,47 @@
+package com.railway.benchmark;
+
+import com.railway.util.PNRGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PNR generation cost, uncontended and with every hardware thread generating at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PNRGeneratorBenchmark {
+
+    private final String validPnr = PNRGenerator.generatePNR();
+
+    @Benchmark
+    @Threads(1)
+    public String generateSingleThread() {
+        return PNRGenerator.generatePNR();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String generateContended() {
+        return PNRGenerator.generatePNR();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean validate() {
+        return PNRGenerator.isValid(validPnr);
+    }
+}
@@ -0,0 +1,109 @@
+package com.railway.benchmark;
+
+import com.railway.dao.BookingDAO;
+import com.railway.dao.TrainDAO;
+import com.railway.model.Ticket;
+import com.railway.model.Train;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DAOs' row mappers (BookingDAO.mapResultSetToTicket, TrainDAO.extractTrainFromResultSet) over
+ * an already-fetched result of {@value #COPIES} copies of the sample rows, so the query itself is
+ * not timed. The connection is taken straight from the H2 driver, without the pool or JdbcMetrics
+ * in between.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultSetMappingBenchmark {
+
+    private static final int COPIES = 100;
+
+    // The same columns BookingDAO.getAllBookings selects
+    private static final String TICKET_ROWS =
+            "SELECT t.PNR, t.TrainNumber, t.Status, t.BoardingScheduleID, t.DeboardingScheduleID, " +
+            "tr.Source, tr.Destination, tr.Date as TravelDate, tr.Cost, p.Username " +
+            "FROM Ticket t " +
+            "INNER JOIN Passenger p ON t.PNR = p.PNR " +
+            "INNER JOIN Train tr ON t.TrainNumber = tr.TrainNumber " +
+            "CROSS JOIN SYSTEM_RANGE(1, " + COPIES + ")";
+    private static final String TRAIN_ROWS = "SELECT tr.* FROM Train tr CROSS JOIN SYSTEM_RANGE(1, " + COPIES + ")";
+
+    private static final MethodHandle MAP_TICKET;
+    private static final MethodHandle MAP_TRAIN;
+
+    static {
+        try {
+            MAP_TICKET = MethodHandles.privateLookupIn(BookingDAO.class, MethodHandles.lookup())
+                    .findVirtual(BookingDAO.class, "mapResultSetToTicket", MethodType.methodType(Ticket.class, ResultSet.class));
+            MAP_TRAIN = MethodHandles.privateLookupIn(TrainDAO.class, MethodHandles.lookup())
+                    .findVirtual(TrainDAO.class, "extractTrainFromResultSet", MethodType.methodType(Train.class, ResultSet.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private BookingDAO bookingDAO;
+    private TrainDAO trainDAO;
+
+    private Connection conn;
+    private ResultSet tickets;
+    private ResultSet trains;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        EmbeddedDatabase.start();
+        bookingDAO = new BookingDAO();
+        trainDAO = new TrainDAO();
+        conn = DriverManager.getConnection(EmbeddedDatabase.URL, "sa", "");
+        Statement ticketQuery = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        tickets = ticketQuery.executeQuery(TICKET_ROWS);
+        Statement trainQuery = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        trains = trainQuery.executeQuery(TRAIN_ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        conn.close();
+    }
+
+    @Benchmark
+    public void mapTickets(Blackhole blackhole) throws Throwable {
+        tickets.beforeFirst();
+        while (tickets.next()) {
+            blackhole.consume((Ticket) MAP_TICKET.invokeExact(bookingDAO, tickets));
+        }
+    }
+
+    @Benchmark
+    public void mapTrains(Blackhole blackhole) throws Throwable {
+        trains.beforeFirst();
+        while (trains.next()) {
+            blackhole.consume((Train) MAP_TRAIN.invokeExact(trainDAO, trains));
+        }
+    }
+}
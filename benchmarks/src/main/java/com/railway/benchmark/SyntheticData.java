@@ -0,0 +1,322 @@
+package com.railway.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a railway of a given size and writes it with JDBC batches: cities (one station each),
+ * trains over the city pairs with two or three scheduled stops, users with logins, and
+ * passengers with their tickets.
+ *
+ * Demand is skewed the way real traffic is. Routes are ranked by a Zipf distribution; popular
+ * routes get more trains, and tickets favour popular routes more strongly still and, within a
+ * route, a few of its trains, so the busiest trains sell out while most stay half empty. Users
+ * book with a milder skew (a few frequent travellers, a long tail of occasional ones). Tickets
+ * that find their train full are written as CANCELLED, and a share of the rest are cancelled
+ * too. Train dates are spread over the days around today, so both past and upcoming trains exist.
+ *
+ * Every row is whole-route (no boarding or alighting stop), and each train's BookedSeats and
+ * TrainLeg counters match its CONFIRMED tickets, so the seat ledger seeds without repairs.
+ * The same sizes and seed always produce the same data.
+ */
+final class SyntheticData {
+
+    static final String TRAIN_PREFIX = "L";
+    static final String USER_PREFIX = "lt_u";
+
+    private static final double ROUTE_EXPONENT = 1.0;
+    private static final double TRAIN_ROUTE_EXPONENT = 0.7;
+    private static final double TRAIN_EXPONENT = 0.8;
+    private static final double USER_EXPONENT = 0.5;
+    private static final double CANCELLED_SHARE = 0.04;
+    private static final int[] SEAT_SIZES = {100, 200, 400, 800};
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_EVERY = 20_000;
+
+    private final int cities;
+    private final int trains;
+    private final int users;
+    private final int tickets;
+    private final int days;
+    private final long seed;
+
+    SyntheticData(int cities, int trains, int users, int tickets, int days, long seed) {
+        if (cities < 3 || cities > 999) {
+            throw new IllegalArgumentException("cities must be between 3 and 999");
+        }
+        if (trains < 1 || trains > 9_999_999) {
+            throw new IllegalArgumentException("trains must be between 1 and 9,999,999");
+        }
+        if (users < 1 || tickets < 0 || days < 1) {
+            throw new IllegalArgumentException("users and days must be positive, tickets not negative");
+        }
+        this.cities = cities;
+        this.trains = trains;
+        this.users = users;
+        this.tickets = tickets;
+        this.days = days;
+        this.seed = seed;
+    }
+
+    static String city(int index) {
+        return String.format("City %03d", index + 1);
+    }
+
+    static String trainNumber(int index) {
+        return String.format(TRAIN_PREFIX + "%07d", index);
+    }
+
+    static String username(int index) {
+        return String.format(USER_PREFIX + "%07d", index);
+    }
+
+    /**
+     * Writes the data set through {@code conn} (committing as it goes) and returns the number of
+     * CONFIRMED tickets. Train dates start {@code days / 2} days before {@code today}.
+     */
+    int load(Connection conn, LocalDate today) throws SQLException {
+        Random random = new Random(seed);
+
+        // Routes: every ordered city pair, in a random popularity order
+        List<int[]> routes = new ArrayList<>();
+        for (int from = 0; from < cities; from++) {
+            for (int to = 0; to < cities; to++) {
+                if (from != to) {
+                    routes.add(new int[]{from, to});
+                }
+            }
+        }
+        Collections.shuffle(routes, random);
+        ZipfSampler routePopularity = new ZipfSampler(routes.size(), ROUTE_EXPONENT);
+        ZipfSampler trainRoutes = new ZipfSampler(routes.size(), TRAIN_ROUTE_EXPONENT);
+
+        int[] trainRoute = new int[trains];
+        int[] trainSeats = new int[trains];
+        LocalDate[] trainDate = new LocalDate[trains];
+        List<List<Integer>> routeTrains = new ArrayList<>(routes.size());
+        for (int r = 0; r < routes.size(); r++) {
+            routeTrains.add(new ArrayList<>());
+        }
+        LocalDate firstDay = today.minusDays(days / 2);
+        for (int i = 0; i < trains; i++) {
+            trainRoute[i] = trainRoutes.sample(random);
+            trainSeats[i] = SEAT_SIZES[random.nextInt(SEAT_SIZES.length)];
+            trainDate[i] = firstDay.plusDays(random.nextInt(days));
+            routeTrains.get(trainRoute[i]).add(i);
+        }
+
+        // Tickets: a route by popularity, then one of its trains (each route's list is in random order)
+        int[] ticketTrain = new int[tickets];
+        boolean[] ticketConfirmed = new boolean[tickets];
+        int[] booked = new int[trains];
+        ZipfSampler[] withinRoute = new ZipfSampler[routes.size()];
+        int confirmed = 0;
+        for (int t = 0; t < tickets; t++) {
+            int train = -1;
+            for (int attempt = 0; attempt < 8; attempt++) {
+                int route = routePopularity.sample(random);
+                List<Integer> candidates = routeTrains.get(route);
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+                if (withinRoute[route] == null) {
+                    withinRoute[route] = new ZipfSampler(candidates.size(), TRAIN_EXPONENT);
+                }
+                train = candidates.get(withinRoute[route].sample(random));
+                if (booked[train] < trainSeats[train]) {
+                    break;
+                }
+            }
+            if (train < 0) {
+                train = random.nextInt(trains);
+            }
+            ticketTrain[t] = train;
+            ticketConfirmed[t] = booked[train] < trainSeats[train] && random.nextDouble() >= CANCELLED_SHARE;
+            if (ticketConfirmed[t]) {
+                booked[train]++;
+                confirmed++;
+            }
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            insertStations(conn);
+            insertTrains(conn, random, routes, trainRoute, trainSeats, trainDate, booked);
+            insertUsers(conn, random);
+            insertTickets(conn, random, ticketTrain, ticketConfirmed, trainDate);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return confirmed;
+    }
+
+    private void insertStations(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO Station (StationName, Address) VALUES (?, ?)")) {
+            for (int c = 0; c < cities; c++) {
+                stmt.setString(1, city(c));
+                stmt.setString(2, (c + 1) + " Station Square, " + city(c));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void insertTrains(Connection conn, Random random, List<int[]> routes, int[] trainRoute,
+                              int[] trainSeats, LocalDate[] trainDate, int[] booked) throws SQLException {
+        String trainSql = "INSERT INTO Train (TrainNumber, TrainName, Source, Destination, Date, Cost, Seats, BookedSeats) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String scheduleSql = "INSERT INTO Schedule (TrainNumber, StationName, ScheduleID, arrd_arrival_time, dept_departure_time) " +
+                "VALUES (?, ?, ?, ?, ?)";
+        String legSql = "INSERT INTO TrainLeg (TrainNumber, LegIndex, Booked) VALUES (?, ?, ?)";
+
+        try (PreparedStatement trainStmt = conn.prepareStatement(trainSql);
+             PreparedStatement scheduleStmt = conn.prepareStatement(scheduleSql);
+             PreparedStatement legStmt = conn.prepareStatement(legSql)) {
+
+            for (int i = 0; i < trains; i++) {
+                int[] route = routes.get(trainRoute[i]);
+                String number = trainNumber(i);
+                trainStmt.setString(1, number);
+                trainStmt.setString(2, "Load Test " + number);
+                trainStmt.setString(3, city(route[0]));
+                trainStmt.setString(4, city(route[1]));
+                trainStmt.setDate(5, Date.valueOf(trainDate[i]));
+                trainStmt.setBigDecimal(6, BigDecimal.valueOf(1500 + random.nextInt(18_500), 2));
+                trainStmt.setInt(7, trainSeats[i]);
+                trainStmt.setInt(8, booked[i]);
+                trainStmt.addBatch();
+
+                // Two or three stops: the route's ends with, on some trains, a city in between
+                List<Integer> stops = new ArrayList<>(3);
+                stops.add(route[0]);
+                if (random.nextBoolean()) {
+                    int via = random.nextInt(cities);
+                    if (via != route[0] && via != route[1]) {
+                        stops.add(via);
+                    }
+                }
+                stops.add(route[1]);
+                LocalTime time = LocalTime.of(5 + random.nextInt(10), random.nextInt(4) * 15);
+                for (int s = 0; s < stops.size(); s++) {
+                    boolean first = s == 0;
+                    boolean last = s == stops.size() - 1;
+                    scheduleStmt.setString(1, number);
+                    scheduleStmt.setString(2, city(stops.get(s)));
+                    scheduleStmt.setString(3, number + s);
+                    scheduleStmt.setTime(4, first ? null : Time.valueOf(time));
+                    scheduleStmt.setTime(5, last ? null : Time.valueOf(first ? time : time.plusMinutes(5)));
+                    scheduleStmt.addBatch();
+                    time = time.plusMinutes(60 + random.nextInt(120));
+                }
+                for (int leg = 0; leg < stops.size() - 1; leg++) {
+                    legStmt.setString(1, number);
+                    legStmt.setInt(2, leg);
+                    legStmt.setInt(3, booked[i]);
+                    legStmt.addBatch();
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0 || i == trains - 1) {
+                    trainStmt.executeBatch();
+                    scheduleStmt.executeBatch();
+                    legStmt.executeBatch();
+                }
+                if ((i + 1) % COMMIT_EVERY == 0) {
+                    conn.commit();
+                }
+            }
+        }
+        conn.commit();
+    }
+
+    private void insertUsers(Connection conn, Random random) throws SQLException {
+        String userSql = "INSERT INTO [User] (Username, Name, Address, City, Age, Contact, Gender, Role) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, 'passenger')";
+        String loginSql = "INSERT INTO Login (Username, Password) VALUES (?, ?)";
+
+        try (PreparedStatement userStmt = conn.prepareStatement(userSql);
+             PreparedStatement loginStmt = conn.prepareStatement(loginSql)) {
+
+            for (int u = 0; u < users; u++) {
+                String username = username(u);
+                String city = city(random.nextInt(cities));
+                userStmt.setString(1, username);
+                userStmt.setString(2, "Load User " + (u + 1));
+                userStmt.setString(3, (1 + random.nextInt(999)) + " Main Street");
+                userStmt.setString(4, city);
+                userStmt.setInt(5, 18 + random.nextInt(63));
+                userStmt.setString(6, String.format("555%07d", u % 10_000_000));
+                userStmt.setString(7, random.nextBoolean() ? "M" : "F");
+                userStmt.addBatch();
+
+                loginStmt.setString(1, username);
+                loginStmt.setString(2, "password");
+                loginStmt.addBatch();
+
+                if ((u + 1) % BATCH_SIZE == 0 || u == users - 1) {
+                    userStmt.executeBatch();
+                    loginStmt.executeBatch();
+                }
+                if ((u + 1) % COMMIT_EVERY == 0) {
+                    conn.commit();
+                }
+            }
+        }
+        conn.commit();
+    }
+
+    private void insertTickets(Connection conn, Random random, int[] ticketTrain, boolean[] ticketConfirmed,
+                               LocalDate[] trainDate) throws SQLException {
+        String passengerSql = "INSERT INTO Passenger (PNR, PassengerName, Age, Gender, Username) VALUES (?, ?, ?, ?, ?)";
+        String ticketSql = "INSERT INTO Ticket (PNR, TrainNumber, Status, BookingDate) VALUES (?, ?, ?, ?)";
+        ZipfSampler travellers = new ZipfSampler(users, USER_EXPONENT);
+
+        try (PreparedStatement passengerStmt = conn.prepareStatement(passengerSql);
+             PreparedStatement ticketStmt = conn.prepareStatement(ticketSql)) {
+
+            for (int t = 0; t < tickets; t++) {
+                // Not the generator's PNR format (10 characters), so a booking made later cannot collide
+                String pnr = String.format("LT%09d", t);
+                int user = travellers.sample(random);
+                passengerStmt.setString(1, pnr);
+                passengerStmt.setString(2, "Passenger " + (t + 1));
+                passengerStmt.setInt(3, 1 + random.nextInt(85));
+                passengerStmt.setString(4, random.nextBoolean() ? "M" : "F");
+                passengerStmt.setString(5, username(user));
+                passengerStmt.addBatch();
+
+                int train = ticketTrain[t];
+                ticketStmt.setString(1, pnr);
+                ticketStmt.setString(2, trainNumber(train));
+                ticketStmt.setString(3, ticketConfirmed[t] ? "CONFIRMED" : "CANCELLED");
+                ticketStmt.setTimestamp(4, Timestamp.valueOf(trainDate[train].minusDays(1 + random.nextInt(60))
+                        .atTime(random.nextInt(24), random.nextInt(60))));
+                ticketStmt.addBatch();
+
+                if ((t + 1) % BATCH_SIZE == 0 || t == tickets - 1) {
+                    passengerStmt.executeBatch();
+                    ticketStmt.executeBatch();
+                }
+                if ((t + 1) % COMMIT_EVERY == 0) {
+                    conn.commit();
+                }
+            }
+        }
+        conn.commit();
+    }
+}
@@ -57,22 +57,45 @@ CREATE TABLE Train (
     Destination VARCHAR(100),
     Date DATE,
     Cost DECIMAL(10,2),
-    Seats INT DEFAULT 100
+    Seats INT DEFAULT 100,
+    BookedSeats INT NOT NULL DEFAULT 0 CHECK (BookedSeats >= 0) -- CONFIRMED tickets, kept in step by BookingDAO
 );
 
 -- Create Ticket table (NORMALIZED: Removed Source/Dest/Date/Amount, now only stores PNR and Train reference)
 CREATE TABLE Ticket (
     PNR VARCHAR(50) NOT NULL, 
     TrainNumber VARCHAR(10) NOT NULL,
-    Status VARCHAR(20) DEFAULT 'CONFIRMED',
+    Status VARCHAR(20) DEFAULT 'CONFIRMED' CHECK (Status IN ('WAITLISTED', 'CONFIRMED', 'CANCELLED')), -- see TicketStatus
     BookingDate DATETIME DEFAULT GETDATE(),
-    BoardingScheduleID INT,
-    DeboardingScheduleID INT,
+    LastModified DATETIME DEFAULT GETDATE(), -- booking or last status change (export watermark)
+    BoardingScheduleID VARCHAR(10), -- Schedule.ScheduleID of the boarding stop (NULL = first stop)
+    DeboardingScheduleID VARCHAR(10), -- Schedule.ScheduleID of the alighting stop (NULL = last stop)
     PRIMARY KEY (PNR, TrainNumber),
     FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
     FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
 );
 
+-- Create TrainLeg table (seats booked per leg between consecutive Schedule stops; rows created on first booking)
+CREATE TABLE TrainLeg (
+    TrainNumber VARCHAR(10) NOT NULL,
+    LegIndex INT NOT NULL,
+    Booked INT NOT NULL DEFAULT 0 CHECK (Booked >= 0),
+    PRIMARY KEY (TrainNumber, LegIndex),
+    FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
+);
+
+-- Create Waitlist table (queue order of WAITLISTED tickets; the row goes when the ticket is promoted or cancelled)
+CREATE TABLE Waitlist (
+    WaitlistID BIGINT IDENTITY(1,1) PRIMARY KEY,
+    PNR VARCHAR(50) NOT NULL,
+    TrainNumber VARCHAR(10) NOT NULL,
+    CreatedAt DATETIME DEFAULT GETDATE(),
+    UNIQUE (PNR, TrainNumber),
+    FOREIGN KEY (PNR, TrainNumber) REFERENCES Ticket(PNR, TrainNumber) ON DELETE CASCADE
+);
+
+CREATE INDEX IX_Waitlist_Train ON Waitlist (TrainNumber, WaitlistID);
+
 -- Create Admin table
 CREATE TABLE Admin (
     Username VARCHAR(50) PRIMARY KEY NOT NULL,
@@ -129,6 +152,95 @@ CREATE TABLE Feedback (
     FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber)
 );
 
+-- Create IdempotencyKey table (outcome of each Idempotency-Key sent with a booking request; rows expire)
+CREATE TABLE IdempotencyKey (
+    Username VARCHAR(50) NOT NULL,
+    IdempotencyKey VARCHAR(200) NOT NULL,
+    RequestHash CHAR(64) NOT NULL,
+    StatusCode INT NULL, -- NULL while the first request is still running
+    ResponseBody NVARCHAR(MAX) NULL,
+    CreatedAt DATETIME DEFAULT GETDATE(),
+    ExpiresAt DATETIME NOT NULL,
+    PRIMARY KEY (Username, IdempotencyKey)
+);
+
+CREATE INDEX IX_IdempotencyKey_Expires ON IdempotencyKey (ExpiresAt);
+
+-- Create Document tables (uploaded documents and their links to passengers and bookings)
+CREATE TABLE Document (
+    DocumentID INT IDENTITY(1,1) PRIMARY KEY,
+    DocumentType VARCHAR(50) NOT NULL,
+    FileName VARCHAR(255) NOT NULL,
+    FilePath VARCHAR(500) NOT NULL,
+    FileSize BIGINT,
+    UploadedBy VARCHAR(50),
+    UploadDate DATETIME DEFAULT GETDATE(),
+    Status VARCHAR(20) DEFAULT 'ACTIVE'
+);
+
+CREATE TABLE PassengerDocument (
+    PNR VARCHAR(50) NOT NULL,
+    DocumentID INT NOT NULL,
+    Purpose VARCHAR(100),
+    PRIMARY KEY (PNR, DocumentID),
+    FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+    FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+);
+
+CREATE TABLE BookingDocument (
+    PNR VARCHAR(50) NOT NULL,
+    DocumentID INT NOT NULL,
+    DocumentCategory VARCHAR(20) CHECK (DocumentCategory IN ('TICKET', 'RECEIPT', 'INVOICE')),
+    PRIMARY KEY (PNR, DocumentID),
+    FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+    FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+);
+
+-- Foreign key indexes (SQL Server does not create them by itself)
+CREATE INDEX IX_Ticket_TrainNumber ON Ticket (TrainNumber, Status);
+CREATE INDEX IX_Feedback_TrainNumber ON Feedback (TrainNumber);
+CREATE INDEX IX_Feedback_Username ON Feedback (Username);
+CREATE INDEX IX_Schedule_StationName ON Schedule (StationName);
+CREATE INDEX IX_Admin_Station_StationName ON Admin_Station (StationName);
+CREATE INDEX IX_Admin_Train_TrainNumber ON Admin_Train (TrainNumber);
+CREATE INDEX IX_PassengerDocument_DocumentID ON PassengerDocument (DocumentID);
+CREATE INDEX IX_BookingDocument_DocumentID ON BookingDocument (DocumentID);
+
+-- Query indexes (see db/migration V8)
+CREATE INDEX IX_Passenger_Username ON Passenger (Username);
+CREATE INDEX IX_Train_Route ON Train (Source, Destination, Date);
+CREATE INDEX IX_Ticket_BookingDate ON Ticket (BookingDate)
+    INCLUDE (Status, BoardingScheduleID, DeboardingScheduleID);
+CREATE INDEX IX_Feedback_DateSubmitted ON Feedback (DateSubmitted);
+CREATE INDEX IX_Feedback_Pending ON Feedback (DateSubmitted)
+    INCLUDE (Username, TrainNumber, Rating, Comment, AdminResponse)
+    WHERE AdminResponse IS NULL;
+
+-- Export window (see db/migration V9)
+CREATE INDEX IX_Ticket_LastModified ON Ticket (LastModified)
+    INCLUDE (Status, BookingDate, BoardingScheduleID, DeboardingScheduleID);
+
+-- Schema versions this script corresponds to (src/main/resources/db/migration), so the
+-- application's SchemaMigrator only applies migrations added after it
+CREATE TABLE SchemaVersion (
+    Version INT NOT NULL PRIMARY KEY,
+    Description VARCHAR(200) NOT NULL,
+    Checksum CHAR(64),
+    AppliedAt DATETIME NOT NULL,
+    ExecutionMs INT
+);
+
+INSERT INTO SchemaVersion (Version, Description, Checksum, AppliedAt, ExecutionMs) VALUES
+(1, 'baseline', NULL, GETDATE(), NULL),
+(2, 'train_booked_seats', NULL, GETDATE(), NULL),
+(3, 'segment_inventory', NULL, GETDATE(), NULL),
+(4, 'waitlist', NULL, GETDATE(), NULL),
+(5, 'idempotency_keys', NULL, GETDATE(), NULL),
+(6, 'document_tables', NULL, GETDATE(), NULL),
+(7, 'foreign_key_indexes', NULL, GETDATE(), NULL),
+(8, 'query_indexes', NULL, GETDATE(), NULL),
+(9, 'ticket_last_modified', NULL, GETDATE(), NULL);
+
 GO
 
 -- ========================================
@@ -239,6 +351,15 @@ INSERT INTO Ticket (PNR, TrainNumber, Status, BookingDate) VALUES
 ('PNR014', 'T014', 'CONFIRMED', '2025-12-03 16:00:00'),
 ('PNR015', 'T015', 'CONFIRMED', '2025-12-04 10:45:00');
 
+-- The seeded tickets were last changed when they were booked
+UPDATE Ticket SET LastModified = BookingDate;
+
+-- Back-fill the per-train booked-seat counter from the seeded tickets
+UPDATE Train SET BookedSeats = (
+    SELECT COUNT(*) FROM Ticket t
+    WHERE t.TrainNumber = Train.TrainNumber AND t.Status = 'CONFIRMED'
+);
+
 -- Insert sample Admins
 INSERT INTO Admin (Username, AdminID) VALUES 
 ('admin_ny', 1),
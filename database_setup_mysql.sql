@@ -46,22 +46,44 @@ CREATE TABLE Train (
     Destination VARCHAR(100),
     Date DATE,
     Cost DECIMAL(10,2),
-    Seats INT DEFAULT 100
+    Seats INT DEFAULT 100,
+    BookedSeats INT NOT NULL DEFAULT 0 CHECK (BookedSeats >= 0) -- CONFIRMED tickets, kept in step by BookingDAO
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
 -- Create Ticket table (NORMALIZED: Removed Source/Dest/Date/Amount, now only stores PNR and Train reference)
 CREATE TABLE Ticket (
     PNR VARCHAR(50) NOT NULL, 
     TrainNumber VARCHAR(10) NOT NULL,
-    Status VARCHAR(20) DEFAULT 'CONFIRMED',
+    Status VARCHAR(20) DEFAULT 'CONFIRMED' CHECK (Status IN ('WAITLISTED', 'CONFIRMED', 'CANCELLED')), -- see TicketStatus
     BookingDate DATETIME DEFAULT CURRENT_TIMESTAMP,
-    BoardingScheduleID INT,
-    DeboardingScheduleID INT,
+    BoardingScheduleID VARCHAR(10), -- Schedule.ScheduleID of the boarding stop (NULL = first stop)
+    DeboardingScheduleID VARCHAR(10), -- Schedule.ScheduleID of the alighting stop (NULL = last stop)
     PRIMARY KEY (PNR, TrainNumber),
     FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
     FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Create TrainLeg table (seats booked per leg between consecutive Schedule stops; rows created on first booking)
+CREATE TABLE TrainLeg (
+    TrainNumber VARCHAR(10) NOT NULL,
+    LegIndex INT NOT NULL,
+    Booked INT NOT NULL DEFAULT 0 CHECK (Booked >= 0),
+    PRIMARY KEY (TrainNumber, LegIndex),
+    FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Create Waitlist table (queue order of WAITLISTED tickets; the row goes when the ticket is promoted or cancelled)
+CREATE TABLE Waitlist (
+    WaitlistID BIGINT PRIMARY KEY AUTO_INCREMENT,
+    PNR VARCHAR(50) NOT NULL,
+    TrainNumber VARCHAR(10) NOT NULL,
+    CreatedAt DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (PNR, TrainNumber),
+    FOREIGN KEY (PNR, TrainNumber) REFERENCES Ticket(PNR, TrainNumber) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX IX_Waitlist_Train ON Waitlist (TrainNumber, WaitlistID);
+
 -- Create Admin table
 CREATE TABLE Admin (
     Username VARCHAR(50) PRIMARY KEY NOT NULL,
@@ -118,6 +140,78 @@ CREATE TABLE Feedback (
     FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Create IdempotencyKey table (outcome of each Idempotency-Key sent with a booking request; rows expire)
+CREATE TABLE IdempotencyKey (
+    Username VARCHAR(50) NOT NULL,
+    IdempotencyKey VARCHAR(200) NOT NULL,
+    RequestHash CHAR(64) NOT NULL,
+    StatusCode INT NULL, -- NULL while the first request is still running
+    ResponseBody TEXT NULL,
+    CreatedAt DATETIME DEFAULT CURRENT_TIMESTAMP,
+    ExpiresAt DATETIME NOT NULL,
+    PRIMARY KEY (Username, IdempotencyKey)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX IX_IdempotencyKey_Expires ON IdempotencyKey (ExpiresAt);
+
+-- Create Document tables (uploaded documents and their links to passengers and bookings)
+CREATE TABLE Document (
+    DocumentID INT PRIMARY KEY AUTO_INCREMENT,
+    DocumentType VARCHAR(50) NOT NULL,
+    FileName VARCHAR(255) NOT NULL,
+    FilePath VARCHAR(500) NOT NULL,
+    FileSize BIGINT,
+    UploadedBy VARCHAR(50),
+    UploadDate DATETIME DEFAULT CURRENT_TIMESTAMP,
+    Status VARCHAR(20) DEFAULT 'ACTIVE'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE PassengerDocument (
+    PNR VARCHAR(50) NOT NULL,
+    DocumentID INT NOT NULL,
+    Purpose VARCHAR(100),
+    PRIMARY KEY (PNR, DocumentID),
+    FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+    FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE BookingDocument (
+    PNR VARCHAR(50) NOT NULL,
+    DocumentID INT NOT NULL,
+    DocumentCategory VARCHAR(20) CHECK (DocumentCategory IN ('TICKET', 'RECEIPT', 'INVOICE')),
+    PRIMARY KEY (PNR, DocumentID),
+    FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+    FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX IX_Ticket_TrainNumber ON Ticket (TrainNumber, Status);
+
+-- Query indexes (see db/migration V8)
+CREATE INDEX IX_Train_Route ON Train (Source, Destination, Date);
+CREATE INDEX IX_Ticket_BookingDate ON Ticket (BookingDate);
+CREATE INDEX IX_Feedback_DateSubmitted ON Feedback (DateSubmitted);
+CREATE INDEX IX_Feedback_Pending ON Feedback (AdminResponse(1), DateSubmitted);
+
+-- Schema versions this script corresponds to (src/main/resources/db/migration), so the
+-- application's SchemaMigrator only applies migrations added after it
+CREATE TABLE SchemaVersion (
+    Version INT NOT NULL PRIMARY KEY,
+    Description VARCHAR(200) NOT NULL,
+    Checksum CHAR(64),
+    AppliedAt DATETIME NOT NULL,
+    ExecutionMs INT
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO SchemaVersion (Version, Description, Checksum, AppliedAt, ExecutionMs) VALUES
+(1, 'baseline', NULL, CURRENT_TIMESTAMP, NULL),
+(2, 'train_booked_seats', NULL, CURRENT_TIMESTAMP, NULL),
+(3, 'segment_inventory', NULL, CURRENT_TIMESTAMP, NULL),
+(4, 'waitlist', NULL, CURRENT_TIMESTAMP, NULL),
+(5, 'idempotency_keys', NULL, CURRENT_TIMESTAMP, NULL),
+(6, 'document_tables', NULL, CURRENT_TIMESTAMP, NULL),
+(7, 'foreign_key_indexes', NULL, CURRENT_TIMESTAMP, NULL),
+(8, 'query_indexes', NULL, CURRENT_TIMESTAMP, NULL);
+
 -- ========================================
 -- SEED DATA (Extended with MORE realistic data)
 -- ========================================
@@ -226,6 +320,12 @@ INSERT INTO Ticket (PNR, TrainNumber, Status, BookingDate) VALUES
 ('PNR014', 'T014', 'CONFIRMED', '2025-12-03 16:00:00'),
 ('PNR015', 'T015', 'CONFIRMED', '2025-12-04 10:45:00');
 
+-- Back-fill the per-train booked-seat counter from the seeded tickets
+UPDATE Train SET BookedSeats = (
+    SELECT COUNT(*) FROM Ticket t
+    WHERE t.TrainNumber = Train.TrainNumber AND t.Status = 'CONFIRMED'
+);
+
 -- Insert sample Admins
 INSERT INTO Admin (Username, AdminID) VALUES 
 ('admin_ny', 1),
@@ -1,11 +1,22 @@
 package com.railway;
 
+import com.railway.service.SeatHoldService;
+import com.railway.service.SeatLedger;
+import com.railway.util.DatabaseConnection;
+import com.railway.util.SchemaMigrator;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.concurrent.Executors;
+
 @SpringBootApplication
 public class RailwayApiApplication {
 
@@ -28,19 +39,99 @@ public class RailwayApiApplication {
         System.out.println();
         System.out.println("Available endpoints:");
         System.out.println("  - GET    /api/trains                  - Get all trains");
-        System.out.println("  - GET    /api/trains/search           - Search trains");
+        System.out.println("  - GET    /api/trains/search           - Search trains (date or fromDate/toDate, limit)");
+        System.out.println("  - GET    /api/trains/journeys         - Plan multi-leg journeys (from, to, date, time)");
+        System.out.println("  - GET    /api/trains/cache/stats      - Train cache statistics");
         System.out.println("  - POST   /api/trains                  - Add new train");
-        System.out.println("  - GET    /api/bookings                - Get all bookings");
-        System.out.println("  - POST   /api/bookings                - Book a ticket");
+        System.out.println("  - GET    /api/bookings                - Get all bookings (limit/after for one page)");
+        System.out.println("  - POST   /api/bookings                - Book a ticket (\"waitlist\": true to queue when full)");
+        System.out.println("  - POST   /api/bookings/group          - Book several passengers at once (all or nothing)");
+        System.out.println("  - GET    /api/bookings/waitlist/{train} - Waitlist of a train");
+        System.out.println("  - GET    /api/bookings/admission/{train} - Booking queue load of a train");
         System.out.println("  - DELETE /api/bookings/{pnr}          - Cancel booking");
+        System.out.println("  - POST   /api/bookings/holds          - Hold seats for a few minutes");
+        System.out.println("  - POST   /api/bookings/holds/{id}/confirm - Turn a seat hold into tickets");
+        System.out.println("  - DELETE /api/bookings/holds/{id}     - Release a seat hold");
         System.out.println("  - POST   /api/users/register          - Register user");
         System.out.println("  - POST   /api/users/login             - User login");
+        System.out.println("  - GET    /api/users                   - Get all users (limit/after for one page)");
         System.out.println("  - GET    /api/users/{username}        - Get user profile");
         System.out.println("  - POST   /api/feedback                - Submit feedback");
-        System.out.println("  - GET    /api/feedback                - Get all feedback");
+        System.out.println("  - GET    /api/feedback                - Get all feedback (limit/after for one page)");
+        System.out.println("  - GET    /api/export/{bookings|passengers|feedback|trains} - Bulk export (NDJSON or format=csv, since=)");
+        System.out.println("  - GET    /api/metrics/jdbc            - JDBC statement, transaction and pool metrics");
+        System.out.println("  - GET    /api/metrics/http            - Request latency, status codes and errors per endpoint");
+        System.out.println("  - GET    /metrics                     - Prometheus scrape (HTTP, JDBC, pool and JVM)");
+        System.out.println();
+        System.out.println("Reactive API (railway.reactive.enabled=true, port 8081): GET /api/trains,");
+        System.out.println("  GET /api/trains/search, GET /api/bookings, POST /api/bookings");
+        System.out.println("  (Accept: application/x-ndjson streams list results)");
         System.out.println();
     }
 
+    /**
+     * Applies pending schema migrations (SchemaMigrator) once all beans exist and before the web
+     * server accepts requests. Disabled with schema.migrate=false; if the database is unreachable
+     * the application starts on the schema it finds.
+     */
+    @Bean
+    public SmartInitializingSingleton schemaMigration() {
+        return () -> {
+            if (!Boolean.parseBoolean(DatabaseConnection.getProperty("schema.migrate", "true"))) {
+                return;
+            }
+            try {
+                int applied = SchemaMigrator.migrate();
+                System.out.println(applied == 0 ? "Database schema is up to date" : "Applied " + applied + " schema migration(s)");
+            } catch (Exception e) {
+                System.err.println("Schema migration failed: " + e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Seeds the in-memory seat ledger before traffic arrives and starts drift reconciliation.
+     * If the database is unreachable, trains are seeded lazily on first use instead.
+     * Seat holds saved by the previous run are restored once the ledger is loaded.
+     */
+    @Bean
+    public CommandLineRunner seatLedgerInitializer(
+            @Value("${railway.ledger.reconcile-interval-seconds:60}") long reconcileIntervalSeconds) {
+        return args -> {
+            SeatLedger ledger = SeatLedger.getInstance();
+            try {
+                int trains = ledger.seedAll();
+                System.out.println("Seat ledger seeded for " + trains + " trains");
+            } catch (Exception e) {
+                System.err.println("Seat ledger seeding failed, falling back to lazy seeding: " + e.getMessage());
+            }
+            ledger.startReconciliation(reconcileIntervalSeconds);
+
+            int holds = SeatHoldService.getInstance().recover();
+            if (holds > 0) {
+                System.out.println("Restored " + holds + " seat holds from the journal");
+            }
+        };
+    }
+
+    /**
+     * With railway.threads.virtual=true, Tomcat runs every request on its own virtual thread
+     * instead of its platform pool (server.tomcat.threads.max), so requests blocked in JDBC no
+     * longer hold one of a few hundred threads; the database pool (db.pool.maxSize) becomes the
+     * limit.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> threadModeCustomizer(
+            @Value("${railway.threads.virtual:false}") boolean virtualThreads) {
+        return factory -> {
+            if (!virtualThreads) {
+                return;
+            }
+            factory.addProtocolHandlerCustomizers(handler -> handler.setExecutor(Executors.newVirtualThreadPerTaskExecutor()));
+            System.out.println("Serving requests on virtual threads");
+        };
+    }
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
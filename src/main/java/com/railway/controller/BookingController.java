@@ -1,14 +1,26 @@
 package com.railway.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.model.Passenger;
+import com.railway.model.SeatHold;
 import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
+import com.railway.model.WaitlistEntry;
+import com.railway.service.AdmissionRejectedException;
 import com.railway.service.BookingService;
+import com.railway.service.IdempotencyStore;
+import com.railway.util.HttpMetrics;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -16,16 +28,47 @@ import java.util.Map;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final IdempotencyStore idempotencyStore = IdempotencyStore.getInstance();
+    private final ListingResponses listings;
 
     // CRITICAL FIX: Replaced manual instantiation with Spring Constructor Injection
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.listings = new ListingResponses(objectMapper);
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> bookTicket(@RequestBody BookingRequest request) {
+    public ResponseEntity<Map<String, Object>> bookTicket(
+            @RequestBody BookingRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, request.getUsername(), "POST /api/bookings", request, () -> book(request));
+    }
+
+    private ResponseEntity<Map<String, Object>> book(BookingRequest request) {
         Map<String, Object> response = new HashMap<>();
         try {
+            if (Boolean.TRUE.equals(request.getWaitlist())) {
+                Ticket ticket = bookingService.bookOrWaitlist(
+                    request.getUsername(),
+                    request.getPassengerName(),
+                    request.getAge(),
+                    request.getGender(),
+                    request.getTrainNumber(),
+                    request.getBoardingStation(),
+                    request.getAlightingStation()
+                );
+                response.put("success", true);
+                response.put("pnr", ticket.getPnr());
+                response.put("status", ticket.getStatus());
+                if (ticket.getStatus() == TicketStatus.WAITLISTED) {
+                    response.put("message", "Train is full; added to the waitlist");
+                    response.put("waitlistPosition", ticket.getWaitlistPosition());
+                } else {
+                    response.put("message", "Ticket booked successfully");
+                }
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }
+
             // FIX: Removed redundant source and destination arguments to match
             // the 5-argument signature of BookingService.bookTicket()
             String pnr = bookingService.bookTicket(
@@ -33,7 +76,9 @@ public class BookingController {
                 request.getPassengerName(),
                 request.getAge(),
                 request.getGender(),
-                request.getTrainNumber()
+                request.getTrainNumber(),
+                request.getBoardingStation(),
+                request.getAlightingStation()
             );
 
             if (pnr != null) {
@@ -46,13 +91,119 @@ public class BookingController {
                 response.put("error", "Failed to book ticket");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
+        } catch (AdmissionRejectedException e) {
+            HttpMetrics.recordError(e);
+            return tooManyRequests(e);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    @PostMapping("/group")
+    public ResponseEntity<Map<String, Object>> bookGroup(
+            @RequestBody GroupBookingRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotent(idempotencyKey, request.getUsername(), "POST /api/bookings/group", request,
+                () -> bookGroup(request));
+    }
+
+    private ResponseEntity<Map<String, Object>> bookGroup(GroupBookingRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<String> pnrs = bookingService.bookGroup(
+                request.getUsername(),
+                request.getTrainNumber(),
+                request.getBoardingStation(),
+                request.getAlightingStation(),
+                request.getPassengers()
+            );
+            response.put("success", true);
+            response.put("message", "Tickets booked successfully");
+            response.put("pnrs", pnrs);
+            response.put("count", pnrs.size());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (AdmissionRejectedException e) {
+            HttpMetrics.recordError(e);
+            return tooManyRequests(e);
+        } catch (IllegalStateException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // Runs the handler at most once per Idempotency-Key and replays its response to retries
+    // (see IdempotencyStore); requests without the header just run
+    private ResponseEntity<Map<String, Object>> idempotent(String idempotencyKey, String username, String operation,
+            Object request, Supplier<ResponseEntity<Map<String, Object>>> handler) {
+        if (idempotencyKey == null) {
+            return handler.get();
+        }
+        Map<String, Object> response = new HashMap<>();
+        if (idempotencyKey.trim().isEmpty() || idempotencyKey.length() > IdempotencyStore.MAX_KEY_LENGTH) {
+            response.put("success", false);
+            response.put("error", "Idempotency-Key must be 1 to " + IdempotencyStore.MAX_KEY_LENGTH + " characters");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        try {
+            AtomicReference<ResponseEntity<Map<String, Object>>> executed = new AtomicReference<>();
+            IdempotencyStore.Response stored = idempotencyStore.execute(username, idempotencyKey, operation, request, () -> {
+                ResponseEntity<Map<String, Object>> result = handler.get();
+                executed.set(result);
+                return new IdempotencyStore.Response(result.getStatusCodeValue(), result.getBody());
+            });
+            if (!stored.isReplayed() && executed.get() != null) {
+                return executed.get();  // keeps its headers (e.g. Retry-After)
+            }
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.getStatus());
+            if (stored.isReplayed()) {
+                builder.header("Idempotent-Replayed", "true");
+            }
+            return builder.body(new HashMap<>(stored.getBody()));
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+        } catch (IllegalStateException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // 429 with Retry-After: the train is too busy right now, not full
+    private static ResponseEntity<Map<String, Object>> tooManyRequests(AdmissionRejectedException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", e.getMessage());
+        response.put("retryAfterSeconds", e.getRetryAfterSeconds());
+        response.put("queueLength", e.getQueueLength());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     @DeleteMapping("/{pnr}")
     public ResponseEntity<Map<String, Object>> cancelTicket(
             @PathVariable String pnr,
@@ -71,6 +222,7 @@ public class BookingController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -87,28 +239,253 @@ public class BookingController {
             response.put("count", bookings.size());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    // Every booking, streamed (NDJSON if accepted)
+    @GetMapping(params = {"!limit", "!after"})
+    public ResponseEntity<StreamingResponseBody> getAllBookings(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return listings.stream(accept, bookingService::streamAllBookings);
+    }
+
+    // One keyset page: ?limit=N&after=<nextCursor of the previous page>
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllBookings() {
+    public ResponseEntity<Map<String, Object>> getBookingsPage(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            return listings.page(bookingService.getBookingsPage(after, listings.pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/admission/{trainNumber}")
+    public ResponseEntity<Map<String, Object>> getAdmissionStatus(@PathVariable String trainNumber) {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<Ticket> bookings = bookingService.getAllBookings();
             response.put("success", true);
-            response.put("data", bookings);
-            response.put("count", bookings.size());
+            response.put("data", bookingService.getAdmissionStatus(trainNumber));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/waitlist/{trainNumber}")
+    public ResponseEntity<Map<String, Object>> getWaitlist(@PathVariable String trainNumber) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<WaitlistEntry> waitlist = bookingService.getWaitlist(trainNumber);
+            response.put("success", true);
+            response.put("data", waitlist);
+            response.put("count", waitlist.size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // --- Seat holds (two-phase booking) ---
+
+    @PostMapping("/holds")
+    public ResponseEntity<Map<String, Object>> holdSeats(@RequestBody HoldRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            SeatHold hold = bookingService.holdSeats(
+                request.getUsername(),
+                request.getTrainNumber(),
+                request.getBoardingStation(),
+                request.getAlightingStation(),
+                request.getSeats() != null ? request.getSeats() : 1,
+                request.getTtlSeconds()
+            );
+            response.put("success", true);
+            response.put("message", "Seats held until " + hold.getExpiresAt());
+            response.put("data", hold);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (IllegalStateException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<Map<String, Object>> getHold(@PathVariable String holdId) {
+        Map<String, Object> response = new HashMap<>();
+        SeatHold hold = bookingService.getHold(holdId);
+        if (hold != null) {
+            response.put("success", true);
+            response.put("data", hold);
             return ResponseEntity.ok(response);
+        } else {
+            response.put("success", false);
+            response.put("error", "Hold not found or expired");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<Map<String, Object>> confirmHold(
+            @PathVariable String holdId,
+            @RequestBody ConfirmHoldRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<String> pnrs = bookingService.confirmHold(holdId, request.getUsername(), request.getPassengers());
+            response.put("success", true);
+            response.put("message", "Tickets booked successfully");
+            response.put("pnrs", pnrs);
+            response.put("count", pnrs.size());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (SecurityException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (AdmissionRejectedException e) {
+            HttpMetrics.recordError(e);
+            return tooManyRequests(e);
+        } catch (IllegalStateException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Map<String, Object>> releaseHold(
+            @PathVariable String holdId,
+            @RequestParam String username) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            bookingService.releaseHold(holdId, username);
+            response.put("success", true);
+            response.put("message", "Seat hold released");
+            response.put("holdId", holdId);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (SecurityException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (IllegalStateException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    public static class HoldRequest {
+        private String username;
+        private String trainNumber;
+        private Integer seats;            // optional, defaults to 1
+        private String boardingStation;   // optional, defaults to the train's first stop
+        private String alightingStation;  // optional, defaults to the train's last stop
+        private Integer ttlSeconds;       // optional, defaults to hold.ttlSeconds
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getTrainNumber() { return trainNumber; }
+        public void setTrainNumber(String trainNumber) { this.trainNumber = trainNumber; }
+
+        public Integer getSeats() { return seats; }
+        public void setSeats(Integer seats) { this.seats = seats; }
+
+        public String getBoardingStation() { return boardingStation; }
+        public void setBoardingStation(String boardingStation) { this.boardingStation = boardingStation; }
+
+        public String getAlightingStation() { return alightingStation; }
+        public void setAlightingStation(String alightingStation) { this.alightingStation = alightingStation; }
+
+        public Integer getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(Integer ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    }
+
+    // One passenger (name, age, gender) per held seat
+    public static class GroupBookingRequest {
+        private String username;
+        private String trainNumber;
+        private String boardingStation;   // optional, defaults to the train's first stop
+        private String alightingStation;  // optional, defaults to the train's last stop
+        private List<Passenger> passengers;
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getTrainNumber() { return trainNumber; }
+        public void setTrainNumber(String trainNumber) { this.trainNumber = trainNumber; }
+
+        public String getBoardingStation() { return boardingStation; }
+        public void setBoardingStation(String boardingStation) { this.boardingStation = boardingStation; }
+
+        public String getAlightingStation() { return alightingStation; }
+        public void setAlightingStation(String alightingStation) { this.alightingStation = alightingStation; }
+
+        public List<Passenger> getPassengers() { return passengers; }
+        public void setPassengers(List<Passenger> passengers) { this.passengers = passengers; }
+    }
+
+    public static class ConfirmHoldRequest {
+        private String username;
+        private List<Passenger> passengers;
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public List<Passenger> getPassengers() { return passengers; }
+        public void setPassengers(List<Passenger> passengers) { this.passengers = passengers; }
+    }
+
     // Inner class for booking request - Removed unused source/destination fields for clarity/cleanliness.
     public static class BookingRequest {
         private String username;
@@ -116,6 +493,9 @@ public class BookingController {
         private int age;
         private String gender;
         private String trainNumber;
+        private String boardingStation;   // optional, defaults to the train's first stop
+        private String alightingStation;  // optional, defaults to the train's last stop
+        private Boolean waitlist;         // optional: join the waitlist instead of failing when full
         // private String source;       // REMOVED UNUSED FIELD
         // private String destination;  // REMOVED UNUSED FIELD
 
@@ -133,6 +513,15 @@ public class BookingController {
 
         public String getTrainNumber() { return trainNumber; }
         public void setTrainNumber(String trainNumber) { this.trainNumber = trainNumber; }
+
+        public String getBoardingStation() { return boardingStation; }
+        public void setBoardingStation(String boardingStation) { this.boardingStation = boardingStation; }
+
+        public String getAlightingStation() { return alightingStation; }
+        public void setAlightingStation(String alightingStation) { this.alightingStation = alightingStation; }
+
+        public Boolean getWaitlist() { return waitlist; }
+        public void setWaitlist(Boolean waitlist) { this.waitlist = waitlist; }
         
         // NOTE: Keeping getters/setters for source/destination in the inner class, 
         // even if they are no longer used in the Service call, might be useful if the 
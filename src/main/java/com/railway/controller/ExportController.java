@@ -0,0 +1,140 @@
+package com.railway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.model.Feedback;
+import com.railway.model.Passenger;
+import com.railway.model.Ticket;
+import com.railway.model.Train;
+import com.railway.service.ExportService;
+import com.railway.util.HttpMetrics;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bulk exports for finance and analytics jobs (Admin).
+ *
+ * Every export is streamed with chunked transfer encoding as rows are read (gzipped when the
+ * client sends Accept-Encoding: gzip) as newline-delimited JSON, or CSV with ?format=csv.
+ * Bookings, passengers and feedback take ?since= for incremental pulls; the X-Export-Watermark
+ * response header is the value to pass as since on the next pull.
+ */
+@RestController
+@RequestMapping("/api/export")
+@CrossOrigin(origins = "*", exposedHeaders = "X-Export-Watermark")
+public class ExportController {
+
+    private static final String WATERMARK_HEADER = "X-Export-Watermark";
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    private final ExportService exportService;
+    private final ListingResponses listings;
+
+    public ExportController(ObjectMapper objectMapper) {
+        this.exportService = new ExportService();
+        this.listings = new ListingResponses(objectMapper);
+    }
+
+    /**
+     * Tickets booked after ?since, oldest first, with their booking time.
+     * Endpoint: GET /api/export/bookings
+     */
+    @GetMapping("/bookings")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "ndjson") String format) throws SQLException {
+        LocalDateTime from = ExportService.parseSince(since);
+        LocalDateTime until = exportService.nextWatermark();
+        return export("bookings", format, until, Ticket.class,
+                consumer -> exportService.exportBookings(from, until, consumer));
+    }
+
+    /**
+     * Passengers of the tickets booked after ?since, ordered by PNR.
+     * Endpoint: GET /api/export/passengers
+     */
+    @GetMapping("/passengers")
+    public ResponseEntity<StreamingResponseBody> exportPassengers(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "ndjson") String format) throws SQLException {
+        LocalDateTime from = ExportService.parseSince(since);
+        LocalDateTime until = exportService.nextWatermark();
+        return export("passengers", format, until, Passenger.class,
+                consumer -> exportService.exportPassengers(from, until, consumer));
+    }
+
+    /**
+     * Feedback submitted after ?since, oldest first.
+     * Endpoint: GET /api/export/feedback
+     */
+    @GetMapping("/feedback")
+    public ResponseEntity<StreamingResponseBody> exportFeedback(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "ndjson") String format) throws SQLException {
+        LocalDateTime from = ExportService.parseSince(since);
+        LocalDateTime until = exportService.nextWatermark();
+        return export("feedback", format, until, Feedback.class,
+                consumer -> exportService.exportFeedback(from, until, consumer));
+    }
+
+    /**
+     * Every train. Trains have no timestamp, so there is no ?since and no watermark.
+     * Endpoint: GET /api/export/trains
+     */
+    @GetMapping("/trains")
+    public ResponseEntity<StreamingResponseBody> exportTrains(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        if (since != null) {
+            throw new IllegalArgumentException("Trains are always exported in full; since is not supported");
+        }
+        return export("trains", format, null, Train.class, exportService::exportTrains);
+    }
+
+    private <T> ResponseEntity<StreamingResponseBody> export(String name, String format, LocalDateTime watermark,
+                                                             Class<T> type, ListingResponses.Source<T> source) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (watermark != null) {
+            response.header(WATERMARK_HEADER, watermark.toString());
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return response.contentType(TEXT_CSV)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(name + ".csv").build().toString())
+                    .body(listings.csv(type, source));
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return response.contentType(MediaType.APPLICATION_NDJSON).body(listings.ndjson(source));
+        }
+        throw new IllegalArgumentException("format must be ndjson or csv");
+    }
+
+    // Errors before the first row is written get the usual JSON error body
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        HttpMetrics.recordError(e);
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(SQLException.class)
+    public ResponseEntity<Map<String, Object>> handleDatabaseError(SQLException e) {
+        HttpMetrics.recordError(e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", message);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(response);
+    }
+}
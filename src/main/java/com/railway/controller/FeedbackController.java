@@ -1,13 +1,16 @@
 package com.railway.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.railway.model.Feedback;
 import com.railway.service.FeedbackService;
+import com.railway.util.HttpMetrics;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -16,9 +19,11 @@ import java.util.Map;
 public class FeedbackController {
 
     private final FeedbackService feedbackService;
+    private final ListingResponses listings;
 
-    public FeedbackController() {
+    public FeedbackController(ObjectMapper objectMapper) {
         this.feedbackService = new FeedbackService();
+        this.listings = new ListingResponses(objectMapper);
     }
 
     /**
@@ -40,10 +45,12 @@ public class FeedbackController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
         } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", "Internal server error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -54,16 +61,30 @@ public class FeedbackController {
      * Handles the GET request to retrieve all feedback (Admin function).
      * Endpoint: GET /api/feedback
      */
+    @GetMapping(params = {"!limit", "!after"})
+    public ResponseEntity<StreamingResponseBody> getAllFeedback(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return listings.stream(accept, feedbackService::streamAllFeedback);
+    }
+
+    /**
+     * One keyset page of feedback: ?limit=N&after=<nextCursor of the previous page>
+     * Endpoint: GET /api/feedback?limit=N
+     */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllFeedback() {
+    public ResponseEntity<Map<String, Object>> getFeedbackPage(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
         Map<String, Object> response = new HashMap<>();
         try {
-            List<Feedback> feedbackList = feedbackService.getAllFeedback();
-            response.put("success", true);
-            response.put("data", feedbackList);
-            response.put("count", feedbackList.size());
-            return ResponseEntity.ok(response);
+            return listings.page(feedbackService.getFeedbackPage(after, listings.pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", "Failed to retrieve feedback: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -92,10 +113,12 @@ public class FeedbackController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
         } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", "Internal server error: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
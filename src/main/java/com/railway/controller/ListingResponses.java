@@ -0,0 +1,144 @@
+package com.railway.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.railway.dao.RowConsumer;
+import com.railway.model.Page;
+import com.railway.util.DatabaseConnection;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Response helpers shared by the admin listings (all bookings, users, feedback) and the bulk
+ * exports.
+ *
+ * A listing is either one keyset page ({@code limit} and/or {@code after} given) or the whole
+ * table streamed straight from the ResultSet: as the usual {success, data, count} body, or as
+ * one JSON object per line if the client accepts application/x-ndjson. A stream that fails
+ * half way can no longer change the status code; the response is cut off instead.
+ */
+class ListingResponses {
+
+    /**
+     * A streaming query: calls the consumer once per row and returns the row count.
+     */
+    @FunctionalInterface
+    interface Source<T> {
+        int forEach(RowConsumer<T> consumer) throws SQLException, IOException;
+    }
+
+    private static final CsvMapper CSV = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            // Same column order as the JSON properties
+            .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    ListingResponses(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // The generator is flushed by the servlet buffer, not after every row
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.defaultPageSize = DatabaseConnection.getIntProperty("listing.defaultPageSize", 100);
+        this.maxPageSize = DatabaseConnection.getIntProperty("listing.maxPageSize", 1000);
+    }
+
+    /**
+     * The page size to use; throws IllegalArgumentException outside 1..listing.maxPageSize.
+     */
+    int pageSize(Integer limit) {
+        int size = limit != null ? limit : defaultPageSize;
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return size;
+    }
+
+    ResponseEntity<Map<String, Object>> page(Page<?> page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", page.getItems());
+        response.put("count", page.getItems().size());
+        response.put("nextCursor", page.getNextCursor());
+        return ResponseEntity.ok(response);
+    }
+
+    <T> ResponseEntity<StreamingResponseBody> stream(String accept, Source<T> source) {
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(ndjson(source));
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> {
+            try (JsonGenerator generator = generator(out)) {
+                generator.writeStartObject();
+                generator.writeBooleanField("success", true);
+                generator.writeArrayFieldStart("data");
+                int count = source.forEach(row -> rowWriter.writeValue(generator, row));
+                generator.writeEndArray();
+                generator.writeNumberField("count", count);
+                generator.writeEndObject();
+            } catch (SQLException e) {
+                throw new IOException("Listing failed: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * One JSON object per line, each row written as it is read.
+     */
+    <T> StreamingResponseBody ndjson(Source<T> source) {
+        return out -> {
+            try (JsonGenerator generator = generator(out)) {
+                source.forEach(row -> {
+                    rowWriter.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                });
+            } catch (SQLException e) {
+                throw new IOException("Listing failed: " + e.getMessage(), e);
+            }
+        };
+    }
+
+    /**
+     * A header line with the bean properties of {@code type}, then one CSV line per row as it is
+     * read. Values are formatted as in the JSON responses (ISO dates, enum names).
+     */
+    <T> StreamingResponseBody csv(Class<T> type, Source<T> source) {
+        CsvSchema schema = CSV.schemaFor(type).withHeader();
+        return out -> {
+            try (SequenceWriter writer = CSV.writer(schema).writeValues(out)) {
+                source.forEach(writer::write);
+            } catch (SQLException e) {
+                throw new IOException("Listing failed: " + e.getMessage(), e);
+            }
+        };
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // The servlet container closes the response stream, and a stream cut short by an error
+        // must stay invalid JSON rather than be closed off as if it were complete
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+}
@@ -0,0 +1,114 @@
+package com.railway.controller;
+
+import com.railway.util.DatabaseConnection;
+import com.railway.util.HttpMetrics;
+import com.railway.util.JdbcMetrics;
+import com.railway.util.LatencyHistogram;
+import com.railway.util.PrometheusMetrics;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    // --- READ: Prometheus Scrape ---
+    @GetMapping("/metrics")
+    public ResponseEntity<String> scrape() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PrometheusMetrics.CONTENT_TYPE))
+                .body(PrometheusMetrics.scrape());
+    }
+
+    // --- READ: Request Latency, Status Codes and Errors per Endpoint ---
+    @GetMapping("/api/metrics/http")
+    public ResponseEntity<Map<String, Object>> getHttpMetrics() {
+        Map<String, Object> response = new HashMap<>();
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (HttpMetrics.EndpointStats stats : HttpMetrics.getEndpointStats()) {
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("server", stats.getServer());
+            endpoint.put("method", stats.getMethod());
+            endpoint.put("route", stats.getRoute());
+            endpoint.put("latency", histogram(stats.getLatency()));
+            endpoint.put("statuses", stats.getStatusCounts());
+            endpoint.put("errors", stats.getErrorCounts());
+            endpoints.add(endpoint);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("inFlight", HttpMetrics.getInFlight());
+        data.put("endpoints", endpoints);
+
+        response.put("success", true);
+        response.put("data", data);
+        response.put("count", endpoints.size());
+        return ResponseEntity.ok(response);
+    }
+
+    // --- READ: JDBC Statement, Transaction and Pool Metrics ---
+    // limit caps how many statements come back (the most total time first)
+    @GetMapping("/api/metrics/jdbc")
+    public ResponseEntity<Map<String, Object>> getJdbcMetrics(
+            @RequestParam(defaultValue = "50") int limit) {
+        Map<String, Object> response = new HashMap<>();
+
+        List<Map<String, Object>> statements = new ArrayList<>();
+        for (JdbcMetrics.StatementStats stats : JdbcMetrics.getStatementStats()) {
+            if (statements.size() >= limit) {
+                break;
+            }
+            Map<String, Object> statement = new LinkedHashMap<>();
+            statement.put("sql", stats.getSql());
+            statement.put("latency", histogram(stats.getLatency()));
+            statement.put("errors", stats.getErrors());
+            statement.put("slow", stats.getSlow());
+            statement.put("rowsRead", stats.getRowsRead());
+            statement.put("rowsChanged", stats.getRowsChanged());
+            statements.add(statement);
+        }
+
+        List<Map<String, Object>> transactions = new ArrayList<>();
+        for (JdbcMetrics.TransactionStats stats : JdbcMetrics.getTransactionStats()) {
+            Map<String, Object> transaction = new LinkedHashMap<>();
+            transaction.put("name", stats.getName());
+            transaction.put("duration", histogram(stats.getDuration()));
+            transaction.put("committed", stats.getCommitted());
+            transaction.put("rolledBack", stats.getRolledBack());
+            transactions.add(transaction);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("enabled", JdbcMetrics.isEnabled());
+        data.put("connectionAcquire", histogram(JdbcMetrics.getConnectionAcquire()));
+        data.put("pool", DatabaseConnection.getPoolStats());
+        data.put("statements", statements);
+        data.put("transactions", transactions);
+
+        response.put("success", true);
+        response.put("data", data);
+        response.put("count", statements.size());
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> histogram(LatencyHistogram histogram) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", histogram.getCount());
+        data.put("totalMillis", histogram.getTotalMillis());
+        data.put("averageMillis", histogram.getAverageMillis());
+        data.put("p50Millis", histogram.getP50Millis());
+        data.put("p95Millis", histogram.getP95Millis());
+        data.put("p99Millis", histogram.getP99Millis());
+        data.put("p999Millis", histogram.getP999Millis());
+        data.put("maxMillis", histogram.getMaxMillis());
+        return data;
+    }
+}
@@ -0,0 +1,174 @@
+package com.railway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.util.ReactiveDatabaseConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking variant of the hot read and booking endpoints, served by Reactor Netty on its
+ * own port (railway.reactive.port) next to the servlet API. Enabled with
+ * railway.reactive.enabled=true.
+ *
+ * The endpoints and response bodies match TrainController and BookingController. List
+ * endpoints also stream: with "Accept: application/x-ndjson" every train or ticket is written
+ * as one JSON line as soon as it is read, and rows are only read as fast as the client takes
+ * them. A few event-loop threads serve every connection:
+ * <ul>
+ *   <li>GET /api/trains and GET /api/bookings read through R2DBC (ReactiveDatabaseConnection).</li>
+ *   <li>GET /api/trains/search is answered from TrainSearchIndex and SeatLedger in memory;
+ *       only a missing or stale index falls back to a JDBC reload.</li>
+ *   <li>POST /api/bookings runs the same transactional booking as the servlet API
+ *       (seat ledger, admission control, idempotency keys), on a bounded pool of
+ *       railway.reactive.blocking-threads threads. Once railway.reactive.blocking-queue
+ *       bookings are waiting, new ones get 429.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "railway.reactive.enabled", havingValue = "true")
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final BookingController bookingController;
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final int blockingThreads;
+    private final int blockingQueue;
+
+    private Scheduler blocking;
+    private volatile DisposableServer server;
+
+    public ReactiveApiServer(BookingController bookingController, ObjectMapper objectMapper,
+                             @Value("${railway.reactive.port:8081}") int port,
+                             @Value("${railway.reactive.blocking-threads:10}") int blockingThreads,
+                             @Value("${railway.reactive.blocking-queue:10000}") int blockingQueue) {
+        this.bookingController = bookingController;
+        this.objectMapper = objectMapper;
+        this.port = port;
+        this.blockingThreads = blockingThreads;
+        this.blockingQueue = blockingQueue;
+    }
+
+    @Override
+    public void start() {
+        blocking = Schedulers.newBoundedElastic(Math.max(1, blockingThreads), Math.max(1, blockingQueue),
+                "reactive-jdbc", 60, true);
+        ReactiveTrainHandler trains = new ReactiveTrainHandler(blocking);
+        ReactiveBookingHandler bookings = new ReactiveBookingHandler(bookingController, blocking);
+
+        RouterFunction<ServerResponse> router = RouterFunctions.route()
+                .GET("/api/trains/search", trains::search)
+                .GET("/api/trains", trains::getAll)
+                .GET("/api/bookings", bookings::getAll)
+                .POST("/api/bookings", bookings::book)
+                .build();
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+
+        // Same CORS rules as the servlet API
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.addAllowedOrigin("*");
+        cors.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        cors.addAllowedHeader("*");
+        UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+        corsSource.registerCorsConfiguration("/api/**", cors);
+
+        HttpHandler handler = WebHttpHandlerBuilder
+                .webHandler(RouterFunctions.toWebHandler(router, strategies))
+                .filter(new ReactiveMetricsFilter(), new CorsWebFilter(corsSource))
+                .build();
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        System.out.println("Reactive API listening on port " + server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer s = server;
+        if (s != null) {
+            s.disposeNow();
+            server = null;
+        }
+        if (blocking != null) {
+            blocking.dispose();
+        }
+        ReactiveDatabaseConnection.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * The port actually bound (useful with railway.reactive.port=0), or -1 when not running.
+     */
+    public int getPort() {
+        DisposableServer s = server;
+        return s != null ? s.port() : -1;
+    }
+
+    // --- Shared response helpers ---
+
+    /**
+     * Writes a list either as the usual {success, data, count} body or, if the client accepts
+     * application/x-ndjson, as a stream of JSON lines.
+     */
+    static <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> items, Class<T> type, String errorPrefix) {
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(items, type);
+        }
+        return items.collectList()
+                .flatMap(data -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("data", data);
+                    response.put("count", data.size());
+                    return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+                })
+                .onErrorResume(e -> {
+                    ReactiveMetricsFilter.recordError(request, e);
+                    return error(HttpStatus.INTERNAL_SERVER_ERROR, errorPrefix + e.getMessage());
+                });
+    }
+
+    static Mono<ServerResponse> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", message);
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+    }
+}
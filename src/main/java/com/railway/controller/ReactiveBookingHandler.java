@@ -0,0 +1,67 @@
+package com.railway.controller;
+
+import com.railway.dao.ReactiveBookingDAO;
+import com.railway.model.Ticket;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Booking endpoints of ReactiveApiServer; same requests and responses as BookingController.
+ */
+class ReactiveBookingHandler {
+
+    private final BookingController bookingController;
+    private final ReactiveBookingDAO bookingDAO = new ReactiveBookingDAO();
+    private final Scheduler blocking;
+
+    ReactiveBookingHandler(BookingController bookingController, Scheduler blocking) {
+        this.bookingController = bookingController;
+        this.blocking = blocking;
+    }
+
+    // GET /api/bookings
+    Mono<ServerResponse> getAll(ServerRequest request) {
+        return ReactiveApiServer.list(request, bookingDAO.getAllBookings(), Ticket.class, "");
+    }
+
+    // POST /api/bookings (Idempotency-Key honoured as in BookingController)
+    Mono<ServerResponse> book(ServerRequest request) {
+        String idempotencyKey = request.headers().firstHeader("Idempotency-Key");
+        return request.bodyToMono(BookingController.BookingRequest.class)
+                // The booking transaction itself is JDBC; it runs off the event loop
+                .flatMap(body -> Mono.fromCallable(ReactiveMetricsFilter.attached(request,
+                                () -> bookingController.bookTicket(body, idempotencyKey)))
+                        .subscribeOn(blocking))
+                .flatMap(ReactiveBookingHandler::toServerResponse)
+                .switchIfEmpty(Mono.defer(() -> ReactiveApiServer.error(HttpStatus.BAD_REQUEST, "Request body is required")))
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    ReactiveMetricsFilter.recordError(request, e);
+                    return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                            .header(HttpHeaders.RETRY_AFTER, "1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(Map.of("success", false, "error", "Too many bookings in progress, please retry"));
+                })
+                .onErrorResume(e -> e instanceof DecodingException || e instanceof ServerWebInputException, e -> {
+                    ReactiveMetricsFilter.recordError(request, e);
+                    return ReactiveApiServer.error(HttpStatus.BAD_REQUEST, "Malformed booking request");
+                });
+    }
+
+    private static Mono<ServerResponse> toServerResponse(ResponseEntity<Map<String, Object>> entity) {
+        ServerResponse.BodyBuilder response = ServerResponse.status(entity.getStatusCode())
+                .headers(headers -> headers.addAll(entity.getHeaders()))
+                .contentType(MediaType.APPLICATION_JSON);
+        return entity.getBody() != null ? response.bodyValue(entity.getBody()) : response.build();
+    }
+}
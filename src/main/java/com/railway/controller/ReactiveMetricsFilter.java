@@ -0,0 +1,79 @@
+package com.railway.controller;
+
+import com.railway.util.HttpMetrics;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Times every request on the reactive port into HttpMetrics, like RequestMetricsFilter does for
+ * the servlet API. A request is recorded when its response has been written, which for NDJSON
+ * streams is after the last line. No thread serves a reactive request from start to end, so the
+ * handlers report the errors they turn into status codes with {@link #recordError}, and blocking
+ * work that may call HttpMetrics.recordError itself runs through {@link #attached}.
+ */
+class ReactiveMetricsFilter implements WebFilter {
+
+    private static final String EXCHANGE_ATTRIBUTE = ReactiveMetricsFilter.class.getName() + ".exchange";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpMetrics.Exchange metrics = HttpMetrics.begin();
+        HttpMetrics.detach();
+        exchange.getAttributes().put(EXCHANGE_ATTRIBUTE, metrics);
+        return chain.filter(exchange)
+                .doOnSuccess(done -> end(metrics, exchange, statusOf(exchange, HttpStatus.OK.value())))
+                .doOnError(e -> {
+                    // An error that escaped the handlers becomes a 500 after this filter
+                    metrics.failed(e);
+                    end(metrics, exchange, HttpStatus.INTERNAL_SERVER_ERROR.value());
+                })
+                .doOnCancel(() -> end(metrics, exchange, statusOf(exchange, HttpStatus.INTERNAL_SERVER_ERROR.value())));
+    }
+
+    private static int statusOf(ServerWebExchange exchange, int unset) {
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status != null ? status : unset;
+    }
+
+    private static void end(HttpMetrics.Exchange metrics, ServerWebExchange exchange, int status) {
+        Object route = exchange.getAttribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE);
+        HttpMetrics.end(metrics, HttpMetrics.REACTIVE, exchange.getRequest().getMethodValue(),
+                route instanceof PathPattern ? ((PathPattern) route).getPatternString() : HttpMetrics.UNMATCHED_ROUTE,
+                status);
+    }
+
+    /**
+     * Notes the exception a reactive request failed with; the reactive counterpart of
+     * HttpMetrics.recordError.
+     */
+    static void recordError(ServerRequest request, Throwable error) {
+        request.attribute(EXCHANGE_ATTRIBUTE).ifPresent(metrics -> ((HttpMetrics.Exchange) metrics).failed(error));
+    }
+
+    /**
+     * Runs blocking work with the request attached to the calling thread, so the servlet
+     * controllers it reuses can record their errors.
+     */
+    static <T> Callable<T> attached(ServerRequest request, Callable<T> work) {
+        Object metrics = request.attribute(EXCHANGE_ATTRIBUTE).orElse(null);
+        return () -> {
+            if (metrics == null) {
+                return work.call();
+            }
+            HttpMetrics.attach((HttpMetrics.Exchange) metrics);
+            try {
+                return work.call();
+            } finally {
+                HttpMetrics.detach();
+            }
+        };
+    }
+}
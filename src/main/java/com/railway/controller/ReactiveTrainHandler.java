@@ -0,0 +1,91 @@
+package com.railway.controller;
+
+import com.railway.dao.ReactiveTrainDAO;
+import com.railway.model.Train;
+import com.railway.service.TrainService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Train endpoints of ReactiveApiServer; same parameters and responses as TrainController.
+ */
+class ReactiveTrainHandler {
+
+    // Trains whose availability is looked up together
+    private static final int AVAILABILITY_BATCH = 256;
+
+    private final TrainService trainService = new TrainService();
+    private final ReactiveTrainDAO trainDAO = new ReactiveTrainDAO();
+    private final Scheduler blocking;
+
+    ReactiveTrainHandler(Scheduler blocking) {
+        this.blocking = blocking;
+    }
+
+    // GET /api/trains
+    Mono<ServerResponse> getAll(ServerRequest request) {
+        Flux<Train> trains = trainDAO.getAllTrains()
+                .buffer(AVAILABILITY_BATCH)
+                .concatMap(this::withAvailableSeats)
+                .concatMapIterable(batch -> batch);
+        return ReactiveApiServer.list(request, trains, Train.class, "Error retrieving all trains: ");
+    }
+
+    // GET /api/trains/search?source&destination[&date|&fromDate&toDate][&limit]
+    Mono<ServerResponse> search(ServerRequest request) {
+        String source = request.queryParam("source").orElse(null);
+        String destination = request.queryParam("destination").orElse(null);
+        if (source == null || destination == null) {
+            return ReactiveApiServer.error(HttpStatus.BAD_REQUEST, "source and destination are required");
+        }
+
+        LocalDate from;
+        LocalDate to;
+        int limit;
+        List<Train> loaded;
+        try {
+            String date = request.queryParam("date").orElse(null);
+            if (date != null && !date.isEmpty()) {
+                from = LocalDate.parse(date);
+                to = from;
+            } else {
+                String fromDate = request.queryParam("fromDate").orElse(null);
+                String toDate = request.queryParam("toDate").orElse(null);
+                from = fromDate != null && !fromDate.isEmpty() ? LocalDate.parse(fromDate) : null;
+                to = toDate != null && !toDate.isEmpty() ? LocalDate.parse(toDate) : null;
+            }
+            limit = Integer.parseInt(request.queryParam("limit").orElse("0"));
+            loaded = trainService.searchLoadedTrains(source, destination, from, to, limit);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            ReactiveMetricsFilter.recordError(request, e);
+            return ReactiveApiServer.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        // Answered from memory on the event loop unless the index or the seat ledger has to load
+        Mono<List<Train>> trains = loaded != null ? Mono.just(loaded) : Mono.fromCallable(() -> {
+            List<Train> result = trainService.searchTrains(source, destination, from, to, limit);
+            trainService.populateAvailableSeats(result);
+            return result;
+        }).subscribeOn(blocking);
+        return ReactiveApiServer.list(request, trains.flatMapMany(Flux::fromIterable), Train.class,
+                "Error during search: ");
+    }
+
+    private Mono<List<Train>> withAvailableSeats(List<Train> batch) {
+        if (trainService.fillLoadedAvailableSeats(batch)) {
+            return Mono.just(batch);
+        }
+        return Mono.fromCallable(() -> {
+            trainService.populateAvailableSeats(batch);
+            return batch;
+        }).subscribeOn(blocking);
+    }
+}
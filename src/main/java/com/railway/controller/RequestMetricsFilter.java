@@ -0,0 +1,72 @@
+package com.railway.controller;
+
+import com.railway.util.HttpMetrics;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Times every servlet API request into HttpMetrics under the route pattern that handled it.
+ * Streamed listings and exports run as async requests; those are recorded when the response
+ * completes, not when the controller method returns.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpMetrics.Exchange exchange = HttpMetrics.begin();
+        boolean failed = false;
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            failed = true;
+            exchange.failed(e instanceof ServletException && e.getCause() != null ? e.getCause() : e);
+            throw e;
+        } finally {
+            HttpMetrics.detach();
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        end(exchange, request, response.getStatus());
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        exchange.failed(event.getThrowable());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                // An exception that escaped the controller becomes a 500 after this filter
+                end(exchange, request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus());
+            }
+        }
+    }
+
+    private static void end(HttpMetrics.Exchange exchange, HttpServletRequest request, int status) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        HttpMetrics.end(exchange, HttpMetrics.SERVLET, request.getMethod(),
+                route != null ? route.toString() : HttpMetrics.UNMATCHED_ROUTE, status);
+    }
+}
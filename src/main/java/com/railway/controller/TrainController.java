@@ -1,12 +1,19 @@
 package com.railway.controller;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.railway.dao.CachingTrainDAO;
+import com.railway.model.Journey;
 import com.railway.model.Train;
 import com.railway.service.TrainService;
+import com.railway.util.HttpMetrics;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,17 +36,15 @@ public class TrainController {
         try {
             List<Train> trains = trainService.getAllTrains();
             
-            // CRITICAL: Calculate available seats before sending the list
-            for (Train train : trains) {
-                int seats = trainService.checkSeatAvailability(train.getTrainNumber());
-                train.setAvailableSeats(seats);
-            }
+            // CRITICAL: Calculate available seats before sending the list (one bulk lookup)
+            trainService.populateAvailableSeats(trains);
             
             response.put("success", true);
             response.put("data", trains);
             response.put("count", trains.size());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", "Error retrieving all trains: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -47,43 +52,125 @@ public class TrainController {
     }
 
     // --- READ: Search Trains ---
+    // date = one day; fromDate/toDate = inclusive range (either end optional); neither = any date
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> searchTrains(
             @RequestParam String source,
             @RequestParam String destination,
-            @RequestParam(required = false) String date) {
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String fromDate,
+            @RequestParam(required = false) String toDate,
+            @RequestParam(defaultValue = "0") int limit) {
         Map<String, Object> response = new HashMap<>();
         try {
-            LocalDate travelDate = date != null && !date.isEmpty() ? LocalDate.parse(date) : null;
+            LocalDate from;
+            LocalDate to;
+            if (date != null && !date.isEmpty()) {
+                from = LocalDate.parse(date);
+                to = from;
+            } else {
+                from = fromDate != null && !fromDate.isEmpty() ? LocalDate.parse(fromDate) : null;
+                to = toDate != null && !toDate.isEmpty() ? LocalDate.parse(toDate) : null;
+            }
             
-            List<Train> trains = trainService.searchTrains(source, destination, travelDate);
+            List<Train> trains = trainService.searchTrains(source, destination, from, to, limit);
             
-            // CRITICAL: Calculate available seats before sending the list
-            for (Train train : trains) {
-                int seats = trainService.checkSeatAvailability(train.getTrainNumber());
-                train.setAvailableSeats(seats);
-            }
+            // CRITICAL: Calculate available seats before sending the list (one bulk lookup)
+            trainService.populateAvailableSeats(trains);
             
             response.put("success", true);
             response.put("data", trains);
+            response.put("count", trains.size());
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", "Error during search: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
+    // --- READ: Journey Planner (multi-leg trips between stations) ---
+    // date/time = earliest departure (defaults to now); results go from fewest transfers to earliest arrival
+    @GetMapping("/journeys")
+    public ResponseEntity<Map<String, Object>> planJourneys(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) String time,
+            @RequestParam(required = false) Integer maxTransfers) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            LocalDateTime departAfter = LocalDateTime.now();
+            if (date != null && !date.isEmpty()) {
+                LocalTime at = time != null && !time.isEmpty() ? LocalTime.parse(time) : LocalTime.MIDNIGHT;
+                departAfter = LocalDate.parse(date).atTime(at);
+            }
+
+            List<Journey> journeys = trainService.planJourneys(from, to, departAfter, maxTransfers);
+
+            response.put("success", true);
+            response.put("data", journeys);
+            response.put("count", journeys.size());
+            if (!journeys.isEmpty()) {
+                response.put("fewestTransfers", journeys.get(0));
+                response.put("earliestArrival", journeys.get(journeys.size() - 1));
+            }
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", "Error planning journey: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // --- READ: Train Cache Statistics ---
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        CacheStats stats = CachingTrainDAO.getCacheStats();
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("size", CachingTrainDAO.getCachedTrainCount());
+        data.put("hits", stats.hitCount());
+        data.put("misses", stats.missCount());
+        data.put("hitRate", stats.hitRate());
+        data.put("evictions", stats.evictionCount());
+        data.put("evictedWeight", stats.evictionWeight());
+        data.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+
+        response.put("success", true);
+        response.put("data", data);
+        return ResponseEntity.ok(response);
+    }
+
     // --- READ: Get Single Train (for Edit Page - CRITICAL FIX HERE) ---
+    // Optional boarding/alighting stations give the seats free on that part of the route
     @GetMapping("/{trainNumber}")
-    public ResponseEntity<Map<String, Object>> getTrainByNumber(@PathVariable String trainNumber) {
+    public ResponseEntity<Map<String, Object>> getTrainByNumber(
+            @PathVariable String trainNumber,
+            @RequestParam(required = false) String boarding,
+            @RequestParam(required = false) String alighting) {
         Map<String, Object> response = new HashMap<>();
         try {
             // FIX: Service now only fetches basic data
             Train train = trainService.getTrainByNumber(trainNumber); 
             if (train != null) {
                 // FIX: Calculate seats in the controller where error handling is better
-                int seats = trainService.checkSeatAvailability(trainNumber);
+                int seats = boarding != null || alighting != null
+                        ? trainService.checkSeatAvailability(trainNumber, boarding, alighting)
+                        : trainService.checkSeatAvailability(trainNumber);
                 train.setAvailableSeats(seats);
                 
                 response.put("success", true);
@@ -95,6 +182,7 @@ public class TrainController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -118,6 +206,7 @@ public class TrainController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -145,6 +234,7 @@ public class TrainController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -167,6 +257,7 @@ public class TrainController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -1,10 +1,14 @@
 package com.railway.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.railway.model.User;
 import com.railway.service.UserService;
+import com.railway.util.HttpMetrics;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -15,9 +19,11 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final ListingResponses listings;
 
-    public UserController() {
+    public UserController(ObjectMapper objectMapper) {
         this.userService = new UserService();
+        this.listings = new ListingResponses(objectMapper);
     }
 
     @PostMapping("/register")
@@ -48,6 +54,7 @@ public class UserController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -70,6 +77,35 @@ public class UserController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // Admin listing: every user, streamed (NDJSON if accepted)
+    @GetMapping(params = {"!limit", "!after"})
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return listings.stream(accept, userService::streamAllUsers);
+    }
+
+    // Admin listing, one keyset page: ?limit=N&after=<nextCursor of the previous page>
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getUsersPage(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            return listings.page(userService.getUsersPage(after, listings.pageSize(limit)));
+        } catch (IllegalArgumentException e) {
+            HttpMetrics.recordError(e);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -91,6 +127,7 @@ public class UserController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -116,6 +153,7 @@ public class UserController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
         } catch (Exception e) {
+            HttpMetrics.recordError(e);
             response.put("success", false);
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
@@ -1,12 +1,25 @@
 package com.railway.dao;
 
+import com.railway.model.Cancellation;
+import com.railway.model.Page;
 import com.railway.model.Passenger;
+import com.railway.model.Schedule;
 import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
+import com.railway.model.TrainSegment;
+import com.railway.model.WaitlistEntry;
 import com.railway.util.DatabaseConnection;
+import com.railway.util.KeysetCursor;
 
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Repository; 
 
 @Repository // FIX: ADDED @Repository
@@ -27,7 +40,9 @@ public class BookingDAO {
         ticket.setAmount(rs.getBigDecimal("Cost"));
 
         // Ticket status and username
-        ticket.setStatus(rs.getString("Status"));
+        ticket.setStatus(TicketStatus.fromDb(rs.getString("Status")));
+        ticket.setBoardingScheduleId(rs.getString("BoardingScheduleID"));
+        ticket.setDeboardingScheduleId(rs.getString("DeboardingScheduleID"));
         try {
             ticket.setUsername(rs.getString("Username"));
         } catch (SQLException ignored) {
@@ -37,59 +52,175 @@ public class BookingDAO {
         return ticket;
     }
 
+    private final ScheduleDAO scheduleDAO = new ScheduleDAO();
+    private final WaitlistDAO waitlistDAO = new WaitlistDAO();
+
     // --- Book a ticket (atomic transaction with seat check) ---
+    // SeatLedger rejects sold-out trains in memory first; the conditional UPDATE on
+    // Train.BookedSeats is the authoritative capacity check and reservation in one round trip.
     public boolean bookTicket(Passenger passenger, Ticket ticket) throws SQLException {
-        String passengerSql = "INSERT INTO Passenger (PNR, PassengerName, Age, Gender, Username) VALUES (?, ?, ?, ?, ?)";
-        String ticketSql = "INSERT INTO Ticket (PNR, TrainNumber) VALUES (?, ?)";
+        return bookTicket(passenger, ticket, null);
+    }
+
+    // Trains with a schedule pass the segment the passenger travels on. Capacity is then checked
+    // per leg on TrainLeg (every leg of the segment must still have a free seat) and
+    // Train.BookedSeats just counts the ticket.
+    public boolean bookTicket(Passenger passenger, Ticket ticket, TrainSegment segment) throws SQLException {
+        return bookGroup(Collections.singletonList(passenger), Collections.singletonList(ticket), segment);
+    }
+
+    // --- Book several passengers on one train (all or nothing) ---
+    // tickets.get(i) belongs to passengers.get(i); all tickets are for the same train and segment.
+    // One conditional UPDATE reserves every seat at once, then the Passenger and Ticket rows go in
+    // as two JDBC batches, so the round trips don't grow with the size of the group.
+    public boolean bookGroup(List<Passenger> passengers, List<Ticket> tickets, TrainSegment segment) throws SQLException {
+        return bookBatch(passengers, tickets, Collections.nCopies(tickets.size(), segment));
+    }
+
+    // Like bookGroup, but each ticket has its own segment (segments.get(i), null = whole route).
+    // Seats are reserved with one UPDATE per distinct segment; used by BookingSequencer to commit
+    // the bookings queued for a train together.
+    public boolean bookBatch(List<Passenger> passengers, List<Ticket> tickets, List<TrainSegment> segments)
+            throws SQLException {
+        if (passengers.isEmpty() || passengers.size() != tickets.size() || tickets.size() != segments.size()) {
+            throw new IllegalArgumentException("Each passenger needs exactly one ticket");
+        }
+        String trainNumber = tickets.get(0).getTrainNumber();
+        int seats = tickets.size();
+
+        // Seats per distinct segment, keyed by stop range ("" = whole route)
+        Map<String, TrainSegment> segmentByKey = new LinkedHashMap<>();
+        Map<String, Integer> seatsByKey = new LinkedHashMap<>();
+        for (TrainSegment segment : segments) {
+            String key = segment == null ? "" : segment.getFromStop() + "-" + segment.getToStop();
+            segmentByKey.putIfAbsent(key, segment);
+            seatsByKey.merge(key, 1, Integer::sum);
+        }
+
+        String reserveSql = "UPDATE Train SET BookedSeats = BookedSeats + ? " +
+                "WHERE TrainNumber = ? AND BookedSeats + ? <= COALESCE(Seats, 100)";
+        String reserveLegsSql = "UPDATE TrainLeg SET Booked = Booked + ? " +
+                "WHERE TrainNumber = ? AND LegIndex >= ? AND LegIndex < ? " +
+                "AND Booked + ? <= (SELECT COALESCE(Seats, 100) FROM Train WHERE TrainNumber = ?)";
+        String countSql = "UPDATE Train SET BookedSeats = BookedSeats + ? WHERE TrainNumber = ?";
 
         Connection conn = null;
         try {
             conn = DatabaseConnection.getConnection();
             conn.setAutoCommit(false);
 
-            // 1. Check seat availability (FOR UPDATE ensures atomicity)
-            String seatSql = "SELECT TotalSeats - " +
-                    "(SELECT COUNT(*) FROM Ticket WHERE TrainNumber = ?) AS AvailableSeats " +
-                    "FROM Train WHERE TrainNumber = ? FOR UPDATE";
-
-            int availableSeats;
-            try (PreparedStatement seatStmt = conn.prepareStatement(seatSql)) {
-                seatStmt.setString(1, ticket.getTrainNumber());
-                seatStmt.setString(2, ticket.getTrainNumber());
-                try (ResultSet rs = seatStmt.executeQuery()) {
-                    if (rs.next()) {
-                        availableSeats = rs.getInt("AvailableSeats");
-                    } else {
-                        throw new SQLException("Train not found!");
+            // 1. Reserve the seats (no row updated = not enough left, or unknown train).
+            // Train row first, then TrainLeg: every writer locks them in this order
+            Integer wholeRoute = seatsByKey.get("");
+            if (wholeRoute != null && wholeRoute == seats) {
+                try (PreparedStatement ps = conn.prepareStatement(reserveSql)) {
+                    ps.setInt(1, seats);
+                    ps.setString(2, trainNumber);
+                    ps.setInt(3, seats);
+                    if (ps.executeUpdate() == 0) {
+                        throw new IllegalStateException(seats == 1 ? "No seats available for this train!"
+                                : "Not enough seats available for " + seats + " passengers!");
+                    }
+                }
+            } else {
+                if (wholeRoute != null) {
+                    throw new IllegalArgumentException("Tickets on a scheduled train need a segment");
+                }
+                try (PreparedStatement ps = conn.prepareStatement(countSql)) {
+                    ps.setInt(1, seats);
+                    ps.setString(2, trainNumber);
+                    ps.executeUpdate();
+                }
+                // Some leg of the segment is too full when fewer rows than legs were updated
+                try (PreparedStatement ps = conn.prepareStatement(reserveLegsSql)) {
+                    for (Map.Entry<String, TrainSegment> entry : segmentByKey.entrySet()) {
+                        TrainSegment segment = entry.getValue();
+                        int count = seatsByKey.get(entry.getKey());
+                        ps.setInt(1, count);
+                        ps.setString(2, trainNumber);
+                        ps.setInt(3, segment.getFromStop());
+                        ps.setInt(4, segment.getToStop());
+                        ps.setInt(5, count);
+                        ps.setString(6, trainNumber);
+                        if (ps.executeUpdate() != segment.getLegCount()) {
+                            throw new IllegalStateException(seats == 1 ? "No seats available for this part of the route!"
+                                    : "Not enough seats available for " + seats + " passengers on this part of the route!");
+                        }
                     }
                 }
             }
 
-            if (availableSeats <= 0) {
-                throw new IllegalStateException("No seats available for this train!");
+            // 2. Insert Passengers and Tickets
+            insertPassengersAndTickets(conn, passengers, tickets);
+
+            conn.commit();
+            return true;
+
+        } catch (SQLException | RuntimeException e) {
+            if (conn != null) conn.rollback();
+            throw e;
+        } finally {
+            if (conn != null) {
+                conn.setAutoCommit(true);
+                DatabaseConnection.closeConnection(conn);
             }
+        }
+    }
+
+    private static void insertPassengersAndTickets(Connection conn, List<Passenger> passengers, List<Ticket> tickets)
+            throws SQLException {
+        String passengerSql = "INSERT INTO Passenger (PNR, PassengerName, Age, Gender, Username) VALUES (?, ?, ?, ?, ?)";
+        String ticketSql = "INSERT INTO Ticket (PNR, TrainNumber, Status, BoardingScheduleID, DeboardingScheduleID) " +
+                "VALUES (?, ?, ?, ?, ?)";
 
-            // 2. Insert Passenger
-            try (PreparedStatement ps = conn.prepareStatement(passengerSql)) {
+        try (PreparedStatement ps = conn.prepareStatement(passengerSql)) {
+            for (Passenger passenger : passengers) {
                 ps.setString(1, passenger.getPnr());
                 ps.setString(2, passenger.getPassengerName());
                 ps.setObject(3, passenger.getAge());
                 ps.setString(4, passenger.getGender());
                 ps.setString(5, passenger.getUsername());
-                ps.executeUpdate();
+                ps.addBatch();
             }
+            ps.executeBatch();
+        }
 
-            // 3. Insert Ticket
-            try (PreparedStatement ps = conn.prepareStatement(ticketSql)) {
+        try (PreparedStatement ps = conn.prepareStatement(ticketSql)) {
+            for (Ticket ticket : tickets) {
                 ps.setString(1, ticket.getPnr());
                 ps.setString(2, ticket.getTrainNumber());
-                ps.executeUpdate();
+                ps.setString(3, (ticket.getStatus() != null ? ticket.getStatus() : TicketStatus.CONFIRMED).name());
+                ps.setString(4, ticket.getBoardingScheduleId());
+                ps.setString(5, ticket.getDeboardingScheduleId());
+                ps.addBatch();
             }
+            ps.executeBatch();
+        }
+    }
+
+    // --- Put a ticket on the waitlist (atomic) ---
+    // The train is full: the Passenger and a WAITLISTED Ticket are stored without touching the
+    // seat counters, and the ticket joins the end of the train's queue.
+    public WaitlistEntry waitlistTicket(Passenger passenger, Ticket ticket, int maxPerTrain) throws SQLException {
+        ticket.setStatus(TicketStatus.WAITLISTED);
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            // Train row first, like every writer; it also keeps concurrent enqueues from both
+            // passing the maxPerTrain check
+            if (!waitlistDAO.lockTrain(conn, ticket.getTrainNumber())) {
+                throw new IllegalArgumentException("Train not found!");
+            }
+            insertPassengersAndTickets(conn, Collections.singletonList(passenger), Collections.singletonList(ticket));
+            WaitlistEntry entry = waitlistDAO.enqueue(conn, ticket, maxPerTrain);
 
             conn.commit();
-            return true;
+            return entry;
 
-        } catch (SQLException | IllegalStateException e) {
+        } catch (SQLException | RuntimeException e) {
             if (conn != null) conn.rollback();
             throw e;
         } finally {
@@ -101,15 +232,55 @@ public class BookingDAO {
     }
 
     // --- Cancel a ticket (atomic) ---
-    public boolean cancelTicket(String pnr) throws SQLException {
+    // Returns the removed ticket (PNR, TrainNumber, Status before cancelling, boarding/deboarding
+    // stops) and the waitlisted tickets that took its seat, or null if no ticket matched the PNR.
+    public Cancellation cancelTicket(String pnr) throws SQLException {
+        return cancelTicket(pnr, true);
+    }
+
+    // promoteWaitlist = false leaves the freed seat unassigned (used to undo a partly written booking)
+    public Cancellation cancelTicket(String pnr, boolean promoteWaitlist) throws SQLException {
+        String selectTicketSql = "SELECT PNR, TrainNumber, Status, BoardingScheduleID, DeboardingScheduleID " +
+                "FROM Ticket WHERE PNR = ?";
         String deleteTicketSql = "DELETE FROM Ticket WHERE PNR = ?";
         String deletePassengerSql = "DELETE FROM Passenger WHERE PNR = ?";
+        String releaseSql = "UPDATE Train SET BookedSeats = BookedSeats - 1 " +
+                "WHERE TrainNumber = ? AND BookedSeats > 0";
+        String releaseLegsSql = "UPDATE TrainLeg SET Booked = Booked - 1 " +
+                "WHERE TrainNumber = ? AND LegIndex >= ? AND LegIndex < ? AND Booked > 0";
 
         try (Connection conn = DatabaseConnection.getConnection()) {
             conn.setAutoCommit(false);
 
-            try (PreparedStatement ticketStmt = conn.prepareStatement(deleteTicketSql);
-                 PreparedStatement passengerStmt = conn.prepareStatement(deletePassengerSql)) {
+            try (PreparedStatement selectStmt = conn.prepareStatement(selectTicketSql);
+                 PreparedStatement ticketStmt = conn.prepareStatement(deleteTicketSql);
+                 PreparedStatement passengerStmt = conn.prepareStatement(deletePassengerSql);
+                 PreparedStatement releaseStmt = conn.prepareStatement(releaseSql);
+                 PreparedStatement releaseLegsStmt = conn.prepareStatement(releaseLegsSql)) {
+
+                Ticket cancelled = null;
+                selectStmt.setString(1, pnr);
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    if (rs.next()) {
+                        cancelled = new Ticket();
+                        cancelled.setPnr(rs.getString("PNR"));
+                        cancelled.setTrainNumber(rs.getString("TrainNumber"));
+                        cancelled.setStatus(TicketStatus.fromDb(rs.getString("Status")));
+                        cancelled.setBoardingScheduleId(rs.getString("BoardingScheduleID"));
+                        cancelled.setDeboardingScheduleId(rs.getString("DeboardingScheduleID"));
+                    }
+                }
+
+                if (cancelled == null) {
+                    conn.rollback();
+                    return null;
+                }
+                // Rejects anything the state machine doesn't allow before a row is touched
+                cancelled.getStatus().transitionTo(TicketStatus.CANCELLED);
+
+                if (cancelled.getStatus() == TicketStatus.WAITLISTED) {
+                    waitlistDAO.dequeue(conn, pnr, cancelled.getTrainNumber());
+                }
 
                 ticketStmt.setString(1, pnr);
                 ticketStmt.executeUpdate();
@@ -117,10 +288,33 @@ public class BookingDAO {
                 passengerStmt.setString(1, pnr);
                 passengerStmt.executeUpdate();
 
+                // Only CONFIRMED tickets hold a seat in the counters
+                List<Ticket> promoted = new ArrayList<>();
+                if (cancelled.getStatus().holdsSeat()) {
+                    // Train row first, then TrainLeg: every writer locks them in this order
+                    releaseStmt.setString(1, cancelled.getTrainNumber());
+                    releaseStmt.executeUpdate();
+
+                    // Scheduled trains also free the legs the ticket covered (no-op without TrainLeg rows)
+                    List<Schedule> stops = scheduleDAO.getStops(conn, cancelled.getTrainNumber());
+                    if (stops.size() >= 2) {
+                        TrainSegment segment = segmentOrWholeRoute(cancelled, stops);
+                        releaseLegsStmt.setString(1, cancelled.getTrainNumber());
+                        releaseLegsStmt.setInt(2, segment.getFromStop());
+                        releaseLegsStmt.setInt(3, segment.getToStop());
+                        releaseLegsStmt.executeUpdate();
+                    }
+
+                    // The freed seat goes to the waitlist in the same transaction
+                    if (promoteWaitlist) {
+                        promoted = waitlistDAO.promote(conn, cancelled.getTrainNumber(), stops);
+                    }
+                }
+
                 conn.commit();
-                return true;
+                return new Cancellation(cancelled, promoted);
 
-            } catch (SQLException e) {
+            } catch (SQLException | RuntimeException e) {
                 conn.rollback();
                 throw e;
             } finally {
@@ -129,9 +323,20 @@ public class BookingDAO {
         }
     }
 
+    // Matches TrainLegDAO.getTicketLegLoads: stops that are no longer scheduled count as the whole route
+    static TrainSegment segmentOrWholeRoute(Ticket ticket, List<Schedule> stops) {
+        try {
+            return TrainLegDAO.segmentFor(ticket.getTrainNumber(), stops,
+                    ticket.getBoardingScheduleId(), ticket.getDeboardingScheduleId());
+        } catch (IllegalArgumentException e) {
+            return new TrainSegment(ticket.getTrainNumber(), 0, stops.size() - 1, null, null);
+        }
+    }
+
     // --- Retrieve ticket details by PNR ---
     public Ticket getTicketDetails(String pnr) throws SQLException {
-        String sql = "SELECT t.PNR, t.TrainNumber, t.Status, tr.Source, tr.Destination, " +
+        String sql = "SELECT t.PNR, t.TrainNumber, t.Status, t.BoardingScheduleID, t.DeboardingScheduleID, " +
+                "tr.Source, tr.Destination, " +
                 "tr.Date as TravelDate, tr.Cost, p.Username " +
                 "FROM Ticket t " +
                 "INNER JOIN Passenger p ON t.PNR = p.PNR " +
@@ -150,28 +355,196 @@ public class BookingDAO {
     }
 
     // --- Retrieve all bookings ---
+    // Newest booking first; tickets without a BookingDate last (NULL sorts lowest); PNR breaks
+    // ties. Both are Ticket columns, so IX_Ticket_BookingDate (PNR comes with the clustered key)
+    // returns the rows in this order and the joins only look up the rows of one page.
+    private static final String ALL_BOOKINGS_SELECT =
+            "SELECT t.PNR, t.TrainNumber, t.Status, t.BookingDate, t.BoardingScheduleID, t.DeboardingScheduleID, " +
+            "tr.Source, tr.Destination, " +
+            "tr.Date as TravelDate, tr.Cost, p.Username " +
+            "FROM Ticket t " +
+            "INNER JOIN Passenger p ON t.PNR = p.PNR " +
+            "INNER JOIN Train tr ON t.TrainNumber = tr.TrainNumber ";
+    private static final String ALL_BOOKINGS_ORDER = "ORDER BY t.BookingDate DESC, t.PNR DESC";
+
+    // mapResultSetToTicket plus the booking time, for queries that select t.BookingDate
+    private Ticket mapBookedTicket(ResultSet rs) throws SQLException {
+        Ticket ticket = mapResultSetToTicket(rs);
+        Timestamp booked = rs.getTimestamp("BookingDate");
+        if (booked != null) ticket.setBookingDate(booked.toLocalDateTime());
+        return ticket;
+    }
+
     public List<Ticket> getAllBookings() throws SQLException {
         List<Ticket> tickets = new ArrayList<>();
-        String sql = "SELECT t.PNR, t.TrainNumber, t.Status, tr.Source, tr.Destination, " +
+        String sql = ALL_BOOKINGS_SELECT + ALL_BOOKINGS_ORDER;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) tickets.add(mapBookedTicket(rs));
+        }
+        return tickets;
+    }
+
+    /**
+     * Hands every ticket, in getAllBookings() order, to {@code consumer} as it is read, fetching
+     * listing.fetchSize rows per round trip, and returns how many there were. Nothing is kept
+     * in memory; the connection stays open until the last row is consumed.
+     */
+    public int streamAllBookings(RowConsumer<Ticket> consumer) throws SQLException, IOException {
+        String sql = ALL_BOOKINGS_SELECT + ALL_BOOKINGS_ORDER;
+        int count = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(DatabaseConnection.getIntProperty("listing.fetchSize", 500));
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    consumer.accept(mapBookedTicket(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Up to {@code limit} tickets in getAllBookings() order, starting after the cursor of the
+     * previous page (null = first page). The cursor is the (BookingDate, PNR) of the last row,
+     * so a page is a seek into IX_Ticket_BookingDate plus one Passenger and Train lookup per row,
+     * however deep into the history it is.
+     */
+    public Page<Ticket> getBookingsPage(String after, int limit) throws SQLException {
+        String[] key = after != null ? KeysetCursor.decode(after, 2) : null;
+        // The parameter is cast so it compares exactly with the DATETIME column (see FeedbackDAO.getFeedbackPage)
+        String sql = ALL_BOOKINGS_SELECT;
+        if (key != null && key[0] != null) {
+            sql += "WHERE (t.BookingDate < CAST(? AS DATETIME) OR (t.BookingDate = CAST(? AS DATETIME) " +
+                    "AND t.PNR < ?) OR t.BookingDate IS NULL) ";
+        } else if (key != null) {
+            sql += "WHERE t.BookingDate IS NULL AND t.PNR < ? ";
+        }
+        sql += ALL_BOOKINGS_ORDER;
+
+        List<Ticket> tickets = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (key != null && key[0] != null) {
+                Timestamp booked = Timestamp.valueOf(LocalDateTime.parse(key[0]));
+                stmt.setTimestamp(1, booked);
+                stmt.setTimestamp(2, booked);
+                stmt.setString(3, key[1]);
+            } else if (key != null) {
+                stmt.setString(1, key[1]);
+            }
+            // One row more than asked for tells whether there is a next page
+            stmt.setMaxRows(limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) tickets.add(mapBookedTicket(rs));
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        if (tickets.size() <= limit) {
+            return new Page<>(tickets, null);
+        }
+        tickets.remove(limit);
+        Ticket last = tickets.get(limit - 1);
+        return new Page<>(tickets, KeysetCursor.encode(
+                last.getBookingDate() != null ? last.getBookingDate().toString() : null, last.getPnr()));
+    }
+
+    // --- Bulk export ---
+    // Tickets are windowed on LastModified, which a waitlist promotion moves, so a ticket sent as
+    // WAITLISTED is sent again once confirmed. Oldest change first so the last row received is
+    // how far a pull got. The window bounds are cast so they compare exactly with the DATETIME
+    // column (see FeedbackDAO.getFeedbackPage).
+    private static final String EXPORT_WINDOW = "t.LastModified > CAST(? AS DATETIME) AND t.LastModified <= CAST(? AS DATETIME)";
+    private static final String EXPORT_UNTIL = "(t.LastModified <= CAST(? AS DATETIME) OR t.LastModified IS NULL)";
+
+    /**
+     * The database server's current time. LastModified and DateSubmitted are stamped with it, so
+     * export watermarks are taken from this clock rather than the application server's.
+     */
+    public LocalDateTime getDatabaseTime() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+            rs.next();
+            return rs.getTimestamp(1).toLocalDateTime();
+        }
+    }
+
+    /**
+     * Streams the tickets booked or changed after {@code since} (null = from the beginning,
+     * including tickets without a LastModified) and up to {@code until}, oldest change first,
+     * with their booking time. A ticket changed again later is sent again by a later window with
+     * its new status; cancelled tickets are deleted and are not sent. Returns the number of rows.
+     */
+    public int exportBookings(LocalDateTime since, LocalDateTime until, RowConsumer<Ticket> consumer)
+            throws SQLException, IOException {
+        String sql = "SELECT t.PNR, t.TrainNumber, t.Status, t.BookingDate, t.BoardingScheduleID, t.DeboardingScheduleID, " +
+                "tr.Source, tr.Destination, " +
                 "tr.Date as TravelDate, tr.Cost, p.Username " +
                 "FROM Ticket t " +
                 "INNER JOIN Passenger p ON t.PNR = p.PNR " +
                 "INNER JOIN Train tr ON t.TrainNumber = tr.TrainNumber " +
-                "ORDER BY tr.Date DESC";
+                "WHERE " + (since != null ? EXPORT_WINDOW : EXPORT_UNTIL) + " ORDER BY t.LastModified, t.PNR";
+        int count = 0;
 
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setExportWindow(stmt, since, until);
+            stmt.setFetchSize(DatabaseConnection.getIntProperty("listing.fetchSize", 500));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapBookedTicket(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
 
-            while (rs.next()) tickets.add(mapResultSetToTicket(rs));
+    /**
+     * Streams the passengers whose ticket was booked or changed in the same window as exportBookings(),
+     * ordered by PNR. Returns the number of rows.
+     */
+    public int exportPassengers(LocalDateTime since, LocalDateTime until, RowConsumer<Passenger> consumer)
+            throws SQLException, IOException {
+        String sql = "SELECT p.PNR, p.PassengerName, p.Age, p.Gender, p.Username FROM Passenger p " +
+                "WHERE EXISTS (SELECT 1 FROM Ticket t WHERE t.PNR = p.PNR AND " +
+                (since != null ? EXPORT_WINDOW : EXPORT_UNTIL) + ") ORDER BY p.PNR";
+        int count = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setExportWindow(stmt, since, until);
+            stmt.setFetchSize(DatabaseConnection.getIntProperty("listing.fetchSize", 500));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToPassenger(rs));
+                    count++;
+                }
+            }
         }
-        return tickets;
+        return count;
+    }
+
+    private static void setExportWindow(PreparedStatement stmt, LocalDateTime since, LocalDateTime until) throws SQLException {
+        int i = 1;
+        if (since != null) stmt.setTimestamp(i++, Timestamp.valueOf(since));
+        stmt.setTimestamp(i, Timestamp.valueOf(until));
     }
 
     // --- Retrieve tickets by username ---
     public List<Ticket> getTicketsByUsername(String username) throws SQLException {
         List<Ticket> tickets = new ArrayList<>();
-        String sql = "SELECT t.PNR, t.TrainNumber, t.Status, tr.Source, tr.Destination, " +
+        String sql = "SELECT t.PNR, t.TrainNumber, t.Status, t.BoardingScheduleID, t.DeboardingScheduleID, " +
+                "tr.Source, tr.Destination, " +
                 "tr.Date as TravelDate, tr.Cost, p.Username " +
                 "FROM Ticket t " +
                 "INNER JOIN Passenger p ON t.PNR = p.PNR " +
@@ -198,17 +571,19 @@ public class BookingDAO {
 
             stmt.setString(1, pnr);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Passenger passenger = new Passenger();
-                    passenger.setPnr(rs.getString("PNR"));
-                    passenger.setPassengerName(rs.getString("PassengerName"));
-                    passenger.setAge(rs.getObject("Age", Integer.class));
-                    passenger.setGender(rs.getString("Gender"));
-                    passenger.setUsername(rs.getString("Username"));
-                    return passenger;
-                }
+                if (rs.next()) return mapResultSetToPassenger(rs);
             }
         }
         return null;
     }
+
+    private Passenger mapResultSetToPassenger(ResultSet rs) throws SQLException {
+        Passenger passenger = new Passenger();
+        passenger.setPnr(rs.getString("PNR"));
+        passenger.setPassengerName(rs.getString("PassengerName"));
+        passenger.setAge(rs.getObject("Age", Integer.class));
+        passenger.setGender(rs.getString("Gender"));
+        passenger.setUsername(rs.getString("Username"));
+        return passenger;
+    }
 }
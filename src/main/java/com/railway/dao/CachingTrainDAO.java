@@ -0,0 +1,153 @@
+package com.railway.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.railway.model.Train;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of TrainDAO for train metadata.
+ *
+ * getTrainByNumber() is answered from memory after the first load. addTrain/updateTrain/deleteTrain
+ * invalidate the entry synchronously once the database write returns, so admin changes are visible
+ * to the next lookup in this JVM. The cache is shared by every instance of this class, bounded by
+ * an estimated byte weight and expires entries after a TTL so changes made by other instances
+ * are eventually picked up.
+ *
+ * Callers always receive copies; trains are mutable (availableSeats is filled in per request).
+ */
+public class CachingTrainDAO extends TrainDAO {
+
+    private static final Cache<String, Train> cache = Caffeine.newBuilder()
+            .maximumWeight(DatabaseConnection.getLongProperty("train.cache.maxWeightBytes", 4L * 1024 * 1024))
+            .weigher((String trainNumber, Train train) -> estimateBytes(train))
+            .expireAfterWrite(Duration.ofSeconds(DatabaseConnection.getLongProperty("train.cache.ttlSeconds", 300L)))
+            .recordStats()
+            .build();
+
+    // Bumped by every write before it invalidates, so a full scan can tell it may have read a stale row
+    private static final AtomicLong writes = new AtomicLong();
+
+    // --- Reads ---
+
+    @Override
+    public Train getTrainByNumber(String trainNumber) throws SQLException {
+        if (trainNumber == null) {
+            return null;
+        }
+        Train cached;
+        try {
+            // Unknown trains are not cached (the loader returns null)
+            cached = cache.get(trainNumber, key -> {
+                try {
+                    return super.getTrainByNumber(key);
+                } catch (SQLException e) {
+                    throw new CacheLoadException(e);
+                }
+            });
+        } catch (CacheLoadException e) {
+            throw e.getCause();
+        }
+        return cached != null ? new Train(cached) : null;
+    }
+
+    /**
+     * The full listing is already paid for, so it also warms the cache, but only with trains not
+     * cached yet (a cached entry may be newer than the scan). If a write committed while the scan
+     * ran, the row read for it may be the old one and its invalidation may already have happened,
+     * so everything this scan added is taken out again.
+     */
+    @Override
+    public List<Train> getAllTrains() throws SQLException {
+        long writesBefore = writes.get();
+        List<Train> trains = super.getAllTrains();
+        List<String> added = new ArrayList<>();
+        for (Train train : trains) {
+            if (cache.asMap().putIfAbsent(train.getTrainNumber(), new Train(train)) == null) {
+                added.add(train.getTrainNumber());
+            }
+        }
+        if (writes.get() != writesBefore) {
+            cache.invalidateAll(added);
+        }
+        return trains;
+    }
+
+    // --- Writes (synchronous invalidation) ---
+
+    @Override
+    public boolean addTrain(Train train) throws SQLException {
+        try {
+            return super.addTrain(train);
+        } finally {
+            writes.incrementAndGet();
+            cache.invalidate(train.getTrainNumber());
+        }
+    }
+
+    @Override
+    public boolean updateTrain(Train train) throws SQLException {
+        try {
+            return super.updateTrain(train);
+        } finally {
+            writes.incrementAndGet();
+            cache.invalidate(train.getTrainNumber());
+        }
+    }
+
+    @Override
+    public boolean deleteTrain(String trainNumber) throws SQLException {
+        try {
+            return super.deleteTrain(trainNumber);
+        } finally {
+            writes.incrementAndGet();
+            cache.invalidate(trainNumber);
+        }
+    }
+
+    // --- Statistics ---
+
+    public static CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public static long getCachedTrainCount() {
+        return cache.estimatedSize();
+    }
+
+    public static void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Rough retained size: object headers and fields plus 2 bytes per string character
+    private static int estimateBytes(Train train) {
+        int bytes = 120;
+        bytes += stringBytes(train.getTrainNumber());
+        bytes += stringBytes(train.getTrainName());
+        bytes += stringBytes(train.getSource());
+        bytes += stringBytes(train.getDestination());
+        return bytes;
+    }
+
+    private static int stringBytes(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+
+    private static class CacheLoadException extends RuntimeException {
+        CacheLoadException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
@@ -12,51 +12,8 @@ import org.springframework.stereotype.Repository;
 @Repository // FIX: ADDED @Repository
 public class DocumentDAO {
 
-    public DocumentDAO() {
-        createDocumentTablesIfNotExist();
-    }
-
-    private void createDocumentTablesIfNotExist() {
-        String documentTableSql = "IF NOT EXISTS (SELECT * FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'Document') " +
-                "CREATE TABLE Document (" +
-                "DocumentID INT IDENTITY(1,1) PRIMARY KEY, " +
-                "DocumentType VARCHAR(50) NOT NULL, " +
-                "FileName VARCHAR(255) NOT NULL, " +
-                "FilePath VARCHAR(500) NOT NULL, " +
-                "FileSize BIGINT, " +
-                "UploadedBy VARCHAR(50), " +
-                "UploadDate DATETIME DEFAULT GETDATE(), " +
-                "Status VARCHAR(20) DEFAULT 'ACTIVE')";
-
-        String passengerDocTableSql = "IF NOT EXISTS (SELECT * FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'PassengerDocument') " +
-                "CREATE TABLE PassengerDocument (" +
-                "PNR VARCHAR(10) NOT NULL, " +
-                "DocumentID INT NOT NULL, " +
-                "Purpose VARCHAR(100), " +
-                "PRIMARY KEY (PNR, DocumentID), " +
-                "FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE, " +
-                "FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE)";
-
-        String bookingDocTableSql = "IF NOT EXISTS (SELECT * FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'BookingDocument') " +
-                "CREATE TABLE BookingDocument (" +
-                "PNR VARCHAR(10) NOT NULL, " +
-                "DocumentID INT NOT NULL, " +
-                "DocumentCategory VARCHAR(20) CHECK (DocumentCategory IN ('TICKET', 'RECEIPT', 'INVOICE')), " +
-                "PRIMARY KEY (PNR, DocumentID), " +
-                "FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE, " +
-                "FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE)";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            stmt.execute(documentTableSql);
-            stmt.execute(passengerDocTableSql);
-            stmt.execute(bookingDocTableSql);
-
-        } catch (SQLException e) {
-            System.err.println("Error creating Document tables: " + e.getMessage());
-        }
-    }
+    // The Document, PassengerDocument and BookingDocument tables are created by schema
+    // migration V6 (SchemaMigrator) when the application starts, not here
 
     public int addDocument(Document document) throws SQLException {
         String sql = "INSERT INTO Document (DocumentType, FileName, FilePath, FileSize, UploadedBy, UploadDate, Status) " +
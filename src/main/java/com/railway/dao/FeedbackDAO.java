@@ -1,10 +1,14 @@
 package com.railway.dao;
 
 import com.railway.model.Feedback;
+import com.railway.model.Page;
 import com.railway.util.DatabaseConnection;
+import com.railway.util.KeysetCursor;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import org.springframework.stereotype.Repository; 
@@ -49,9 +53,12 @@ public class FeedbackDAO {
     }
     
     // --- Admin Action: View All Feedback ---
+    // Newest first (undated rows last); FeedbackID breaks ties
+    private static final String ALL_FEEDBACK_ORDER = "ORDER BY f.DateSubmitted DESC, f.FeedbackID DESC";
+
     public List<Feedback> getAllFeedback() throws SQLException {
         List<Feedback> feedbackList = new ArrayList<>();
-        String sql = "SELECT f.* FROM Feedback f ORDER BY f.DateSubmitted DESC";
+        String sql = "SELECT f.* FROM Feedback f " + ALL_FEEDBACK_ORDER;
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
@@ -64,11 +71,110 @@ public class FeedbackDAO {
         return feedbackList;
     }
 
+    /**
+     * Hands all feedback, in getAllFeedback() order, to {@code consumer} as it is read
+     * (listing.fetchSize rows per round trip) and returns how many there were.
+     */
+    public int streamAllFeedback(RowConsumer<Feedback> consumer) throws SQLException, IOException {
+        String sql = "SELECT f.* FROM Feedback f " + ALL_FEEDBACK_ORDER;
+        int count = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(DatabaseConnection.getIntProperty("listing.fetchSize", 500));
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToFeedback(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Streams the feedback submitted after {@code since} (null = from the beginning, including
+     * undated rows) and up to {@code until}, oldest first. Returns the number of rows.
+     */
+    public int exportFeedback(LocalDateTime since, LocalDateTime until, RowConsumer<Feedback> consumer)
+            throws SQLException, IOException {
+        String sql = "SELECT f.* FROM Feedback f WHERE " + (since != null
+                ? "f.DateSubmitted > CAST(? AS DATETIME) AND f.DateSubmitted <= CAST(? AS DATETIME) "
+                : "(f.DateSubmitted <= CAST(? AS DATETIME) OR f.DateSubmitted IS NULL) ") +
+                "ORDER BY f.DateSubmitted, f.FeedbackID";
+        int count = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (since != null) stmt.setTimestamp(i++, Timestamp.valueOf(since));
+            stmt.setTimestamp(i, Timestamp.valueOf(until));
+            stmt.setFetchSize(DatabaseConnection.getIntProperty("listing.fetchSize", 500));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToFeedback(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Up to {@code limit} feedback entries in getAllFeedback() order, after the cursor of the
+     * previous page (null = first page). The cursor is the (DateSubmitted, FeedbackID) of the
+     * last row.
+     */
+    public Page<Feedback> getFeedbackPage(String after, int limit) throws SQLException {
+        String[] key = after != null ? KeysetCursor.decode(after, 2) : null;
+        // The parameter is cast so it compares exactly with the DATETIME column (SQL Server
+        // would otherwise widen both sides to DATETIME2 and miss rows on the boundary)
+        String sql = "SELECT f.* FROM Feedback f ";
+        if (key != null && key[0] != null) {
+            sql += "WHERE (f.DateSubmitted < CAST(? AS DATETIME) OR (f.DateSubmitted = CAST(? AS DATETIME) " +
+                    "AND f.FeedbackID < ?) OR f.DateSubmitted IS NULL) ";
+        } else if (key != null) {
+            sql += "WHERE f.DateSubmitted IS NULL AND f.FeedbackID < ? ";
+        }
+        sql += ALL_FEEDBACK_ORDER;
+
+        List<Feedback> feedbackList = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (key != null && key[0] != null) {
+                Timestamp submitted = Timestamp.valueOf(LocalDateTime.parse(key[0]));
+                stmt.setTimestamp(1, submitted);
+                stmt.setTimestamp(2, submitted);
+                stmt.setInt(3, Integer.parseInt(key[1]));
+            } else if (key != null) {
+                stmt.setInt(1, Integer.parseInt(key[1]));
+            }
+            stmt.setMaxRows(limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    feedbackList.add(mapResultSetToFeedback(rs));
+                }
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        if (feedbackList.size() <= limit) {
+            return new Page<>(feedbackList, null);
+        }
+        feedbackList.remove(limit);
+        Feedback last = feedbackList.get(limit - 1);
+        return new Page<>(feedbackList, KeysetCursor.encode(
+                last.getDateSubmitted() != null ? last.getDateSubmitted().toString() : null,
+                Integer.toString(last.getFeedbackId())));
+    }
+
     // --- NEW FIX: Retrieve only feedback with no Admin response ---
     public List<Feedback> getPendingFeedback() throws SQLException {
         List<Feedback> feedbackList = new ArrayList<>();
-        // SQL: Where AdminResponse is NULL or an empty string
-        String sql = "SELECT f.* FROM Feedback f WHERE f.AdminResponse IS NULL OR f.AdminResponse = '' ORDER BY f.DateSubmitted DESC";
+        // Pending means AdminResponse IS NULL (migration V8 cleared the old empty strings);
+        // answered from the filtered index IX_Feedback_Pending, which an OR would not match
+        String sql = "SELECT f.* FROM Feedback f WHERE f.AdminResponse IS NULL ORDER BY f.DateSubmitted DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
              Statement stmt = conn.createStatement();
@@ -0,0 +1,116 @@
+package com.railway.dao;
+
+import com.railway.model.IdempotencyRecord;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.Instant;
+import org.springframework.stereotype.Repository;
+
+/**
+ * IdempotencyKey table: the shared record of Idempotency-Keys when idempotency.store=database.
+ *
+ * Inserting the row is the claim on a key. The primary key on (Username, IdempotencyKey) lets only
+ * one request across all instances insert it; the others find the row and replay its response, or
+ * wait if the response isn't there yet.
+ */
+@Repository
+public class IdempotencyDAO {
+
+    /**
+     * Inserts an in-progress row for the key, valid until expiresAt (the lease). Returns false if
+     * a live row already exists; an expired one is replaced.
+     */
+    public boolean claim(String username, String key, String requestHash, Instant expiresAt) throws SQLException {
+        String deleteExpiredSql = "DELETE FROM IdempotencyKey WHERE Username = ? AND IdempotencyKey = ? AND ExpiresAt < ?";
+        String insertSql = "INSERT INTO IdempotencyKey (Username, IdempotencyKey, RequestHash, ExpiresAt) VALUES (?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(deleteExpiredSql)) {
+                ps.setString(1, username);
+                ps.setString(2, key);
+                ps.setTimestamp(3, Timestamp.from(Instant.now()));
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+                ps.setString(1, username);
+                ps.setString(2, key);
+                ps.setString(3, requestHash);
+                ps.setTimestamp(4, Timestamp.from(expiresAt));
+                ps.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                // Class 23 = integrity constraint violation: somebody else holds the key
+                if (e instanceof SQLIntegrityConstraintViolationException
+                        || (e.getSQLState() != null && e.getSQLState().startsWith("23"))) {
+                    return false;
+                }
+                throw e;
+            }
+        }
+    }
+
+    public IdempotencyRecord find(String username, String key) throws SQLException {
+        String sql = "SELECT Username, IdempotencyKey, RequestHash, StatusCode, ResponseBody, ExpiresAt " +
+                "FROM IdempotencyKey WHERE Username = ? AND IdempotencyKey = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            stmt.setString(2, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Timestamp expiresAt = rs.getTimestamp("ExpiresAt");
+                    return new IdempotencyRecord(rs.getString("Username"), rs.getString("IdempotencyKey"),
+                            rs.getString("RequestHash"), rs.getObject("StatusCode", Integer.class),
+                            rs.getString("ResponseBody"), expiresAt.toInstant());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the response of the request that claimed the key and how long to keep it.
+     */
+    public void complete(String username, String key, int statusCode, String responseBody, Instant expiresAt)
+            throws SQLException {
+        String sql = "UPDATE IdempotencyKey SET StatusCode = ?, ResponseBody = ?, ExpiresAt = ? " +
+                "WHERE Username = ? AND IdempotencyKey = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, statusCode);
+            stmt.setString(2, responseBody);
+            stmt.setTimestamp(3, Timestamp.from(expiresAt));
+            stmt.setString(4, username);
+            stmt.setString(5, key);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Gives up the claim so the next request with the key runs again.
+     */
+    public void release(String username, String key) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM IdempotencyKey WHERE Username = ? AND IdempotencyKey = ?")) {
+
+            stmt.setString(1, username);
+            stmt.setString(2, key);
+            stmt.executeUpdate();
+        }
+    }
+
+    public int deleteExpired() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM IdempotencyKey WHERE ExpiresAt < ?")) {
+
+            stmt.setTimestamp(1, Timestamp.from(Instant.now()));
+            return stmt.executeUpdate();
+        }
+    }
+}
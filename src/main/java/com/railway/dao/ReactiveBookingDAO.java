@@ -0,0 +1,54 @@
+package com.railway.dao;
+
+import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
+import com.railway.util.ReactiveDatabaseConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking reads of tickets for the reactive API. Writes stay in BookingDAO, so every
+ * booking goes through the same transaction and seat accounting whichever API it came from.
+ */
+public class ReactiveBookingDAO {
+
+    private static final String ALL_BOOKINGS_SQL =
+            "SELECT t.PNR, t.TrainNumber, t.Status, t.BookingDate, t.BoardingScheduleID, t.DeboardingScheduleID, " +
+            "tr.Source, tr.Destination, " +
+            "tr.Date as TravelDate, tr.Cost, p.Username " +
+            "FROM Ticket t " +
+            "INNER JOIN Passenger p ON t.PNR = p.PNR " +
+            "INNER JOIN Train tr ON t.TrainNumber = tr.TrainNumber " +
+            "ORDER BY t.BookingDate DESC, t.PNR DESC";
+
+    /**
+     * Every ticket, ordered like BookingDAO.getAllBookings().
+     */
+    public Flux<Ticket> getAllBookings() {
+        return Flux.usingWhen(ReactiveDatabaseConnection.getConnectionFactory().create(),
+                conn -> Flux.from(conn.createStatement(ALL_BOOKINGS_SQL).execute())
+                        .concatMap(result -> result.map((row, meta) -> extractTicket(row))),
+                Connection::close);
+    }
+
+    private static Ticket extractTicket(Row row) {
+        Ticket ticket = new Ticket();
+        ticket.setPnr(row.get("PNR", String.class));
+        ticket.setTrainNumber(row.get("TrainNumber", String.class));
+        ticket.setDate(row.get("TravelDate", LocalDate.class));
+        ticket.setSource(row.get("Source", String.class));
+        ticket.setDestination(row.get("Destination", String.class));
+        ticket.setAmount(row.get("Cost", BigDecimal.class));
+        ticket.setStatus(TicketStatus.fromDb(row.get("Status", String.class)));
+        ticket.setBookingDate(row.get("BookingDate", LocalDateTime.class));
+        ticket.setBoardingScheduleId(row.get("BoardingScheduleID", String.class));
+        ticket.setDeboardingScheduleId(row.get("DeboardingScheduleID", String.class));
+        ticket.setUsername(row.get("Username", String.class));
+        return ticket;
+    }
+}
@@ -0,0 +1,41 @@
+package com.railway.dao;
+
+import com.railway.model.Train;
+import com.railway.util.ReactiveDatabaseConnection;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Non-blocking reads of the Train table for the reactive API. Rows are emitted as the driver
+ * decodes them and only as fast as the subscriber asks for them.
+ */
+public class ReactiveTrainDAO {
+
+    private static final String ALL_TRAINS_SQL = "SELECT * FROM Train ORDER BY Date, TrainNumber";
+
+    /**
+     * Every train, ordered like TrainDAO.getAllTrains().
+     */
+    public Flux<Train> getAllTrains() {
+        return Flux.usingWhen(ReactiveDatabaseConnection.getConnectionFactory().create(),
+                conn -> Flux.from(conn.createStatement(ALL_TRAINS_SQL).execute())
+                        .concatMap(result -> result.map((row, meta) -> extractTrain(row))),
+                Connection::close);
+    }
+
+    private static Train extractTrain(Row row) {
+        Train train = new Train();
+        train.setTrainNumber(row.get("TrainNumber", String.class));
+        train.setTrainName(row.get("TrainName", String.class));
+        train.setSource(row.get("Source", String.class));
+        train.setDestination(row.get("Destination", String.class));
+        train.setDate(row.get("Date", LocalDate.class));
+        train.setCost(row.get("Cost", BigDecimal.class));
+        train.setTotalSeats(row.get("Seats", Integer.class));
+        return train;
+    }
+}
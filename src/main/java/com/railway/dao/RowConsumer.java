@@ -0,0 +1,11 @@
+package com.railway.dao;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows of a streaming query one at a time, while the ResultSet is still open.
+ */
+@FunctionalInterface
+public interface RowConsumer<T> {
+    void accept(T row) throws IOException;
+}
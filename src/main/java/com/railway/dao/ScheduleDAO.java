@@ -0,0 +1,174 @@
+package com.railway.dao;
+
+import com.railway.model.Schedule;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Read access to the Schedule table (the stops of each train).
+ *
+ * Schedule has no stop sequence column, only times of day, so stops are put in travel order
+ * by time: a train's stops are sorted by time of day and the sequence starts after the longest
+ * gap between consecutive stops. That keeps overnight trains (e.g. 22:00 -> 01:30 -> 06:00)
+ * in the right order as long as a run is shorter than a day.
+ */
+@Repository
+public class ScheduleDAO {
+
+    private static final String SCHEDULE_SQL =
+            "SELECT TrainNumber, StationName, ScheduleID, arrd_arrival_time, dept_departure_time FROM Schedule ";
+
+    private Schedule extractScheduleFromResultSet(ResultSet rs) throws SQLException {
+        Schedule schedule = new Schedule();
+        schedule.setTrainNumber(rs.getString("TrainNumber"));
+        schedule.setStationName(rs.getString("StationName"));
+        schedule.setScheduleId(rs.getString("ScheduleID"));
+
+        Time arrival = rs.getTime("arrd_arrival_time");
+        if (arrival != null) {
+            schedule.setArrivalTime(arrival.toLocalTime());
+        }
+        Time departure = rs.getTime("dept_departure_time");
+        if (departure != null) {
+            schedule.setDepartureTime(departure.toLocalTime());
+        }
+        return schedule;
+    }
+
+    /**
+     * Stops of one train in travel order (empty if the train has no schedule).
+     */
+    public List<Schedule> getStops(String trainNumber) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return getStops(conn, trainNumber);
+        }
+    }
+
+    /**
+     * Stops of one train on the caller's connection, so a transaction that already holds
+     * a pooled connection does not borrow a second one.
+     */
+    public List<Schedule> getStops(Connection conn, String trainNumber) throws SQLException {
+        List<Schedule> stops = new ArrayList<>();
+        String sql = SCHEDULE_SQL + "WHERE TrainNumber = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, trainNumber);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Schedule schedule = extractScheduleFromResultSet(rs);
+                    if (stopTime(schedule) != null) {
+                        stops.add(schedule);
+                    }
+                }
+            }
+        }
+        return orderStops(stops);
+    }
+
+    /**
+     * Every train's stops in travel order, keyed by train number, in one query.
+     * Stops with neither an arrival nor a departure time are skipped.
+     */
+    public Map<String, List<Schedule>> getAllStops() throws SQLException {
+        Map<String, List<Schedule>> byTrain = new LinkedHashMap<>();
+        String sql = SCHEDULE_SQL + "ORDER BY TrainNumber";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                Schedule schedule = extractScheduleFromResultSet(rs);
+                if (stopTime(schedule) != null) {
+                    byTrain.computeIfAbsent(schedule.getTrainNumber(), k -> new ArrayList<>()).add(schedule);
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<Schedule>> entry : byTrain.entrySet()) {
+            entry.setValue(orderStops(entry.getValue()));
+        }
+        return byTrain;
+    }
+
+    /**
+     * Stops of a set of trains in travel order, one query per 1000 trains.
+     * Trains without a schedule are absent from the returned map.
+     */
+    public Map<String, List<Schedule>> getStops(Collection<String> trainNumbers) throws SQLException {
+        Map<String, List<Schedule>> byTrain = new HashMap<>();
+        if (trainNumbers.isEmpty()) {
+            return byTrain;
+        }
+        List<String> numbers = new ArrayList<>(trainNumbers);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < numbers.size(); from += TrainDAO.MAX_IN_LIST) {
+                List<String> chunk = numbers.subList(from, Math.min(numbers.size(), from + TrainDAO.MAX_IN_LIST));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String sql = SCHEDULE_SQL + "WHERE TrainNumber IN (" + placeholders + ")";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Schedule schedule = extractScheduleFromResultSet(rs);
+                            if (stopTime(schedule) != null) {
+                                byTrain.computeIfAbsent(schedule.getTrainNumber(), k -> new ArrayList<>()).add(schedule);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<Schedule>> entry : byTrain.entrySet()) {
+            entry.setValue(orderStops(entry.getValue()));
+        }
+        return byTrain;
+    }
+
+    // --- Stop ordering ---
+
+    private static LocalTime stopTime(Schedule schedule) {
+        return schedule.getArrivalTime() != null ? schedule.getArrivalTime() : schedule.getDepartureTime();
+    }
+
+    static List<Schedule> orderStops(List<Schedule> stops) {
+        int n = stops.size();
+        if (n < 2) {
+            return stops;
+        }
+        stops.sort((a, b) -> stopTime(a).compareTo(stopTime(b)));
+
+        // The run starts after the largest (cyclic) gap between consecutive stop times
+        int start = 0;
+        int largestGap = -1;
+        for (int i = 0; i < n; i++) {
+            int previous = stopTime(stops.get((i + n - 1) % n)).toSecondOfDay();
+            int gap = Math.floorMod(stopTime(stops.get(i)).toSecondOfDay() - previous, 24 * 3600);
+            if (gap > largestGap) {
+                largestGap = gap;
+                start = i;
+            }
+        }
+        if (start != 0) {
+            Collections.rotate(stops, -start);
+        }
+        return stops;
+    }
+}
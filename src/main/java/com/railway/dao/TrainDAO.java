@@ -1,17 +1,44 @@
 package com.railway.dao;
 
+import com.railway.model.SeatCount;
 import com.railway.model.Train;
 import com.railway.util.DatabaseConnection;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Repository; 
 
 @Repository // FIX: ADDED @Repository
 public class TrainDAO {
 
+    // Most keys bound in one IN (...) list by the DAOs' bulk lookups; stays well under SQL Server's
+    // 2100 bind-parameter limit per statement
+    static final int MAX_IN_LIST = 1000;
+
+    // Matches the column default on Train.Seats
+    private static final int DEFAULT_SEATS = 100;
+
+    // Capacity and the persisted BookedSeats counter, one row per train (no Ticket scan)
+    private static final String SEAT_COUNT_SQL =
+            "SELECT tr.TrainNumber, COALESCE(tr.Seats, " + DEFAULT_SEATS + ") AS TotalSeats, " +
+            "tr.BookedSeats AS BookedCount " +
+            "FROM Train tr ";
+
+    // Capacity and CONFIRMED ticket rows actually present; used only to audit BookedSeats
+    private static final String TICKET_COUNT_SQL =
+            "SELECT tr.TrainNumber, COALESCE(tr.Seats, " + DEFAULT_SEATS + ") AS TotalSeats, " +
+            "COUNT(t.PNR) AS BookedCount " +
+            "FROM Train tr " +
+            "LEFT JOIN Ticket t ON t.TrainNumber = tr.TrainNumber AND t.Status = 'CONFIRMED' " +
+            "GROUP BY tr.TrainNumber, tr.Seats";
+
     // --- Helper to convert database result into a Train object ---
     private Train extractTrainFromResultSet(ResultSet rs) throws SQLException {
         Train train = new Train();
@@ -26,15 +53,16 @@ public class TrainDAO {
         }
 
         train.setCost(rs.getBigDecimal("Cost"));
-        // AvailableSeats and TotalSeats are not stored in the DB, only calculated (in Service)
+        train.setTotalSeats(rs.getObject("Seats", Integer.class));
+        // AvailableSeats is not stored in the DB, only calculated (in Service)
         return train;
     }
 
     // --- CRUD Operations ---
 
     public boolean addTrain(Train train) throws SQLException {
-        String sql = "INSERT INTO Train (TrainNumber, TrainName, Source, Destination, Date, Cost) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO Train (TrainNumber, TrainName, Source, Destination, Date, Cost, Seats) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -45,6 +73,7 @@ public class TrainDAO {
             stmt.setString(4, train.getDestination());
             stmt.setDate(5, Date.valueOf(train.getDate()));
             stmt.setBigDecimal(6, train.getCost());
+            stmt.setObject(7, train.getTotalSeats() != null ? train.getTotalSeats() : DEFAULT_SEATS);
 
             return stmt.executeUpdate() > 0;
         }
@@ -52,7 +81,7 @@ public class TrainDAO {
 
     public boolean updateTrain(Train train) throws SQLException {
         String sql = "UPDATE Train SET TrainName = ?, Source = ?, Destination = ?, " +
-                "Date = ?, Cost = ? WHERE TrainNumber = ?";
+                "Date = ?, Cost = ?, Seats = ? WHERE TrainNumber = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -62,7 +91,8 @@ public class TrainDAO {
             stmt.setString(3, train.getDestination());
             stmt.setDate(4, Date.valueOf(train.getDate()));
             stmt.setBigDecimal(5, train.getCost());
-            stmt.setString(6, train.getTrainNumber());
+            stmt.setObject(6, train.getTotalSeats() != null ? train.getTotalSeats() : DEFAULT_SEATS);
+            stmt.setString(7, train.getTrainNumber());
 
             return stmt.executeUpdate() > 0;
         }
@@ -101,14 +131,18 @@ public class TrainDAO {
     public List<Train> searchTrains(String source, String destination, LocalDate date) throws SQLException {
         List<Train> trains = new ArrayList<>();
         // Basic query is simple since Source/Destination/Date are stored directly on the Train table
-        String sql = "SELECT * FROM Train WHERE Source = ? AND Destination = ? AND Date = ?";
+        String sql = "SELECT * FROM Train WHERE Source = ? AND Destination = ?"
+                + (date != null ? " AND Date = ?" : "")
+                + " ORDER BY Date, TrainNumber";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, source);
             stmt.setString(2, destination);
-            stmt.setDate(3, Date.valueOf(date));
+            if (date != null) {
+                stmt.setDate(3, Date.valueOf(date));
+            }
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
@@ -134,13 +168,37 @@ public class TrainDAO {
         return trains;
     }
 
+    /**
+     * Hands every train, in getAllTrains() order, to {@code consumer} as it is read and returns
+     * how many there were. Seats are the configured totals; availability is not computed.
+     */
+    public int streamAllTrains(RowConsumer<Train> consumer) throws SQLException, IOException {
+        String sql = "SELECT * FROM Train ORDER BY Date, TrainNumber";
+        int count = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(DatabaseConnection.getIntProperty("listing.fetchSize", 500));
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    consumer.accept(extractTrainFromResultSet(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
     // --- Availability Calculation ---
 
     public int getAvailableSeats(String trainNumber) throws SQLException {
-        // Assumes a fixed total capacity (e.g., 100) and counts currently CONFIRMED tickets
-        // NOTE: The previous version was correct, ensuring the logic is robust.
-        String sql = "SELECT COUNT(t.PNR) AS bookedCount FROM Ticket t " +
-                     "WHERE t.TrainNumber = ?";
+        SeatCount count = getSeatCount(trainNumber);
+        // Default to 0 if the train doesn't exist
+        return count != null ? count.getAvailableSeats() : 0;
+    }
+
+    public SeatCount getSeatCount(String trainNumber) throws SQLException {
+        String sql = SEAT_COUNT_SQL + "WHERE tr.TrainNumber = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -149,14 +207,98 @@ public class TrainDAO {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    int bookedSeats = rs.getInt("bookedCount");
-                    // Assuming a fixed total of 100 seats per train service for simplicity
-                    final int TOTAL_SEATS = 100;
-                    return TOTAL_SEATS - bookedSeats;
+                    return extractSeatCountFromResultSet(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    public List<SeatCount> getAllSeatCounts() throws SQLException {
+        List<SeatCount> counts = new ArrayList<>();
+        String sql = SEAT_COUNT_SQL;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                counts.add(extractSeatCountFromResultSet(rs));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Seat counts for a set of trains using one query per 1000 trains.
+     * Trains that don't exist are absent from the returned map.
+     */
+    public Map<String, SeatCount> getSeatCounts(Collection<String> trainNumbers) throws SQLException {
+        Map<String, SeatCount> counts = new HashMap<>();
+        if (trainNumbers.isEmpty()) {
+            return counts;
+        }
+        List<String> numbers = new ArrayList<>(trainNumbers);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < numbers.size(); from += MAX_IN_LIST) {
+                List<String> chunk = numbers.subList(from, Math.min(numbers.size(), from + MAX_IN_LIST));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String sql = SEAT_COUNT_SQL + "WHERE tr.TrainNumber IN (" + placeholders + ")";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            SeatCount count = extractSeatCountFromResultSet(rs);
+                            counts.put(count.getTrainNumber(), count);
+                        }
+                    }
                 }
             }
         }
-        // Default to 100 if train/data isn't found
-        return 100;
+        return counts;
+    }
+
+    // --- BookedSeats counter audit ---
+
+    /**
+     * Seat counts derived from the Ticket rows themselves (full scan).
+     * Compare with getAllSeatCounts() to find BookedSeats counters that drifted.
+     */
+    public List<SeatCount> getTicketSeatCounts() throws SQLException {
+        List<SeatCount> counts = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(TICKET_COUNT_SQL)) {
+
+            while (rs.next()) {
+                counts.add(extractSeatCountFromResultSet(rs));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Resets a train's BookedSeats counter to its number of CONFIRMED tickets.
+     */
+    public boolean repairBookedSeats(String trainNumber) throws SQLException {
+        String sql = "UPDATE Train SET BookedSeats = (" +
+                "SELECT COUNT(*) FROM Ticket t WHERE t.TrainNumber = Train.TrainNumber AND t.Status = 'CONFIRMED') " +
+                "WHERE TrainNumber = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, trainNumber);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    private SeatCount extractSeatCountFromResultSet(ResultSet rs) throws SQLException {
+        return new SeatCount(rs.getString("TrainNumber"), rs.getInt("TotalSeats"), rs.getInt("BookedCount"));
     }
 }
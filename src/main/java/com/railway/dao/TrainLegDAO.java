@@ -0,0 +1,242 @@
+package com.railway.dao;
+
+import com.railway.model.Schedule;
+import com.railway.model.TrainSegment;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Per-leg booked-seat counters for trains that have a schedule (TrainLeg table).
+ *
+ * Leg i runs from stop i to stop i + 1 in travel order (see ScheduleDAO). A ticket from stop
+ * a to stop b occupies legs a .. b - 1, so a seat freed at an intermediate station can be sold
+ * again for the rest of the route. As long as no leg carries more passengers than the train
+ * has seats, the tickets can always be given seats (intervals on a line need no more colours
+ * than their largest overlap), so counters are all that needs to be stored.
+ *
+ * Rows are created the first time a scheduled train is used for booking (ensureLegs), seeded
+ * from the CONFIRMED tickets already on the train. Tickets without boarding/deboarding stops
+ * occupy the whole route.
+ */
+@Repository
+public class TrainLegDAO {
+
+    private static final String LEG_SQL = "SELECT TrainNumber, LegIndex, Booked FROM TrainLeg ";
+
+    // --- Reads ---
+
+    /**
+     * Booked seats per leg, or null if the train has no TrainLeg rows.
+     */
+    public int[] getLegLoads(String trainNumber) throws SQLException {
+        String sql = LEG_SQL + "WHERE TrainNumber = ? ORDER BY LegIndex";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, trainNumber);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return collect(rs).get(trainNumber);
+            }
+        }
+    }
+
+    public Map<String, int[]> getAllLegLoads() throws SQLException {
+        String sql = LEG_SQL + "ORDER BY TrainNumber, LegIndex";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            return collect(rs);
+        }
+    }
+
+    /**
+     * Leg loads for a set of trains, one query per 1000 trains. Trains without rows are absent.
+     */
+    public Map<String, int[]> getLegLoads(Collection<String> trainNumbers) throws SQLException {
+        Map<String, int[]> loads = new HashMap<>();
+        if (trainNumbers.isEmpty()) {
+            return loads;
+        }
+        List<String> numbers = new ArrayList<>(trainNumbers);
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int from = 0; from < numbers.size(); from += TrainDAO.MAX_IN_LIST) {
+                List<String> chunk = numbers.subList(from, Math.min(numbers.size(), from + TrainDAO.MAX_IN_LIST));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String sql = LEG_SQL + "WHERE TrainNumber IN (" + placeholders + ") ORDER BY TrainNumber, LegIndex";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        loads.putAll(collect(rs));
+                    }
+                }
+            }
+        }
+        return loads;
+    }
+
+    // Rows must be ordered by TrainNumber, LegIndex; gaps in LegIndex read as 0
+    private static Map<String, int[]> collect(ResultSet rs) throws SQLException {
+        Map<String, List<int[]>> rows = new HashMap<>();
+        while (rs.next()) {
+            rows.computeIfAbsent(rs.getString("TrainNumber"), k -> new ArrayList<>())
+                    .add(new int[] { rs.getInt("LegIndex"), rs.getInt("Booked") });
+        }
+        Map<String, int[]> loads = new HashMap<>();
+        for (Map.Entry<String, List<int[]>> entry : rows.entrySet()) {
+            List<int[]> legs = entry.getValue();
+            int[] booked = new int[legs.get(legs.size() - 1)[0] + 1];
+            for (int[] leg : legs) {
+                booked[leg[0]] = leg[1];
+            }
+            loads.put(entry.getKey(), booked);
+        }
+        return loads;
+    }
+
+    // --- Creation and audit ---
+
+    /**
+     * Makes sure the train has one TrainLeg row per leg of its schedule and returns the loads.
+     * Missing rows are inserted with the load of the CONFIRMED tickets already on the train;
+     * a row inserted concurrently by another instance is left alone.
+     */
+    public int[] ensureLegs(String trainNumber, List<Schedule> stops) throws SQLException {
+        int legCount = stops.size() - 1;
+        int[] existing = getLegLoads(trainNumber);
+        if (existing != null && existing.length == legCount) {
+            return existing;
+        }
+        if (existing != null && existing.length > legCount) {
+            throw new IllegalStateException("Train " + trainNumber + " has " + existing.length +
+                    " leg counters but only " + legCount + " legs; was a stop removed from its schedule?");
+        }
+
+        int[] loads = getTicketLegLoads(trainNumber, stops);
+        String sql = "INSERT INTO TrainLeg (TrainNumber, LegIndex, Booked) VALUES (?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int leg = existing != null ? existing.length : 0; leg < legCount; leg++) {
+                stmt.setString(1, trainNumber);
+                stmt.setInt(2, leg);
+                stmt.setInt(3, loads[leg]);
+                try {
+                    stmt.executeUpdate();
+                } catch (SQLException e) {
+                    // 23xxx = integrity constraint violation: another instance created it first
+                    if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        return getLegLoads(trainNumber);
+    }
+
+    /**
+     * Leg loads derived from the CONFIRMED Ticket rows of one train (used to seed and audit).
+     * Tickets whose stops are no longer on the schedule count against the whole route.
+     */
+    public int[] getTicketLegLoads(String trainNumber, List<Schedule> stops) throws SQLException {
+        int[] loads = new int[stops.size() - 1];
+        String sql = "SELECT BoardingScheduleID, DeboardingScheduleID FROM Ticket " +
+                "WHERE TrainNumber = ? AND Status = 'CONFIRMED'";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, trainNumber);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int from = stopIndex(stops, rs.getString("BoardingScheduleID"), 0);
+                    int to = stopIndex(stops, rs.getString("DeboardingScheduleID"), stops.size() - 1);
+                    if (from < 0 || to < 0 || from >= to) {
+                        from = 0;
+                        to = stops.size() - 1;
+                    }
+                    for (int leg = from; leg < to; leg++) {
+                        loads[leg]++;
+                    }
+                }
+            }
+        }
+        return loads;
+    }
+
+    /**
+     * Overwrites a train's leg counters (audit repair).
+     */
+    public void repairLegLoads(String trainNumber, int[] loads) throws SQLException {
+        String sql = "UPDATE TrainLeg SET Booked = ? WHERE TrainNumber = ? AND LegIndex = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int leg = 0; leg < loads.length; leg++) {
+                stmt.setInt(1, loads[leg]);
+                stmt.setString(2, trainNumber);
+                stmt.setInt(3, leg);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // --- Segment helpers ---
+
+    /**
+     * The segment a ticket occupies on a scheduled train. Null stop ids mean the first/last stop.
+     */
+    public static TrainSegment segmentFor(String trainNumber, List<Schedule> stops,
+                                          String boardingScheduleId, String deboardingScheduleId) {
+        int from = stopIndex(stops, boardingScheduleId, 0);
+        int to = stopIndex(stops, deboardingScheduleId, stops.size() - 1);
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Stop is not on the schedule of train " + trainNumber);
+        }
+        return segmentBetween(trainNumber, stops, from, to);
+    }
+
+    /**
+     * The segment between two stop indexes. Intermediate stops need a ScheduleID, since that is
+     * what the ticket records; the first and last stop may be recorded as null.
+     */
+    public static TrainSegment segmentBetween(String trainNumber, List<Schedule> stops, int from, int to) {
+        if (from >= to) {
+            throw new IllegalArgumentException("Boarding stop must come before the alighting stop");
+        }
+        String boardingId = stops.get(from).getScheduleId();
+        String deboardingId = stops.get(to).getScheduleId();
+        if ((boardingId == null && from != 0) || (deboardingId == null && to != stops.size() - 1)) {
+            throw new IllegalArgumentException("Stop has no ScheduleID on train " + trainNumber);
+        }
+        return new TrainSegment(trainNumber, from, to, boardingId, deboardingId);
+    }
+
+    private static int stopIndex(List<Schedule> stops, String scheduleId, int whenNull) {
+        if (scheduleId == null) {
+            return whenNull;
+        }
+        for (int i = 0; i < stops.size(); i++) {
+            if (scheduleId.equalsIgnoreCase(stops.get(i).getScheduleId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
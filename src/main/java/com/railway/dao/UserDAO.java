@@ -1,8 +1,11 @@
 package com.railway.dao;
 
+import com.railway.model.Page;
 import com.railway.model.User;
 import com.railway.util.DatabaseConnection;
+import com.railway.util.KeysetCursor;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -150,4 +153,54 @@ public class UserDAO {
         }
         return users;
     }
+
+    /**
+     * Hands every user, ordered by username, to {@code consumer} as it is read (listing.fetchSize
+     * rows per round trip) and returns how many there were.
+     */
+    public int streamAllUsers(RowConsumer<User> consumer) throws SQLException, IOException {
+        String sql = "SELECT * FROM [User] ORDER BY Username";
+        int count = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(DatabaseConnection.getIntProperty("listing.fetchSize", 500));
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    consumer.accept(mapResultSetToUser(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Up to {@code limit} users ordered by username, after the cursor of the previous page
+     * (null = first page).
+     */
+    public Page<User> getUsersPage(String after, int limit) throws SQLException {
+        String afterUsername = after != null ? KeysetCursor.decode(after, 1)[0] : null;
+        String sql = "SELECT * FROM [User] " + (afterUsername != null ? "WHERE Username > ? " : "") + "ORDER BY Username";
+
+        List<User> users = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (afterUsername != null) {
+                stmt.setString(1, afterUsername);
+            }
+            stmt.setMaxRows(limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(mapResultSetToUser(rs));
+                }
+            }
+        }
+
+        if (users.size() <= limit) {
+            return new Page<>(users, null);
+        }
+        users.remove(limit);
+        return new Page<>(users, KeysetCursor.encode(users.get(limit - 1).getUsername()));
+    }
 }
@@ -0,0 +1,375 @@
+package com.railway.dao;
+
+import com.railway.model.Schedule;
+import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
+import com.railway.model.TrainSegment;
+import com.railway.model.WaitlistEntry;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Waitlist table: the queue order of WAITLISTED tickets per train (oldest WaitlistID first).
+ *
+ * The Passenger and Ticket rows of a waitlisted booking are written by BookingDAO like any other
+ * ticket, just with Status = 'WAITLISTED', and don't count in Train.BookedSeats or TrainLeg.
+ * Methods that take a Connection run inside the caller's transaction.
+ */
+@Repository
+public class WaitlistDAO {
+
+    private static final String ENTRY_SQL =
+            "SELECT w.WaitlistID, w.PNR, w.TrainNumber, w.CreatedAt, t.BoardingScheduleID, t.DeboardingScheduleID " +
+            "FROM Waitlist w INNER JOIN Ticket t ON t.PNR = w.PNR AND t.TrainNumber = w.TrainNumber ";
+
+    private final ScheduleDAO scheduleDAO = new ScheduleDAO();
+    private final int batchSize;
+    private final int maxScan;
+
+    public WaitlistDAO() {
+        this.batchSize = Math.max(1, DatabaseConnection.getIntProperty("waitlist.promotionBatchSize", 100));
+        this.maxScan = Math.max(1, DatabaseConnection.getIntProperty("waitlist.maxPromotionScan", 1000));
+    }
+
+    private WaitlistEntry extractEntryFromResultSet(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("CreatedAt");
+        return new WaitlistEntry(rs.getLong("WaitlistID"), rs.getString("PNR"), rs.getString("TrainNumber"),
+                rs.getString("BoardingScheduleID"), rs.getString("DeboardingScheduleID"),
+                createdAt != null ? createdAt.toLocalDateTime() : null);
+    }
+
+    // --- Reads ---
+
+    /**
+     * The train's waitlist in queue order.
+     */
+    public List<WaitlistEntry> getWaitlist(String trainNumber) throws SQLException {
+        List<WaitlistEntry> entries = new ArrayList<>();
+        String sql = ENTRY_SQL + "WHERE w.TrainNumber = ? ORDER BY w.WaitlistID";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, trainNumber);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(extractEntryFromResultSet(rs));
+                }
+            }
+        }
+        return entries;
+    }
+
+    // --- Writes (caller's transaction) ---
+
+    /**
+     * Locks the train's row for the rest of the transaction (a no-op update), the same lock every
+     * booking, cancellation and promotion takes first. Returns false if the train does not exist.
+     */
+    boolean lockTrain(Connection conn, String trainNumber) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE Train SET BookedSeats = BookedSeats WHERE TrainNumber = ?")) {
+            ps.setString(1, trainNumber);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Appends a ticket to its train's waitlist. Throws IllegalStateException when the
+     * waitlist already has maxPerTrain entries. The caller must hold the train's row lock
+     * (lockTrain), so two enqueues can't both pass the count.
+     */
+    WaitlistEntry enqueue(Connection conn, Ticket ticket, int maxPerTrain) throws SQLException {
+        String countSql = "SELECT COUNT(*) FROM Waitlist WHERE TrainNumber = ?";
+        String insertSql = "INSERT INTO Waitlist (PNR, TrainNumber) VALUES (?, ?)";
+
+        try (PreparedStatement ps = conn.prepareStatement(countSql)) {
+            ps.setString(1, ticket.getTrainNumber());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) >= maxPerTrain) {
+                    throw new IllegalStateException("No seats available and the waitlist for this train is full!");
+                }
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, ticket.getPnr());
+            ps.setString(2, ticket.getTrainNumber());
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("Waitlist insert returned no WaitlistID");
+                }
+                return new WaitlistEntry(keys.getLong(1), ticket.getPnr(), ticket.getTrainNumber(),
+                        ticket.getBoardingScheduleId(), ticket.getDeboardingScheduleId(), ticket.getBookingDate());
+            }
+        }
+    }
+
+    void dequeue(Connection conn, String pnr, String trainNumber) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM Waitlist WHERE PNR = ? AND TrainNumber = ?")) {
+            ps.setString(1, pnr);
+            ps.setString(2, trainNumber);
+            ps.executeUpdate();
+        }
+    }
+
+    // --- Promotion ---
+
+    /**
+     * Confirms waitlisted tickets, oldest first, while the train has room for them. Must run in
+     * the transaction that freed the seats, after it updated the Train row: that row lock keeps
+     * other bookings and promotions on the train out until commit, so the counts read here stay
+     * valid. (BookingDAO always takes Train before TrainLeg, so this can't deadlock with it.)
+     *
+     * On a train with leg counters a waitlisted ticket is confirmed when every leg of its segment
+     * has room, so a shorter trip further down the queue may go first. Candidates are read and
+     * confirmed in JDBC batches of waitlist.promotionBatchSize; at most
+     * waitlist.maxPromotionScan entries are looked at per call. Returns the confirmed tickets.
+     */
+    List<Ticket> promote(Connection conn, String trainNumber, List<Schedule> stops) throws SQLException {
+        List<Ticket> promoted = new ArrayList<>();
+
+        int[] counts = readCounts(conn, trainNumber);
+        if (counts == null) {
+            return promoted;
+        }
+        int capacity = counts[0];
+        int booked = counts[1];
+        // null = no per-leg counters, capacity is checked against BookedSeats
+        int[] legs = stops.size() >= 2 ? readLegs(conn, trainNumber, stops.size() - 1) : null;
+
+        long after = 0;
+        int scanned = 0;
+        while (scanned < maxScan && hasRoom(legs, booked, capacity)) {
+            List<Ticket> candidates = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(ENTRY_SQL +
+                    "WHERE w.TrainNumber = ? AND w.WaitlistID > ? AND t.Status = 'WAITLISTED' ORDER BY w.WaitlistID")) {
+                ps.setMaxRows(Math.min(batchSize, maxScan - scanned));
+                ps.setString(1, trainNumber);
+                ps.setLong(2, after);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        WaitlistEntry entry = extractEntryFromResultSet(rs);
+                        Ticket ticket = new Ticket();
+                        ticket.setPnr(entry.getPnr());
+                        ticket.setTrainNumber(trainNumber);
+                        ticket.setStatus(TicketStatus.WAITLISTED);
+                        ticket.setBoardingScheduleId(entry.getBoardingScheduleId());
+                        ticket.setDeboardingScheduleId(entry.getDeboardingScheduleId());
+                        candidates.add(ticket);
+                        ids.add(entry.getWaitlistId());
+                    }
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            scanned += candidates.size();
+            after = ids.get(ids.size() - 1);
+
+            List<Ticket> confirmed = confirmFitting(conn, trainNumber, stops, candidates, legs, booked, capacity);
+            booked += confirmed.size();
+            promoted.addAll(confirmed);
+        }
+        return promoted;
+    }
+
+    /**
+     * Confirms the given waitlisted tickets, in order, whose seats the caller has already set
+     * aside (in the SeatLedger), in a transaction of its own that locks the Train row first like
+     * every other writer. Tickets that were cancelled or promoted meanwhile, or that the database
+     * has no room for (seats sold by another instance), are skipped. Returns the confirmed tickets.
+     */
+    public List<Ticket> promote(String trainNumber, List<Ticket> candidates) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false);
+
+            List<Ticket> confirmed = new ArrayList<>();
+            int[] counts = lockTrain(conn, trainNumber) ? readCounts(conn, trainNumber) : null;
+            if (counts != null) {
+                List<Schedule> stops = scheduleDAO.getStops(conn, trainNumber);
+                int[] legs = stops.size() >= 2 ? readLegs(conn, trainNumber, stops.size() - 1) : null;
+                confirmed = confirmFitting(conn, trainNumber, stops, candidates, legs, counts[1], counts[0]);
+            }
+
+            conn.commit();
+            return confirmed;
+
+        } catch (SQLException | RuntimeException e) {
+            if (conn != null) conn.rollback();
+            throw e;
+        } finally {
+            if (conn != null) {
+                conn.setAutoCommit(true);
+                DatabaseConnection.closeConnection(conn);
+            }
+        }
+    }
+
+    // {capacity, booked seats} of the train, or null if it does not exist
+    private static int[] readCounts(Connection conn, String trainNumber) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT COALESCE(Seats, 100) AS Capacity, BookedSeats FROM Train WHERE TrainNumber = ?")) {
+            ps.setString(1, trainNumber);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new int[] { rs.getInt("Capacity"), rs.getInt("BookedSeats") };
+            }
+        }
+    }
+
+    // Confirms the candidates that fit the counters, in order, and returns them; legs is updated in place
+    private static List<Ticket> confirmFitting(Connection conn, String trainNumber, List<Schedule> stops,
+                                               List<Ticket> candidates, int[] legs, int booked, int capacity)
+            throws SQLException {
+        // Pick the candidates that fit, against a scratch copy of the counters
+        List<Ticket> chosen = new ArrayList<>();
+        List<TrainSegment> segments = new ArrayList<>();
+        int[] scratch = legs != null ? legs.clone() : null;
+        int scratchBooked = booked;
+        for (Ticket candidate : candidates) {
+            if (scratch == null) {
+                if (scratchBooked >= capacity) {
+                    break;
+                }
+                scratchBooked++;
+                chosen.add(candidate);
+                segments.add(null);
+            } else {
+                TrainSegment segment = BookingDAO.segmentOrWholeRoute(candidate, stops);
+                if (fits(scratch, segment, capacity)) {
+                    for (int leg = segment.getFromStop(); leg < segment.getToStop(); leg++) {
+                        scratch[leg]++;
+                    }
+                    chosen.add(candidate);
+                    segments.add(segment);
+                }
+            }
+        }
+        List<Ticket> confirmed = new ArrayList<>();
+        if (chosen.isEmpty()) {
+            return confirmed;
+        }
+
+        // Flip the statuses; a ticket cancelled since it was read updates nothing and is skipped.
+        // LastModified moves with the status so the next booking export sends the ticket again
+        int[] updated;
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE Ticket SET Status = 'CONFIRMED', LastModified = CURRENT_TIMESTAMP " +
+                "WHERE PNR = ? AND TrainNumber = ? AND Status = 'WAITLISTED'")) {
+            for (Ticket ticket : chosen) {
+                ps.setString(1, ticket.getPnr());
+                ps.setString(2, trainNumber);
+                ps.addBatch();
+            }
+            updated = ps.executeBatch();
+        }
+
+        int[] legDelta = legs != null ? new int[legs.length] : null;
+        for (int i = 0; i < chosen.size(); i++) {
+            if (updated[i] == 0) {
+                continue;
+            }
+            Ticket ticket = chosen.get(i);
+            ticket.setStatus(ticket.getStatus().transitionTo(TicketStatus.CONFIRMED));
+            confirmed.add(ticket);
+            if (legDelta != null) {
+                TrainSegment segment = segments.get(i);
+                for (int leg = segment.getFromStop(); leg < segment.getToStop(); leg++) {
+                    legDelta[leg]++;
+                    legs[leg]++;
+                }
+            }
+        }
+        if (!confirmed.isEmpty()) {
+            applyCounts(conn, trainNumber, confirmed, legDelta);
+        }
+        return confirmed;
+    }
+
+    private static boolean hasRoom(int[] legs, int booked, int capacity) {
+        if (legs == null) {
+            return booked < capacity;
+        }
+        for (int load : legs) {
+            if (load < capacity) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean fits(int[] legs, TrainSegment segment, int capacity) {
+        for (int leg = segment.getFromStop(); leg < segment.getToStop(); leg++) {
+            if (legs[leg] >= capacity) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Leg loads in the current transaction, or null if the train has no (or outdated) TrainLeg rows
+    private static int[] readLegs(Connection conn, String trainNumber, int legCount) throws SQLException {
+        int[] legs = new int[legCount];
+        int rows = 0;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT LegIndex, Booked FROM TrainLeg WHERE TrainNumber = ? ORDER BY LegIndex")) {
+            ps.setString(1, trainNumber);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int leg = rs.getInt("LegIndex");
+                    if (leg >= legCount) {
+                        return null;
+                    }
+                    legs[leg] = rs.getInt("Booked");
+                    rows++;
+                }
+            }
+        }
+        return rows == legCount ? legs : null;
+    }
+
+    // Seat counters and queue rows for the tickets just confirmed
+    private static void applyCounts(Connection conn, String trainNumber, List<Ticket> confirmed, int[] legDelta)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE Train SET BookedSeats = BookedSeats + ? WHERE TrainNumber = ?")) {
+            ps.setInt(1, confirmed.size());
+            ps.setString(2, trainNumber);
+            ps.executeUpdate();
+        }
+
+        if (legDelta != null) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE TrainLeg SET Booked = Booked + ? WHERE TrainNumber = ? AND LegIndex = ?")) {
+                for (int leg = 0; leg < legDelta.length; leg++) {
+                    if (legDelta[leg] > 0) {
+                        ps.setInt(1, legDelta[leg]);
+                        ps.setString(2, trainNumber);
+                        ps.setInt(3, leg);
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM Waitlist WHERE PNR = ? AND TrainNumber = ?")) {
+            for (Ticket ticket : confirmed) {
+                ps.setString(1, ticket.getPnr());
+                ps.setString(2, trainNumber);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
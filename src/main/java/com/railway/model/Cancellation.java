@@ -0,0 +1,29 @@
+package com.railway.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of cancelling a ticket: the ticket as it was before the cancellation, and the
+ * waitlisted tickets that were confirmed in the same transaction because its seat came free.
+ */
+public class Cancellation {
+    private final Ticket ticket;
+    private final List<Ticket> promoted;
+
+    public Cancellation(Ticket ticket, List<Ticket> promoted) {
+        this.ticket = ticket;
+        this.promoted = Collections.unmodifiableList(promoted);
+    }
+
+    public Ticket getTicket() { return ticket; }
+    public List<Ticket> getPromoted() { return promoted; }
+
+    @Override
+    public String toString() {
+        return "Cancellation{" +
+                "ticket=" + ticket +
+                ", promoted=" + promoted.size() +
+                '}';
+    }
+}
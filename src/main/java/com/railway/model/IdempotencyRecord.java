@@ -0,0 +1,47 @@
+package com.railway.model;
+
+import java.time.Instant;
+
+/**
+ * A row of the IdempotencyKey table. statusCode and responseBody (JSON) are null while the
+ * first request with the key is still running.
+ */
+public class IdempotencyRecord {
+    private final String username;
+    private final String key;
+    private final String requestHash;
+    private final Integer statusCode;
+    private final String responseBody;
+    private final Instant expiresAt;
+
+    public IdempotencyRecord(String username, String key, String requestHash,
+                             Integer statusCode, String responseBody, Instant expiresAt) {
+        this.username = username;
+        this.key = key;
+        this.requestHash = requestHash;
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUsername() { return username; }
+    public String getKey() { return key; }
+    public String getRequestHash() { return requestHash; }
+    public Integer getStatusCode() { return statusCode; }
+    public String getResponseBody() { return responseBody; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public boolean isCompleted() {
+        return statusCode != null;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "username='" + username + '\'' +
+                ", key='" + key + '\'' +
+                ", statusCode=" + statusCode +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
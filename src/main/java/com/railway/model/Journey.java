@@ -0,0 +1,48 @@
+package com.railway.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A trip from one station to another on one or more trains, as found by the JourneyPlanner.
+ */
+public class Journey {
+    private final List<JourneyLeg> legs;
+
+    public Journey(List<JourneyLeg> legs) {
+        if (legs.isEmpty()) {
+            throw new IllegalArgumentException("A journey needs at least one leg");
+        }
+        this.legs = Collections.unmodifiableList(legs);
+    }
+
+    public List<JourneyLeg> getLegs() { return legs; }
+
+    public int getTransfers() {
+        return legs.size() - 1;
+    }
+
+    public LocalDateTime getDepartureTime() {
+        return legs.get(0).getDepartureTime();
+    }
+
+    public LocalDateTime getArrivalTime() {
+        return legs.get(legs.size() - 1).getArrivalTime();
+    }
+
+    public long getDurationMinutes() {
+        return Duration.between(getDepartureTime(), getArrivalTime()).toMinutes();
+    }
+
+    @Override
+    public String toString() {
+        return "Journey{" +
+                "transfers=" + getTransfers() +
+                ", departureTime=" + getDepartureTime() +
+                ", arrivalTime=" + getArrivalTime() +
+                ", legs=" + legs +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.railway.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One train ride within a Journey, from boarding to alighting station.
+ */
+public class JourneyLeg {
+    private final String trainNumber;
+    private final String trainName;
+    private final String fromStation;
+    private final String toStation;
+    private final LocalDateTime departureTime;
+    private final LocalDateTime arrivalTime;
+
+    public JourneyLeg(String trainNumber, String trainName, String fromStation, String toStation,
+                      LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        this.trainNumber = trainNumber;
+        this.trainName = trainName;
+        this.fromStation = fromStation;
+        this.toStation = toStation;
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+    }
+
+    public String getTrainNumber() { return trainNumber; }
+    public String getTrainName() { return trainName; }
+    public String getFromStation() { return fromStation; }
+    public String getToStation() { return toStation; }
+    public LocalDateTime getDepartureTime() { return departureTime; }
+    public LocalDateTime getArrivalTime() { return arrivalTime; }
+
+    @Override
+    public String toString() {
+        return "JourneyLeg{" +
+                "trainNumber='" + trainNumber + '\'' +
+                ", fromStation='" + fromStation + '\'' +
+                ", toStation='" + toStation + '\'' +
+                ", departureTime=" + departureTime +
+                ", arrivalTime=" + arrivalTime +
+                '}';
+    }
+}
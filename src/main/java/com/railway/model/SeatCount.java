@@ -0,0 +1,50 @@
+package com.railway.model;
+
+import java.util.Objects;
+
+/**
+ * Capacity and confirmed bookings for one train, as read from the database.
+ */
+public class SeatCount {
+    private final String trainNumber;
+    private final int totalSeats;
+    private final int bookedSeats;
+
+    public SeatCount(String trainNumber, int totalSeats, int bookedSeats) {
+        this.trainNumber = trainNumber;
+        this.totalSeats = totalSeats;
+        this.bookedSeats = bookedSeats;
+    }
+
+    public String getTrainNumber() { return trainNumber; }
+    public int getTotalSeats() { return totalSeats; }
+    public int getBookedSeats() { return bookedSeats; }
+
+    public int getAvailableSeats() {
+        return Math.max(0, totalSeats - bookedSeats);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SeatCount that = (SeatCount) o;
+        return totalSeats == that.totalSeats &&
+                bookedSeats == that.bookedSeats &&
+                Objects.equals(trainNumber, that.trainNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(trainNumber, totalSeats, bookedSeats);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatCount{" +
+                "trainNumber='" + trainNumber + '\'' +
+                ", totalSeats=" + totalSeats +
+                ", bookedSeats=" + bookedSeats +
+                '}';
+    }
+}
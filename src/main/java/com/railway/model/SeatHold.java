@@ -0,0 +1,58 @@
+package com.railway.model;
+
+import java.time.Instant;
+
+/**
+ * Seats set aside for a user on one train until {@code expiresAt}. Confirming the hold turns the
+ * seats into tickets; otherwise they go back on sale when it expires.
+ * Null boarding/deboarding stops mean the train's first/last stop, as on Ticket.
+ */
+public class SeatHold {
+    private final String holdId;
+    private final String username;
+    private final String trainNumber;
+    private final int seats;
+    private final String boardingScheduleId;
+    private final String deboardingScheduleId;
+    private final Instant createdAt;
+    private final Instant expiresAt;
+
+    public SeatHold(String holdId, String username, String trainNumber, int seats,
+                    String boardingScheduleId, String deboardingScheduleId,
+                    Instant createdAt, Instant expiresAt) {
+        this.holdId = holdId;
+        this.username = username;
+        this.trainNumber = trainNumber;
+        this.seats = seats;
+        this.boardingScheduleId = boardingScheduleId;
+        this.deboardingScheduleId = deboardingScheduleId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getHoldId() { return holdId; }
+    public String getUsername() { return username; }
+    public String getTrainNumber() { return trainNumber; }
+    public int getSeats() { return seats; }
+    public String getBoardingScheduleId() { return boardingScheduleId; }
+    public String getDeboardingScheduleId() { return deboardingScheduleId; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public long getSecondsLeft() {
+        return Math.max(0L, expiresAt.getEpochSecond() - Instant.now().getEpochSecond());
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "holdId='" + holdId + '\'' +
+                ", username='" + username + '\'' +
+                ", trainNumber='" + trainNumber + '\'' +
+                ", seats=" + seats +
+                ", boardingScheduleId='" + boardingScheduleId + '\'' +
+                ", deboardingScheduleId='" + deboardingScheduleId + '\'' +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -16,9 +16,12 @@ public class Ticket {
     private BigDecimal amount; 
     
     // --- Fields stored directly on Ticket ---
-    private String status;
+    private TicketStatus status;
+    private Integer waitlistPosition; // 1-based, WAITLISTED tickets only
     private LocalDateTime bookingDate;
     private String username; // Added for secure filtering
+    private String boardingScheduleId;   // null = train's first stop
+    private String deboardingScheduleId; // null = train's last stop
 
     public Ticket() {
     }
@@ -27,7 +30,7 @@ public class Ticket {
     public Ticket(String pnr, String trainNumber) { 
         this.pnr = pnr;
         this.trainNumber = trainNumber;
-        this.status = "CONFIRMED";
+        this.status = TicketStatus.CONFIRMED;
         this.bookingDate = LocalDateTime.now();
     }
     
@@ -53,12 +56,21 @@ public class Ticket {
     public void setAmount(BigDecimal amount) { this.amount = amount; }
     
     // --- Direct Ticket Data ---
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public TicketStatus getStatus() { return status; }
+    public void setStatus(TicketStatus status) { this.status = status; }
+
+    public Integer getWaitlistPosition() { return waitlistPosition; }
+    public void setWaitlistPosition(Integer waitlistPosition) { this.waitlistPosition = waitlistPosition; }
 
     public LocalDateTime getBookingDate() { return bookingDate; }
     public void setBookingDate(LocalDateTime bookingDate) { this.bookingDate = bookingDate; }
 
+    public String getBoardingScheduleId() { return boardingScheduleId; }
+    public void setBoardingScheduleId(String boardingScheduleId) { this.boardingScheduleId = boardingScheduleId; }
+
+    public String getDeboardingScheduleId() { return deboardingScheduleId; }
+    public void setDeboardingScheduleId(String deboardingScheduleId) { this.deboardingScheduleId = deboardingScheduleId; }
+
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
     
@@ -84,7 +96,7 @@ public class Ticket {
                 ", date=" + date +
                 ", source='" + source + '\'' +
                 ", destination='" + destination + '\'' +
-                ", status='" + status + '\'' +
+                ", status=" + status +
                 ", amount=" + amount +
                 ", username='" + username + '\'' +
                 '}';
@@ -0,0 +1,53 @@
+package com.railway.model;
+
+import java.util.Locale;
+
+/**
+ * Lifecycle of a ticket, as stored in Ticket.Status. Cancelling through BookingDAO deletes the
+ * ticket's rows, so CANCELLED is mostly seen on the ticket a cancellation returns; older rows
+ * may still carry it. Only CONFIRMED tickets count against the seat counters.
+ *
+ * <pre>
+ *   WAITLISTED --(seat freed)--> CONFIRMED
+ *   WAITLISTED --(cancel)------> CANCELLED
+ *   CONFIRMED  --(cancel)------> CANCELLED
+ * </pre>
+ */
+public enum TicketStatus {
+    WAITLISTED,
+    CONFIRMED,
+    CANCELLED;
+
+    public boolean canTransitionTo(TicketStatus next) {
+        switch (this) {
+            case WAITLISTED:
+                return next == CONFIRMED || next == CANCELLED;
+            case CONFIRMED:
+                return next == CANCELLED;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns {@code next}, or throws IllegalStateException if the ticket can't move there.
+     */
+    public TicketStatus transitionTo(TicketStatus next) {
+        if (!canTransitionTo(next)) {
+            throw new IllegalStateException("Ticket cannot go from " + this + " to " + next);
+        }
+        return next;
+    }
+
+    /**
+     * Whether the ticket occupies a seat in the counters (Train.BookedSeats, TrainLeg).
+     */
+    public boolean holdsSeat() {
+        return this == CONFIRMED;
+    }
+
+    // Ticket.Status column value; NULL rows predate the column default and count as CONFIRMED
+    public static TicketStatus fromDb(String value) {
+        return value == null ? CONFIRMED : valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -17,6 +17,20 @@ public class Train {
     public Train() {
     }
 
+    /**
+     * Copy constructor, used to hand out cached trains without sharing mutable state.
+     */
+    public Train(Train other) {
+        this.trainNumber = other.trainNumber;
+        this.trainName = other.trainName;
+        this.source = other.source;
+        this.destination = other.destination;
+        this.date = other.date;
+        this.cost = other.cost;
+        this.availableSeats = other.availableSeats;
+        this.totalSeats = other.totalSeats;
+    }
+
     public Train(String trainNumber, String trainName, String source,
                  String destination, LocalDate date, BigDecimal cost) {
         this.trainNumber = trainNumber;
@@ -0,0 +1,47 @@
+package com.railway.model;
+
+/**
+ * The part of a train's route a passenger occupies a seat for: from the stop at index
+ * fromStop to the stop at index toStop (in travel order), i.e. legs fromStop .. toStop - 1.
+ * A train without a schedule has a single leg from its source to its destination.
+ */
+public class TrainSegment {
+    private final String trainNumber;
+    private final int fromStop;
+    private final int toStop;
+    private final String boardingScheduleId;
+    private final String deboardingScheduleId;
+
+    public TrainSegment(String trainNumber, int fromStop, int toStop,
+                        String boardingScheduleId, String deboardingScheduleId) {
+        if (fromStop < 0 || toStop <= fromStop) {
+            throw new IllegalArgumentException("Invalid segment " + fromStop + " -> " + toStop);
+        }
+        this.trainNumber = trainNumber;
+        this.fromStop = fromStop;
+        this.toStop = toStop;
+        this.boardingScheduleId = boardingScheduleId;
+        this.deboardingScheduleId = deboardingScheduleId;
+    }
+
+    public String getTrainNumber() { return trainNumber; }
+    public int getFromStop() { return fromStop; }
+    public int getToStop() { return toStop; }
+    public String getBoardingScheduleId() { return boardingScheduleId; }
+    public String getDeboardingScheduleId() { return deboardingScheduleId; }
+
+    public int getLegCount() {
+        return toStop - fromStop;
+    }
+
+    @Override
+    public String toString() {
+        return "TrainSegment{" +
+                "trainNumber='" + trainNumber + '\'' +
+                ", fromStop=" + fromStop +
+                ", toStop=" + toStop +
+                ", boardingScheduleId='" + boardingScheduleId + '\'' +
+                ", deboardingScheduleId='" + deboardingScheduleId + '\'' +
+                '}';
+    }
+}
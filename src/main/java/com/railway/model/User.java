@@ -27,6 +27,12 @@ public class User {
         this.role = "passenger"; // Default role
     }
 
+    public User(String username, String name, String address, String city,
+                Integer age, String contact, String gender, String role) {
+        this(username, name, address, city, age, contact, gender);
+        this.role = role;
+    }
+
     // --- Getters and Setters ---
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
@@ -0,0 +1,61 @@
+package com.railway.model;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A WAITLISTED ticket's place in its train's queue. Lower waitlistId = joined earlier.
+ * Null boarding/deboarding stops mean the train's first/last stop, as on Ticket.
+ */
+public class WaitlistEntry implements Comparable<WaitlistEntry> {
+    private final long waitlistId;
+    private final String pnr;
+    private final String trainNumber;
+    private final String boardingScheduleId;
+    private final String deboardingScheduleId;
+    private final LocalDateTime createdAt;
+
+    public WaitlistEntry(long waitlistId, String pnr, String trainNumber,
+                         String boardingScheduleId, String deboardingScheduleId, LocalDateTime createdAt) {
+        this.waitlistId = waitlistId;
+        this.pnr = pnr;
+        this.trainNumber = trainNumber;
+        this.boardingScheduleId = boardingScheduleId;
+        this.deboardingScheduleId = deboardingScheduleId;
+        this.createdAt = createdAt;
+    }
+
+    public long getWaitlistId() { return waitlistId; }
+    public String getPnr() { return pnr; }
+    public String getTrainNumber() { return trainNumber; }
+    public String getBoardingScheduleId() { return boardingScheduleId; }
+    public String getDeboardingScheduleId() { return deboardingScheduleId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    @Override
+    public int compareTo(WaitlistEntry other) {
+        return Long.compare(waitlistId, other.waitlistId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WaitlistEntry that = (WaitlistEntry) o;
+        return waitlistId == that.waitlistId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(waitlistId);
+    }
+
+    @Override
+    public String toString() {
+        return "WaitlistEntry{" +
+                "waitlistId=" + waitlistId +
+                ", pnr='" + pnr + '\'' +
+                ", trainNumber='" + trainNumber + '\'' +
+                '}';
+    }
+}
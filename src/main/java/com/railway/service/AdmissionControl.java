@@ -0,0 +1,180 @@
+package com.railway.service;
+
+import com.railway.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-train admission in front of the booking transaction.
+ *
+ * Every booking of a train updates the same Train row, so past a few concurrent transactions
+ * extra ones only wait on its lock while holding a pooled connection. Each train therefore gets
+ * admission.maxConcurrentPerTrain slots (a fair semaphore, so waiters go in arrival order).
+ * At most admission.maxQueuePerTrain requests wait for a slot, for at most
+ * admission.maxWaitMillis; anything beyond that is rejected at once with a Retry-After estimate
+ * from the train's recent transaction times, instead of tying up a thread and a connection.
+ *
+ * Requests only get here after SeatLedger has set their seats aside, so the queue of a train
+ * never holds more requests than it has seats left. A train's gate only exists while it has
+ * requests queued or running; its average transaction time starts over after it goes idle.
+ */
+public class AdmissionControl {
+
+    private static final AdmissionControl INSTANCE = new AdmissionControl();
+
+    private static final int MAX_RETRY_AFTER_SECONDS = 60;
+
+    /**
+     * A booking step that talks to the database.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws SQLException;
+    }
+
+    private static final class Gate {
+        final Semaphore slots;
+        final AtomicInteger waiting = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        // Requests queued or running; only changed inside gates.compute/computeIfPresent
+        int users;
+        // Exponentially weighted average of the transaction time, in microseconds
+        volatile long averageMicros = 20_000L;
+
+        Gate(int slots) {
+            this.slots = new Semaphore(slots, true);
+        }
+
+        void recordMicros(long micros) {
+            // Races between threads lose an update now and then; it's only an estimate
+            averageMicros = (averageMicros * 7 + micros) / 8;
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitMillis;
+    private final ConcurrentHashMap<String, Gate> gates = new ConcurrentHashMap<>();
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    AdmissionControl() {
+        this.maxConcurrent = DatabaseConnection.getIntProperty("admission.maxConcurrentPerTrain", 4);
+        this.maxQueue = Math.max(0, DatabaseConnection.getIntProperty("admission.maxQueuePerTrain", 200));
+        this.maxWaitMillis = Math.max(0L, DatabaseConnection.getLongProperty("admission.maxWaitMillis", 2000L));
+    }
+
+    public static AdmissionControl getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs the task once the train has a free slot. Throws AdmissionRejectedException if the
+     * queue is full or no slot frees up within admission.maxWaitMillis.
+     */
+    public <T> T admit(String trainNumber, Task<T> task) throws SQLException {
+        if (maxConcurrent <= 0) {
+            return task.call();
+        }
+        Gate gate = enter(trainNumber);
+        try {
+            return throughGate(gate, task);
+        } finally {
+            leave(trainNumber);
+        }
+    }
+
+    // Takes the train's gate, creating it if the train has none
+    private Gate enter(String trainNumber) {
+        return gates.compute(trainNumber, (k, gate) -> {
+            Gate result = gate != null ? gate : new Gate(maxConcurrent);
+            result.users++;
+            return result;
+        });
+    }
+
+    // Drops the gate once its last user is gone, so idle trains don't keep one forever
+    private void leave(String trainNumber) {
+        gates.computeIfPresent(trainNumber, (k, gate) -> --gate.users == 0 ? null : gate);
+    }
+
+    private <T> T throughGate(Gate gate, Task<T> task) throws SQLException {
+        // Fast path: a free slot and nobody waiting for it
+        boolean admitted = gate.waiting.get() == 0 && gate.slots.tryAcquire();
+        if (!admitted) {
+            int ahead = gate.waiting.getAndIncrement();
+            try {
+                if (ahead >= maxQueue) {
+                    throw reject(gate, "Too many bookings in progress for this train, please retry", ahead);
+                }
+                admitted = gate.slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                gate.waiting.decrementAndGet();
+            }
+            if (!admitted) {
+                throw reject(gate, "Bookings for this train are queued for too long, please retry", gate.waiting.get());
+            }
+        }
+
+        gate.running.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            gate.recordMicros((System.nanoTime() - start) / 1000L);
+            gate.running.decrementAndGet();
+            gate.slots.release();
+        }
+    }
+
+    /**
+     * For a train whose seats are all set aside by bookings or holds still in progress: some of
+     * them may fail or expire, so the caller is told to retry rather than that the train is full.
+     */
+    public AdmissionRejectedException soldOutForNow(String trainNumber) {
+        Gate gate = gates.get(trainNumber);
+        rejected.incrementAndGet();
+        int queued = gate != null ? gate.waiting.get() : 0;
+        return new AdmissionRejectedException("All remaining seats are being booked right now, please retry",
+                gate != null ? retryAfterSeconds(gate, queued) : 1, queued);
+    }
+
+    private AdmissionRejectedException reject(Gate gate, String message, int queued) {
+        rejected.incrementAndGet();
+        return new AdmissionRejectedException(message, retryAfterSeconds(gate, queued), queued);
+    }
+
+    // Time for the queue ahead to drain through the train's slots
+    private int retryAfterSeconds(Gate gate, int queued) {
+        long micros = gate.averageMicros * (queued + 1L) / Math.max(1, maxConcurrent);
+        long seconds = (micros + 999_999L) / 1_000_000L;
+        return (int) Math.max(1L, Math.min(MAX_RETRY_AFTER_SECONDS, seconds));
+    }
+
+    // --- Stats ---
+
+    /**
+     * Current load of one train: transactions running, requests queued and the limits.
+     */
+    public Map<String, Object> getStatus(String trainNumber) {
+        Gate gate = gates.get(trainNumber);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", gate != null ? gate.running.get() : 0);
+        status.put("queued", gate != null ? gate.waiting.get() : 0);
+        status.put("maxConcurrent", maxConcurrent);
+        status.put("maxQueue", maxQueue);
+        status.put("averageMillis", gate != null ? gate.averageMicros / 1000.0 : null);
+        return status;
+    }
+
+    public int getRejectedCount() {
+        return rejected.get();
+    }
+}
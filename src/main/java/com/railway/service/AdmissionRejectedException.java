@@ -0,0 +1,28 @@
+package com.railway.service;
+
+/**
+ * A booking was turned away without trying it because the train is too busy right now.
+ * Unlike "No seats available" it is worth retrying after {@link #getRetryAfterSeconds()}.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+    private final int queueLength;
+
+    public AdmissionRejectedException(String message, int retryAfterSeconds, int queueLength) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queueLength = queueLength;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Requests that were waiting for the train when this one was turned away.
+     */
+    public int getQueueLength() {
+        return queueLength;
+    }
+}
@@ -0,0 +1,207 @@
+package com.railway.service;
+
+import com.railway.dao.BookingDAO;
+import com.railway.model.Passenger;
+import com.railway.model.Ticket;
+import com.railway.model.TrainSegment;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer booking engine (booking.engine=sequencer).
+ *
+ * Instead of every request thread opening its own transaction on the train's row, bookings are
+ * handed to a mailbox and written by one thread. Trains are spread over sequencer.threads
+ * shards by train number, so all bookings of a train go through the same thread in arrival
+ * order and never wait on each other's locks. Each shard takes whatever has queued up (at most
+ * sequencer.maxBatch requests) and commits the bookings of each train in one transaction with
+ * BookingDAO.bookBatch. If that transaction fails, the requests are retried one by one so one
+ * bad booking can't fail the others.
+ *
+ * Seats are still set aside in SeatLedger before a request is queued, so a batch almost never
+ * runs out of seats. The caller's thread waits for its booking to be committed.
+ */
+public class BookingSequencer {
+
+    private static volatile BookingSequencer instance;
+
+    private static final class Request {
+        final String trainNumber;
+        final List<Passenger> passengers;
+        final List<Ticket> tickets;
+        final TrainSegment segment;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Request(String trainNumber, List<Passenger> passengers, List<Ticket> tickets, TrainSegment segment) {
+            this.trainNumber = trainNumber;
+            this.passengers = passengers;
+            this.tickets = tickets;
+            this.segment = segment;
+        }
+    }
+
+    private final BookingDAO bookingDAO;
+    private final int maxBatch;
+    private final List<BlockingQueue<Request>> mailboxes = new ArrayList<>();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong bookings = new AtomicLong();
+
+    BookingSequencer(BookingDAO bookingDAO, int threads, int maxBatch, int maxQueue) {
+        this.bookingDAO = bookingDAO;
+        this.maxBatch = Math.max(1, maxBatch);
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            BlockingQueue<Request> mailbox = new LinkedBlockingQueue<>(Math.max(1, maxQueue));
+            mailboxes.add(mailbox);
+            Thread worker = new Thread(() -> drain(mailbox), "booking-sequencer-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * The shared sequencer; its threads start on first use.
+     */
+    public static BookingSequencer getInstance() {
+        BookingSequencer result = instance;
+        if (result == null) {
+            synchronized (BookingSequencer.class) {
+                result = instance;
+                if (result == null) {
+                    result = new BookingSequencer(new BookingDAO(),
+                            DatabaseConnection.getIntProperty("sequencer.threads", 4),
+                            DatabaseConnection.getIntProperty("sequencer.maxBatch", 256),
+                            DatabaseConnection.getIntProperty("sequencer.maxQueue", 10000));
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the tickets (one per passenger, all on {@code segment}) and returns once they are
+     * committed. Throws what BookingDAO would have thrown, or AdmissionRejectedException when
+     * the train's shard already has sequencer.maxQueue requests waiting.
+     */
+    public void book(String trainNumber, List<Passenger> passengers, List<Ticket> tickets, TrainSegment segment)
+            throws SQLException {
+        Request request = new Request(trainNumber, passengers, tickets, segment);
+        BlockingQueue<Request> mailbox = mailboxes.get(Math.floorMod(trainNumber.hashCode(), mailboxes.size()));
+        if (!mailbox.offer(request)) {
+            throw new AdmissionRejectedException("Too many bookings in progress, please retry", 1, mailbox.size());
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    request.done.get();
+                    return;
+                } catch (InterruptedException e) {
+                    // The booking is committed or rolled back regardless; wait for the outcome
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof SQLException) {
+                        throw (SQLException) cause;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new SQLException("Booking failed", cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // --- Worker ---
+
+    private void drain(BlockingQueue<Request> mailbox) {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(mailbox.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            mailbox.drainTo(batch, maxBatch - 1);
+
+            Map<String, List<Request>> byTrain = new LinkedHashMap<>();
+            for (Request request : batch) {
+                byTrain.computeIfAbsent(request.trainNumber, k -> new ArrayList<>()).add(request);
+            }
+            for (List<Request> requests : byTrain.values()) {
+                commit(requests);
+            }
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Request> requests) {
+        try {
+            write(requests);
+            for (Request request : requests) {
+                request.done.complete(null);
+            }
+            return;
+        } catch (SQLException | RuntimeException e) {
+            if (requests.size() == 1) {
+                requests.get(0).done.completeExceptionally(e);
+                return;
+            }
+        }
+        // Something in the batch failed; find out which by writing them one at a time
+        for (Request request : requests) {
+            try {
+                write(Collections.singletonList(request));
+                request.done.complete(null);
+            } catch (SQLException | RuntimeException e) {
+                request.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void write(List<Request> requests) throws SQLException {
+        List<Passenger> passengers = new ArrayList<>();
+        List<Ticket> tickets = new ArrayList<>();
+        List<TrainSegment> segments = new ArrayList<>();
+        for (Request request : requests) {
+            passengers.addAll(request.passengers);
+            tickets.addAll(request.tickets);
+            segments.addAll(Collections.nCopies(request.tickets.size(), request.segment));
+        }
+        if (!bookingDAO.bookBatch(passengers, tickets, segments)) {
+            throw new SQLException("Failed to book tickets");
+        }
+        transactions.incrementAndGet();
+        bookings.addAndGet(requests.size());
+    }
+
+    // --- Stats ---
+
+    public long getTransactionCount() {
+        return transactions.get();
+    }
+
+    /**
+     * Booking requests committed; divided by getTransactionCount() this is the average batch size.
+     */
+    public long getBookingCount() {
+        return bookings.get();
+    }
+}
@@ -1,24 +1,53 @@
 package com.railway.service;
 
 import com.railway.dao.BookingDAO;
+import com.railway.dao.CachingTrainDAO;
+import com.railway.dao.RowConsumer;
 import com.railway.dao.TrainDAO;
+import com.railway.model.Cancellation;
+import com.railway.model.Page;
 import com.railway.model.Passenger;
+import com.railway.model.SeatHold;
 import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
 import com.railway.model.Train;
+import com.railway.model.TrainSegment;
+import com.railway.model.WaitlistEntry;
+import com.railway.util.DatabaseConnection;
 import com.railway.util.PNRGenerator;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import org.springframework.stereotype.Service; 
 
 @Service // FIX: ADDED @Service
 public class BookingService {
     private final BookingDAO bookingDAO;
     private final TrainDAO trainDAO;
+    private final SeatLedger seatLedger;
+    private final SeatHoldService seatHoldService;
+    private final WaitlistService waitlistService;
+    private final AdmissionControl admissionControl;
+    private final BookingSequencer sequencer;  // null = booking.engine=direct
+    private final int maxWaitlistPerTrain;
+    private final int maxGroupSize;
 
     public BookingService() {
         this.bookingDAO = new BookingDAO();
-        this.trainDAO = new TrainDAO();
+        this.trainDAO = new CachingTrainDAO();
+        this.seatLedger = SeatLedger.getInstance();
+        this.seatHoldService = SeatHoldService.getInstance();
+        this.waitlistService = WaitlistService.getInstance();
+        this.admissionControl = AdmissionControl.getInstance();
+        this.sequencer = "sequencer".equalsIgnoreCase(DatabaseConnection.getProperty("booking.engine", "direct").trim())
+                ? BookingSequencer.getInstance() : null;
+        this.maxWaitlistPerTrain = DatabaseConnection.getIntProperty("waitlist.maxPerTrain", 5000);
+        this.maxGroupSize = DatabaseConnection.getIntProperty("booking.maxGroupSize", 500);
     }
 
     /**
@@ -26,33 +55,196 @@ public class BookingService {
      */
     public String bookTicket(String username, String passengerName, int age, String gender,
                              String trainNumber) throws SQLException {
+        return bookTicket(username, passengerName, age, gender, trainNumber, null, null);
+    }
+
+    /**
+     * Books a seat from boardingStation to alightingStation (null = the train's first/last stop).
+     * On trains with a schedule the seat is only held for the legs in between.
+     */
+    public String bookTicket(String username, String passengerName, int age, String gender,
+                             String trainNumber, String boardingStation, String alightingStation) throws SQLException {
 
         Train train = trainDAO.getTrainByNumber(trainNumber);
         if (train == null) {
             throw new IllegalArgumentException("Train not found!");
         }
 
-        int availableSeats = trainDAO.getAvailableSeats(trainNumber);
-        if (availableSeats <= 0) {
-            throw new IllegalStateException("No seats available!");
+        // null for trains without a schedule (whole route only)
+        TrainSegment segment = seatLedger.segment(trainNumber, boardingStation, alightingStation);
+
+        // Waitlisted tickets get any seat they fit in before this booking does
+        waitlistService.promote(trainNumber);
+
+        // Reserve the seat in memory first; the database write below only persists it
+        if (!seatLedger.tryReserve(trainNumber, segment, 1)) {
+            throw soldOut(trainNumber, segment, 1, "No seats available!");
+        }
+
+        String pnr;
+        try {
+            pnr = persistTicket(username, passengerName, age, gender, trainNumber, segment);
+        } catch (SQLException | RuntimeException e) {
+            returnSeats(trainNumber, segment, 1);
+            throw e;
         }
+        seatLedger.confirm(trainNumber, 1);
+        return pnr;
+    }
 
+    // Writes one Passenger/Ticket pair for a seat that is already reserved in the ledger
+    private String persistTicket(String username, String passengerName, Integer age, String gender,
+                                 String trainNumber, TrainSegment segment) throws SQLException {
         String pnr = PNRGenerator.generatePNR();
 
         // Passenger model updated: only profile data is passed (route data is normalized).
         Passenger passenger = new Passenger(pnr, passengerName, age, gender, username);
 
-        // Ticket model updated: only PNR and TrainNumber are passed.
-        Ticket ticket = new Ticket(pnr, trainNumber);
+        // Ticket model updated: only PNR, TrainNumber and the stops travelled between are passed.
+        Ticket ticket = newTicket(pnr, trainNumber, segment);
         
         // Perform transaction via DAO
-        boolean success = bookingDAO.bookTicket(passenger, ticket); 
+        write(trainNumber, Collections.singletonList(passenger), Collections.singletonList(ticket), segment);
+        return pnr;
+    }
+
+    // Writes the tickets with the configured booking engine: each request in its own transaction
+    // behind AdmissionControl, or queued to the train's BookingSequencer thread
+    private void write(String trainNumber, List<Passenger> passengers, List<Ticket> tickets, TrainSegment segment)
+            throws SQLException {
+        if (sequencer != null) {
+            sequencer.book(trainNumber, passengers, tickets, segment);
+            return;
+        }
+        boolean booked = admissionControl.admit(trainNumber, () -> bookingDAO.bookGroup(passengers, tickets, segment));
+        if (!booked) {
+            throw new SQLException(tickets.size() == 1 ? "Failed to book ticket" : "Failed to book tickets");
+        }
+    }
+
+    // A reservation that was not persisted: the seats go back to the ledger, and to the waitlist first
+    private void returnSeats(String trainNumber, TrainSegment segment, int seats) {
+        seatLedger.cancelReservation(trainNumber, segment, seats);
+        waitlistService.seatsReturned(trainNumber);
+    }
+
+    // The ledger has no seats for the request. If enough are still tied up in bookings or holds
+    // that may yet fail or expire, the caller is asked to retry instead of being told it's full.
+    private RuntimeException soldOut(String trainNumber, TrainSegment segment, int seats, String message)
+            throws SQLException {
+        int inFlight = seatLedger.getInFlightSeats(trainNumber);
+        if (inFlight > 0 && seatLedger.getAvailableSeats(trainNumber, segment) + inFlight >= seats) {
+            return admissionControl.soldOutForNow(trainNumber);
+        }
+        return new IllegalStateException(message);
+    }
+
+    // --- Group bookings ---
+
+    /**
+     * Books one ticket per passenger on the same train and segment, all or nothing: either every
+     * passenger gets a seat and the PNRs are returned in passenger order, or nothing is booked.
+     * The whole group is checked and written in a single transaction (see BookingDAO.bookGroup).
+     */
+    public List<String> bookGroup(String username, String trainNumber, String boardingStation, String alightingStation,
+                                  List<Passenger> passengers) throws SQLException {
+        if (passengers == null || passengers.isEmpty()) {
+            throw new IllegalArgumentException("At least one passenger is required");
+        }
+        if (passengers.size() > maxGroupSize) {
+            throw new IllegalArgumentException("A group booking can have at most " + maxGroupSize + " passengers");
+        }
+        if (passengers.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Passenger details are missing");
+        }
+        Train train = trainDAO.getTrainByNumber(trainNumber);
+        if (train == null) {
+            throw new IllegalArgumentException("Train not found!");
+        }
+        TrainSegment segment = seatLedger.segment(trainNumber, boardingStation, alightingStation);
+
+        waitlistService.promote(trainNumber);
+        int seats = passengers.size();
+        if (!seatLedger.tryReserve(trainNumber, segment, seats)) {
+            throw soldOut(trainNumber, segment, seats, "Not enough seats available for " + seats + " passengers!");
+        }
+
+        List<String> pnrs;
+        try {
+            pnrs = persistGroup(username, trainNumber, segment, passengers);
+        } catch (SQLException | RuntimeException e) {
+            returnSeats(trainNumber, segment, seats);
+            throw e;
+        }
+        seatLedger.confirm(trainNumber, seats);
+        return pnrs;
+    }
+
+    // Writes the Passenger/Ticket pairs of a group whose seats are already reserved in the ledger
+    private List<String> persistGroup(String username, String trainNumber, TrainSegment segment,
+                                      List<Passenger> passengers) throws SQLException {
+        List<String> pnrs = new ArrayList<>(passengers.size());
+        List<Passenger> rows = new ArrayList<>(passengers.size());
+        List<Ticket> tickets = new ArrayList<>(passengers.size());
+        for (Passenger p : passengers) {
+            String pnr = PNRGenerator.generatePNR();
+            pnrs.add(pnr);
+            rows.add(new Passenger(pnr, p.getPassengerName(), p.getAge(), p.getGender(), username));
+            tickets.add(newTicket(pnr, trainNumber, segment));
+        }
+
+        write(trainNumber, rows, tickets, segment);
+        return pnrs;
+    }
+
+    // --- Seat holds (two-phase booking) ---
+
+    /**
+     * Holds seats for a few minutes without writing anything to the database. The hold is
+     * turned into tickets by confirmHold() or released when it expires.
+     */
+    public SeatHold holdSeats(String username, String trainNumber, String boardingStation, String alightingStation,
+                              int seats, Integer ttlSeconds) throws SQLException {
+        Train train = trainDAO.getTrainByNumber(trainNumber);
+        if (train == null) {
+            throw new IllegalArgumentException("Train not found!");
+        }
+        TrainSegment segment = seatLedger.segment(trainNumber, boardingStation, alightingStation);
+        waitlistService.promote(trainNumber);
+        return seatHoldService.hold(username, trainNumber, segment, seats, ttlSeconds);
+    }
+
+    public SeatHold getHold(String holdId) {
+        return seatHoldService.get(holdId);
+    }
+
+    /**
+     * Books one ticket per passenger on the held seats and returns their PNRs. The number of
+     * passengers must match the hold. The tickets are written in one transaction; if that fails
+     * nothing is booked and the hold stays in place until it expires.
+     */
+    public List<String> confirmHold(String holdId, String username, List<Passenger> passengers) throws SQLException {
+        SeatHold hold = seatHoldService.claim(holdId, username);
+        if (passengers == null || passengers.size() != hold.getSeats() || passengers.stream().anyMatch(Objects::isNull)) {
+            seatHoldService.confirmFailed(holdId);
+            throw new IllegalArgumentException("The hold is for " + hold.getSeats() + " passenger(s)");
+        }
 
-        if (success) {
-            return pnr;
-        } else {
-            throw new SQLException("Failed to book ticket");
+        List<String> pnrs;
+        try {
+            TrainSegment segment = seatLedger.segmentFor(hold.getTrainNumber(),
+                    hold.getBoardingScheduleId(), hold.getDeboardingScheduleId());
+            pnrs = persistGroup(username, hold.getTrainNumber(), segment, passengers);
+        } catch (SQLException | RuntimeException e) {
+            seatHoldService.confirmFailed(holdId);
+            throw e;
         }
+        seatHoldService.confirmed(holdId);
+        return pnrs;
+    }
+
+    public void releaseHold(String holdId, String username) {
+        seatHoldService.release(holdId, username);
     }
 
     public boolean cancelTicket(String pnr, String username) throws SQLException {
@@ -66,13 +258,101 @@ public class BookingService {
             throw new SecurityException("You can only cancel your own tickets!");
         }
 
-        return bookingDAO.cancelTicket(pnr);
+        Cancellation cancellation = bookingDAO.cancelTicket(pnr);
+        if (cancellation == null) {
+            return true;
+        }
+        Ticket cancelled = cancellation.getTicket();
+        String trainNumber = cancelled.getTrainNumber();
+        if (cancelled.getStatus().holdsSeat()) {
+            seatLedger.release(trainNumber, cancelled.getBoardingScheduleId(), cancelled.getDeboardingScheduleId(), 1);
+        }
+
+        // Waitlisted tickets the database confirmed into the freed seat now occupy it
+        List<String> leftWaitlist = new ArrayList<>();
+        if (cancelled.getStatus() == TicketStatus.WAITLISTED) {
+            leftWaitlist.add(pnr);
+        }
+        for (Ticket promoted : cancellation.getPromoted()) {
+            seatLedger.occupy(trainNumber, promoted.getBoardingScheduleId(), promoted.getDeboardingScheduleId(), 1);
+            leftWaitlist.add(promoted.getPnr());
+        }
+        waitlistService.removed(trainNumber, leftWaitlist);
+        return true;
+    }
+
+    // --- Waitlist ---
+
+    /**
+     * Like bookTicket, but when the train (or the requested part of its route) is full the
+     * passenger is put on the waitlist instead of being turned away. The returned ticket is
+     * CONFIRMED, or WAITLISTED with its position in the queue; waitlisted tickets are confirmed
+     * automatically, oldest first, when a cancellation, an expired hold, a failed booking or a
+     * bigger train frees a seat they fit in.
+     */
+    public Ticket bookOrWaitlist(String username, String passengerName, int age, String gender,
+                                 String trainNumber, String boardingStation, String alightingStation) throws SQLException {
+        Train train = trainDAO.getTrainByNumber(trainNumber);
+        if (train == null) {
+            throw new IllegalArgumentException("Train not found!");
+        }
+        TrainSegment segment = seatLedger.segment(trainNumber, boardingStation, alightingStation);
+
+        waitlistService.promote(trainNumber);
+        if (seatLedger.tryReserve(trainNumber, segment, 1)) {
+            try {
+                String pnr = persistTicket(username, passengerName, age, gender, trainNumber, segment);
+                seatLedger.confirm(trainNumber, 1);
+                return newTicket(pnr, trainNumber, segment);
+            } catch (IllegalStateException soldOut) {
+                // The database had no seat after all (sold by another instance): waitlist below
+                returnSeats(trainNumber, segment, 1);
+            } catch (SQLException | RuntimeException e) {
+                returnSeats(trainNumber, segment, 1);
+                throw e;
+            }
+        }
+
+        String pnr = PNRGenerator.generatePNR();
+        Passenger passenger = new Passenger(pnr, passengerName, age, gender, username);
+        Ticket ticket = newTicket(pnr, trainNumber, segment);
+        WaitlistEntry entry = bookingDAO.waitlistTicket(passenger, ticket, maxWaitlistPerTrain);
+        waitlistService.added(entry);
+        ticket.setWaitlistPosition(waitlistService.getPosition(trainNumber, pnr));
+        return ticket;
+    }
+
+    /**
+     * How busy the train's booking queue is right now, with the seats left and still in progress.
+     */
+    public Map<String, Object> getAdmissionStatus(String trainNumber) throws SQLException {
+        Map<String, Object> status = admissionControl.getStatus(trainNumber);
+        status.put("availableSeats", seatLedger.getAvailableSeats(trainNumber));
+        status.put("seatsInProgress", seatLedger.getInFlightSeats(trainNumber));
+        return status;
+    }
+
+    public List<WaitlistEntry> getWaitlist(String trainNumber) throws SQLException {
+        return waitlistService.getWaitlist(trainNumber);
+    }
+
+    private static Ticket newTicket(String pnr, String trainNumber, TrainSegment segment) {
+        Ticket ticket = new Ticket(pnr, trainNumber);
+        if (segment != null) {
+            ticket.setBoardingScheduleId(segment.getBoardingScheduleId());
+            ticket.setDeboardingScheduleId(segment.getDeboardingScheduleId());
+        }
+        return ticket;
     }
 
     // --- FIX: The methods in your screenshot ---
     
     public Ticket getTicketDetails(String pnr) throws SQLException {
-        return bookingDAO.getTicketDetails(pnr); // Correct method call
+        Ticket ticket = bookingDAO.getTicketDetails(pnr); // Correct method call
+        if (ticket != null && ticket.getStatus() == TicketStatus.WAITLISTED) {
+            ticket.setWaitlistPosition(waitlistService.getPosition(ticket.getTrainNumber(), pnr));
+        }
+        return ticket;
     }
 
     public List<Ticket> getUserBookings(String username) throws SQLException {
@@ -83,6 +363,20 @@ public class BookingService {
         return bookingDAO.getAllBookings();
     }
 
+    /**
+     * One page of getAllBookings(); {@code after} is the previous page's cursor (null = first).
+     */
+    public Page<Ticket> getBookingsPage(String after, int limit) throws SQLException {
+        return bookingDAO.getBookingsPage(after, limit);
+    }
+
+    /**
+     * getAllBookings() one ticket at a time, without holding them all in memory.
+     */
+    public int streamAllBookings(RowConsumer<Ticket> consumer) throws SQLException, IOException {
+        return bookingDAO.streamAllBookings(consumer);
+    }
+
     public Passenger getPassengerDetails(String pnr) throws SQLException {
         return bookingDAO.getPassengerByPNR(pnr);
     }
@@ -0,0 +1,90 @@
+package com.railway.service;
+
+import com.railway.dao.BookingDAO;
+import com.railway.dao.FeedbackDAO;
+import com.railway.dao.RowConsumer;
+import com.railway.dao.TrainDAO;
+import com.railway.model.Feedback;
+import com.railway.model.Passenger;
+import com.railway.model.Ticket;
+import com.railway.model.Train;
+import com.railway.util.DatabaseConnection;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bulk exports for finance and analytics pulls. Rows are handed over one at a time as they are
+ * read, never collected into a list.
+ *
+ * Bookings, passengers and feedback can be pulled incrementally: an export covers the rows
+ * stamped after {@code since} and up to a watermark, and the next pull passes that watermark as
+ * its {@code since}. Tickets are stamped when booked and again when promoted off the waitlist,
+ * so a pull can send a PNR an earlier pull already sent, with its new status; cancelled tickets
+ * are deleted and never show up. The watermark trails the database clock by
+ * export.watermarkLagSeconds so a booking still committing when the export starts is picked up
+ * by the next pull instead of being skipped by both. That only holds for transactions that
+ * commit within the lag of stamping their row: one that takes longer can be missed.
+ */
+public class ExportService {
+    private final BookingDAO bookingDAO;
+    private final FeedbackDAO feedbackDAO;
+    private final TrainDAO trainDAO;
+    private final int watermarkLagSeconds;
+
+    public ExportService() {
+        this.bookingDAO = new BookingDAO();
+        this.feedbackDAO = new FeedbackDAO();
+        // Exports read the table itself, not the train cache
+        this.trainDAO = new TrainDAO();
+        this.watermarkLagSeconds = DatabaseConnection.getIntProperty("export.watermarkLagSeconds", 5);
+    }
+
+    /**
+     * Parses a {@code since} parameter: an ISO date-time (2025-11-25T18:30:00) or a date
+     * (2025-11-25, meaning midnight). Null or empty means a full export.
+     */
+    public static LocalDateTime parseSince(String since) {
+        if (since == null || since.isEmpty()) {
+            return null;
+        }
+        try {
+            return since.length() == 10 ? LocalDate.parse(since).atStartOfDay() : LocalDateTime.parse(since);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("since must be an ISO date or date-time, e.g. 2025-11-25T18:30:00");
+        }
+    }
+
+    /**
+     * The upper bound for an export starting now; pass it as {@code since} next time.
+     */
+    public LocalDateTime nextWatermark() throws SQLException {
+        return bookingDAO.getDatabaseTime().minusSeconds(watermarkLagSeconds).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    public int exportBookings(LocalDateTime since, LocalDateTime until, RowConsumer<Ticket> consumer)
+            throws SQLException, IOException {
+        return bookingDAO.exportBookings(since, until, consumer);
+    }
+
+    public int exportPassengers(LocalDateTime since, LocalDateTime until, RowConsumer<Passenger> consumer)
+            throws SQLException, IOException {
+        return bookingDAO.exportPassengers(since, until, consumer);
+    }
+
+    public int exportFeedback(LocalDateTime since, LocalDateTime until, RowConsumer<Feedback> consumer)
+            throws SQLException, IOException {
+        return feedbackDAO.exportFeedback(since, until, consumer);
+    }
+
+    /**
+     * Trains carry no timestamp, so they are always exported in full.
+     */
+    public int exportTrains(RowConsumer<Train> consumer) throws SQLException, IOException {
+        return trainDAO.streamAllTrains(consumer);
+    }
+}
@@ -1,10 +1,14 @@
 package com.railway.service;
 
 import com.railway.dao.FeedbackDAO;
+import com.railway.dao.CachingTrainDAO;
+import com.railway.dao.RowConsumer;
 import com.railway.dao.TrainDAO;
 import com.railway.model.Feedback;
+import com.railway.model.Page;
 import com.railway.model.Train;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -14,7 +18,7 @@ public class FeedbackService {
 
     public FeedbackService() {
         this.feedbackDAO = new FeedbackDAO();
-        this.trainDAO = new TrainDAO();
+        this.trainDAO = new CachingTrainDAO();
     }
 
     /**
@@ -44,9 +48,23 @@ public class FeedbackService {
     public List<Feedback> getAllFeedback() throws SQLException {
         return feedbackDAO.getAllFeedback();
     }
+
+    /**
+     * One page of getAllFeedback(); {@code after} is the previous page's cursor (null = first).
+     */
+    public Page<Feedback> getFeedbackPage(String after, int limit) throws SQLException {
+        return feedbackDAO.getFeedbackPage(after, limit);
+    }
+
+    /**
+     * getAllFeedback() one entry at a time, without holding them all in memory.
+     */
+    public int streamAllFeedback(RowConsumer<Feedback> consumer) throws SQLException, IOException {
+        return feedbackDAO.streamAllFeedback(consumer);
+    }
     
     /**
-     * NEW FIX: Retrieves only feedback where AdminResponse is NULL or empty.
+     * NEW FIX: Retrieves only feedback with no AdminResponse yet.
      */
     public List<Feedback> getPendingFeedback() throws SQLException {
         // NOTE: Assumes FeedbackDAO has a method to retrieve pending feedback.
@@ -0,0 +1,361 @@
+package com.railway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.dao.IdempotencyDAO;
+import com.railway.model.IdempotencyRecord;
+import com.railway.util.DatabaseConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response to each Idempotency-Key so a retried request gets the original answer
+ * instead of being executed again.
+ *
+ * Keys are scoped to the username and bound to a hash of the request; reusing a key for a
+ * different request is an error. The first request with a key runs, and duplicates that arrive
+ * while it is running wait for its response rather than running themselves. Responses are kept
+ * for idempotency.ttlSeconds, at most idempotency.maxEntries of them (oldest forgotten first).
+ * Server errors (5xx) and 429s are not remembered: nothing was written, so a retry may run again.
+ *
+ * With idempotency.store=database the keys are also claimed in the IdempotencyKey table, so
+ * retries that land on another instance are deduplicated as well. A claim whose request never
+ * finished (the instance died) can be taken over after idempotency.leaseSeconds.
+ */
+public class IdempotencyStore {
+
+    private static final IdempotencyStore INSTANCE = new IdempotencyStore(
+            "database".equalsIgnoreCase(DatabaseConnection.getProperty("idempotency.store", "memory").trim())
+                    ? new IdempotencyDAO() : null);
+
+    public static final int MAX_KEY_LENGTH = 200;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final long POLL_MILLIS = 50L;
+    private static final long PURGE_INTERVAL_MILLIS = 60_000L;
+
+    /**
+     * An HTTP status and JSON body; replayed = true when it was not produced by this call.
+     */
+    public static final class Response {
+        private final int status;
+        private final Map<String, Object> body;
+        private final boolean replayed;
+
+        public Response(int status, Map<String, Object> body) {
+            this(status, body, false);
+        }
+
+        private Response(int status, Map<String, Object> body, boolean replayed) {
+            this.status = status;
+            this.body = Collections.unmodifiableMap(new LinkedHashMap<>(body));
+            this.replayed = replayed;
+        }
+
+        public int getStatus() { return status; }
+        public Map<String, Object> getBody() { return body; }
+        public boolean isReplayed() { return replayed; }
+
+        Response asReplay() {
+            return replayed ? this : new Response(status, body, true);
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String requestHash;
+        final CompletableFuture<Response> result = new CompletableFuture<>();
+        volatile long expiresAtMillis = Long.MAX_VALUE;  // set once the response is known
+
+        Entry(String id, String requestHash) {
+            this.id = id;
+            this.requestHash = requestHash;
+        }
+    }
+
+    private final IdempotencyDAO idempotencyDAO;  // null = memory only
+    private final long ttlMillis;
+    private final long leaseMillis;
+    private final long waitMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Completed entries in expiry order (they all live equally long)
+    private final ConcurrentLinkedQueue<Entry> expiryOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong lastPurge = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+
+    IdempotencyStore(IdempotencyDAO idempotencyDAO) {
+        this.idempotencyDAO = idempotencyDAO;
+        this.ttlMillis = DatabaseConnection.getLongProperty("idempotency.ttlSeconds", 86400L) * 1000L;
+        this.leaseMillis = DatabaseConnection.getLongProperty("idempotency.leaseSeconds", 60L) * 1000L;
+        this.waitMillis = DatabaseConnection.getLongProperty("idempotency.waitSeconds", 30L) * 1000L;
+        this.maxEntries = Math.max(1, DatabaseConnection.getIntProperty("idempotency.maxEntries", 100000));
+    }
+
+    public static IdempotencyStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key already did, in which case its
+     * response is returned (marked replayed). Throws IllegalArgumentException when the key was
+     * used for a different request, and IllegalStateException when the first request is still
+     * running after idempotency.waitSeconds.
+     *
+     * @param operation identifies the endpoint, so the same key on two endpoints doesn't match
+     */
+    public Response execute(String username, String key, String operation, Object request,
+                            Supplier<Response> action) throws SQLException {
+        String owner = username != null ? username : "";
+        String requestHash = hash(operation, request);
+        String id = owner + '\u0000' + key;
+        long deadline = System.currentTimeMillis() + waitMillis;
+
+        while (true) {
+            Entry fresh = new Entry(id, requestHash);
+            Entry existing = entries.putIfAbsent(id, fresh);
+            if (existing == null) {
+                Response response = lead(owner, key, fresh, action, deadline);
+                if (response != null) {
+                    return response;
+                }
+                continue;  // the shared record went away while we looked at it: start over
+            }
+            if (existing.expiresAtMillis <= System.currentTimeMillis()) {
+                entries.remove(id, existing);
+                continue;
+            }
+            checkSameRequest(existing.requestHash, requestHash);
+
+            Response response = await(existing.result, deadline);
+            if (response != null) {
+                replayed.incrementAndGet();
+                return response.asReplay();
+            }
+            // The first request failed without a response; this one takes its place
+        }
+    }
+
+    // This thread owns the local entry: claim the key in the database (if shared), then run.
+    // Returns null if the caller should start over.
+    private Response lead(String owner, String key, Entry entry, Supplier<Response> action, long deadline)
+            throws SQLException {
+        if (idempotencyDAO != null) {
+            boolean claimed;
+            try {
+                claimed = idempotencyDAO.claim(owner, key, entry.requestHash,
+                        Instant.ofEpochMilli(System.currentTimeMillis() + leaseMillis));
+            } catch (SQLException | RuntimeException e) {
+                abandon(entry, e);
+                throw e;
+            }
+            if (!claimed) {
+                return follow(owner, key, entry, deadline);
+            }
+        }
+
+        Response response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            abandon(entry, e);
+            releaseClaim(owner, key);
+            throw e;
+        }
+        executed.incrementAndGet();
+
+        if (response.getStatus() >= 500 || response.getStatus() == 429) {
+            // Not remembered: waiters get this response, later retries run again
+            entries.remove(entry.id, entry);
+            entry.result.complete(response);
+            releaseClaim(owner, key);
+            return response;
+        }
+
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        if (idempotencyDAO != null) {
+            try {
+                idempotencyDAO.complete(owner, key, response.getStatus(), toJson(response.getBody()),
+                        Instant.ofEpochMilli(expiresAt));
+            } catch (SQLException e) {
+                // Still remembered here; other instances will run the retry after the lease
+                System.err.println("Could not store the response to Idempotency-Key " + key + ": " + e.getMessage());
+            }
+            purgeExpired();
+        }
+        remember(entry, response, expiresAt);
+        return response;
+    }
+
+    // Another instance claimed the key: wait for its response in the shared table
+    private Response follow(String owner, String key, Entry entry, long deadline) throws SQLException {
+        try {
+            while (true) {
+                IdempotencyRecord record = idempotencyDAO.find(owner, key);
+                if (record == null || record.getExpiresAt().isBefore(Instant.now())) {
+                    entries.remove(entry.id, entry);
+                    entry.result.complete(null);
+                    return null;
+                }
+                checkSameRequest(record.getRequestHash(), entry.requestHash);
+                if (record.isCompleted()) {
+                    Response response = new Response(record.getStatusCode(), fromJson(record.getResponseBody()), true);
+                    remember(entry, response, record.getExpiresAt().toEpochMilli());
+                    replayed.incrementAndGet();
+                    return response;
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw stillRunning();
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(entry, e);
+            throw stillRunning();
+        } catch (SQLException | RuntimeException e) {
+            abandon(entry, e);
+            throw e;
+        }
+    }
+
+    // Waits for the local first request; null if it failed without a response
+    private Response await(CompletableFuture<Response> result, long deadline) {
+        try {
+            return result.get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw stillRunning();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw stillRunning();
+        }
+    }
+
+    private void remember(Entry entry, Response response, long expiresAtMillis) {
+        entry.expiresAtMillis = expiresAtMillis;
+        entry.result.complete(response);
+        expiryOrder.add(entry);
+        trim();
+    }
+
+    // Forgets expired responses, then the oldest ones while over maxEntries
+    private void trim() {
+        long now = System.currentTimeMillis();
+        Entry head;
+        while ((head = expiryOrder.peek()) != null
+                && (head.expiresAtMillis <= now || entries.size() > maxEntries)) {
+            if (expiryOrder.remove(head)) {
+                entries.remove(head.id, head);
+            }
+        }
+    }
+
+    private void abandon(Entry entry, Throwable cause) {
+        entries.remove(entry.id, entry);
+        entry.result.completeExceptionally(cause);
+    }
+
+    private void releaseClaim(String owner, String key) {
+        if (idempotencyDAO == null) {
+            return;
+        }
+        try {
+            idempotencyDAO.release(owner, key);
+        } catch (SQLException e) {
+            // The lease runs out on its own
+            System.err.println("Could not release Idempotency-Key " + key + ": " + e.getMessage());
+        }
+    }
+
+    // At most once a minute, by whichever request gets here first
+    private void purgeExpired() {
+        long last = lastPurge.get();
+        long now = System.currentTimeMillis();
+        if (now - last < PURGE_INTERVAL_MILLIS || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        try {
+            idempotencyDAO.deleteExpired();
+        } catch (SQLException e) {
+            System.err.println("Could not purge expired idempotency keys: " + e.getMessage());
+        }
+    }
+
+    private static void checkSameRequest(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IllegalArgumentException("This Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private static IllegalStateException stillRunning() {
+        return new IllegalStateException("A request with this Idempotency-Key is still being processed, please retry");
+    }
+
+    // --- Stats ---
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    public long getReplayedCount() {
+        return replayed.get();
+    }
+
+    // --- Encoding helpers ---
+
+    // SHA-256 over the operation and the request as JSON
+    private static String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] bytes = digest.digest(JSON.writeValueAsBytes(request));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash the request", e);
+        }
+    }
+
+    private static String toJson(Map<String, Object> body) {
+        try {
+            return JSON.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response", e);
+        }
+    }
+
+    private static Map<String, Object> fromJson(String body) {
+        try {
+            return body == null ? Collections.emptyMap() : JSON.readValue(body, new TypeReference<LinkedHashMap<String, Object>>() { });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response is not valid JSON", e);
+        }
+    }
+}
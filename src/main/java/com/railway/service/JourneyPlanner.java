@@ -0,0 +1,422 @@
+package com.railway.service;
+
+import com.railway.dao.ScheduleDAO;
+import com.railway.dao.TrainDAO;
+import com.railway.model.Journey;
+import com.railway.model.JourneyLeg;
+import com.railway.model.Schedule;
+import com.railway.model.Train;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-leg journey planning over the Schedule table (Connection Scan Algorithm).
+ *
+ * Every pair of consecutive stops of a dated train becomes one elementary connection. All
+ * connections are held in parallel int arrays sorted by departure time, with times in minutes
+ * since the epoch, so a query is a linear scan from the requested departure time with no
+ * object allocation per connection.
+ *
+ * The scan runs in rounds: round k may use up to k transfers and only changes trains at
+ * stations reached in round k-1, after the minimum connection time. The result is the set of
+ * Pareto-optimal journeys (each extra transfer must arrive strictly earlier), so the first one
+ * has the fewest transfers and the last one arrives earliest.
+ *
+ * The timetable is loaded from the database by the first query. It is rebuilt on a background
+ * thread when a train changes (see invalidate()) and once it is older than journey.maxAgeSeconds;
+ * queries keep using the previous timetable until the new one is published.
+ */
+public class JourneyPlanner {
+
+    private static final JourneyPlanner INSTANCE = new JourneyPlanner(new ScheduleDAO(), new TrainDAO());
+
+    private static final int INF = Integer.MAX_VALUE;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_TRANSFERS_LIMIT = 8;
+
+    private final ScheduleDAO scheduleDAO;
+    private final TrainDAO trainDAO;
+    private final int minTransferMinutes;
+    private final int defaultMaxTransfers;
+    private final long maxAgeMillis;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Rebuilds after a change or expiry; the thread is only started by the first one
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journey-timetable-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    // Bumped by invalidate(); a timetable built from an older count is out of date
+    private final AtomicLong changes = new AtomicLong();
+
+    private volatile Timetable timetable;
+
+    JourneyPlanner(ScheduleDAO scheduleDAO, TrainDAO trainDAO) {
+        this.scheduleDAO = scheduleDAO;
+        this.trainDAO = trainDAO;
+        this.minTransferMinutes = DatabaseConnection.getIntProperty("journey.minTransferMinutes", 10);
+        this.defaultMaxTransfers = DatabaseConnection.getIntProperty("journey.maxTransfers", 3);
+        this.maxAgeMillis = DatabaseConnection.getLongProperty("journey.maxAgeSeconds", 300L) * 1000L;
+    }
+
+    public static JourneyPlanner getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Immutable compact timetable. Connection arrays are indexed by connection and sorted by
+     * departure time; trip and station values are indexes into tripTrain/stationNames.
+     */
+    private static final class Timetable {
+        final String[] stationNames;
+        final Map<String, Integer> stationIds;
+        final String[] tripTrain;
+        final String[] tripName;
+        final int[] depStation;
+        final int[] arrStation;
+        final int[] depTime;
+        final int[] arrTime;
+        final int[] trip;
+        final long builtAt;
+        final long changes;
+
+        Timetable(String[] stationNames, Map<String, Integer> stationIds, String[] tripTrain, String[] tripName,
+                  int[] depStation, int[] arrStation, int[] depTime, int[] arrTime, int[] trip, long builtAt,
+                  long changes) {
+            this.stationNames = stationNames;
+            this.stationIds = stationIds;
+            this.tripTrain = tripTrain;
+            this.tripName = tripName;
+            this.depStation = depStation;
+            this.arrStation = arrStation;
+            this.depTime = depTime;
+            this.arrTime = arrTime;
+            this.trip = trip;
+            this.builtAt = builtAt;
+            this.changes = changes;
+        }
+    }
+
+    // --- Queries ---
+
+    public List<Journey> plan(String fromStation, String toStation, LocalDateTime departAfter) throws SQLException {
+        return plan(fromStation, toStation, departAfter, defaultMaxTransfers);
+    }
+
+    /**
+     * Pareto-optimal journeys leaving fromStation no earlier than departAfter, ordered by number
+     * of transfers (fewest first, which is also latest arrival first). Empty if the destination
+     * can't be reached within maxTransfers.
+     */
+    public List<Journey> plan(String fromStation, String toStation, LocalDateTime departAfter, int maxTransfers)
+            throws SQLException {
+        if (maxTransfers < 0 || maxTransfers > MAX_TRANSFERS_LIMIT) {
+            throw new IllegalArgumentException("maxTransfers must be between 0 and " + MAX_TRANSFERS_LIMIT);
+        }
+        Timetable tt = current();
+        int origin = stationId(tt, fromStation);
+        int target = stationId(tt, toStation);
+        if (origin == target) {
+            throw new IllegalArgumentException("Origin and destination must be different stations");
+        }
+
+        int start = toMinutes(departAfter);
+        int stations = tt.stationNames.length;
+        int connections = tt.depTime.length;
+        int rounds = maxTransfers + 1;
+
+        int[][] arrival = new int[rounds][];
+        int[][] enter = new int[rounds][];
+        int[][] exit = new int[rounds][];
+        int[] tripEnter = new int[tt.tripTrain.length];
+        int first = firstDepartingAtOrAfter(tt.depTime, start);
+
+        List<Journey> journeys = new ArrayList<>();
+        for (int k = 0; k < rounds; k++) {
+            int[] arr = new int[stations];
+            if (k == 0) {
+                Arrays.fill(arr, INF);
+            } else {
+                System.arraycopy(arrival[k - 1], 0, arr, 0, stations);
+            }
+            int[] prev = k > 0 ? arrival[k - 1] : null;
+            int[] enterK = new int[stations];
+            int[] exitK = new int[stations];
+            Arrays.fill(enterK, -1);
+            Arrays.fill(tripEnter, -1);
+            boolean improved = false;
+
+            for (int c = first; c < connections; c++) {
+                if (tt.depTime[c] >= arr[target]) {
+                    break; // nothing departing later can beat what we already have
+                }
+                int t = tt.trip[c];
+                if (tripEnter[t] < 0) {
+                    int s = tt.depStation[c];
+                    long ready = s == origin ? start
+                            : prev == null || prev[s] == INF ? INF : (long) prev[s] + minTransferMinutes;
+                    if (ready <= tt.depTime[c]) {
+                        tripEnter[t] = c;
+                    }
+                }
+                if (tripEnter[t] >= 0) {
+                    int a = tt.arrStation[c];
+                    if (tt.arrTime[c] < arr[a]) {
+                        arr[a] = tt.arrTime[c];
+                        enterK[a] = tripEnter[t];
+                        exitK[a] = c;
+                        improved = true;
+                    }
+                }
+            }
+
+            arrival[k] = arr;
+            enter[k] = enterK;
+            exit[k] = exitK;
+            if (enterK[target] >= 0) {
+                journeys.add(reconstruct(tt, enter, exit, k, origin, target));
+            }
+            if (!improved) {
+                break; // no new stations reached, so another transfer can't help
+            }
+        }
+        return journeys;
+    }
+
+    private Journey reconstruct(Timetable tt, int[][] enter, int[][] exit, int round, int origin, int target) {
+        LinkedList<JourneyLeg> legs = new LinkedList<>();
+        int station = target;
+        int r = round;
+        while (station != origin) {
+            while (enter[r][station] < 0) {
+                r--; // label carried over from an earlier round
+            }
+            int boarded = enter[r][station];
+            int alighted = exit[r][station];
+            int t = tt.trip[boarded];
+            legs.addFirst(new JourneyLeg(tt.tripTrain[t], tt.tripName[t],
+                    tt.stationNames[tt.depStation[boarded]], tt.stationNames[tt.arrStation[alighted]],
+                    toDateTime(tt.depTime[boarded]), toDateTime(tt.arrTime[alighted])));
+            station = tt.depStation[boarded];
+            r--;
+        }
+        return new Journey(new ArrayList<>(legs));
+    }
+
+    private static int stationId(Timetable tt, String stationName) {
+        Integer id = stationName == null ? null : tt.stationIds.get(stationKey(stationName));
+        if (id == null) {
+            throw new IllegalArgumentException("No trains stop at station: " + stationName);
+        }
+        return id;
+    }
+
+    private static int firstDepartingAtOrAfter(int[] depTime, int minute) {
+        int low = 0;
+        int high = depTime.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (depTime[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // --- Timetable loading ---
+
+    /**
+     * Marks the timetable out of date and starts rebuilding it in the background.
+     */
+    public void invalidate() {
+        changes.incrementAndGet();
+        if (timetable != null) {
+            refreshInBackground();
+        }
+    }
+
+    public int getConnectionCount() {
+        Timetable current = timetable;
+        return current != null ? current.depTime.length : 0;
+    }
+
+    private Timetable current() throws SQLException {
+        Timetable current = timetable;
+        if (current == null) {
+            rebuildLock.lock();
+            try {
+                if (timetable == null) {
+                    timetable = build();
+                }
+                return timetable;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        if (outOfDate(current)) {
+            refreshInBackground();
+        }
+        return current;
+    }
+
+    private boolean outOfDate(Timetable tt) {
+        return tt.changes != changes.get() || System.currentTimeMillis() - tt.builtAt > maxAgeMillis;
+    }
+
+    // Queues one rebuild; a change made while it runs queues the next one
+    private void refreshInBackground() {
+        if (!refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            refreshQueued.set(false);
+            rebuildLock.lock();
+            try {
+                Timetable current = timetable;
+                if (current != null && outOfDate(current)) {
+                    timetable = build();
+                }
+            } catch (SQLException e) {
+                // Keep answering from the old timetable; the next query will try again
+                System.err.println("Journey timetable refresh failed: " + e.getMessage());
+            } finally {
+                rebuildLock.unlock();
+            }
+        });
+    }
+
+    private Timetable build() throws SQLException {
+        long startedAt = System.currentTimeMillis();
+        long changesAtStart = changes.get();
+        Map<String, Train> trains = new HashMap<>();
+        for (Train train : trainDAO.getAllTrains()) {
+            trains.put(train.getTrainNumber(), train);
+        }
+        Map<String, List<Schedule>> stopsByTrain = scheduleDAO.getAllStops();
+
+        List<String> stationNames = new ArrayList<>();
+        Map<String, Integer> stationIds = new HashMap<>();
+        List<String> tripTrain = new ArrayList<>();
+        List<String> tripName = new ArrayList<>();
+        // One {depStation, arrStation, depTime, arrTime, trip} row per connection, sorted below
+        List<int[]> rows = new ArrayList<>();
+
+        for (Map.Entry<String, List<Schedule>> entry : stopsByTrain.entrySet()) {
+            Train train = trains.get(entry.getKey());
+            List<Schedule> stops = entry.getValue();
+            if (train == null || train.getDate() == null || stops.size() < 2) {
+                continue;
+            }
+            int t = tripTrain.size();
+            tripTrain.add(train.getTrainNumber());
+            tripName.add(train.getTrainName());
+
+            int[] arrive = new int[stops.size()];
+            int[] depart = new int[stops.size()];
+            int[] station = new int[stops.size()];
+            resolveStopTimes(train.getDate(), stops, arrive, depart);
+            for (int i = 0; i < stops.size(); i++) {
+                String name = stops.get(i).getStationName();
+                Integer id = stationIds.get(stationKey(name));
+                if (id == null) {
+                    id = stationNames.size();
+                    stationNames.add(name);
+                    stationIds.put(stationKey(name), id);
+                }
+                station[i] = id;
+            }
+            for (int i = 0; i + 1 < stops.size(); i++) {
+                rows.add(new int[] { station[i], station[i + 1], depart[i], arrive[i + 1], t });
+            }
+        }
+
+        // Packed (departure minute << 32 | row) so one primitive sort orders the connections
+        int count = rows.size();
+        long[] order = new long[count];
+        for (int c = 0; c < count; c++) {
+            order[c] = ((long) rows.get(c)[2] << 32) | c;
+        }
+        Arrays.sort(order);
+
+        int[] depStation = new int[count];
+        int[] arrStation = new int[count];
+        int[] depTime = new int[count];
+        int[] arrTime = new int[count];
+        int[] trip = new int[count];
+        for (int i = 0; i < count; i++) {
+            int[] row = rows.get((int) (order[i] & 0xFFFFFFFFL));
+            depStation[i] = row[0];
+            arrStation[i] = row[1];
+            depTime[i] = row[2];
+            arrTime[i] = row[3];
+            trip[i] = row[4];
+        }
+
+        return new Timetable(stationNames.toArray(new String[0]), stationIds,
+                tripTrain.toArray(new String[0]), tripName.toArray(new String[0]),
+                depStation, arrStation, depTime, arrTime, trip, startedAt, changesAtStart);
+    }
+
+    /**
+     * Turns the stop times of day into absolute minutes. The train leaves its first stop on
+     * Train.Date; every time that is earlier than the one before it rolls over to the next day.
+     * A missing arrival or departure time falls back to the other one.
+     */
+    private static void resolveStopTimes(LocalDate date, List<Schedule> stops, int[] arrive, int[] depart) {
+        int base = (int) (date.toEpochDay() * MINUTES_PER_DAY);
+        int dayOffset = 0;
+        int previous = -1;
+        for (int i = 0; i < stops.size(); i++) {
+            LocalTime arrivalTime = stops.get(i).getArrivalTime();
+            LocalTime departureTime = stops.get(i).getDepartureTime();
+            LocalTime a = arrivalTime != null ? arrivalTime : departureTime;
+            LocalTime d = departureTime != null ? departureTime : arrivalTime;
+
+            int minute = a.getHour() * 60 + a.getMinute();
+            if (minute < previous) {
+                dayOffset += MINUTES_PER_DAY;
+            }
+            previous = minute;
+            arrive[i] = base + dayOffset + minute;
+
+            minute = d.getHour() * 60 + d.getMinute();
+            if (minute < previous) {
+                dayOffset += MINUTES_PER_DAY;
+            }
+            previous = minute;
+            depart[i] = base + dayOffset + minute;
+        }
+    }
+
+    private static int toMinutes(LocalDateTime time) {
+        return (int) (time.toLocalDate().toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute());
+    }
+
+    private static LocalDateTime toDateTime(int minutes) {
+        return LocalDate.ofEpochDay(Math.floorDiv(minutes, MINUTES_PER_DAY))
+                .atTime(LocalTime.ofSecondOfDay(Math.floorMod(minutes, MINUTES_PER_DAY) * 60L));
+    }
+
+    private static String stationKey(String stationName) {
+        return stationName.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,223 @@
+package com.railway.service;
+
+import com.railway.model.SeatHold;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Append-only log of seat holds so they survive a restart.
+ *
+ * One tab-separated line per event: HOLD (created, or handed back after a failed confirm),
+ * CLAIM (confirmation started) and END (confirmed, released or expired). Replaying the file
+ * keeps the holds whose last event is HOLD. A claimed hold is not restored: its tickets are
+ * either committed, and then counted by the database, or they are not and the seats are free.
+ *
+ * Lines are flushed to the OS on every write, so a crashed process loses nothing; with
+ * hold.journal.fsync=true they are also forced to disk. The file is rewritten with just the
+ * live holds when it has grown well past them.
+ */
+class SeatHoldJournal {
+
+    private static final int MIN_COMPACT_RECORDS = 10_000;
+
+    private final Path path;
+    private final boolean fsync;
+    private final Supplier<Collection<SeatHold>> liveHolds;
+
+    // File I/O happens under this lock; a monitor would pin a virtual thread's carrier meanwhile
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileOutputStream out;
+    private Writer writer;
+    private long records;
+
+    SeatHoldJournal(Path path, boolean fsync, Supplier<Collection<SeatHold>> liveHolds) {
+        this.path = path;
+        this.fsync = fsync;
+        this.liveHolds = liveHolds;
+    }
+
+    // --- Recovery ---
+
+    /**
+     * Reads the journal and returns the holds that were still open, oldest first.
+     * A torn last line (crash mid-write) is ignored.
+     */
+    List<SeatHold> replay() throws IOException {
+        lock.lock();
+        try {
+            Map<String, SeatHold> open = new LinkedHashMap<>();
+            if (!Files.exists(path)) {
+                return new ArrayList<>();
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", -1);
+                    try {
+                        switch (fields[0]) {
+                            case "HOLD":
+                                SeatHold hold = parseHold(fields);
+                                open.put(hold.getHoldId(), hold);
+                                break;
+                            case "CLAIM":
+                            case "END":
+                                open.remove(fields[1]);
+                                break;
+                            default:
+                                break;
+                        }
+                    } catch (RuntimeException e) {
+                        System.err.println("Skipping unreadable seat hold journal line: " + line);
+                    }
+                }
+            }
+            return new ArrayList<>(open.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the journal with one HOLD line per given hold and opens it for appending.
+     */
+    void rewrite(Collection<SeatHold> holds) throws IOException {
+        lock.lock();
+        try {
+            closeQuietly();
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (Writer w = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (SeatHold hold : holds) {
+                    w.write(formatHold(hold));
+                    w.write('\n');
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            out = new FileOutputStream(path.toFile(), true);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            records = holds.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // --- Appending ---
+
+    void held(SeatHold hold) {
+        append(formatHold(hold));
+    }
+
+    void claimed(String holdId) {
+        append("CLAIM\t" + holdId);
+    }
+
+    void ended(String holdId) {
+        append("END\t" + holdId);
+    }
+
+    // A failed write is logged, not thrown: the hold itself is still valid in memory
+    private void append(String line) {
+        lock.lock();
+        try {
+            try {
+                if (writer == null) {
+                    return;
+                }
+                writer.write(line);
+                writer.write('\n');
+                writer.flush();
+                if (fsync) {
+                    out.getChannel().force(false);
+                }
+                records++;
+                if (records > MIN_COMPACT_RECORDS) {
+                    Collection<SeatHold> live = liveHolds.get();
+                    if (records > 4L * live.size()) {
+                        rewrite(live);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Seat hold journal write failed: " + e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closeQuietly();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // Nothing left to do with it
+            }
+            writer = null;
+            out = null;
+        }
+    }
+
+    // --- Format ---
+
+    private static String formatHold(SeatHold hold) {
+        return String.join("\t", "HOLD",
+                hold.getHoldId(),
+                encode(hold.getUsername()),
+                encode(hold.getTrainNumber()),
+                Integer.toString(hold.getSeats()),
+                encode(hold.getBoardingScheduleId()),
+                encode(hold.getDeboardingScheduleId()),
+                Long.toString(hold.getCreatedAt().toEpochMilli()),
+                Long.toString(hold.getExpiresAt().toEpochMilli()));
+    }
+
+    private static SeatHold parseHold(String[] fields) {
+        if (fields.length != 9) {
+            throw new IllegalArgumentException("Expected 9 fields, got " + fields.length);
+        }
+        return new SeatHold(fields[1], decode(fields[2]), decode(fields[3]), Integer.parseInt(fields[4]),
+                decode(fields[5]), decode(fields[6]),
+                Instant.ofEpochMilli(Long.parseLong(fields[7])), Instant.ofEpochMilli(Long.parseLong(fields[8])));
+    }
+
+    // Empty field = null; values are URL-encoded so they can't contain tabs or newlines
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String field) {
+        return field.isEmpty() ? null : URLDecoder.decode(field, StandardCharsets.UTF_8);
+    }
+}
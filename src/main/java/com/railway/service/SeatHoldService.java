@@ -0,0 +1,378 @@
+package com.railway.service;
+
+import com.railway.model.SeatHold;
+import com.railway.model.TrainSegment;
+import com.railway.util.DatabaseConnection;
+import com.railway.util.HashedTimerWheel;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Temporary seat holds: the first phase of the two-phase booking flow.
+ *
+ * A hold takes its seats from the SeatLedger like a booking in progress, so nothing is written to
+ * the database until the hold is confirmed (BookingService.confirmHold). Every hold has one
+ * timeout on a shared HashedTimerWheel; when it fires before the hold is confirmed or released,
+ * the seats go back to the ledger (and to the train's waitlist first). Holds are journaled (SeatHoldJournal) and restored on startup
+ * with whatever time they had left.
+ *
+ * Holds live in this instance only. Other instances sharing the database don't see them, but
+ * the capacity check in BookingDAO still prevents overbooking when a hold is confirmed.
+ */
+public class SeatHoldService {
+
+    private static final SeatHoldService INSTANCE =
+            new SeatHoldService(SeatLedger.getInstance(), WaitlistService.getInstance());
+
+    private enum State { HELD, CONFIRMING, CLOSED }
+
+    // Mutable bookkeeping around the immutable SeatHold; guarded by its lock. Not a monitor: journal
+    // writes (and their fsync) happen while it is held, which would pin a virtual thread's carrier
+    private static final class Hold {
+        final ReentrantLock lock = new ReentrantLock();
+        final SeatHold view;
+        final TrainSegment segment;
+        volatile State state = State.HELD;
+        HashedTimerWheel.Timeout timeout;
+
+        Hold(SeatHold view, TrainSegment segment) {
+            this.view = view;
+            this.segment = segment;
+        }
+    }
+
+    private final SeatLedger seatLedger;
+    private final WaitlistService waitlistService;
+    private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+    private final AtomicInteger heldSeats = new AtomicInteger();
+    private final int defaultTtlSeconds;
+    private final int maxTtlSeconds;
+    private final int maxSeats;
+    private final int maxActive;
+    private final HashedTimerWheel wheel;
+    private final SeatHoldJournal journal;
+    private final ReentrantLock recoveryLock = new ReentrantLock();
+    private volatile boolean recovered;
+
+    SeatHoldService(SeatLedger seatLedger, WaitlistService waitlistService) {
+        this.seatLedger = seatLedger;
+        this.waitlistService = waitlistService;
+        this.defaultTtlSeconds = DatabaseConnection.getIntProperty("hold.ttlSeconds", 300);
+        this.maxTtlSeconds = DatabaseConnection.getIntProperty("hold.maxTtlSeconds", 900);
+        this.maxSeats = DatabaseConnection.getIntProperty("hold.maxSeats", 10);
+        this.maxActive = DatabaseConnection.getIntProperty("hold.maxActive", 500000);
+        this.wheel = new HashedTimerWheel("seat-hold-expiry",
+                DatabaseConnection.getLongProperty("hold.wheel.tickMillis", 100L),
+                DatabaseConnection.getIntProperty("hold.wheel.size", 1024));
+
+        String journalPath = DatabaseConnection.getProperty("hold.journal.path", "data/seat-holds.journal");
+        this.journal = journalPath.trim().isEmpty() ? null : new SeatHoldJournal(Paths.get(journalPath.trim()),
+                Boolean.parseBoolean(DatabaseConnection.getProperty("hold.journal.fsync", "false")),
+                this::liveHolds);
+    }
+
+    public static SeatHoldService getInstance() {
+        return INSTANCE;
+    }
+
+    // --- Lifecycle ---
+
+    /**
+     * Takes {@code seats} seats on the segment (null = whole route) for ttlSeconds
+     * (null = hold.ttlSeconds). Throws IllegalStateException when they are not available.
+     */
+    public SeatHold hold(String username, String trainNumber, TrainSegment segment, int seats, Integer ttlSeconds)
+            throws SQLException {
+        ensureRecovered();
+        if (username == null || username.trim().isEmpty()) {
+            throw new IllegalArgumentException("Username is required");
+        }
+        if (seats < 1 || seats > maxSeats) {
+            throw new IllegalArgumentException("A hold is for 1 to " + maxSeats + " seats");
+        }
+        int ttl = ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+        if (ttl < 1 || ttl > maxTtlSeconds) {
+            throw new IllegalArgumentException("Hold time must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+        if (holds.size() >= maxActive) {
+            throw new IllegalStateException("Too many seat holds in progress, please try again later");
+        }
+        if (!seatLedger.tryReserve(trainNumber, segment, seats)) {
+            throw new IllegalStateException("No seats available!");
+        }
+
+        Instant now = Instant.now();
+        SeatHold view = new SeatHold(UUID.randomUUID().toString(), username, trainNumber, seats,
+                segment != null ? segment.getBoardingScheduleId() : null,
+                segment != null ? segment.getDeboardingScheduleId() : null,
+                now, now.plusSeconds(ttl));
+        register(new Hold(view, segment));
+        return view;
+    }
+
+    // Publishes the hold, journals it and arms its timeout (in that order, see SeatHoldJournal)
+    private void register(Hold hold) {
+        holds.put(hold.view.getHoldId(), hold);
+        heldSeats.addAndGet(hold.view.getSeats());
+        if (journal != null) {
+            journal.held(hold.view);
+        }
+        arm(hold);
+    }
+
+    private void arm(Hold hold) {
+        long delayMillis = hold.view.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+        hold.lock.lock();
+        try {
+            hold.timeout = wheel.schedule(() -> expire(hold), delayMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            hold.lock.unlock();
+        }
+    }
+
+    /**
+     * The hold, or null if it does not exist (any more).
+     */
+    public SeatHold get(String holdId) {
+        ensureRecovered();
+        Hold hold = holds.get(holdId);
+        return hold != null ? hold.view : null;
+    }
+
+    /**
+     * Starts confirming a hold: it can no longer expire or be released. The caller must follow
+     * up with confirmed() or confirmFailed().
+     */
+    public SeatHold claim(String holdId, String username) {
+        ensureRecovered();
+        Hold hold = owned(holdId, username);
+        hold.lock.lock();
+        try {
+            if (hold.state == State.CLOSED) {
+                throw new IllegalArgumentException("Hold not found or expired");
+            }
+            if (hold.state != State.HELD) {
+                throw new IllegalStateException("Hold " + holdId + " is already being confirmed");
+            }
+            hold.state = State.CONFIRMING;
+            if (hold.timeout != null) {
+                hold.timeout.cancel();
+            }
+            if (journal != null) {
+                journal.claimed(holdId);
+            }
+        } finally {
+            hold.lock.unlock();
+        }
+        return hold.view;
+    }
+
+    /**
+     * The held seats were written to the database as tickets.
+     */
+    public void confirmed(String holdId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null || !close(hold, State.CONFIRMING)) {
+            return;
+        }
+        seatLedger.confirm(hold.view.getTrainNumber(), hold.view.getSeats());
+        if (journal != null) {
+            journal.ended(holdId);
+        }
+    }
+
+    /**
+     * Confirming failed and nothing was persisted: the hold is back in place until it expires,
+     * or released straight away if it already has.
+     */
+    public void confirmFailed(String holdId) {
+        Hold hold = holds.get(holdId);
+        if (hold == null) {
+            return;
+        }
+        if (hold.view.getExpiresAt().isAfter(Instant.now())) {
+            hold.lock.lock();
+            try {
+                if (hold.state != State.CONFIRMING) {
+                    return;
+                }
+                hold.state = State.HELD;
+                if (journal != null) {
+                    journal.held(hold.view);
+                }
+            } finally {
+                hold.lock.unlock();
+            }
+            arm(hold);
+        } else if (close(hold, State.CONFIRMING)) {
+            giveBack(hold);
+        }
+    }
+
+    /**
+     * Gives the seats back before the hold expires.
+     */
+    public void release(String holdId, String username) {
+        ensureRecovered();
+        Hold hold = owned(holdId, username);
+        if (!close(hold, State.HELD)) {
+            throw new IllegalStateException("Hold " + holdId + " is being confirmed and can no longer be released");
+        }
+        if (hold.timeout != null) {
+            hold.timeout.cancel();
+        }
+        giveBack(hold);
+    }
+
+    // Timer wheel callback
+    private void expire(Hold hold) {
+        if (close(hold, State.HELD)) {
+            giveBack(hold);
+        }
+    }
+
+    private Hold owned(String holdId, String username) {
+        Hold hold = holdId != null ? holds.get(holdId) : null;
+        if (hold == null) {
+            throw new IllegalArgumentException("Hold not found or expired");
+        }
+        if (!hold.view.getUsername().equals(username)) {
+            throw new SecurityException("You can only use your own seat holds!");
+        }
+        return hold;
+    }
+
+    // Moves the hold from the expected state to CLOSED and unpublishes it; false if it wasn't in that state
+    private boolean close(Hold hold, State expected) {
+        hold.lock.lock();
+        try {
+            if (hold.state != expected) {
+                return false;
+            }
+            hold.state = State.CLOSED;
+        } finally {
+            hold.lock.unlock();
+        }
+        holds.remove(hold.view.getHoldId(), hold);
+        heldSeats.addAndGet(-hold.view.getSeats());
+        return true;
+    }
+
+    // Runs on the timer wheel thread for expired holds, so the waitlist is served in the background
+    private void giveBack(Hold hold) {
+        seatLedger.cancelReservation(hold.view.getTrainNumber(), hold.segment, hold.view.getSeats());
+        if (journal != null) {
+            journal.ended(hold.view.getHoldId());
+        }
+        waitlistService.seatsReturned(hold.view.getTrainNumber());
+    }
+
+    // --- Recovery ---
+
+    private void ensureRecovered() {
+        if (!recovered) {
+            recover();
+        }
+    }
+
+    /**
+     * Restores the holds from the journal that have not expired yet, taking their seats from the
+     * ledger again. A hold whose seats have been sold meanwhile is dropped. Runs once; later calls
+     * return 0, and calls made while it runs wait for it. Call it after the ledger has been seeded.
+     */
+    public int recover() {
+        // A lock, not a monitor: the replay reads the journal and the ledger queries the database
+        recoveryLock.lock();
+        try {
+            if (recovered) {
+                return 0;
+            }
+            int restored = 0;
+            try {
+                if (journal != null) {
+                    restored = replayJournal();
+                }
+            } finally {
+                // Set last, so ensureRecovered() never lets a caller past a half-restored service
+                for (Hold hold : holds.values()) {
+                    arm(hold);
+                }
+                recovered = true;
+            }
+            return restored;
+        } finally {
+            recoveryLock.unlock();
+        }
+    }
+
+    private int replayJournal() {
+        int restored = 0;
+        try {
+            List<SeatHold> open = journal.replay();
+            long now = System.currentTimeMillis();
+            for (SeatHold view : open) {
+                if (view.getExpiresAt().toEpochMilli() <= now) {
+                    continue;
+                }
+                try {
+                    TrainSegment segment = seatLedger.segmentFor(view.getTrainNumber(),
+                            view.getBoardingScheduleId(), view.getDeboardingScheduleId());
+                    if (seatLedger.tryReserve(view.getTrainNumber(), segment, view.getSeats())) {
+                        Hold hold = new Hold(view, segment);
+                        holds.put(view.getHoldId(), hold);
+                        heldSeats.addAndGet(view.getSeats());
+                        restored++;
+                    } else {
+                        System.err.println("Dropping seat hold " + view.getHoldId() + ": seats no longer available");
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    System.err.println("Dropping seat hold " + view.getHoldId() + ": " + e.getMessage());
+                }
+            }
+            journal.rewrite(liveHolds());
+        } catch (IOException e) {
+            System.err.println("Seat hold journal could not be read, starting without saved holds: " + e.getMessage());
+            try {
+                journal.rewrite(liveHolds());
+            } catch (IOException again) {
+                System.err.println("Seat hold journal disabled: " + again.getMessage());
+            }
+        }
+        return restored;
+    }
+
+    private Collection<SeatHold> liveHolds() {
+        List<SeatHold> live = new ArrayList<>(holds.size());
+        for (Hold hold : holds.values()) {
+            if (hold.state == State.HELD) {
+                live.add(hold.view);
+            }
+        }
+        return live;
+    }
+
+    // --- Stats ---
+
+    public int getActiveHolds() {
+        return holds.size();
+    }
+
+    public int getHeldSeats() {
+        return heldSeats.get();
+    }
+
+    public long getPendingTimeouts() {
+        return wheel.pending();
+    }
+}
@@ -0,0 +1,729 @@
+package com.railway.service;
+
+import com.railway.dao.ScheduleDAO;
+import com.railway.dao.TrainDAO;
+import com.railway.dao.TrainLegDAO;
+import com.railway.model.Schedule;
+import com.railway.model.SeatCount;
+import com.railway.model.TrainSegment;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process seat inventory, one remaining-seat counter per train.
+ *
+ * The booking hot path reserves seats here and only goes to the database to persist
+ * the ticket. Entries are seeded from Train.Seats minus Train.BookedSeats, either all at once on
+ * startup (seedAll) or lazily the first time a train is touched. A periodic reconciliation pass
+ * compares every quiescent train against the database and repairs any drift.
+ *
+ * Trains with a schedule are tracked per leg between consecutive stops (see TrainLegDAO), so
+ * a seat can be sold again after the passenger who held it has alighted. {@code remaining} then
+ * holds the seats free on every leg (capacity minus the busiest leg).
+ *
+ * Counters are changed under the entry's monitor, which keeps a multi-leg reservation
+ * all-or-nothing; the critical section is at most one pass over the legs of the segment.
+ * Reservations in flight (bookings being written, seat holds) only exist here until they are
+ * confirmed or cancelled, so an entry is never simply dropped: a capacity change is applied to
+ * the existing entry, and an entry reloaded after a schedule change takes over the old one's
+ * reservations (see replace). Every mutation re-checks under the monitor that its entry is still
+ * the current one.
+ */
+public class SeatLedger {
+
+    private static final SeatLedger INSTANCE = new SeatLedger(new TrainDAO(), new ScheduleDAO(), new TrainLegDAO());
+
+    private final TrainDAO trainDAO;
+    private final ScheduleDAO scheduleDAO;
+    private final TrainLegDAO trainLegDAO;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reconciler;
+
+    SeatLedger(TrainDAO trainDAO, ScheduleDAO scheduleDAO, TrainLegDAO trainLegDAO) {
+        this.trainDAO = trainDAO;
+        this.scheduleDAO = scheduleDAO;
+        this.trainLegDAO = trainLegDAO;
+    }
+
+    public static SeatLedger getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Per-train counters. {@code version} changes on every mutation so the reconciler can tell
+     * whether a train was touched while it was reading the database.
+     */
+    private static final class Entry {
+        // Changed in place under the entry's monitor when the train is resized
+        volatile int capacity;
+        // Unscheduled trains: may drop below zero when capacity shrinks under existing bookings
+        final AtomicInteger remaining;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong version = new AtomicLong();
+        // Drift seen by the previous pass; repaired only if the next pass sees the same thing
+        volatile long suspectVersion = -1;
+        volatile int suspectExpected;
+        volatile int[] suspectLegs;
+        // Replaced by a reloaded entry; guarded by the monitor
+        boolean retired;
+
+        // Scheduled trains only (null otherwise): stops in travel order and seats booked per leg
+        final List<Schedule> stops;
+        final int[] legs;
+
+        Entry(SeatCount count) {
+            this.capacity = count.getTotalSeats();
+            this.remaining = new AtomicInteger(count.getTotalSeats() - count.getBookedSeats());
+            this.stops = null;
+            this.legs = null;
+        }
+
+        Entry(SeatCount count, List<Schedule> stops, int[] legs) {
+            this.capacity = count.getTotalSeats();
+            this.stops = Collections.unmodifiableList(new ArrayList<>(stops));
+            this.legs = legs.clone();
+            this.remaining = new AtomicInteger(freeOnEveryLeg(0, legs.length));
+        }
+
+        boolean segmented() {
+            return legs != null;
+        }
+
+        // Whether the segment was taken on this entry's schedule. One computed before the entry was
+        // reloaded may not exist any more; it is then treated as the whole route.
+        boolean fits(TrainSegment segment) {
+            return segment != null && segment.getToStop() < stops.size()
+                    && isStop(segment.getFromStop(), segment.getBoardingScheduleId(), 0)
+                    && isStop(segment.getToStop(), segment.getDeboardingScheduleId(), stops.size() - 1);
+        }
+
+        private boolean isStop(int index, String scheduleId, int whenNull) {
+            return scheduleId == null ? index == whenNull : scheduleId.equalsIgnoreCase(stops.get(index).getScheduleId());
+        }
+
+        // Caller holds the entry's monitor (or owns the entry exclusively)
+        int freeOnEveryLeg(int fromStop, int toStop) {
+            int busiest = 0;
+            for (int leg = fromStop; leg < toStop; leg++) {
+                busiest = Math.max(busiest, legs[leg]);
+            }
+            return Math.max(0, capacity - busiest);
+        }
+    }
+
+    // --- Seeding ---
+
+    /**
+     * Loads every train (and the schedules and leg counters) in one query per table.
+     * Existing entries are replaced, keeping their reservations in flight; one that changed
+     * while the database was being read is kept as it is.
+     */
+    public int seedAll() throws SQLException {
+        Map<String, Long> versionsBefore = new HashMap<>();
+        entries.forEach((trainNumber, entry) -> versionsBefore.put(trainNumber, entry.version.get()));
+
+        List<SeatCount> counts = trainDAO.getAllSeatCounts();
+        Map<String, List<Schedule>> stops = scheduleDAO.getAllStops();
+        Map<String, int[]> legs = trainLegDAO.getAllLegLoads();
+        for (SeatCount count : counts) {
+            String trainNumber = count.getTrainNumber();
+            Entry loaded = newEntry(count, stops.get(trainNumber), legs.get(trainNumber));
+            Entry existing = entries.putIfAbsent(trainNumber, loaded);
+            Long before = versionsBefore.get(trainNumber);
+            if (existing != null && before != null) {
+                replace(trainNumber, existing, before, loaded);
+            }
+        }
+        return counts.size();
+    }
+
+    private Entry entryFor(String trainNumber) throws SQLException {
+        Entry entry = entries.get(trainNumber);
+        if (entry != null) {
+            return entry;
+        }
+        SeatCount count = trainDAO.getSeatCount(trainNumber);
+        if (count == null) {
+            return null;
+        }
+        Entry loaded = newEntry(count, scheduleDAO.getStops(trainNumber), null);
+        // Another thread may have seeded it meanwhile; keep whichever got there first
+        Entry existing = entries.putIfAbsent(trainNumber, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Trains with at least two stops get per-leg counters, creating the TrainLeg rows if needed
+    private Entry newEntry(SeatCount count, List<Schedule> stops, int[] legLoads) throws SQLException {
+        if (stops == null || stops.size() < 2) {
+            return new Entry(count);
+        }
+        if (legLoads == null || legLoads.length != stops.size() - 1) {
+            legLoads = trainLegDAO.ensureLegs(count.getTrainNumber(), stops);
+        }
+        return new Entry(count, stops, legLoads);
+    }
+
+    /**
+     * Swaps in an entry reloaded from the database, unless the old one changed since version
+     * {@code before} (the database was read after that). The old entry's reservations in flight
+     * are not in the database yet, so they are carried over: their seats come off every leg of
+     * the new entry, since their segments may not exist on the new schedule, and confirm() or
+     * cancelReservation() settles them there. Reconciliation later gives back the legs a
+     * confirmed booking does not use.
+     */
+    private boolean replace(String trainNumber, Entry old, long before, Entry fresh) {
+        synchronized (old) {
+            if (old.retired || old.version.get() != before) {
+                return false;
+            }
+            int carried = old.inFlight.get();
+            if (carried != 0) {
+                // fresh is not published yet, so nobody else can see it
+                fresh.inFlight.set(carried);
+                if (fresh.segmented()) {
+                    for (int leg = 0; leg < fresh.legs.length; leg++) {
+                        fresh.legs[leg] += carried;
+                    }
+                    fresh.remaining.set(fresh.freeOnEveryLeg(0, fresh.legs.length));
+                } else {
+                    fresh.remaining.addAndGet(-carried);
+                }
+            }
+            if (!entries.replace(trainNumber, old, fresh)) {
+                return false;
+            }
+            old.retired = true;
+            return true;
+        }
+    }
+
+    /**
+     * Drops a train that was deleted.
+     */
+    public void evict(String trainNumber) {
+        entries.remove(trainNumber);
+    }
+
+    /**
+     * Applies a new capacity (Train.Seats) to a loaded train, keeping its bookings and the
+     * reservations in flight. Trains not in the ledger pick it up when they are loaded.
+     */
+    public void updateCapacity(String trainNumber, int totalSeats) {
+        while (true) {
+            Entry entry = entries.get(trainNumber);
+            if (entry == null || resize(entry, totalSeats)) {
+                return;
+            }
+        }
+    }
+
+    // False if the entry was replaced meanwhile
+    private static boolean resize(Entry entry, int totalSeats) {
+        synchronized (entry) {
+            if (entry.retired) {
+                return false;
+            }
+            int delta = totalSeats - entry.capacity;
+            entry.capacity = totalSeats;
+            if (entry.segmented()) {
+                entry.remaining.set(entry.freeOnEveryLeg(0, entry.legs.length));
+            } else {
+                entry.remaining.addAndGet(delta);
+            }
+            entry.version.incrementAndGet();
+            return true;
+        }
+    }
+
+    private static int available(Entry entry) {
+        return Math.max(0, entry.remaining.get());
+    }
+
+    // --- Hot path ---
+
+    public int getAvailableSeats(String trainNumber) throws SQLException {
+        Entry entry = entryFor(trainNumber);
+        return entry != null ? available(entry) : 0;
+    }
+
+    /**
+     * Seats reserved but not yet confirmed or handed back (bookings being written, seat holds).
+     * While this is above zero a train that looks sold out may still get seats back.
+     */
+    public int getInFlightSeats(String trainNumber) {
+        Entry entry = entries.get(trainNumber);
+        return entry != null ? entry.inFlight.get() : 0;
+    }
+
+    /**
+     * Available seats for many trains at once. Trains already in the ledger are answered from
+     * memory; the rest are loaded (and seeded) together: one bulk query each for their seat
+     * counts, stops and leg loads.
+     * Unknown trains map to 0.
+     */
+    public Map<String, Integer> getAvailableSeats(Collection<String> trainNumbers) throws SQLException {
+        Map<String, Integer> available = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String trainNumber : trainNumbers) {
+            Entry entry = entries.get(trainNumber);
+            if (entry != null) {
+                available.put(trainNumber, available(entry));
+            } else {
+                missing.add(trainNumber);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, SeatCount> counts = trainDAO.getSeatCounts(missing);
+            Map<String, List<Schedule>> stops = scheduleDAO.getStops(missing);
+            Map<String, int[]> legs = trainLegDAO.getLegLoads(missing);
+            for (String trainNumber : missing) {
+                SeatCount count = counts.get(trainNumber);
+                if (count == null) {
+                    available.put(trainNumber, 0);
+                    continue;
+                }
+                Entry loaded = newEntry(count, stops.get(trainNumber), legs.get(trainNumber));
+                Entry existing = entries.putIfAbsent(trainNumber, loaded);
+                Entry entry = existing != null ? existing : loaded;
+                available.put(trainNumber, available(entry));
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Like getAvailableSeats(Collection) but never goes to the database: returns null if any of
+     * the trains is not in the ledger yet.
+     */
+    public Map<String, Integer> getLoadedAvailableSeats(Collection<String> trainNumbers) {
+        Map<String, Integer> available = new HashMap<>();
+        for (String trainNumber : trainNumbers) {
+            Entry entry = entries.get(trainNumber);
+            if (entry == null) {
+                return null;
+            }
+            available.put(trainNumber, available(entry));
+        }
+        return available;
+    }
+
+    public boolean tryReserve(String trainNumber) throws SQLException {
+        return tryReserve(trainNumber, 1);
+    }
+
+    /**
+     * Atomically takes {@code seats} from the train's remaining count (every leg, for a
+     * scheduled train). Returns false (and changes nothing) when not enough seats are left or
+     * the train is unknown. Every successful reservation must be followed by confirm() or
+     * cancelReservation().
+     */
+    public boolean tryReserve(String trainNumber, int seats) throws SQLException {
+        return tryReserve(trainNumber, null, seats);
+    }
+
+    /**
+     * Like tryReserve(trainNumber, seats) but only for the legs of {@code segment}
+     * (null = the whole route).
+     */
+    public boolean tryReserve(String trainNumber, TrainSegment segment, int seats) throws SQLException {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Seat count must be positive");
+        }
+        while (true) {
+            Entry entry = entryFor(trainNumber);
+            if (entry == null) {
+                return false;
+            }
+            synchronized (entry) {
+                if (entry.retired) {
+                    continue;
+                }
+                if (entry.segmented()) {
+                    return reserveLegs(entry, segment, seats);
+                }
+                if (entry.remaining.get() < seats) {
+                    return false;
+                }
+                entry.remaining.addAndGet(-seats);
+                entry.inFlight.addAndGet(seats);
+                entry.version.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The reserved seats were persisted; they are now plain bookings.
+     */
+    public void confirm(String trainNumber, int seats) {
+        while (true) {
+            Entry entry = entries.get(trainNumber);
+            if (entry == null) {
+                return;
+            }
+            synchronized (entry) {
+                if (entry.retired) {
+                    continue;
+                }
+                entry.inFlight.addAndGet(-seats);
+                entry.version.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * The database write failed; hand the reserved seats back.
+     */
+    public void cancelReservation(String trainNumber, int seats) {
+        cancelReservation(trainNumber, null, seats);
+    }
+
+    public void cancelReservation(String trainNumber, TrainSegment segment, int seats) {
+        while (true) {
+            Entry entry = entries.get(trainNumber);
+            if (entry == null) {
+                return;
+            }
+            synchronized (entry) {
+                if (entry.retired) {
+                    continue;
+                }
+                entry.inFlight.addAndGet(-seats);
+                giveBack(entry, segment, seats);
+                return;
+            }
+        }
+    }
+
+    /**
+     * A persisted booking was cancelled; its seats can be sold again.
+     */
+    public void release(String trainNumber, int seats) {
+        release(trainNumber, null, seats);
+    }
+
+    public void release(String trainNumber, TrainSegment segment, int seats) {
+        while (true) {
+            Entry entry = entries.get(trainNumber);
+            if (entry == null) {
+                return;
+            }
+            synchronized (entry) {
+                if (entry.retired) {
+                    continue;
+                }
+                giveBack(entry, segment, seats);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Releases a cancelled ticket identified by its boarding/deboarding ScheduleIDs
+     * (null = first/last stop, as stored on Ticket).
+     */
+    public void release(String trainNumber, String boardingScheduleId, String deboardingScheduleId, int seats) {
+        Entry entry = entries.get(trainNumber);
+        if (entry == null) {
+            return;
+        }
+        release(trainNumber, ticketSegment(entry, boardingScheduleId, deboardingScheduleId), seats);
+    }
+
+    /**
+     * Seats the database has already booked without going through tryReserve (waitlisted tickets
+     * confirmed by a cancellation). No capacity check: any drift is left to reconciliation.
+     */
+    public void occupy(String trainNumber, String boardingScheduleId, String deboardingScheduleId, int seats) {
+        while (true) {
+            Entry entry = entries.get(trainNumber);
+            if (entry == null) {
+                return;
+            }
+            TrainSegment segment = ticketSegment(entry, boardingScheduleId, deboardingScheduleId);
+            synchronized (entry) {
+                if (entry.retired) {
+                    continue;
+                }
+                if (!entry.segmented()) {
+                    entry.remaining.accumulateAndGet(seats, (current, delta) -> Math.max(0, current - delta));
+                } else {
+                    int from = entry.fits(segment) ? segment.getFromStop() : 0;
+                    int to = entry.fits(segment) ? segment.getToStop() : entry.legs.length;
+                    for (int leg = from; leg < to; leg++) {
+                        entry.legs[leg] += seats;
+                    }
+                    entry.remaining.set(entry.freeOnEveryLeg(0, entry.legs.length));
+                }
+                entry.version.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    // The legs a ticket occupies, or null (whole route) for unscheduled trains and for stops no
+    // longer on the schedule
+    private static TrainSegment ticketSegment(Entry entry, String boardingScheduleId, String deboardingScheduleId) {
+        if (!entry.segmented()) {
+            return null;
+        }
+        try {
+            return TrainLegDAO.segmentFor(entry.stops.get(0).getTrainNumber(), entry.stops,
+                    boardingScheduleId, deboardingScheduleId);
+        } catch (IllegalArgumentException e) {
+            // Stop no longer on the schedule: the ticket was counted against the whole route
+            return null;
+        }
+    }
+
+    /**
+     * The segment between two stops given as ScheduleIDs (null = first/last stop), or null for
+     * trains without a schedule. Throws IllegalArgumentException if a stop is not on the schedule.
+     */
+    public TrainSegment segmentFor(String trainNumber, String boardingScheduleId, String deboardingScheduleId)
+            throws SQLException {
+        Entry entry = entryFor(trainNumber);
+        if (entry == null || !entry.segmented()) {
+            return null;
+        }
+        return TrainLegDAO.segmentFor(trainNumber, entry.stops, boardingScheduleId, deboardingScheduleId);
+    }
+
+    // Caller holds the entry's monitor
+    private static void giveBack(Entry entry, TrainSegment segment, int seats) {
+        if (entry.segmented()) {
+            releaseLegs(entry, segment, seats);
+        } else {
+            entry.remaining.accumulateAndGet(seats, (current, delta) -> Math.min(entry.capacity, current + delta));
+            entry.version.incrementAndGet();
+        }
+    }
+
+    // --- Segments (scheduled trains) ---
+
+    /**
+     * The part of the route between two stations; null stations mean the first/last stop.
+     * Returns null for trains without a schedule (which are only sold for the whole route) and
+     * for unknown trains.
+     */
+    public TrainSegment segment(String trainNumber, String boardingStation, String alightingStation)
+            throws SQLException {
+        Entry entry = entryFor(trainNumber);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.segmented()) {
+            if (boardingStation != null || alightingStation != null) {
+                throw new IllegalArgumentException("Train " + trainNumber + " has no schedule; only the whole route can be booked");
+            }
+            return null;
+        }
+        int from = boardingStation != null ? stopIndex(entry, boardingStation) : 0;
+        int to = alightingStation != null ? stopIndex(entry, alightingStation) : entry.stops.size() - 1;
+        return TrainLegDAO.segmentBetween(trainNumber, entry.stops, from, to);
+    }
+
+    /**
+     * Seats free on every leg of the segment (null = whole route); 0 for unknown trains.
+     */
+    public int getAvailableSeats(String trainNumber, TrainSegment segment) throws SQLException {
+        Entry entry = entryFor(trainNumber);
+        if (entry == null) {
+            return 0;
+        }
+        if (!entry.segmented() || !entry.fits(segment)) {
+            return available(entry);
+        }
+        synchronized (entry) {
+            return entry.freeOnEveryLeg(segment.getFromStop(), segment.getToStop());
+        }
+    }
+
+    private static int stopIndex(Entry entry, String stationName) {
+        String wanted = stationName.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < entry.stops.size(); i++) {
+            if (entry.stops.get(i).getStationName().toLowerCase(Locale.ROOT).equals(wanted)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Train " + entry.stops.get(0).getTrainNumber() + " does not stop at " + stationName);
+    }
+
+    // Caller holds the entry's monitor
+    private static boolean reserveLegs(Entry entry, TrainSegment segment, int seats) {
+        int from = entry.fits(segment) ? segment.getFromStop() : 0;
+        int to = entry.fits(segment) ? segment.getToStop() : entry.legs.length;
+        if (entry.freeOnEveryLeg(from, to) < seats) {
+            return false;
+        }
+        for (int leg = from; leg < to; leg++) {
+            entry.legs[leg] += seats;
+        }
+        entry.remaining.set(entry.freeOnEveryLeg(0, entry.legs.length));
+        entry.inFlight.addAndGet(seats);
+        entry.version.incrementAndGet();
+        return true;
+    }
+
+    // Caller holds the entry's monitor
+    private static void releaseLegs(Entry entry, TrainSegment segment, int seats) {
+        int from = entry.fits(segment) ? segment.getFromStop() : 0;
+        int to = entry.fits(segment) ? segment.getToStop() : entry.legs.length;
+        for (int leg = from; leg < to; leg++) {
+            entry.legs[leg] = Math.max(0, entry.legs[leg] - seats);
+        }
+        entry.remaining.set(entry.freeOnEveryLeg(0, entry.legs.length));
+        entry.version.incrementAndGet();
+    }
+
+    // --- Reconciliation ---
+
+    /**
+     * Compares every loaded train against the database and fixes counters that drifted.
+     * Trains with reservations in flight, or that changed while the database was being read,
+     * are skipped. A mismatch is only repaired once two consecutive passes agree on it, so a
+     * cancellation committed between the read and its release() is never double counted.
+     * Returns the number of repaired trains.
+     */
+    public int reconcile() throws SQLException {
+        Map<String, Long> versionsBefore = new HashMap<>();
+        entries.forEach((trainNumber, entry) -> versionsBefore.put(trainNumber, entry.version.get()));
+
+        List<SeatCount> counts = trainDAO.getAllSeatCounts();
+        boolean anySegmented = entries.values().stream().anyMatch(Entry::segmented);
+        Map<String, int[]> legLoads = anySegmented ? trainLegDAO.getAllLegLoads() : Collections.emptyMap();
+
+        int repaired = 0;
+        for (SeatCount count : counts) {
+            Entry entry = entries.get(count.getTrainNumber());
+            Long before = versionsBefore.remove(count.getTrainNumber());
+            if (entry == null || before == null) {
+                continue;
+            }
+            if (entry.capacity != count.getTotalSeats()) {
+                // Capacity changed behind our back; the counters are checked on the next pass
+                System.err.println("SeatLedger capacity of train " + count.getTrainNumber() + " changed: ledger=" +
+                        entry.capacity + ", database=" + count.getTotalSeats() + " (resized)");
+                resize(entry, count.getTotalSeats());
+                repaired++;
+                continue;
+            }
+            if (entry.segmented()) {
+                int[] expected = legLoads.get(count.getTrainNumber());
+                if (expected == null || expected.length != entry.legs.length) {
+                    // Schedule changed: reload it, keeping the reservations in flight
+                    Entry reloaded = newEntry(count, scheduleDAO.getStops(count.getTrainNumber()), expected);
+                    if (replace(count.getTrainNumber(), entry, before, reloaded)) {
+                        repaired++;
+                    }
+                } else if (reconcileLegs(count.getTrainNumber(), entry, before, expected)) {
+                    repaired++;
+                }
+                continue;
+            }
+            if (entry.inFlight.get() != 0 || entry.version.get() != before) {
+                continue;
+            }
+            int observed = entry.remaining.get();
+            int expected = count.getTotalSeats() - count.getBookedSeats();
+            if (observed == expected) {
+                entry.suspectVersion = -1;
+                continue;
+            }
+            if (entry.suspectVersion != before || entry.suspectExpected != expected) {
+                entry.suspectVersion = before;
+                entry.suspectExpected = expected;
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.version.get() != before || entry.inFlight.get() != 0) {
+                    continue;
+                }
+                entry.remaining.set(expected);
+                entry.version.incrementAndGet();
+                entry.suspectVersion = -1;
+                System.err.println("SeatLedger drift on train " + count.getTrainNumber() +
+                        ": ledger=" + observed + ", database=" + expected + " (repaired)");
+                repaired++;
+            }
+        }
+
+        // Whatever is left was loaded here but no longer exists in the database
+        versionsBefore.keySet().forEach(entries::remove);
+
+        return repaired;
+    }
+
+    // Same two-pass rule as the plain counters, applied to the whole leg array
+    private boolean reconcileLegs(String trainNumber, Entry entry, long before, int[] expected) {
+        if (entry.inFlight.get() != 0 || entry.version.get() != before) {
+            return false;
+        }
+        int[] observed;
+        synchronized (entry) {
+            observed = entry.legs.clone();
+        }
+        if (Arrays.equals(observed, expected)) {
+            entry.suspectVersion = -1;
+            return false;
+        }
+        if (entry.suspectVersion != before || !Arrays.equals(entry.suspectLegs, expected)) {
+            entry.suspectLegs = expected;
+            entry.suspectVersion = before;
+            return false;
+        }
+        synchronized (entry) {
+            if (entry.version.get() != before || entry.inFlight.get() != 0) {
+                return false;
+            }
+            System.arraycopy(expected, 0, entry.legs, 0, expected.length);
+            entry.remaining.set(entry.freeOnEveryLeg(0, entry.legs.length));
+            entry.version.incrementAndGet();
+            entry.suspectVersion = -1;
+        }
+        System.err.println("SeatLedger drift on train " + trainNumber + ": ledger legs=" +
+                Arrays.toString(observed) + ", database=" + Arrays.toString(expected) + " (repaired)");
+        return true;
+    }
+
+    public synchronized void startReconciliation(long intervalSeconds) {
+        if (reconciler != null || intervalSeconds <= 0) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "seat-ledger-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                System.err.println("SeatLedger reconciliation failed: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopReconciliation() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.railway.service;
+
+import com.railway.dao.TrainDAO;
+import com.railway.model.Train;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory route index for train search.
+ *
+ * Trains are grouped by (source, destination), compared case-insensitively like the default
+ * SQL Server collation. Each route holds a sorted array of trains ordered by date then train
+ * number (undated trains last), so an exact date or a date range is two binary searches and a
+ * copy of the matching slice.
+ *
+ * The index is an immutable snapshot published through a volatile field, so searches never
+ * lock. Train mutations in TrainService replace the affected route arrays under a lock.
+ * The snapshot is loaded from the database the first time it is used. Once it is older than
+ * train.index.maxAgeSeconds, the next search starts a reload on a background thread, so trains
+ * changed by other instances show up eventually; searches keep reading the old snapshot until
+ * the new one is published, so no request waits for the scan.
+ */
+public class TrainSearchIndex {
+
+    private static final TrainSearchIndex INSTANCE = new TrainSearchIndex(new TrainDAO());
+
+    private static final Comparator<Train> BY_DATE =
+            Comparator.comparing(Train::getDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Train::getTrainNumber);
+
+    private static final Train[] EMPTY = new Train[0];
+
+    private final TrainDAO trainDAO;
+    private final long maxAgeMillis;
+    // Not a monitor: a virtual thread waiting for the first load must not pin its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition loadFinished = writeLock.newCondition();
+    // Reloads of an expired snapshot; the thread is only started by the first one
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "train-index-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+    // Bumped by every put/remove so a rebuild can tell it raced with a mutation
+    private long modifications;
+    private boolean rebuilding;
+
+    TrainSearchIndex(TrainDAO trainDAO) {
+        this.trainDAO = trainDAO;
+        this.maxAgeMillis = DatabaseConnection.getLongProperty("train.index.maxAgeSeconds", 300L) * 1000L;
+    }
+
+    public static TrainSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Immutable view of the index. {@code routeOf} maps a train number to its route key so an
+     * update that changes source or destination can remove the train from its old route.
+     */
+    private static final class Snapshot {
+        final Map<String, Train[]> routes;
+        final Map<String, String> routeOf;
+        final long builtAt;
+
+        Snapshot(Map<String, Train[]> routes, Map<String, String> routeOf, long builtAt) {
+            this.routes = routes;
+            this.routeOf = routeOf;
+            this.builtAt = builtAt;
+        }
+    }
+
+    // --- Queries ---
+
+    /**
+     * Trains from source to destination, ordered by date then train number.
+     *
+     * @param fromDate first date to include, or null for no lower bound
+     * @param toDate   last date to include, or null for no upper bound
+     * @param limit    maximum number of trains to return, or 0 for no limit
+     * When both dates are null, trains without a date are included as well.
+     */
+    public List<Train> search(String source, String destination, LocalDate fromDate, LocalDate toDate, int limit)
+            throws SQLException {
+        if (source == null || destination == null) {
+            return Collections.emptyList();
+        }
+        return search(current(), source, destination, fromDate, toDate, limit);
+    }
+
+    /**
+     * Same as search() but never goes to the database: returns null when the index has not been
+     * loaded yet, so the caller can fall back to search().
+     */
+    public List<Train> searchLoaded(String source, String destination, LocalDate fromDate, LocalDate toDate,
+                                    int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        refreshIfExpired(current);
+        if (source == null || destination == null) {
+            return Collections.emptyList();
+        }
+        return search(current, source, destination, fromDate, toDate, limit);
+    }
+
+    private static List<Train> search(Snapshot current, String source, String destination,
+                                      LocalDate fromDate, LocalDate toDate, int limit) {
+        Train[] postings = current.routes.getOrDefault(routeKey(source, destination), EMPTY);
+
+        int from = fromDate != null ? firstOnOrAfter(postings, fromDate) : 0;
+        int to = toDate != null ? firstOnOrAfter(postings, toDate.plusDays(1))
+                : fromDate != null ? firstUndated(postings) : postings.length;
+        if (limit > 0) {
+            to = Math.min(to, from + limit);
+        }
+
+        List<Train> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            result.add(new Train(postings[i]));
+        }
+        return result;
+    }
+
+    public List<Train> search(String source, String destination, LocalDate date) throws SQLException {
+        return search(source, destination, date, date, 0);
+    }
+
+    // First index whose date is >= the given date (undated trains sort last)
+    private static int firstOnOrAfter(Train[] postings, LocalDate date) {
+        int low = 0;
+        int high = postings.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            LocalDate midDate = postings[mid].getDate();
+            if (midDate != null && midDate.isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstUndated(Train[] postings) {
+        int low = 0;
+        int high = postings.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (postings[mid].getDate() != null) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // --- Maintenance (called by TrainService after the database write) ---
+
+    /**
+     * Adds or replaces a train. A train whose route changed is moved to the new route.
+     */
+    public void put(Train train) {
+        if (train == null || train.getTrainNumber() == null) {
+            return;
+        }
+        Train copy = new Train(train);
+        // Availability comes from the seat ledger, never from the index
+        copy.setAvailableSeats(null);
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) {
+                // Not built yet; the first search loads everything including this train
+                modifications++;
+                return;
+            }
+            Map<String, Train[]> routes = new HashMap<>(current.routes);
+            Map<String, String> routeOf = new HashMap<>(current.routeOf);
+            removeFrom(routes, routeOf, copy.getTrainNumber());
+
+            if (copy.getSource() != null && copy.getDestination() != null) {
+                String key = routeKey(copy.getSource(), copy.getDestination());
+                Train[] old = routes.getOrDefault(key, EMPTY);
+                Train[] updated = Arrays.copyOf(old, old.length + 1);
+                updated[old.length] = copy;
+                Arrays.sort(updated, BY_DATE);
+                routes.put(key, updated);
+                routeOf.put(copy.getTrainNumber(), key);
+            }
+            publish(routes, routeOf, current.builtAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(String trainNumber) {
+        if (trainNumber == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null || !current.routeOf.containsKey(trainNumber)) {
+                modifications++;
+                return;
+            }
+            Map<String, Train[]> routes = new HashMap<>(current.routes);
+            Map<String, String> routeOf = new HashMap<>(current.routeOf);
+            removeFrom(routes, routeOf, trainNumber);
+            publish(routes, routeOf, current.builtAt);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static void removeFrom(Map<String, Train[]> routes, Map<String, String> routeOf, String trainNumber) {
+        String key = routeOf.remove(trainNumber);
+        if (key == null) {
+            return;
+        }
+        Train[] old = routes.get(key);
+        List<Train> kept = new ArrayList<>(old.length);
+        for (Train train : old) {
+            if (!train.getTrainNumber().equals(trainNumber)) {
+                kept.add(train);
+            }
+        }
+        if (kept.isEmpty()) {
+            routes.remove(key);
+        } else {
+            routes.put(key, kept.toArray(EMPTY));
+        }
+    }
+
+    // Caller holds writeLock
+    private void publish(Map<String, Train[]> routes, Map<String, String> routeOf, long builtAt) {
+        modifications++;
+        snapshot = new Snapshot(routes, routeOf, builtAt);
+    }
+
+    // --- Loading ---
+
+    private Snapshot current() throws SQLException {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return awaitInitialLoad();
+        }
+        refreshIfExpired(current);
+        return current;
+    }
+
+    // Queues one background reload of an expired snapshot; the caller keeps using the old one
+    private void refreshIfExpired(Snapshot current) {
+        if (System.currentTimeMillis() - current.builtAt <= maxAgeMillis || !refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                rebuild();
+            } catch (SQLException e) {
+                // Keep serving the old snapshot; the next search will try again
+                System.err.println("Train search index refresh failed: " + e.getMessage());
+            } finally {
+                refreshQueued.set(false);
+            }
+        });
+    }
+
+    // Loads the index, or waits for the thread that is already loading it
+    private Snapshot awaitInitialLoad() throws SQLException {
+        while (true) {
+            rebuild();
+            writeLock.lock();
+            try {
+                while (snapshot == null && rebuilding) {
+                    try {
+                        loadFinished.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while loading the train search index", e);
+                    }
+                }
+                if (snapshot != null) {
+                    return snapshot;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            // The other loader failed; try again ourselves
+        }
+    }
+
+    /**
+     * Reloads every train from the database. Only one thread rebuilds at a time; if a train was
+     * changed while the trains were being read, the fresh snapshot is published but marked stale
+     * so the next search reloads again.
+     */
+    public void rebuild() throws SQLException {
+        long startModifications;
+        writeLock.lock();
+        try {
+            if (rebuilding) {
+                return;
+            }
+            rebuilding = true;
+            startModifications = modifications;
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            long startedAt = System.currentTimeMillis();
+            Map<String, List<Train>> grouped = new HashMap<>();
+            Map<String, String> routeOf = new HashMap<>();
+            for (Train train : trainDAO.getAllTrains()) {
+                if (train.getSource() == null || train.getDestination() == null) {
+                    continue;
+                }
+                String key = routeKey(train.getSource(), train.getDestination());
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(train);
+                routeOf.put(train.getTrainNumber(), key);
+            }
+
+            Map<String, Train[]> routes = new HashMap<>(grouped.size() * 2);
+            for (Map.Entry<String, List<Train>> route : grouped.entrySet()) {
+                Train[] postings = route.getValue().toArray(EMPTY);
+                Arrays.sort(postings, BY_DATE);
+                routes.put(route.getKey(), postings);
+            }
+
+            writeLock.lock();
+            try {
+                boolean raced = modifications != startModifications;
+                Snapshot current = snapshot;
+                if (!raced || current == null) {
+                    publish(routes, routeOf, raced ? 0L : startedAt);
+                }
+                // else: keep the snapshot that already has the mutation; next search retries
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            writeLock.lock();
+            try {
+                rebuilding = false;
+                loadFinished.signalAll();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forces the next search to reload from the database.
+     */
+    public void invalidate() {
+        writeLock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current != null ? current.routeOf.size() : 0;
+    }
+
+    static String routeKey(String source, String destination) {
+        return source.trim().toLowerCase(Locale.ROOT) + '\u0000' + destination.trim().toLowerCase(Locale.ROOT);
+    }
+}
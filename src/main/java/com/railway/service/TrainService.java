@@ -1,17 +1,29 @@
 package com.railway.service;
 
+import com.railway.dao.CachingTrainDAO;
 import com.railway.dao.TrainDAO;
+import com.railway.model.Journey;
 import com.railway.model.Train;
+import com.railway.model.TrainSegment;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class TrainService {
     private final TrainDAO trainDAO;
+    private final SeatLedger seatLedger;
+    private final TrainSearchIndex searchIndex;
+    private final JourneyPlanner journeyPlanner;
 
     public TrainService() {
-        this.trainDAO = new TrainDAO();
+        this.trainDAO = new CachingTrainDAO();
+        this.seatLedger = SeatLedger.getInstance();
+        this.searchIndex = TrainSearchIndex.getInstance();
+        this.journeyPlanner = JourneyPlanner.getInstance();
     }
 
     public boolean addTrain(Train train) throws SQLException {
@@ -29,7 +41,12 @@ public class TrainService {
             train.setTotalSeats(100);
         }
 
-        return trainDAO.addTrain(train);
+        boolean added = trainDAO.addTrain(train);
+        if (added) {
+            searchIndex.put(train);
+            journeyPlanner.invalidate();
+        }
+        return added;
     }
 
     public boolean updateTrain(Train train) throws SQLException {
@@ -47,7 +64,23 @@ public class TrainService {
             throw new IllegalArgumentException("Train not found for update!");
         }
 
-        return trainDAO.updateTrain(train);
+        boolean updated = trainDAO.updateTrain(train);
+        if (updated) {
+            // Index what was stored, not the (possibly partial) request body
+            Train stored = trainDAO.getTrainByNumber(train.getTrainNumber());
+            // Resized in place: seats being booked or held right now stay taken
+            if (stored != null && stored.getTotalSeats() != null) {
+                seatLedger.updateCapacity(stored.getTrainNumber(), stored.getTotalSeats());
+                // Seats added to a full train go to its waitlist first
+                if (existing.getTotalSeats() == null || stored.getTotalSeats() > existing.getTotalSeats()) {
+                    WaitlistService.getInstance().seatsReturned(stored.getTrainNumber());
+                }
+            }
+            searchIndex.put(stored);
+            // The date may have moved, which shifts every connection of this train
+            journeyPlanner.invalidate();
+        }
+        return updated;
     }
 
     public boolean deleteTrain(String trainNumber) throws SQLException {
@@ -56,15 +89,69 @@ public class TrainService {
             throw new IllegalArgumentException("Train not found for deletion!");
         }
 
-        return trainDAO.deleteTrain(trainNumber);
+        boolean deleted = trainDAO.deleteTrain(trainNumber);
+        seatLedger.evict(trainNumber);
+        searchIndex.remove(trainNumber);
+        journeyPlanner.invalidate();
+        WaitlistService.getInstance().evict(trainNumber);
+        return deleted;
     }
 
     public Train getTrainDetails(String trainNumber) throws SQLException {
         return trainDAO.getTrainByNumber(trainNumber);
     }
 
+    /**
+     * Trains on a route for one date, or for every date when date is null. Answered from the
+     * in-memory search index.
+     */
     public List<Train> searchTrains(String source, String destination, LocalDate date) throws SQLException {
-        return trainDAO.searchTrains(source, destination, date);
+        return searchIndex.search(source, destination, date, date, 0);
+    }
+
+    /**
+     * Trains on a route between two dates (inclusive, either may be null), earliest first,
+     * at most limit results (0 = no limit).
+     */
+    public List<Train> searchTrains(String source, String destination, LocalDate fromDate, LocalDate toDate, int limit)
+            throws SQLException {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        return searchIndex.search(source, destination, fromDate, toDate, limit);
+    }
+
+    /**
+     * searchTrains() followed by populateAvailableSeats(), answered from memory only: returns
+     * null when the search index or a train's seat count would have to be loaded first.
+     */
+    public List<Train> searchLoadedTrains(String source, String destination, LocalDate fromDate, LocalDate toDate,
+                                          int limit) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        List<Train> trains = searchIndex.searchLoaded(source, destination, fromDate, toDate, limit);
+        return trains != null && fillLoadedAvailableSeats(trains) ? trains : null;
+    }
+
+    /**
+     * Journeys between two stations, possibly changing trains. The first journey has the fewest
+     * transfers, the last one arrives earliest; maxTransfers null means the configured default.
+     */
+    public List<Journey> planJourneys(String fromStation, String toStation, LocalDateTime departAfter,
+                                      Integer maxTransfers) throws SQLException {
+        if (fromStation == null || fromStation.isEmpty() || toStation == null || toStation.isEmpty()) {
+            throw new IllegalArgumentException("Origin and destination stations are required!");
+        }
+        return maxTransfers != null
+                ? journeyPlanner.plan(fromStation, toStation, departAfter, maxTransfers)
+                : journeyPlanner.plan(fromStation, toStation, departAfter);
     }
 
     public List<Train> getAllTrains() throws SQLException {
@@ -72,17 +159,55 @@ public class TrainService {
     }
 
     /**
-     * Calculates available seats based on fixed/stored capacity and booked tickets.
+     * Returns available seats from the in-memory seat ledger (0 if the train doesn't exist).
      */
     public int checkSeatAvailability(String trainNumber) throws SQLException {
-        Train train = trainDAO.getTrainByNumber(trainNumber);
-        if (train == null) {
-            // Fail safely if train doesn't exist
-            return 0; 
+        return seatLedger.getAvailableSeats(trainNumber);
+    }
+
+    /**
+     * Seats free from boardingStation to alightingStation (null = first/last stop). Trains with
+     * a schedule count per leg, so seats released at an intermediate station are included.
+     */
+    public int checkSeatAvailability(String trainNumber, String boardingStation, String alightingStation)
+            throws SQLException {
+        TrainSegment segment = seatLedger.segment(trainNumber, boardingStation, alightingStation);
+        return seatLedger.getAvailableSeats(trainNumber, segment);
+    }
+
+    /**
+     * Fills in availableSeats for a whole list of trains at once instead of one lookup per train.
+     * Trains already in the seat ledger cost nothing; the rest are loaded together with three
+     * bulk queries (seat counts, stops and leg loads), chunked by TrainDAO.MAX_IN_LIST.
+     */
+    public void populateAvailableSeats(List<Train> trains) throws SQLException {
+        List<String> trainNumbers = new ArrayList<>(trains.size());
+        for (Train train : trains) {
+            trainNumbers.add(train.getTrainNumber());
         }
-        
-        // Delegates calculation to the DAO
-        return trainDAO.getAvailableSeats(trainNumber);
+        Map<String, Integer> available = seatLedger.getAvailableSeats(trainNumbers);
+        for (Train train : trains) {
+            train.setAvailableSeats(available.getOrDefault(train.getTrainNumber(), 0));
+        }
+    }
+
+    /**
+     * populateAvailableSeats() from the seat ledger's memory only. Returns false, leaving the
+     * trains untouched, if any of them is not in the ledger yet.
+     */
+    public boolean fillLoadedAvailableSeats(List<Train> trains) {
+        List<String> trainNumbers = new ArrayList<>(trains.size());
+        for (Train train : trains) {
+            trainNumbers.add(train.getTrainNumber());
+        }
+        Map<String, Integer> available = seatLedger.getLoadedAvailableSeats(trainNumbers);
+        if (available == null) {
+            return false;
+        }
+        for (Train train : trains) {
+            train.setAvailableSeats(available.get(train.getTrainNumber()));
+        }
+        return true;
     }
 
     public Train getTrainByNumber(String trainNumber) throws SQLException {
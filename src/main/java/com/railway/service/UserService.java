@@ -1,8 +1,11 @@
 package com.railway.service;
 
+import com.railway.dao.RowConsumer;
 import com.railway.dao.UserDAO;
+import com.railway.model.Page;
 import com.railway.model.User;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -71,4 +74,12 @@ public class UserService {
     public List<User> getAllUsers() throws SQLException {
         return userDAO.getAllUsers();
     }
+
+    public Page<User> getUsersPage(String after, int limit) throws SQLException {
+        return userDAO.getUsersPage(after, limit);
+    }
+
+    public int streamAllUsers(RowConsumer<User> consumer) throws SQLException, IOException {
+        return userDAO.streamAllUsers(consumer);
+    }
 }
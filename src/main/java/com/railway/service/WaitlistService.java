@@ -0,0 +1,260 @@
+package com.railway.service;
+
+import com.railway.dao.WaitlistDAO;
+import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
+import com.railway.model.TrainSegment;
+import com.railway.model.WaitlistEntry;
+import com.railway.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory view of the waitlists: one priority queue per train, ordered by WaitlistID.
+ *
+ * The Waitlist table is the source of truth, so this answers "what is my position" and "who is
+ * waiting" without a query per request. A train's queue is loaded on first use, kept in step by
+ * BookingService as tickets are waitlisted, promoted or cancelled, and reloaded once it is older
+ * than waitlist.maxAgeSeconds to pick up changes made by other instances.
+ *
+ * A cancellation promotes in its own transaction (BookingDAO.cancelTicket). Seats that come back
+ * to the SeatLedger any other way (an expired or released hold, a failed booking, a bigger
+ * train) are offered to the queue by promote(), in the background via seatsReturned(); bookings
+ * also call it first, so nobody takes a seat a waiting ticket fits in.
+ */
+public class WaitlistService {
+
+    private static final WaitlistService INSTANCE = new WaitlistService(new WaitlistDAO(), SeatLedger.getInstance());
+
+    private final WaitlistDAO waitlistDAO;
+    private final SeatLedger seatLedger;
+    private final long maxAgeMillis;
+    private final int maxScan;
+    private final ConcurrentHashMap<String, TrainQueue> queues = new ConcurrentHashMap<>();
+    // Trains with a background promotion queued and not started yet
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService promoter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "waitlist-promoter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    WaitlistService(WaitlistDAO waitlistDAO, SeatLedger seatLedger) {
+        this.waitlistDAO = waitlistDAO;
+        this.seatLedger = seatLedger;
+        this.maxAgeMillis = DatabaseConnection.getLongProperty("waitlist.maxAgeSeconds", 60L) * 1000L;
+        this.maxScan = Math.max(1, DatabaseConnection.getIntProperty("waitlist.maxPromotionScan", 1000));
+    }
+
+    public static WaitlistService getInstance() {
+        return INSTANCE;
+    }
+
+    private static final class TrainQueue {
+        final PriorityQueue<WaitlistEntry> entries;
+        final long loadedAt = System.currentTimeMillis();
+        // One promotion per train at a time; a lock, not the monitor, as it is held across the database write
+        final ReentrantLock promotion = new ReentrantLock();
+
+        TrainQueue(Collection<WaitlistEntry> entries) {
+            this.entries = new PriorityQueue<>(Math.max(1, entries.size()));
+            this.entries.addAll(entries);
+        }
+
+        synchronized void add(WaitlistEntry entry) {
+            if (!entries.contains(entry)) {
+                entries.add(entry);
+            }
+        }
+
+        synchronized void removeAll(Set<String> pnrs) {
+            entries.removeIf(entry -> pnrs.contains(entry.getPnr()));
+        }
+
+        synchronized List<WaitlistEntry> sorted() {
+            List<WaitlistEntry> copy = new ArrayList<>(entries);
+            Collections.sort(copy);
+            return copy;
+        }
+
+        // 1-based; 0 if the PNR isn't waiting. One pass over the heap, no sort needed
+        synchronized int position(String pnr) {
+            WaitlistEntry target = null;
+            for (WaitlistEntry entry : entries) {
+                if (entry.getPnr().equals(pnr)) {
+                    target = entry;
+                    break;
+                }
+            }
+            if (target == null) {
+                return 0;
+            }
+            int ahead = 0;
+            for (WaitlistEntry entry : entries) {
+                if (entry.compareTo(target) < 0) {
+                    ahead++;
+                }
+            }
+            return ahead + 1;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private TrainQueue queue(String trainNumber) throws SQLException {
+        TrainQueue queue = queues.get(trainNumber);
+        if (queue == null || System.currentTimeMillis() - queue.loadedAt > maxAgeMillis) {
+            queue = new TrainQueue(waitlistDAO.getWaitlist(trainNumber));
+            queues.put(trainNumber, queue);
+        }
+        return queue;
+    }
+
+    // --- Queries ---
+
+    /**
+     * The train's waitlist, first in line first.
+     */
+    public List<WaitlistEntry> getWaitlist(String trainNumber) throws SQLException {
+        return queue(trainNumber).sorted();
+    }
+
+    /**
+     * Position of a waitlisted ticket in its train's queue (1 = next to be confirmed),
+     * or 0 if it is not on the waitlist.
+     */
+    public int getPosition(String trainNumber, String pnr) throws SQLException {
+        return queue(trainNumber).position(pnr);
+    }
+
+    public int size(String trainNumber) throws SQLException {
+        return queue(trainNumber).size();
+    }
+
+    // --- Maintenance (called by BookingService after the database commit) ---
+
+    public void added(WaitlistEntry entry) {
+        TrainQueue queue = queues.get(entry.getTrainNumber());
+        if (queue != null) {
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Tickets that left the train's waitlist (confirmed or cancelled).
+     */
+    public void removed(String trainNumber, Collection<String> pnrs) {
+        TrainQueue queue = queues.get(trainNumber);
+        if (queue != null && !pnrs.isEmpty()) {
+            queue.removeAll(new HashSet<>(pnrs));
+        }
+    }
+
+    // --- Promotion ---
+
+    /**
+     * Gives seats that are free in the SeatLedger to the train's waitlist, oldest first: every
+     * waiting ticket that fits is reserved in the ledger, then confirmed in the database
+     * (WaitlistDAO.promote). On a scheduled train a shorter trip further down the queue may go
+     * first, as in a cancellation. Nothing is written when nobody is waiting or nobody fits.
+     * Returns the confirmed tickets.
+     */
+    public List<Ticket> promote(String trainNumber) throws SQLException {
+        TrainQueue queue = queue(trainNumber);
+        if (queue.size() == 0) {
+            return Collections.emptyList();
+        }
+        queue.promotion.lock();
+        try {
+            List<Ticket> candidates = new ArrayList<>();
+            List<TrainSegment> segments = new ArrayList<>();
+            List<WaitlistEntry> waiting = queue.sorted();
+            for (WaitlistEntry entry : waiting.subList(0, Math.min(maxScan, waiting.size()))) {
+                TrainSegment segment;
+                try {
+                    segment = seatLedger.segmentFor(trainNumber, entry.getBoardingScheduleId(),
+                            entry.getDeboardingScheduleId());
+                } catch (IllegalArgumentException e) {
+                    // Stop no longer on the schedule: the database counts the ticket on the whole route
+                    segment = null;
+                }
+                if (seatLedger.tryReserve(trainNumber, segment, 1)) {
+                    Ticket ticket = new Ticket(entry.getPnr(), trainNumber);
+                    ticket.setStatus(TicketStatus.WAITLISTED);
+                    ticket.setBoardingScheduleId(entry.getBoardingScheduleId());
+                    ticket.setDeboardingScheduleId(entry.getDeboardingScheduleId());
+                    candidates.add(ticket);
+                    segments.add(segment);
+                }
+            }
+            if (candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<Ticket> promoted;
+            try {
+                promoted = waitlistDAO.promote(trainNumber, candidates);
+            } catch (SQLException | RuntimeException e) {
+                for (TrainSegment segment : segments) {
+                    seatLedger.cancelReservation(trainNumber, segment, 1);
+                }
+                throw e;
+            }
+
+            // Candidates the database skipped (cancelled meanwhile, or no room) hand their seat back
+            Set<String> confirmed = new HashSet<>();
+            for (Ticket ticket : promoted) {
+                confirmed.add(ticket.getPnr());
+            }
+            for (int i = 0; i < candidates.size(); i++) {
+                if (confirmed.contains(candidates.get(i).getPnr())) {
+                    seatLedger.confirm(trainNumber, 1);
+                } else {
+                    seatLedger.cancelReservation(trainNumber, segments.get(i), 1);
+                }
+            }
+            removed(trainNumber, confirmed);
+            return promoted;
+        } finally {
+            queue.promotion.unlock();
+        }
+    }
+
+    /**
+     * Seats went back to the ledger without a cancellation: promotes the train's waitlist on a
+     * background thread. Calls for a train whose promotion has not started yet are merged.
+     */
+    public void seatsReturned(String trainNumber) {
+        if (!pending.add(trainNumber)) {
+            return;
+        }
+        promoter.execute(() -> {
+            pending.remove(trainNumber);
+            try {
+                promote(trainNumber);
+            } catch (Exception e) {
+                System.err.println("Waitlist promotion for train " + trainNumber + " failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Drops a train's queue (e.g. the train was deleted) so it is reloaded on next use.
+     */
+    public void evict(String trainNumber) {
+        queues.remove(trainNumber);
+    }
+}
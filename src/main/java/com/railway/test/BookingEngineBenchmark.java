@@ -0,0 +1,143 @@
+package com.railway.test;
+
+import com.railway.dao.TrainDAO;
+import com.railway.model.Train;
+import com.railway.service.AdmissionRejectedException;
+import com.railway.service.BookingSequencer;
+import com.railway.service.BookingService;
+import com.railway.service.SeatLedger;
+import com.railway.util.DatabaseConnection;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the two booking engines on one hot train against the configured database:
+ * "direct" (one transaction per booking, behind AdmissionControl) and "sequencer"
+ * (BookingSequencer batches). Every thread books single tickets as fast as it can.
+ *
+ * Creates a scratch train with enough seats for every booking and removes it (and its
+ * passengers) at the end.
+ *
+ * Usage: java com.railway.test.BookingEngineBenchmark [threads] [bookingsPerThread]
+ */
+public class BookingEngineBenchmark {
+
+    private static final String TRAIN = "BENCH";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        System.out.println("═══════════════════════════════════════════════");
+        System.out.println("  BOOKING ENGINE BENCHMARK");
+        System.out.println("═══════════════════════════════════════════════\n");
+        System.out.println("Threads: " + threads + ", bookings per thread: " + perThread);
+
+        TrainDAO trainDAO = new TrainDAO();
+        trainDAO.deleteTrain(TRAIN);
+        Train train = new Train(TRAIN, "Engine Benchmark", "Bench A", "Bench B",
+                LocalDate.now().plusDays(30), new BigDecimal("1.00"));
+        int warmUp = Math.max(1, perThread / 10);
+        // Both engines, warm-up and measured rounds
+        train.setTotalSeats(2 * threads * (warmUp + perThread) + 100);
+        if (!trainDAO.addTrain(train)) {
+            throw new IllegalStateException("Could not create test train " + TRAIN);
+        }
+        SeatLedger.getInstance().evict(TRAIN);
+
+        int failures = 0;
+        try {
+            // Warm-up, then one measured round per engine
+            run("direct", threads, warmUp, false);
+            failures += run("direct", threads, perThread, true);
+            run("sequencer", threads, warmUp, false);
+            failures += run("sequencer", threads, perThread, true);
+
+            BookingSequencer sequencer = BookingSequencer.getInstance();
+            System.out.printf("Sequencer: %d bookings in %d transactions (%.1f per transaction)%n",
+                    sequencer.getBookingCount(), sequencer.getTransactionCount(),
+                    sequencer.getBookingCount() / (double) Math.max(1, sequencer.getTransactionCount()));
+        } finally {
+            trainDAO.deleteTrain(TRAIN);
+            SeatLedger.getInstance().evict(TRAIN);
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(
+                         "DELETE FROM Passenger WHERE PNR NOT IN (SELECT PNR FROM Ticket) AND PassengerName = ?")) {
+                ps.setString(1, "Bench Passenger");
+                ps.executeUpdate();
+            }
+        }
+
+        System.out.println();
+        System.out.println(failures == 0 ? "✓ Booking engine benchmark finished" : "✗ " + failures + " booking(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Returns the number of failed bookings
+    private static int run(String engine, int threads, int perThread, boolean report) throws Exception {
+        System.setProperty("booking.engine", engine);
+        BookingService bookingService = new BookingService();
+
+        long[] latencies = new long[threads * perThread];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger retried = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    long begin = System.nanoTime();
+                    while (true) {
+                        try {
+                            bookingService.bookTicket("john_doe", "Bench Passenger", 30, "M", TRAIN);
+                            break;
+                        } catch (AdmissionRejectedException e) {
+                            retried.incrementAndGet();
+                            Thread.sleep(10);
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            break;
+                        }
+                    }
+                    latencies[next.getAndIncrement()] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        if (report) {
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %,8.0f bookings/s   p50 %7.1f ms   p99 %7.1f ms   429 retries %d   failed %d%n",
+                    engine + ":", latencies.length / seconds,
+                    latencies[latencies.length / 2] / 1e6,
+                    latencies[Math.min(latencies.length - 1, (int) (latencies.length * 0.99))] / 1e6,
+                    retried.get(), failed.get());
+        }
+        return failed.get();
+    }
+}
@@ -32,6 +32,9 @@ public class DatabaseTest {
         // Test 5: Feedback Service
         testFeedbackService();
 
+        // Pool usage after the run
+        System.out.println("Connection Pool: " + DatabaseConnection.getPoolStats());
+
         System.out.println("\n═══════════════════════════════════════════════");
         System.out.println("  TEST COMPLETED");
         System.out.println("═══════════════════════════════════════════════");
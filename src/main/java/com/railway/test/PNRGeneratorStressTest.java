@@ -0,0 +1,83 @@
+package com.railway.test;
+
+import com.railway.util.PNRGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-threaded uniqueness stress test for PNRGenerator. Needs no database.
+ *
+ * Usage: java com.railway.test.PNRGeneratorStressTest [threads] [pnrsPerThread]
+ */
+public class PNRGeneratorStressTest {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 250_000;
+
+        System.out.println("═══════════════════════════════════════════════");
+        System.out.println("  PNR GENERATOR STRESS TEST");
+        System.out.println("═══════════════════════════════════════════════\n");
+        System.out.println("Threads: " + threads + ", PNRs per thread: " + perThread);
+
+        Set<String> seen = ConcurrentHashMap.newKeySet(threads * perThread);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                String[] batch = new String[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    batch[i] = PNRGenerator.generatePNR();
+                }
+                // Checks run after generation so they don't slow the contended phase
+                for (int i = 0; i < perThread; i++) {
+                    if (!PNRGenerator.isValid(batch[i])) {
+                        return "invalid PNR " + batch[i];
+                    }
+                    if (i > 0 && batch[i].compareTo(batch[i - 1]) <= 0) {
+                        return "out of order " + batch[i - 1] + " -> " + batch[i];
+                    }
+                    if (!seen.add(batch[i])) {
+                        return "duplicate PNR " + batch[i];
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        int failures = 0;
+        for (Future<String> result : results) {
+            String error = result.get();
+            if (error != null) {
+                System.out.println("✗ " + error);
+                failures++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        long total = (long) threads * perThread;
+        System.out.println("Generated: " + total + ", unique: " + seen.size());
+        System.out.printf("Elapsed: %.1f ms (including checks)%n", elapsedNanos / 1_000_000.0);
+        System.out.println("Sample PNR: " + PNRGenerator.generatePNR());
+
+        if (failures == 0 && seen.size() == total) {
+            System.out.println("✓ All PNRs unique, valid and ordered per thread");
+        } else {
+            System.out.println("✗ Stress test FAILED");
+            System.exit(1);
+        }
+    }
+}
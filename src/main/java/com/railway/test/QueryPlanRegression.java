@@ -0,0 +1,661 @@
+package com.railway.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.dao.*;
+import com.railway.model.*;
+import com.railway.util.DatabaseConnection;
+import com.railway.util.KeysetCursor;
+import com.railway.util.SchemaMigrator;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query plan regression check for the statements the DAOs run.
+ *
+ * Calls the DAO methods against the configured database through connections that record each
+ * statement with the parameters it was first run with, and that roll back instead of
+ * committing, so the write paths run without changing any data. Every distinct statement is
+ * then explained by the server (SHOWPLAN_XML on SQL Server, EXPLAIN FORMAT=JSON on MySQL) and
+ * reduced to the tables it reads or writes, how (seek, scan, lookup, sort) and through which
+ * index.
+ *
+ * The plans are compared with a baseline file. A statement whose plan changed, or that is not
+ * in the baseline, fails the check; a scan the baseline did not have is flagged NEW SCAN. After
+ * an intended change (a new query or index) record the baseline again with --record and commit
+ * it. Plans follow the table statistics, so record and check against a database loaded with
+ * representative data: on a nearly empty one the optimizer scans everything.
+ *
+ * Usage: java com.railway.test.QueryPlanRegression [--record] [baseline file]
+ *        (default baseline: query-plans/{sqlserver|mysql}.txt)
+ */
+public class QueryPlanRegression {
+
+    /**
+     * Explains one statement: one line per table access or sort, scans marked with SCAN_MARK.
+     */
+    @FunctionalInterface
+    interface PlanReader {
+        List<String> explain(Connection conn, String sql, List<Object> params) throws Exception;
+    }
+
+    static final String SCAN_MARK = "(scan)";
+    private static final Pattern LAMBDA = Pattern.compile("lambda\\$(.+)\\$\\d+");
+    private static final Set<String> SQLSERVER_SCANS =
+            new HashSet<>(Arrays.asList("Table Scan", "Clustered Index Scan", "Index Scan"));
+    private static final Set<String> MYSQL_SCANS = new HashSet<>(Arrays.asList("ALL", "index"));
+
+    public static void main(String[] args) {
+        boolean record = args.length > 0 && args[0].equals("--record");
+        String file = args.length > (record ? 1 : 0) ? args[record ? 1 : 0] : null;
+
+        System.out.println("═══════════════════════════════════════════════");
+        System.out.println("  QUERY PLAN REGRESSION CHECK");
+        System.out.println("═══════════════════════════════════════════════\n");
+
+        int failures;
+        try {
+            String dialect;
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                dialect = SchemaMigrator.dialect(conn);
+            }
+            Path baseline = Paths.get(file != null ? file : "query-plans/" + dialect + ".txt");
+            failures = run(dialect, planReader(dialect), baseline, record);
+        } catch (Exception e) {
+            System.out.println("✗ Error: " + e.getMessage());
+            e.printStackTrace();
+            failures = 1;
+        }
+        DatabaseConnection.shutdown();
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Returns the number of statements whose plan is new or differs from the baseline
+    static int run(String dialect, PlanReader reader, Path baseline, boolean record) throws Exception {
+        Sample sample = Sample.load();
+        StatementRecorder recorder = new StatementRecorder();
+        DatabaseConnection.setConnectionDecorator(recorder);
+        try {
+            exercise(sample);
+        } finally {
+            DatabaseConnection.setConnectionDecorator(null);
+        }
+
+        Map<String, List<String>> plans = new LinkedHashMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (RecordedStatement statement : recorder.statements()) {
+                plans.put(statement.label() + "\n  " + statement.key,
+                        reader.explain(conn, statement.sql, statement.params));
+            }
+        }
+        System.out.println("Dialect: " + dialect + ", statements explained: " + plans.size());
+        long scanning = plans.values().stream().filter(ops -> ops.stream().anyMatch(QueryPlanRegression::isScan)).count();
+        System.out.println("Statements with a scan: " + scanning + " (expected for full listings and exports)\n");
+
+        if (record) {
+            write(baseline, dialect, plans);
+            System.out.println("✓ Baseline recorded in " + baseline);
+            return 0;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("✗ No baseline at " + baseline + "; run with --record first");
+            return 1;
+        }
+        return compare(read(baseline), plans);
+    }
+
+    static PlanReader planReader(String dialect) {
+        switch (dialect) {
+            case "sqlserver":
+                return QueryPlanRegression::explainSqlServer;
+            case "mysql":
+                return QueryPlanRegression::explainMySql;
+            default:
+                throw new IllegalArgumentException("No plan reader for " + dialect);
+        }
+    }
+
+    // --- Workload: every DAO method, with keys taken from the data ---
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+
+    private static void exercise(Sample s) {
+        BookingDAO bookingDAO = new BookingDAO();
+        TrainDAO trainDAO = new TrainDAO();
+        FeedbackDAO feedbackDAO = new FeedbackDAO();
+        UserDAO userDAO = new UserDAO();
+        ScheduleDAO scheduleDAO = new ScheduleDAO();
+        TrainLegDAO trainLegDAO = new TrainLegDAO();
+        WaitlistDAO waitlistDAO = new WaitlistDAO();
+        DocumentDAO documentDAO = new DocumentDAO();
+        IdempotencyDAO idempotencyDAO = new IdempotencyDAO();
+        List<String> trainNumbers = Arrays.asList(s.trainNumber, s.otherTrainNumber);
+        LocalDateTime now = LocalDateTime.now();
+        // Listings and exports stop after the first row; only the statement is needed
+        RowConsumer<Object> firstRow = row -> {
+            throw new IOException("first row read");
+        };
+
+        // Bookings
+        step(() -> bookingDAO.getTicketDetails(s.pnr));
+        step(() -> bookingDAO.getTicketsByUsername(s.username));
+        step(() -> bookingDAO.getPassengerByPNR(s.pnr));
+        step(() -> bookingDAO.streamAllBookings(firstRow::accept));
+        step(() -> {
+            Page<Ticket> page = bookingDAO.getBookingsPage(null, 10);
+            bookingDAO.getBookingsPage(page.getNextCursor() != null ? page.getNextCursor()
+                    : KeysetCursor.encode(LocalDate.now().toString(), s.pnr), 10);
+        });
+        step(bookingDAO::getDatabaseTime);
+        step(() -> bookingDAO.exportBookings(now.minusDays(1), now, firstRow::accept));
+        step(() -> bookingDAO.exportBookings(null, now, firstRow::accept));
+        step(() -> bookingDAO.exportPassengers(now.minusDays(1), now, firstRow::accept));
+        step(() -> bookingDAO.exportPassengers(null, now, firstRow::accept));
+
+        // Trains, schedules and seat inventory
+        step(() -> trainDAO.getTrainByNumber(s.trainNumber));
+        step(() -> trainDAO.searchTrains(s.source, s.destination, s.date));
+        step(() -> trainDAO.searchTrains(s.source, s.destination, null));
+        step(() -> trainDAO.streamAllTrains(firstRow::accept));
+        step(() -> trainDAO.getSeatCount(s.trainNumber));
+        step(trainDAO::getAllSeatCounts);
+        step(() -> trainDAO.getSeatCounts(trainNumbers));
+        step(trainDAO::getTicketSeatCounts);
+        step(() -> scheduleDAO.getStops(s.trainNumber));
+        step(scheduleDAO::getAllStops);
+        step(() -> scheduleDAO.getStops(trainNumbers));
+        step(() -> trainLegDAO.getLegLoads(s.trainNumber));
+        step(trainLegDAO::getAllLegLoads);
+        step(() -> trainLegDAO.getLegLoads(trainNumbers));
+        step(() -> trainLegDAO.getTicketLegLoads(s.trainNumber, scheduleDAO.getStops(s.trainNumber)));
+        step(() -> waitlistDAO.getWaitlist(s.trainNumber));
+
+        // Users and feedback
+        step(() -> userDAO.login(s.username, "plan-check"));
+        step(() -> userDAO.getUserByUsername(s.username));
+        step(() -> userDAO.streamAllUsers(firstRow::accept));
+        step(() -> {
+            Page<User> page = userDAO.getUsersPage(null, 10);
+            userDAO.getUsersPage(page.getNextCursor() != null ? page.getNextCursor()
+                    : KeysetCursor.encode(s.username), 10);
+        });
+        step(() -> feedbackDAO.streamAllFeedback(firstRow::accept));
+        step(() -> {
+            Page<Feedback> page = feedbackDAO.getFeedbackPage(null, 10);
+            feedbackDAO.getFeedbackPage(page.getNextCursor() != null ? page.getNextCursor()
+                    : KeysetCursor.encode(now.toString(), Integer.toString(s.feedbackId)), 10);
+        });
+        step(feedbackDAO::getPendingFeedback);
+        step(() -> feedbackDAO.exportFeedback(now.minusDays(1), now, firstRow::accept));
+        step(() -> feedbackDAO.exportFeedback(null, now, firstRow::accept));
+
+        // Documents and idempotency keys
+        step(() -> documentDAO.getDocumentsByPassenger(s.pnr));
+        step(() -> documentDAO.getDocumentsByBooking(s.pnr));
+        step(() -> documentDAO.getDocumentById(s.documentId));
+        step(() -> idempotencyDAO.find(s.username, "plan-check"));
+
+        // Writes, all rolled back; a step that depends on an earlier (rolled back) write may fail
+        String pnr = "PLANCHECK" + System.currentTimeMillis();
+        step(() -> bookingDAO.bookTicket(new Passenger(pnr, "Plan Check", 30, "M", s.username),
+                new Ticket(pnr, s.trainNumber)));
+        step(() -> {
+            List<Schedule> stops = scheduleDAO.getStops(s.trainNumber);
+            if (stops.size() >= 2) {
+                bookingDAO.bookTicket(new Passenger(pnr + "S", "Plan Check", 30, "M", s.username),
+                        new Ticket(pnr + "S", s.trainNumber),
+                        TrainLegDAO.segmentBetween(s.trainNumber, stops, 0, stops.size() - 1));
+            }
+        });
+        step(() -> bookingDAO.waitlistTicket(new Passenger(pnr + "W", "Plan Check", 30, "F", s.username),
+                new Ticket(pnr + "W", s.trainNumber), Integer.MAX_VALUE));
+        step(() -> bookingDAO.cancelTicket(s.pnr, true));
+        step(() -> trainDAO.addTrain(new Train("PLANCHECK", "Plan Check", s.source, s.destination,
+                s.date, new BigDecimal("1.00"))));
+        step(() -> {
+            Train train = trainDAO.getTrainByNumber(s.trainNumber);
+            if (train != null) {
+                trainDAO.updateTrain(train);
+            }
+        });
+        step(() -> trainDAO.deleteTrain("PLANCHECK"));
+        step(() -> trainDAO.repairBookedSeats(s.trainNumber));
+        step(() -> trainLegDAO.ensureLegs(s.trainNumber, scheduleDAO.getStops(s.trainNumber)));
+        step(() -> {
+            int[] loads = trainLegDAO.getLegLoads(s.trainNumber);
+            if (loads != null) {
+                trainLegDAO.repairLegLoads(s.trainNumber, loads);
+            }
+        });
+        step(() -> userDAO.registerUser(new User("plan_check", "Plan Check", null, null, 30, null, "M"), "plan-check"));
+        step(() -> {
+            User user = userDAO.getUserByUsername(s.username);
+            if (user != null) {
+                userDAO.updateUser(user);
+            }
+        });
+        step(() -> feedbackDAO.submitFeedback(new Feedback(s.username, s.trainNumber, 5, "Plan check")));
+        step(() -> feedbackDAO.updateAdminResponse(s.feedbackId, "Plan check"));
+        step(() -> documentDAO.addDocument(new Document("ID_PROOF", "plan-check.pdf", "plan-check.pdf", 1L, s.username)));
+        step(() -> documentDAO.linkPassengerDocument(s.pnr, s.documentId, "Plan check"));
+        step(() -> documentDAO.linkBookingDocument(s.pnr, s.documentId, "TICKET"));
+        step(() -> documentDAO.deleteDocument(s.documentId));
+        step(() -> {
+            Instant expires = Instant.now().plusSeconds(60);
+            idempotencyDAO.claim(s.username, "plan-check", "plan-check", expires);
+            idempotencyDAO.complete(s.username, "plan-check", 200, "{}", expires);
+            idempotencyDAO.release(s.username, "plan-check");
+        });
+        step(idempotencyDAO::deleteExpired);
+    }
+
+    private static void step(Step step) {
+        try {
+            step.run();
+        } catch (IOException e) {
+            // A listing stopped after its first row
+        } catch (Exception e) {
+            System.out.println("  note: " + e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keys to run the DAO methods with, taken from the data where there is some.
+     */
+    private static final class Sample {
+        String trainNumber = "T001";
+        String otherTrainNumber = "T002";
+        String source = "Delhi";
+        String destination = "Mumbai";
+        LocalDate date = LocalDate.now();
+        String pnr = "PNR0000001";
+        String username = "john_doe";
+        int feedbackId = 1;
+        int documentId = 1;
+
+        static Sample load() throws SQLException {
+            Sample s = new Sample();
+            try (Connection conn = DatabaseConnection.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.setMaxRows(2);
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT TrainNumber, Source, Destination, Date FROM Train ORDER BY TrainNumber")) {
+                    if (rs.next()) {
+                        s.trainNumber = rs.getString("TrainNumber");
+                        s.source = rs.getString("Source");
+                        s.destination = rs.getString("Destination");
+                        Date date = rs.getDate("Date");
+                        s.date = date != null ? date.toLocalDate() : s.date;
+                    }
+                    s.otherTrainNumber = rs.next() ? rs.getString("TrainNumber") : s.trainNumber;
+                }
+                stmt.setMaxRows(1);
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT t.PNR, p.Username FROM Ticket t INNER JOIN Passenger p ON p.PNR = t.PNR")) {
+                    if (rs.next()) {
+                        s.pnr = rs.getString("PNR");
+                        s.username = rs.getString("Username");
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT FeedbackID FROM Feedback")) {
+                    s.feedbackId = rs.next() ? rs.getInt(1) : s.feedbackId;
+                }
+                try (ResultSet rs = stmt.executeQuery("SELECT DocumentID FROM Document")) {
+                    s.documentId = rs.next() ? rs.getInt(1) : s.documentId;
+                }
+            }
+            return s;
+        }
+    }
+
+    // --- Recording ---
+
+    static final class RecordedStatement {
+        final String key;
+        final String sql;
+        final List<Object> params;
+        final Set<String> callers = new TreeSet<>();
+
+        RecordedStatement(String sql, List<Object> params) {
+            this.key = sql.trim().replaceAll("\\s+", " ");
+            this.sql = sql;
+            this.params = params;
+        }
+
+        String label() {
+            return String.join(", ", callers);
+        }
+    }
+
+    /**
+     * Wraps connections so every statement is recorded, with the parameters of its first run,
+     * under the DAO method that ran it. Auto-commit stays off and commit() and close() roll
+     * back, so nothing a DAO writes is kept.
+     */
+    static final class StatementRecorder implements UnaryOperator<Connection> {
+        private final Map<String, RecordedStatement> statements = new LinkedHashMap<>();
+
+        @Override
+        public Connection apply(Connection target) {
+            try {
+                target.setAutoCommit(false);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not turn off auto-commit", e);
+            }
+            InvocationHandler handler = (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setAutoCommit":
+                        return null;
+                    case "commit":
+                        target.rollback();
+                        return null;
+                    case "close":
+                        try {
+                            if (!target.isClosed()) {
+                                target.rollback();
+                            }
+                        } finally {
+                            target.close();
+                        }
+                        return null;
+                    case "prepareStatement":
+                        return statement((Statement) call(target, method, args), (String) args[0]);
+                    case "createStatement":
+                        return statement((Statement) call(target, method, args), null);
+                    default:
+                        return call(target, method, args);
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(QueryPlanRegression.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handler);
+        }
+
+        synchronized List<RecordedStatement> statements() {
+            List<RecordedStatement> list = new ArrayList<>(statements.values());
+            list.sort(Comparator.comparing(RecordedStatement::label).thenComparing(r -> r.key));
+            return list;
+        }
+
+        private synchronized void record(String sql, List<Object> params) {
+            RecordedStatement statement = new RecordedStatement(sql, new ArrayList<>(params));
+            statements.computeIfAbsent(statement.key, key -> statement).callers.add(caller());
+        }
+
+        private Statement statement(Statement target, String preparedSql) {
+            List<Object> params = new ArrayList<>();
+            List<List<Object>> firstBatch = new ArrayList<>();
+            InvocationHandler handler = (proxy, method, args) -> {
+                String name = method.getName();
+                if (method.getDeclaringClass() == PreparedStatement.class && name.startsWith("set")
+                        && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    int index = (Integer) args[0];
+                    while (params.size() < index) {
+                        params.add(null);
+                    }
+                    params.set(index - 1, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    params.clear();
+                } else if (name.equals("addBatch")) {
+                    if (args == null && firstBatch.isEmpty()) {
+                        firstBatch.add(new ArrayList<>(params));
+                    } else if (args != null) {
+                        record((String) args[0], Collections.emptyList());
+                    }
+                } else if (name.startsWith("execute")) {
+                    if (args != null && args.length > 0 && args[0] instanceof String) {
+                        record((String) args[0], Collections.emptyList());
+                    } else if (preparedSql != null) {
+                        record(preparedSql, firstBatch.isEmpty() ? params : firstBatch.get(0));
+                    }
+                }
+                return call(target, method, args);
+            };
+            Class<?> type = target instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(QueryPlanRegression.class.getClassLoader(),
+                    new Class<?>[]{type}, handler);
+        }
+
+        // The innermost DAO method on the stack, e.g. BookingDAO.getTicketsByUsername
+        private static String caller() {
+            for (StackTraceElement frame : new Throwable().getStackTrace()) {
+                String className = frame.getClassName();
+                if (className.startsWith("com.railway.dao.")) {
+                    String simpleName = className.substring(className.lastIndexOf('.') + 1).split("\\$")[0];
+                    Matcher lambda = LAMBDA.matcher(frame.getMethodName());
+                    return simpleName + "." + (lambda.matches() ? lambda.group(1) : frame.getMethodName());
+                }
+            }
+            return "(outside the DAOs)";
+        }
+
+        private static Object call(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // --- Plan readers ---
+
+    private static List<String> explainSqlServer(Connection conn, String sql, List<Object> params) throws Exception {
+        List<String> plans = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SHOWPLAN_XML ON");
+        }
+        // With SHOWPLAN_XML on the statement is compiled but not run
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bind(stmt, params);
+            boolean hasResults = stmt.execute();
+            while (hasResults || stmt.getUpdateCount() != -1) {
+                if (hasResults) {
+                    try (ResultSet rs = stmt.getResultSet()) {
+                        while (rs.next()) {
+                            plans.add(rs.getString(1));
+                        }
+                    }
+                }
+                hasResults = stmt.getMoreResults();
+            }
+        } finally {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET SHOWPLAN_XML OFF");
+            }
+        }
+        List<String> ops = new ArrayList<>();
+        for (String plan : plans) {
+            ops.addAll(sqlServerOperators(plan));
+        }
+        return ops;
+    }
+
+    /**
+     * The table accesses and sorts of a SHOWPLAN_XML document, in plan order.
+     */
+    static List<String> sqlServerOperators(String planXml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        org.w3c.dom.Document plan = factory.newDocumentBuilder().parse(new InputSource(new StringReader(planXml)));
+
+        List<String> ops = new ArrayList<>();
+        NodeList relOps = plan.getElementsByTagName("RelOp");
+        for (int i = 0; i < relOps.getLength(); i++) {
+            Element relOp = (Element) relOps.item(i);
+            String physicalOp = relOp.getAttribute("PhysicalOp");
+            if (physicalOp.contains("Sort")) {
+                ops.add(physicalOp);
+            }
+            for (Element operator : childElements(relOp)) {
+                for (Element object : childElements(operator)) {
+                    if (!object.getTagName().equals("Object")) {
+                        continue;
+                    }
+                    String op = "1".equals(operator.getAttribute("Lookup")) ? "Key Lookup" : physicalOp;
+                    String index = unquote(object.getAttribute("Index"));
+                    if (index.startsWith("PK__")) {
+                        index = "PK";
+                    }
+                    ops.add(unquote(object.getAttribute("Table")) + ": " + op + (index.isEmpty() ? "" : " " + index)
+                            + (SQLSERVER_SCANS.contains(op) ? " " + SCAN_MARK : ""));
+                }
+            }
+        }
+        return ops;
+    }
+
+    private static List<Element> childElements(Element parent) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                children.add((Element) child);
+            }
+        }
+        return children;
+    }
+
+    private static String unquote(String name) {
+        return name.startsWith("[") && name.endsWith("]") ? name.substring(1, name.length() - 1) : name;
+    }
+
+    private static List<String> explainMySql(Connection conn, String sql, List<Object> params) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN FORMAT=JSON " + sql)) {
+            bind(stmt, params);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mySqlOperators(rs.getString(1)) : Collections.emptyList();
+            }
+        }
+    }
+
+    /**
+     * The table accesses, filesorts and temporary tables of an EXPLAIN FORMAT=JSON document.
+     */
+    static List<String> mySqlOperators(String planJson) throws IOException {
+        List<String> ops = new ArrayList<>();
+        collectMySql(new ObjectMapper().readTree(planJson), ops);
+        return ops;
+    }
+
+    private static void collectMySql(JsonNode node, List<String> ops) {
+        if (node.isObject()) {
+            if (node.path("using_filesort").asBoolean(false)) {
+                ops.add("filesort");
+            }
+            if (node.path("using_temporary_table").asBoolean(false)) {
+                ops.add("temporary table");
+            }
+            if (node.has("table_name") && node.has("access_type")) {
+                String access = node.get("access_type").asText();
+                ops.add(node.get("table_name").asText() + ": " + access
+                        + (node.has("key") ? " " + node.get("key").asText() : "")
+                        + (MYSQL_SCANS.contains(access) ? " " + SCAN_MARK : ""));
+            }
+        }
+        for (JsonNode child : node) {
+            collectMySql(child, ops);
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            if (params.get(i) == null) {
+                stmt.setNull(i + 1, Types.VARCHAR);
+            } else {
+                stmt.setObject(i + 1, params.get(i));
+            }
+        }
+    }
+
+    static boolean isScan(String op) {
+        return op.endsWith(SCAN_MARK);
+    }
+
+    // --- Baseline file: per statement its callers, the SQL, then one operator per line ---
+
+    private static void write(Path file, String dialect, Map<String, List<String>> plans) throws IOException {
+        StringBuilder out = new StringBuilder("# Query plans (" + dialect + "), recorded by com.railway.test.QueryPlanRegression\n");
+        plans.forEach((statement, ops) -> {
+            out.append('\n').append(statement).append('\n');
+            ops.forEach(op -> out.append("    ").append(op).append('\n'));
+        });
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Keyed by SQL; the callers line is informational
+    private static Map<String, List<String>> read(Path file) throws IOException {
+        Map<String, List<String>> plans = new LinkedHashMap<>();
+        List<String> ops = null;
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.startsWith("    ") && ops != null) {
+                ops.add(line.trim());
+            } else if (line.startsWith("  ")) {
+                ops = new ArrayList<>();
+                plans.put(line.trim(), ops);
+            }
+        }
+        return plans;
+    }
+
+    private static int compare(Map<String, List<String>> baseline, Map<String, List<String>> plans) {
+        int failures = 0;
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<String, List<String>> entry : plans.entrySet()) {
+            String[] statement = entry.getKey().split("\n  ", 2);
+            seen.add(statement[1]);
+            List<String> before = baseline.get(statement[1]);
+            List<String> after = entry.getValue();
+            if (after.equals(before)) {
+                continue;
+            }
+            failures++;
+            if (before == null) {
+                System.out.println("✗ NEW " + statement[0] + "\n    " + statement[1]);
+            } else {
+                boolean newScan = after.stream().anyMatch(op -> isScan(op) && !before.contains(op));
+                System.out.println("✗ " + (newScan ? "NEW SCAN " : "CHANGED ") + statement[0] + "\n    " + statement[1]);
+                before.forEach(op -> System.out.println("      - " + op));
+            }
+            after.forEach(op -> System.out.println("      + " + op));
+        }
+        for (String statement : baseline.keySet()) {
+            if (!seen.contains(statement)) {
+                System.out.println("  not run (removed?): " + statement);
+            }
+        }
+
+        System.out.println();
+        System.out.println(failures == 0 ? "✓ All " + plans.size() + " plans match the baseline"
+                : "✗ " + failures + " plan(s) differ from the baseline; record it again if the change is intended");
+        return failures;
+    }
+}
@@ -0,0 +1,131 @@
+package com.railway.test;
+
+import com.railway.RailwayApiApplication;
+import com.railway.util.ConnectionPoolStats;
+import com.railway.util.DatabaseConnection;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the REST API in both request thread modes: Tomcat's platform thread pool and
+ * one virtual thread per request (railway.threads.virtual=true).
+ *
+ * Starts the API in this JVM on a free port, keeps {@code concurrency} GET
+ * /api/bookings/user/{username} requests in flight until {@code requests} have completed, then
+ * stops it and repeats in the other mode. Reports throughput, p50/p99 latency and the most
+ * requests that were inside JDBC at once (connections in use plus threads waiting for one),
+ * which the platform pool caps at server.tomcat.threads.max.
+ *
+ * Usage: java com.railway.test.ThreadModeLoadTest [concurrency] [requests] [username]
+ */
+public class ThreadModeLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        String username = args.length > 2 ? args[2] : "john_doe";
+
+        System.out.println("═══════════════════════════════════════════════");
+        System.out.println("  REQUEST THREAD MODE LOAD TEST");
+        System.out.println("═══════════════════════════════════════════════\n");
+        System.out.println("Concurrent requests: " + concurrency + ", requests per mode: " + requests +
+                ", database pool: " + DatabaseConnection.getPoolStats().getMaxPoolSize() + " connections");
+        System.out.println("JVM: " + System.getProperty("java.version"));
+
+        int failures = run(false, concurrency, requests, username);
+        failures += run(true, concurrency, requests, username);
+
+        System.out.println();
+        System.out.println(failures == 0 ? "✓ Thread mode load test finished" : "✗ " + failures + " request(s) failed");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Returns the number of failed requests
+    private static int run(boolean virtual, int concurrency, int requests, String username) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(RailwayApiApplication.class,
+                "--server.port=0",
+                "--railway.threads.virtual=" + virtual,
+                "--railway.ledger.reconcile-interval-seconds=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.railway=WARN");
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            URI uri = URI.create("http://localhost:" + port + "/api/bookings/user/" + username);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+            // Warm-up
+            fire(client, request, concurrency, Math.min(requests, concurrency * 2), new long[Math.min(requests, concurrency * 2)]);
+
+            AtomicInteger peakInJdbc = new AtomicInteger();
+            AtomicBoolean sampling = new AtomicBoolean(true);
+            Thread sampler = new Thread(() -> {
+                while (sampling.get()) {
+                    ConnectionPoolStats stats = DatabaseConnection.getPoolStats();
+                    peakInJdbc.accumulateAndGet(stats.getActiveConnections() + stats.getThreadsAwaiting(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "pool-sampler");
+            sampler.setDaemon(true);
+            sampler.start();
+
+            long[] latencies = new long[requests];
+            long begin = System.nanoTime();
+            int failed = fire(client, request, concurrency, requests, latencies);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            sampling.set(false);
+            sampler.join();
+
+            Arrays.sort(latencies);
+            System.out.printf("%-10s %,8.0f requests/s   p50 %7.1f ms   p99 %7.1f ms   peak in JDBC %4d   failed %d%n",
+                    (virtual ? "virtual" : "platform") + ":", requests / seconds,
+                    latencies[requests / 2] / 1e6,
+                    latencies[Math.min(requests - 1, (int) (requests * 0.99))] / 1e6,
+                    peakInJdbc.get(), failed);
+            return failed;
+        } finally {
+            context.close();
+        }
+    }
+
+    // Sends {@code total} requests, never more than {@code concurrency} at once
+    private static int fire(HttpClient client, HttpRequest request, int concurrency, int total, long[] latencies)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger failed = new AtomicInteger();
+        CompletableFuture<?>[] results = new CompletableFuture<?>[total];
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            int slot = i;
+            long start = System.nanoTime();
+            results[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[slot] = System.nanoTime() - start;
+                        if (error != null || response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(results).exceptionally(e -> null).join();
+        return failed.get();
+    }
+}
@@ -0,0 +1,146 @@
+package com.railway.test;
+
+import com.railway.dao.BookingDAO;
+import com.railway.dao.TrainDAO;
+import com.railway.dao.WaitlistDAO;
+import com.railway.model.Cancellation;
+import com.railway.model.Passenger;
+import com.railway.model.Ticket;
+import com.railway.model.TicketStatus;
+import com.railway.model.Train;
+import com.railway.util.DatabaseConnection;
+import com.railway.util.PNRGenerator;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures waitlist promotion against the configured database.
+ *
+ * Creates a scratch train (no schedule), fills it, puts {@code waitlisted} passengers on its
+ * waitlist and then cancels confirmed tickets one at a time; every cancellation confirms the
+ * next waitlisted ticket in the same transaction. Then the capacity is raised and one more
+ * cancellation promotes a whole batch. The train and its tickets are removed at the end.
+ *
+ * Usage: java com.railway.test.WaitlistPromotionTest [seats] [waitlisted]
+ */
+public class WaitlistPromotionTest {
+
+    private static final String TRAIN = "WLTEST";
+
+    public static void main(String[] args) throws Exception {
+        int seats = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int waitlisted = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+        System.out.println("═══════════════════════════════════════════════");
+        System.out.println("  WAITLIST PROMOTION TEST");
+        System.out.println("═══════════════════════════════════════════════\n");
+        System.out.println("Seats: " + seats + ", waitlisted passengers: " + waitlisted);
+
+        TrainDAO trainDAO = new TrainDAO();
+        BookingDAO bookingDAO = new BookingDAO();
+        WaitlistDAO waitlistDAO = new WaitlistDAO();
+
+        trainDAO.deleteTrain(TRAIN);
+        Train train = new Train(TRAIN, "Waitlist Test", "Test A", "Test B",
+                LocalDate.now().plusDays(30), new BigDecimal("1.00"));
+        train.setTotalSeats(seats);
+        if (!trainDAO.addTrain(train)) {
+            throw new IllegalStateException("Could not create test train " + TRAIN);
+        }
+
+        int failures = 0;
+        try {
+            List<String> confirmed = new ArrayList<>();
+            long begin = System.nanoTime();
+            for (int i = 0; i < seats; i++) {
+                String pnr = PNRGenerator.generatePNR();
+                bookingDAO.bookTicket(new Passenger(pnr, "Seated " + i, 30, "M", "john_doe"), new Ticket(pnr, TRAIN));
+                confirmed.add(pnr);
+            }
+            report("Booked", seats, begin);
+
+            begin = System.nanoTime();
+            for (int i = 0; i < waitlisted; i++) {
+                String pnr = PNRGenerator.generatePNR();
+                bookingDAO.waitlistTicket(new Passenger(pnr, "Waiting " + i, 30, "F", "john_doe"),
+                        new Ticket(pnr, TRAIN), Integer.MAX_VALUE);
+            }
+            report("Waitlisted", waitlisted, begin);
+
+            // One seat per cancellation
+            int rounds = Math.min(seats, waitlisted) / 2;
+            int promoted = 0;
+            begin = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                Cancellation cancellation = bookingDAO.cancelTicket(confirmed.get(i));
+                promoted += cancellation.getPromoted().size();
+            }
+            report("Cancel + promote (1 seat each)", rounds, begin);
+            if (promoted != rounds) {
+                System.out.println("✗ Expected " + rounds + " promotions, got " + promoted);
+                failures++;
+            }
+
+            // Many seats at once: raise the capacity, then one cancellation fills them all
+            // (kept under waitlist.maxPromotionScan, which caps one promotion pass)
+            int extra = Math.min(DatabaseConnection.getIntProperty("waitlist.maxPromotionScan", 1000) - 1,
+                    waitlisted - promoted - 1);
+            if (extra > 0) {
+                try (Connection conn = DatabaseConnection.getConnection();
+                     PreparedStatement ps = conn.prepareStatement("UPDATE Train SET Seats = Seats + ? WHERE TrainNumber = ?")) {
+                    ps.setInt(1, extra);
+                    ps.setString(2, TRAIN);
+                    ps.executeUpdate();
+                }
+                begin = System.nanoTime();
+                Cancellation cancellation = bookingDAO.cancelTicket(confirmed.get(rounds));
+                report("Batch promotion in one cancellation", cancellation.getPromoted().size(), begin);
+                if (cancellation.getPromoted().size() != extra + 1) {
+                    System.out.println("✗ Expected " + (extra + 1) + " promotions, got " + cancellation.getPromoted().size());
+                    failures++;
+                }
+                for (Ticket ticket : cancellation.getPromoted()) {
+                    if (ticket.getStatus() != TicketStatus.CONFIRMED) {
+                        System.out.println("✗ Promoted ticket " + ticket.getPnr() + " is " + ticket.getStatus());
+                        failures++;
+                        break;
+                    }
+                }
+            }
+
+            int stillWaiting = waitlistDAO.getWaitlist(TRAIN).size();
+            int expectedWaiting = waitlisted - promoted - Math.max(0, extra + 1);
+            System.out.println("Still waitlisted: " + stillWaiting + " (expected " + expectedWaiting + ")");
+            if (stillWaiting != expectedWaiting) {
+                failures++;
+            }
+        } finally {
+            trainDAO.deleteTrain(TRAIN);
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(
+                         "DELETE FROM Passenger WHERE PNR NOT IN (SELECT PNR FROM Ticket) AND PassengerName LIKE ?")) {
+                ps.setString(1, "Seated %");
+                ps.executeUpdate();
+                ps.setString(1, "Waiting %");
+                ps.executeUpdate();
+            }
+        }
+
+        System.out.println();
+        System.out.println(failures == 0 ? "✓ Waitlist promotion test passed" : "✗ " + failures + " check(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void report(String what, int count, long beginNanos) {
+        double millis = (System.nanoTime() - beginNanos) / 1_000_000.0;
+        System.out.printf("%-38s %6d in %8.1f ms  (%,.0f/s)%n", what + ":", count, millis,
+                count / Math.max(millis / 1000.0, 1e-9));
+    }
+}
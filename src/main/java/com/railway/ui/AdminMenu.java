@@ -255,8 +255,8 @@ public class AdminMenu {
                     "Train No", "Train Name", "Source", "Destination", "Date", "Cost", "Seats");
             System.out.println("=".repeat(120));
 
+            trainService.populateAvailableSeats(trains);
             for (Train train : trains) {
-                int availableSeats = trainService.checkSeatAvailability(train.getTrainNumber());
                 System.out.printf("%-12s %-25s %-20s %-20s %-12s ₹%-9.2f %-10d%n",
                         train.getTrainNumber(),
                         train.getTrainName(),
@@ -264,7 +264,7 @@ public class AdminMenu {
                         train.getDestination(),
                         train.getDate(),
                         train.getCost(),
-                        availableSeats);
+                        train.getAvailableSeats());
             }
             System.out.println("=".repeat(120));
         }
@@ -99,7 +99,7 @@ public class PassengerMenu {
         if (destination.isEmpty()) destination = null;
 
         LocalDate date = null;
-        System.out.print("Enter date (YYYY-MM-DD): ");
+        System.out.print("Enter date (YYYY-MM-DD, blank for any date): ");
         String dateStr = scanner.nextLine().trim();
         if (!dateStr.isEmpty()) {
             try {
@@ -109,8 +109,8 @@ public class PassengerMenu {
             }
         }
         
-        if (source == null || destination == null || date == null) {
-            System.err.println("Source, Destination, and Date are required for a proper search.");
+        if (source == null || destination == null) {
+            System.err.println("Source and Destination are required for a proper search.");
             return;
         }
 
@@ -124,8 +124,8 @@ public class PassengerMenu {
                     "Train No", "Train Name", "Source", "Destination", "Date", "Cost", "Seats");
             System.out.println("=".repeat(120));
 
+            trainService.populateAvailableSeats(trains);
             for (Train train : trains) {
-                int availableSeats = trainService.checkSeatAvailability(train.getTrainNumber());
                 System.out.printf("%-12s %-25s %-20s %-20s %-12s ₹%-9.2f %-10d%n",
                         train.getTrainNumber(),
                         train.getTrainName(),
@@ -133,7 +133,7 @@ public class PassengerMenu {
                         train.getDestination(),
                         train.getDate(),
                         train.getCost(),
-                        availableSeats);
+                        train.getAvailableSeats());
             }
             System.out.println("=".repeat(120));
         }
@@ -0,0 +1,142 @@
+package com.railway.util;
+
+import com.railway.dao.ScheduleDAO;
+import com.railway.dao.TrainDAO;
+import com.railway.dao.TrainLegDAO;
+import com.railway.model.Schedule;
+import com.railway.model.SeatCount;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verification tool for the Train.BookedSeats counter and the per-leg TrainLeg counters.
+ * Compares each train's counters with its CONFIRMED ticket rows and reports mismatches.
+ *
+ * Usage: java com.railway.util.BookedSeatsAudit [--repair]
+ * With --repair, mismatched counters are reset to what the tickets say and the audit is run
+ * again. Exits with status 1 if any mismatch remains (after repairing, if --repair was given).
+ */
+public class BookedSeatsAudit {
+
+    public static void main(String[] args) {
+        boolean repair = args.length > 0 && "--repair".equals(args[0]);
+        TrainDAO trainDAO = new TrainDAO();
+
+        System.out.println("═══════════════════════════════════════════════");
+        System.out.println("  BOOKED SEATS COUNTER AUDIT" + (repair ? " (REPAIR MODE)" : ""));
+        System.out.println("═══════════════════════════════════════════════\n");
+
+        int mismatches;
+        try {
+            mismatches = audit(trainDAO, repair);
+            if (repair && mismatches > 0) {
+                // A repair that failed, or a train whose schedule no longer matches its legs, still counts
+                System.out.println("\nRe-checking after repair...\n");
+                mismatches = audit(trainDAO, false);
+            }
+        } catch (SQLException e) {
+            System.out.println("✗ SQL Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(2);
+            return;
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+
+        System.exit(mismatches > 0 ? 1 : 0);
+    }
+
+    public static int audit(TrainDAO trainDAO, boolean repair) throws SQLException {
+        return audit(trainDAO, new ScheduleDAO(), new TrainLegDAO(), repair);
+    }
+
+    /**
+     * Returns the number of trains whose counters disagree with their tickets.
+     */
+    public static int audit(TrainDAO trainDAO, ScheduleDAO scheduleDAO, TrainLegDAO trainLegDAO, boolean repair)
+            throws SQLException {
+        Map<String, SeatCount> counters = new HashMap<>();
+        for (SeatCount count : trainDAO.getAllSeatCounts()) {
+            counters.put(count.getTrainNumber(), count);
+        }
+        List<SeatCount> actuals = trainDAO.getTicketSeatCounts();
+        Map<String, int[]> legLoads = trainLegDAO.getAllLegLoads();
+
+        int mismatches = 0;
+        System.out.printf("%-12s %-10s %-12s %-12s %-10s%n", "Train No", "Seats", "Counter", "Tickets", "Result");
+        System.out.println("─".repeat(60));
+        for (SeatCount actual : actuals) {
+            SeatCount counter = counters.get(actual.getTrainNumber());
+            int counted = counter != null ? counter.getBookedSeats() : 0;
+            boolean ok = counted == actual.getBookedSeats();
+            // Trains sold per leg may carry more tickets than seats; they are checked per leg below
+            boolean overbooked = !legLoads.containsKey(actual.getTrainNumber())
+                    && actual.getBookedSeats() > actual.getTotalSeats();
+            String result = "OK";
+            if (!ok) {
+                mismatches++;
+                result = repair && trainDAO.repairBookedSeats(actual.getTrainNumber()) ? "REPAIRED" : "MISMATCH";
+            }
+            if (!ok || overbooked) {
+                System.out.printf("%-12s %-10d %-12d %-12d %-10s%n", actual.getTrainNumber(),
+                        actual.getTotalSeats(), counted, actual.getBookedSeats(),
+                        overbooked ? result + " (OVERBOOKED)" : result);
+            }
+        }
+        System.out.println("─".repeat(60));
+        System.out.println("Trains checked: " + actuals.size() + ", mismatches: " + mismatches);
+
+        mismatches += auditLegs(counters, scheduleDAO, trainLegDAO, legLoads, repair);
+        return mismatches;
+    }
+
+    // TrainLeg counters against the legs covered by each CONFIRMED ticket
+    private static int auditLegs(Map<String, SeatCount> counters, ScheduleDAO scheduleDAO, TrainLegDAO trainLegDAO,
+                                 Map<String, int[]> legLoads, boolean repair) throws SQLException {
+        if (legLoads.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<Schedule>> stopsByTrain = scheduleDAO.getStops(legLoads.keySet());
+
+        int mismatches = 0;
+        System.out.println();
+        System.out.printf("%-12s %-10s %-30s %-30s %-10s%n", "Train No", "Seats", "Leg counters", "Tickets", "Result");
+        System.out.println("─".repeat(96));
+        for (Map.Entry<String, int[]> entry : legLoads.entrySet()) {
+            String trainNumber = entry.getKey();
+            List<Schedule> stops = stopsByTrain.get(trainNumber);
+            if (stops == null || stops.size() - 1 != entry.getValue().length) {
+                mismatches++;
+                System.out.printf("%-12s %-10s %-30s %-30s %-10s%n", trainNumber, "-",
+                        Arrays.toString(entry.getValue()), "-", "SCHEDULE CHANGED");
+                continue;
+            }
+            int[] actual = trainLegDAO.getTicketLegLoads(trainNumber, stops);
+            int seats = counters.containsKey(trainNumber) ? counters.get(trainNumber).getTotalSeats() : 0;
+            boolean ok = Arrays.equals(actual, entry.getValue());
+            boolean overbooked = Arrays.stream(actual).anyMatch(booked -> booked > seats);
+            String result = "OK";
+            if (!ok) {
+                mismatches++;
+                if (repair) {
+                    trainLegDAO.repairLegLoads(trainNumber, actual);
+                    result = "REPAIRED";
+                } else {
+                    result = "MISMATCH";
+                }
+            }
+            if (!ok || overbooked) {
+                System.out.printf("%-12s %-10d %-30s %-30s %-10s%n", trainNumber, seats,
+                        Arrays.toString(entry.getValue()), Arrays.toString(actual),
+                        overbooked ? result + " (OVERBOOKED)" : result);
+            }
+        }
+        System.out.println("─".repeat(96));
+        System.out.println("Scheduled trains checked: " + legLoads.size() + ", mismatches: " + mismatches);
+        return mismatches;
+    }
+}
@@ -0,0 +1,56 @@
+package com.railway.util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects borrow wait time, usage time and timeout counts from the pool.
+ * Counters are lock-free so recording stays off the critical path of getConnection().
+ */
+class ConnectionPoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder totalUsageMillis = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return this;
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        connectionsCreated.increment();
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquireCount.increment();
+        totalWaitNanos.add(elapsedAcquiredNanos);
+        maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        totalUsageMillis.add(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeoutCount.increment();
+    }
+
+    long getAcquireCount() { return acquireCount.sum(); }
+    long getTotalWaitNanos() { return totalWaitNanos.sum(); }
+    long getMaxWaitNanos() { return maxWaitNanos.get(); }
+    long getTotalUsageMillis() { return totalUsageMillis.sum(); }
+    long getTimeoutCount() { return timeoutCount.sum(); }
+    long getConnectionsCreated() { return connectionsCreated.sum(); }
+}
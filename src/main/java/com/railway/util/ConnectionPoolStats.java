@@ -0,0 +1,77 @@
+package com.railway.util;
+
+/**
+ * Immutable snapshot of the connection pool state returned by
+ * {@link DatabaseConnection#getPoolStats()}.
+ */
+public class ConnectionPoolStats {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int threadsAwaiting;
+    private final int minIdle;
+    private final int maxPoolSize;
+    private final long acquireCount;
+    private final long timeoutCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long totalUsageMillis;
+    private final long connectionsCreated;
+
+    public ConnectionPoolStats(int activeConnections, int idleConnections, int totalConnections,
+                               int threadsAwaiting, int minIdle, int maxPoolSize,
+                               long acquireCount, long timeoutCount, long totalWaitNanos,
+                               long maxWaitNanos, long totalUsageMillis, long connectionsCreated) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.threadsAwaiting = threadsAwaiting;
+        this.minIdle = minIdle;
+        this.maxPoolSize = maxPoolSize;
+        this.acquireCount = acquireCount;
+        this.timeoutCount = timeoutCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.totalUsageMillis = totalUsageMillis;
+        this.connectionsCreated = connectionsCreated;
+    }
+
+    public int getActiveConnections() { return activeConnections; }
+    public int getIdleConnections() { return idleConnections; }
+    public int getTotalConnections() { return totalConnections; }
+    public int getThreadsAwaiting() { return threadsAwaiting; }
+    public int getMinIdle() { return minIdle; }
+    public int getMaxPoolSize() { return maxPoolSize; }
+    public long getAcquireCount() { return acquireCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getConnectionsCreated() { return connectionsCreated; }
+
+    // --- Derived wait/usage figures (milliseconds) ---
+    public double getAverageWaitMillis() {
+        return acquireCount == 0 ? 0.0 : (totalWaitNanos / (double) acquireCount) / 1_000_000.0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    public double getAverageUsageMillis() {
+        return acquireCount == 0 ? 0.0 : totalUsageMillis / (double) acquireCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats{" +
+                "active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", total=" + totalConnections +
+                ", awaiting=" + threadsAwaiting +
+                ", min=" + minIdle +
+                ", max=" + maxPoolSize +
+                ", acquired=" + acquireCount +
+                ", timeouts=" + timeoutCount +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.3f", getMaxWaitMillis()) +
+                '}';
+    }
+}
@@ -1,12 +1,25 @@
 package com.railway.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 
+/**
+ * Hands out pooled JDBC connections to every DAO.
+ * Callers keep using getConnection()/close(); closing a pooled connection returns it to the pool
+ * instead of tearing down the socket, so each DAO call no longer pays a full login handshake.
+ * Pool settings are read from database.properties (db.pool.*). Any key can be overridden with a
+ * JVM system property of the same name (e.g. -Ddb.url=...).
+ */
 public class DatabaseConnection {
     private static Properties properties = new Properties();
     private static String dbUrl;
@@ -14,6 +27,11 @@ public class DatabaseConnection {
     private static String dbPassword;
     private static String dbDriver;
 
+    private static final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
+    private static volatile HikariDataSource dataSource;
+    private static final ReentrantLock INIT_LOCK = new ReentrantLock();
+    private static volatile UnaryOperator<Connection> connectionDecorator;
+
     static {
         try (InputStream input = DatabaseConnection.class.getClassLoader()
                 .getResourceAsStream("database.properties")) {
@@ -21,11 +39,13 @@ public class DatabaseConnection {
                 System.out.println("Unable to find database.properties");
             } else {
                 properties.load(input);
-                dbUrl = properties.getProperty("db.url");
-                dbUsername = properties.getProperty("db.username");
-                dbPassword = properties.getProperty("db.password");
-                dbDriver = properties.getProperty("db.driver");
+            }
+            dbUrl = getProperty("db.url", null);
+            dbUsername = getProperty("db.username", null);
+            dbPassword = getProperty("db.password", null);
+            dbDriver = getProperty("db.driver", null);
 
+            if (dbDriver != null) {
                 Class.forName(dbDriver);
             }
         } catch (IOException | ClassNotFoundException e) {
@@ -35,7 +55,80 @@ public class DatabaseConnection {
     }
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(dbUrl, dbUsername, dbPassword);
+        long start = System.nanoTime();
+        Connection connection = getDataSource().getConnection();
+        if (JdbcMetrics.isEnabled()) {
+            connection = JdbcMetrics.instrument(connection, System.nanoTime() - start);
+        }
+        UnaryOperator<Connection> decorator = connectionDecorator;
+        return decorator != null ? decorator.apply(connection) : connection;
+    }
+
+    /**
+     * Wraps every connection getConnection() hands out from now on, e.g. to observe the
+     * statements the DAOs run; null removes the wrapper.
+     */
+    public static void setConnectionDecorator(UnaryOperator<Connection> decorator) {
+        connectionDecorator = decorator;
+    }
+
+    /**
+     * Returns the shared pooled DataSource, creating it on first use.
+     */
+    public static DataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            // A lock, not a monitor: opening the first connections must not pin virtual threads
+            INIT_LOCK.lock();
+            try {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = createDataSource();
+                    dataSource = ds;
+                }
+            } finally {
+                INIT_LOCK.unlock();
+            }
+        }
+        return ds;
+    }
+
+    private static HikariDataSource createDataSource() {
+        // Hikari validates a connection on borrow whenever it has been idle longer than this window
+        System.setProperty("com.zaxxer.hikari.aliveBypassWindowMs",
+                getProperty("db.pool.validationBypassWindowMs", "500"));
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(getProperty("db.pool.name", "RailwayPool"));
+        if (dbDriver != null) {
+            config.setDriverClassName(dbDriver);
+        }
+        config.setJdbcUrl(dbUrl);
+        config.setUsername(dbUsername);
+        config.setPassword(dbPassword);
+
+        // --- Sizing and idle eviction ---
+        config.setMinimumIdle(getIntProperty("db.pool.minIdle", 2));
+        config.setMaximumPoolSize(getIntProperty("db.pool.maxSize", 10));
+        config.setIdleTimeout(getLongProperty("db.pool.idleTimeoutMs", 600_000L));
+        config.setMaxLifetime(getLongProperty("db.pool.maxLifetimeMs", 1_800_000L));
+        config.setConnectionTimeout(getLongProperty("db.pool.connectionTimeoutMs", 30_000L));
+
+        // --- Validation-on-borrow ---
+        config.setValidationTimeout(getLongProperty("db.pool.validationTimeoutMs", 5_000L));
+        String validationQuery = getProperty("db.pool.validationQuery", null);
+        if (validationQuery != null && !validationQuery.isEmpty()) {
+            config.setConnectionTestQuery(validationQuery);
+        }
+
+        // --- Leak detection (logs the borrower's stack trace when exceeded, 0 = off) ---
+        config.setLeakDetectionThreshold(getLongProperty("db.pool.leakDetectionThresholdMs", 0L));
+
+        // Do not fail class loading when the database is down; getConnection() reports it instead
+        config.setInitializationFailTimeout(-1);
+        config.setMetricsTrackerFactory(poolMetrics);
+
+        return new HikariDataSource(config);
     }
 
     public static void closeConnection(Connection connection) {
@@ -56,4 +149,68 @@ public class DatabaseConnection {
             return false;
         }
     }
+
+    /**
+     * Returns a snapshot of pool occupancy and borrow wait times.
+     */
+    public static ConnectionPoolStats getPoolStats() {
+        HikariDataSource ds = (HikariDataSource) getDataSource();
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+
+        int active = pool != null ? pool.getActiveConnections() : 0;
+        int idle = pool != null ? pool.getIdleConnections() : 0;
+        int total = pool != null ? pool.getTotalConnections() : 0;
+        int awaiting = pool != null ? pool.getThreadsAwaitingConnection() : 0;
+
+        return new ConnectionPoolStats(active, idle, total, awaiting,
+                ds.getMinimumIdle(), ds.getMaximumPoolSize(),
+                poolMetrics.getAcquireCount(), poolMetrics.getTimeoutCount(),
+                poolMetrics.getTotalWaitNanos(), poolMetrics.getMaxWaitNanos(),
+                poolMetrics.getTotalUsageMillis(), poolMetrics.getConnectionsCreated());
+    }
+
+    /**
+     * Closes every pooled connection. The next getConnection() call starts a fresh pool.
+     */
+    public static void shutdown() {
+        INIT_LOCK.lock();
+        try {
+            if (dataSource != null) {
+                dataSource.close();
+                dataSource = null;
+            }
+        } finally {
+            INIT_LOCK.unlock();
+        }
+    }
+
+    // --- Configuration helpers (system properties win over database.properties) ---
+
+    public static String getProperty(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = properties.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key, null);
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = getProperty(key, null);
+        try {
+            return value != null ? Long.parseLong(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
 }
@@ -0,0 +1,258 @@
+package com.railway.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashed timer wheel: one worker thread, a ring of buckets and no per-timeout scheduled task.
+ *
+ * The wheel turns one bucket per tick. A timeout is dropped into the bucket its deadline falls
+ * in, together with the number of full turns still to go, so scheduling and cancelling are O(1)
+ * and each tick only looks at one bucket. Deadlines are rounded up to the tick, which is fine for
+ * expiry-style timeouts (seat holds) and means hundreds of thousands of them cost one object each.
+ *
+ * schedule() and cancel() may be called from any thread; they go through lock-free queues that
+ * the worker drains at the start of every tick. Tasks run on the worker thread and must be short.
+ */
+public class HashedTimerWheel {
+
+    // Upper bound on new timeouts moved into the wheel per tick, so a burst can't stall expiry
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean stopped;
+    private long tick;
+
+    /**
+     * @param tickMillis resolution of the wheel
+     * @param wheelSize  number of buckets, rounded up to a power of two
+     */
+    public HashedTimerWheel(String name, long tickMillis, int wheelSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 20)) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and 2^20");
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * A scheduled task. Cancelling after it has run (or been cancelled) returns false.
+     */
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedTimerWheel timer;
+        private final Runnable task;
+        // Nanos since the wheel started
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedTimerWheel timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.cancellations.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    // Doubly linked list of timeouts; only ever touched by the worker thread
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+    }
+
+    // --- Scheduling ---
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("task is required");
+        }
+        if (stopped) {
+            throw new IllegalStateException("Timer wheel has been stopped");
+        }
+        long deadline = System.nanoTime() + Math.max(0L, unit.toNanos(delay)) - startNanos;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        additions.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Timeouts that have neither run nor been cancelled yet.
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the worker; timeouts that have not run yet are dropped.
+     */
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    // --- Worker ---
+
+    private void run() {
+        while (!stopped) {
+            if (!waitForNextTick()) {
+                break;
+            }
+            removeCancelled();
+            transferAdditions();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    // Sleeps until the end of the current tick; false if the wheel was stopped meanwhile
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancellations.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                pending.decrementAndGet();
+            }
+            // else: still in the additions queue; transferAdditions() drops it
+        }
+    }
+
+    private void transferAdditions() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = additions.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                pending.decrementAndGet();
+                continue;
+            }
+            long expiryTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+            // Already overdue: run it in the current bucket rather than a full turn later
+            long bucketTick = Math.max(expiryTick, tick);
+            wheel[(int) (bucketTick & mask)].add(timeout);
+        }
+    }
+
+    // Runs on the tick after the deadline's tick, so every timeout with no rounds left is due
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            if (timeout.remainingRounds <= 0) {
+                Timeout next = bucket.remove(timeout);
+                pending.decrementAndGet();
+                if (timeout.state.compareAndSet(Timeout.WAITING, Timeout.EXPIRED)) {
+                    try {
+                        timeout.task.run();
+                    } catch (Throwable t) {
+                        System.err.println("Timer task failed on " + worker.getName() + ": " + t);
+                    }
+                }
+                timeout = next;
+            } else if (timeout.isCancelled()) {
+                timeout = bucket.remove(timeout);
+                pending.decrementAndGet();
+            } else {
+                timeout.remainingRounds--;
+                timeout = timeout.next;
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.railway.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counts, latency and errors per REST endpoint, fed by the filters that wrap every request:
+ * RequestMetricsFilter on the servlet API and ReactiveMetricsFilter on the reactive port.
+ *
+ * An endpoint is the server ({@link #SERVLET} or {@link #REACTIVE}), the HTTP method and the route
+ * pattern that handled it (GET /api/bookings/{pnr}), so path variables do not make a new endpoint
+ * per PNR; requests no controller matched share one.
+ * The controllers catch their exceptions and turn them into status codes, so they report what they
+ * caught with {@link #recordError(Throwable)}; that is how a 409 is known to be a sold-out train
+ * (IllegalStateException) rather than something else.
+ */
+public final class HttpMetrics {
+
+    public static final String UNMATCHED_ROUTE = "(unmatched)";
+    public static final String SERVLET = "servlet";
+    public static final String REACTIVE = "reactive";
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    // The request the current thread is serving, for recordError
+    private static final ThreadLocal<Exchange> current = new ThreadLocal<>();
+
+    private HttpMetrics() {
+    }
+
+    /**
+     * Starts timing a request on the calling thread.
+     */
+    public static Exchange begin() {
+        Exchange exchange = new Exchange(System.nanoTime());
+        inFlight.incrementAndGet();
+        current.set(exchange);
+        return exchange;
+    }
+
+    /**
+     * Makes the calling thread serve an already started request, so recordError reaches it from
+     * work handed off to another thread. Pair with {@link #detach()}.
+     */
+    public static void attach(Exchange exchange) {
+        current.set(exchange);
+    }
+
+    /**
+     * Detaches the request from the calling thread; an async request is finished later with
+     * {@link #end} from whichever thread completes it.
+     */
+    public static void detach() {
+        current.remove();
+    }
+
+    /**
+     * Notes the exception the current request failed with. Called from the controllers' catch
+     * blocks; outside a request it does nothing.
+     */
+    public static void recordError(Throwable error) {
+        Exchange exchange = current.get();
+        if (exchange != null) {
+            exchange.error = error;
+        }
+    }
+
+    public static void end(Exchange exchange, String server, String method, String route, int status) {
+        inFlight.decrementAndGet();
+
+        String key = server + " " + method + " " + route;
+        EndpointStats stats = endpoints.get(key);
+        if (stats == null) {
+            stats = endpoints.computeIfAbsent(key, k -> new EndpointStats(server, method, route));
+        }
+        stats.latency.record(System.nanoTime() - exchange.start);
+        stats.statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (exchange.error != null) {
+            stats.errors.computeIfAbsent(exchange.error.getClass().getSimpleName(), e -> new LongAdder()).increment();
+        }
+    }
+
+    public static int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Every endpoint that has served a request, by route, method, then server.
+     */
+    public static List<EndpointStats> getEndpointStats() {
+        List<EndpointStats> list = new ArrayList<>(endpoints.values());
+        list.sort(Comparator.comparing(EndpointStats::getRoute).thenComparing(EndpointStats::getMethod)
+                .thenComparing(EndpointStats::getServer));
+        return list;
+    }
+
+    public static final class Exchange {
+        private final long start;
+        private volatile Throwable error;
+
+        private Exchange(long start) {
+            this.start = start;
+        }
+
+        /**
+         * Notes an exception that escaped the controller, unless one was already recorded.
+         */
+        public void failed(Throwable error) {
+            if (this.error == null) {
+                this.error = error;
+            }
+        }
+    }
+
+    public static final class EndpointStats {
+        private final String server;
+        private final String method;
+        private final String route;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        EndpointStats(String server, String method, String route) {
+            this.server = server;
+            this.method = method;
+            this.route = route;
+        }
+
+        public String getServer() { return server; }
+        public String getMethod() { return method; }
+        public String getRoute() { return route; }
+        public LatencyHistogram getLatency() { return latency; }
+
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+
+        public Map<String, Long> getErrorCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            errors.forEach((type, count) -> counts.put(type, count.sum()));
+            return counts;
+        }
+    }
+}
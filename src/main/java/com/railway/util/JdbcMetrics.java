@@ -0,0 +1,487 @@
+package com.railway.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Statement-level metrics for every connection DatabaseConnection hands out.
+ *
+ * Each statement (by its SQL, whitespace and IN lists normalized) gets a latency histogram,
+ * error count and the rows it returned or changed. Latency is the time execute*() takes, i.e.
+ * until the first rows are in; reading the rest of a streamed result is not included. The time
+ * to borrow a connection from the pool is recorded, and so is every transaction, from its first
+ * statement to commit or rollback, under the outermost DAO method that ran it
+ * (BookingDAO.bookTicket, BookingDAO.cancelTicket, UserDAO.registerUser, ...).
+ *
+ * Statements slower than jdbc.slowQueryMs, and statements that fail, are logged with their bind
+ * parameters; parameters bound to a column named in jdbc.redactColumns (Login.Password by
+ * default) are logged as &lt;redacted&gt;.
+ */
+public final class JdbcMetrics {
+
+    private static final String DAO_PACKAGE = "com.railway.dao.";
+    private static final String OTHER = "(other statements)";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern INSERT = Pattern.compile(
+            "(?is)\\s*INSERT\\s+INTO\\s+[\\w\\[\\]`.]+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\((.*)\\)\\s*");
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+            "([\\w\\]`]+)\\s*(?:=|<>|!=|<=|>=|<|>|\\s(?i:LIKE))\\s*$");
+    private static final Pattern LAMBDA = Pattern.compile("lambda\\$(.+)\\$\\d+");
+    private static final int MAX_LOGGED_VALUE = 100;
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(DatabaseConnection.getProperty("jdbc.metrics.enabled", "true"));
+    private static final long SLOW_QUERY_NANOS = DatabaseConnection.getLongProperty("jdbc.slowQueryMs", 500L) * 1_000_000L;
+    private static final Set<String> REDACTED_COLUMNS = columnSet(DatabaseConnection.getProperty("jdbc.redactColumns", "Password"));
+    private static final int MAX_STATEMENTS = DatabaseConnection.getIntProperty("jdbc.metrics.maxStatements", 500);
+
+    private static final StackWalker STACK = StackWalker.getInstance();
+    private static final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private static final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private static final Map<String, TransactionStats> transactions = new ConcurrentHashMap<>();
+    // Most DAO SQL is a constant string, so the normalized form is worked out once per string
+    private static final Map<String, TrackedSql> bySql = new ConcurrentHashMap<>();
+
+    private JdbcMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Wraps a connection just taken from the pool, which took {@code acquireNanos} to get.
+     */
+    static Connection instrument(Connection connection, long acquireNanos) throws SQLException {
+        connectionAcquire.record(acquireNanos);
+        return (Connection) Proxy.newProxyInstance(JdbcMetrics.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    // --- Snapshots for the metrics endpoint ---
+
+    public static LatencyHistogram getConnectionAcquire() {
+        return connectionAcquire;
+    }
+
+    /**
+     * Every statement seen so far, the most total time first.
+     */
+    public static List<StatementStats> getStatementStats() {
+        List<StatementStats> list = new ArrayList<>(statements.values());
+        list.sort(Comparator.comparingDouble((StatementStats s) -> s.latency.getTotalMillis()).reversed());
+        return list;
+    }
+
+    public static List<TransactionStats> getTransactionStats() {
+        List<TransactionStats> list = new ArrayList<>(transactions.values());
+        list.sort(Comparator.comparing(TransactionStats::getName));
+        return list;
+    }
+
+    public static final class StatementStats {
+        private final String sql;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder rowsChanged = new LongAdder();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() { return sql; }
+        public LatencyHistogram getLatency() { return latency; }
+        public long getErrors() { return errors.sum(); }
+        public long getSlow() { return slow.sum(); }
+        public long getRowsRead() { return rowsRead.sum(); }
+        public long getRowsChanged() { return rowsChanged.sum(); }
+    }
+
+    public static final class TransactionStats {
+        private final String name;
+        private final LatencyHistogram duration = new LatencyHistogram();
+        private final LongAdder committed = new LongAdder();
+        private final LongAdder rolledBack = new LongAdder();
+
+        TransactionStats(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public LatencyHistogram getDuration() { return duration; }
+        public long getCommitted() { return committed.sum(); }
+        public long getRolledBack() { return rolledBack.sum(); }
+    }
+
+    // --- Statement lookup and parameter redaction ---
+
+    private static final class TrackedSql {
+        final StatementStats stats;
+        final boolean[] redacted;
+
+        TrackedSql(StatementStats stats, boolean[] redacted) {
+            this.stats = stats;
+            this.redacted = redacted;
+        }
+    }
+
+    private static TrackedSql track(String sql) {
+        TrackedSql tracked = bySql.get(sql);
+        if (tracked != null) {
+            return tracked;
+        }
+        String key = IN_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("IN (?...)");
+        StatementStats stats = statements.get(key);
+        if (stats == null) {
+            // Bounded, in case some caller builds SQL with literal values in it
+            stats = statements.size() < MAX_STATEMENTS
+                    ? statements.computeIfAbsent(key, StatementStats::new)
+                    : statements.computeIfAbsent(OTHER, StatementStats::new);
+        }
+        tracked = new TrackedSql(stats, redactedParameters(sql, REDACTED_COLUMNS));
+        if (bySql.size() < MAX_STATEMENTS * 4) {
+            bySql.putIfAbsent(sql, tracked);
+        }
+        return tracked;
+    }
+
+    /**
+     * Which parameters (0-based) are bound to one of {@code columns}: the placeholders of an
+     * INSERT ... VALUES by position, any other placeholder by the column it is compared with
+     * or assigned to (Password = ?, l.Password = ?).
+     */
+    static boolean[] redactedParameters(String sql, Set<String> columns) {
+        List<String> parameterColumns = new ArrayList<>();
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.matches()) {
+            String[] names = insert.group(1).split(",");
+            String[] values = insert.group(2).split(",");
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].trim().equals("?")) {
+                    parameterColumns.add(i < names.length ? bareColumn(names[i]) : null);
+                }
+            }
+        } else {
+            boolean inLiteral = false;
+            for (int i = 0; i < sql.length(); i++) {
+                char c = sql.charAt(i);
+                if (c == '\'') {
+                    inLiteral = !inLiteral;
+                } else if (c == '?' && !inLiteral) {
+                    Matcher compared = COMPARED_COLUMN.matcher(sql.substring(Math.max(0, i - 200), i));
+                    parameterColumns.add(compared.find() ? bareColumn(compared.group(1)) : null);
+                }
+            }
+        }
+        boolean[] redacted = new boolean[parameterColumns.size()];
+        for (int i = 0; i < redacted.length; i++) {
+            String column = parameterColumns.get(i);
+            redacted[i] = column != null && columns.contains(column.toLowerCase(Locale.ROOT));
+        }
+        return redacted;
+    }
+
+    private static String bareColumn(String name) {
+        String bare = name.trim();
+        bare = bare.substring(bare.lastIndexOf('.') + 1);
+        return bare.replace("[", "").replace("]", "").replace("`", "");
+    }
+
+    private static Set<String> columnSet(String list) {
+        Set<String> set = new HashSet<>();
+        for (String column : list.split(",")) {
+            if (!column.trim().isEmpty()) {
+                set.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return set;
+    }
+
+    // --- Logging ---
+
+    private static void log(String what, long nanos, TrackedSql tracked, Object[] params, int batchSize,
+                            SQLException error) {
+        StringBuilder line = new StringBuilder(what).append(" SQL (")
+                .append(String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0)).append(" ms")
+                .append(batchSize > 1 ? ", batch of " + batchSize : "").append(") in ")
+                .append(innermostDaoMethod()).append(": ").append(tracked.stats.sql);
+        if (params.length > 0) {
+            line.append(" [");
+            for (int i = 0; i < params.length; i++) {
+                line.append(i > 0 ? ", " : "").append(i + 1).append('=');
+                line.append(i < tracked.redacted.length && tracked.redacted[i] ? "<redacted>" : format(params[i]));
+            }
+            line.append(']');
+        }
+        if (error != null) {
+            line.append(": ").append(error.getMessage());
+        }
+        System.err.println(line);
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_LOGGED_VALUE) {
+            text = text.substring(0, MAX_LOGGED_VALUE) + "...";
+        }
+        return value instanceof Number || value instanceof Boolean ? text : "'" + text + "'";
+    }
+
+    private static String innermostDaoMethod() {
+        return STACK.walk(frames -> frames.filter(f -> f.getClassName().startsWith(DAO_PACKAGE))
+                .findFirst().map(JdbcMetrics::methodName).orElse("(outside the DAOs)"));
+    }
+
+    private static String outermostDaoMethod() {
+        return STACK.walk(frames -> frames.filter(f -> f.getClassName().startsWith(DAO_PACKAGE))
+                .reduce((inner, outer) -> outer).map(JdbcMetrics::methodName).orElse("(outside the DAOs)"));
+    }
+
+    private static String methodName(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1).split("\\$")[0];
+        Matcher lambda = LAMBDA.matcher(frame.getMethodName());
+        return simpleName + "." + (lambda.matches() ? lambda.group(1) : frame.getMethodName());
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // --- Proxies ---
+
+    // Tracks the open transaction; a connection is only used by one thread at a time
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private boolean autoCommit;
+        private long transactionStart;
+        private String transactionName;
+
+        ConnectionHandler(Connection target) throws SQLException {
+            this.target = target;
+            this.autoCommit = target.getAutoCommit();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                case "prepareCall": {
+                    Statement statement = (Statement) call(target, method, args);
+                    return statement(statement, track((String) args[0]));
+                }
+                case "createStatement":
+                    return statement((Statement) call(target, method, args), null);
+                case "setAutoCommit": {
+                    call(target, method, args);
+                    boolean on = (Boolean) args[0];
+                    if (on && !autoCommit) {
+                        // Turning auto-commit back on commits
+                        endTransaction(true);
+                    }
+                    autoCommit = on;
+                    return null;
+                }
+                case "commit":
+                    call(target, method, args);
+                    endTransaction(true);
+                    return null;
+                case "rollback":
+                    call(target, method, args);
+                    if (args == null) {
+                        endTransaction(false);
+                    }
+                    return null;
+                case "close":
+                    // The pool rolls back whatever was left uncommitted
+                    endTransaction(false);
+                    return call(target, method, args);
+                default:
+                    return call(target, method, args);
+            }
+        }
+
+        void beforeExecute() {
+            if (!autoCommit && transactionStart == 0) {
+                transactionStart = System.nanoTime();
+                transactionName = outermostDaoMethod();
+            }
+        }
+
+        private void endTransaction(boolean committed) {
+            if (transactionStart == 0) {
+                return;
+            }
+            TransactionStats stats = transactions.computeIfAbsent(transactionName, TransactionStats::new);
+            stats.duration.record(System.nanoTime() - transactionStart);
+            (committed ? stats.committed : stats.rolledBack).increment();
+            transactionStart = 0;
+        }
+
+        private Statement statement(Statement statement, TrackedSql prepared) {
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(JdbcMetrics.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(this, statement, prepared));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private static final Object[] NO_PARAMS = {};
+
+        private final ConnectionHandler connection;
+        private final Statement target;
+        private final TrackedSql prepared;
+        private Object[] params = NO_PARAMS;
+        private Object[] firstBatch;
+        private int batchSize;
+
+        StatementHandler(ConnectionHandler connection, Statement target, TrackedSql prepared) {
+            this.connection = connection;
+            this.target = target;
+            this.prepared = prepared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (prepared != null && name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer && method.getDeclaringClass() != Statement.class) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                params = NO_PARAMS;
+            } else if (name.equals("addBatch") && args == null) {
+                if (firstBatch == null) {
+                    firstBatch = params.clone();
+                }
+                batchSize++;
+            } else if (name.equals("clearBatch")) {
+                firstBatch = null;
+                batchSize = 0;
+            } else if (name.startsWith("execute")) {
+                TrackedSql tracked = prepared != null ? prepared
+                        : args != null && args.length > 0 && args[0] instanceof String ? track((String) args[0]) : null;
+                if (tracked != null) {
+                    return execute(tracked, method, args);
+                }
+            } else if (name.equals("getResultSet")) {
+                ResultSet rs = (ResultSet) call(target, method, args);
+                return rs != null && prepared != null ? countRows(rs, prepared.stats) : rs;
+            }
+            return call(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (index > params.length) {
+                params = Arrays.copyOf(params, Math.max(index, params.length * 2));
+            }
+            params[index - 1] = value;
+        }
+
+        private Object execute(TrackedSql tracked, Method method, Object[] args) throws Throwable {
+            connection.beforeExecute();
+            Object[] logged = firstBatch != null ? firstBatch : params;
+            int batch = batchSize;
+            firstBatch = null;
+            batchSize = 0;
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (SQLException e) {
+                long elapsed = System.nanoTime() - start;
+                tracked.stats.latency.record(elapsed);
+                tracked.stats.errors.increment();
+                log("Failed", elapsed, tracked, logged, batch, e);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            tracked.stats.latency.record(elapsed);
+            if (SLOW_QUERY_NANOS >= 0 && elapsed >= SLOW_QUERY_NANOS) {
+                tracked.stats.slow.increment();
+                log("Slow", elapsed, tracked, logged, batch, null);
+            }
+
+            if (result instanceof ResultSet) {
+                return countRows((ResultSet) result, tracked.stats);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                tracked.stats.rowsChanged.add(Math.max(0L, ((Number) result).longValue()));
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    tracked.stats.rowsChanged.add(Math.max(0, count));
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    tracked.stats.rowsChanged.add(Math.max(0L, count));
+                }
+            }
+            return result;
+        }
+
+        private ResultSet countRows(ResultSet rs, StatementStats stats) {
+            InvocationHandler handler = new InvocationHandler() {
+                private long rows;
+                private boolean counted;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if (name.equals("next")) {
+                        boolean more = (Boolean) call(rs, method, args);
+                        if (more) {
+                            rows++;
+                        } else {
+                            flush();
+                        }
+                        return more;
+                    }
+                    if (name.equals("close")) {
+                        flush();
+                    }
+                    return call(rs, method, args);
+                }
+
+                private void flush() {
+                    if (!counted) {
+                        counted = true;
+                        stats.rowsRead.add(rows);
+                    }
+                }
+            };
+            return (ResultSet) Proxy.newProxyInstance(JdbcMetrics.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, handler);
+        }
+    }
+}
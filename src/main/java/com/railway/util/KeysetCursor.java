@@ -0,0 +1,54 @@
+package com.railway.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursors for keyset pagination: the sort key of the last row of a page, encoded as a
+ * URL-safe string. A null value survives the round trip.
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '\n';
+    private static final String NULL = "\u0000";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(String... values) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                key.append(SEPARATOR);
+            }
+            key.append(values[i] != null ? values[i] : NULL);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The values of a cursor made by encode() with {@code parts} values.
+     * Throws IllegalArgumentException for anything else.
+     */
+    public static String[] decode(String cursor, int parts) {
+        if (cursor.isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        String[] values = key.split(String.valueOf(SEPARATOR), -1);
+        if (values.length != parts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (NULL.equals(values[i])) {
+                values[i] = null;
+            }
+        }
+        return values;
+    }
+}
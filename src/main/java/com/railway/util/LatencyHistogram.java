@@ -0,0 +1,115 @@
+package com.railway.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution with fixed buckets, recorded into from any number of threads without
+ * locking (one LongAdder per bucket, like ConnectionPoolMetrics).
+ *
+ * Bucket upper bounds run from 100 µs to 10 s in 1 / 2.5 / 5 steps; the last bucket takes
+ * everything slower. Percentiles are the upper bound of the bucket they fall in (capped at the
+ * slowest value seen), so they are accurate to a bucket, which is plenty to tell a 2 ms
+ * statement from a 40 ms one.
+ */
+public final class LatencyHistogram {
+
+    private static final long[] BOUNDS_MICROS = {
+            100, 250, 500,
+            1_000, 2_500, 5_000,
+            10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000,
+            10_000_000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MICROS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int bucket = 0;
+        while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        if (nanos > maxNanos.get()) {
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    public long getCount() { return count.sum(); }
+
+    public double getTotalMillis() { return totalNanos.sum() / 1_000_000.0; }
+
+    public double getAverageMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    public double getP50Millis() { return percentileMillis(0.50); }
+
+    public double getP95Millis() { return percentileMillis(0.95); }
+
+    public double getP99Millis() { return percentileMillis(0.99); }
+
+    public double getP999Millis() { return percentileMillis(0.999); }
+
+    public double getMaxMillis() { return maxNanos.get() / 1_000_000.0; }
+
+    /**
+     * The latency {@code fraction} (0..1) of the recorded values are at or below.
+     */
+    public double percentileMillis(double fraction) {
+        long[] counts = bucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        double max = getMaxMillis();
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return i < BOUNDS_MICROS.length ? Math.min(BOUNDS_MICROS[i] / 1_000.0, max) : max;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Values per bucket (not cumulative); the last entry counts values above the last bound.
+     */
+    public long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Upper bound of each bucket but the last, in seconds.
+     */
+    public static double[] bucketBoundsSeconds() {
+        double[] bounds = new double[BOUNDS_MICROS.length];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = BOUNDS_MICROS[i] / 1_000_000.0;
+        }
+        return bounds;
+    }
+}
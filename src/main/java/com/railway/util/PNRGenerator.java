@@ -1,27 +1,246 @@
 package com.railway.util;
 
-import java.util.Random;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Generates unique, time-ordered, checksummed PNRs without a database round trip.
+ *
+ * A PNR is 10 characters of Crockford base-32 (well within the VARCHAR(50) PNR columns):
+ * 9 characters carry a 45-bit Snowflake-style id, the 10th is a Luhn mod-32 check character.
+ *
+ *   45-bit id = [30 bits: seconds since 2025-01-01 UTC][4 bits: node][11 bits: sequence]
+ *
+ * The (seconds, sequence) pair lives in one AtomicLong and is advanced with a CAS, so callers never
+ * block and never share a Random. When more than 2048 PNRs are requested within one second the
+ * sequence carries into the next second (borrowing from the future), which keeps ids unique and
+ * ordered; the clock catches up once the burst is over. A clock that steps backwards is ignored
+ * for the same reason.
+ *
+ * So that a restart never reissues an id borrowed from a second the clock has not reached yet,
+ * ids are only issued up to a high-water second saved in pnr.highWater.path. The file is written
+ * (and forced to disk) before the first id past it, reserving a minute at a time, and a new
+ * run starts after the second it holds. Each instance needs its own file. With the path empty
+ * nothing is saved and a new run starts from the clock.
+ *
+ * Each application instance that books tickets against the same database needs its own node id
+ * (0-15), set with pnr.node.id in database.properties or -Dpnr.node.id. The 30-bit timestamp
+ * lasts until 2059.
+ */
 public class PNRGenerator {
-    
-    private static final String PREFIX = "PNR"; // 3 chars
-    private static final Random random = new Random();
+
+    public static final int PNR_LENGTH = 10;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int RADIX = ALPHABET.length;           // 32
+    private static final int PAYLOAD_CHARS = PNR_LENGTH - 1;    // 9 chars = 45 bits
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < RADIX; i++) {
+            DECODE[ALPHABET[i]] = i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+    }
+
+    private static final int SEQUENCE_BITS = 11;
+    private static final int NODE_BITS = 4;
+    private static final int TIME_BITS = 30;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    // 2025-01-01T00:00:00Z
+    private static final long EPOCH_SECONDS = 1735689600L;
+
+    private static final long NODE_ID = readNodeId();
+
+    // Seconds reserved per write of the high-water mark
+    private static final long RESERVE_SECONDS = 60;
+
+    // null = the high-water mark is not saved
+    private static final Path HIGH_WATER_PATH = readHighWaterPath();
+    // File I/O happens under this lock; a monitor would pin a virtual thread's carrier meanwhile
+    private static final ReentrantLock highWaterLock = new ReentrantLock();
+    // Last second (since EPOCH) ids may be issued for; only raised once it has been saved
+    private static volatile long reservedUntil;
+
+    // (seconds since EPOCH << SEQUENCE_BITS) | sequence of the last issued id
+    private static final AtomicLong lastTick;
+
+    static {
+        long resumeAfter = readHighWater();
+        reservedUntil = HIGH_WATER_PATH != null ? resumeAfter : Long.MAX_VALUE;
+        lastTick = new AtomicLong(Math.max(currentSeconds(), resumeAfter + 1) << SEQUENCE_BITS);
+    }
+
+    private static long readNodeId() {
+        long node = DatabaseConnection.getIntProperty("pnr.node.id", 0);
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalStateException("pnr.node.id must be between 0 and " + MAX_NODE + ", got " + node);
+        }
+        return node;
+    }
+
+    private static Path readHighWaterPath() {
+        String path = DatabaseConnection.getProperty("pnr.highWater.path", "data/pnr-high-water");
+        return path.isEmpty() ? null : Paths.get(path);
+    }
+
+    // The saved high-water second (since EPOCH), or -1 if there is none
+    private static long readHighWater() {
+        if (HIGH_WATER_PATH == null || !Files.exists(HIGH_WATER_PATH)) {
+            return -1;
+        }
+        try {
+            String saved = new String(Files.readAllBytes(HIGH_WATER_PATH), StandardCharsets.US_ASCII).trim();
+            return Long.parseLong(saved) - EPOCH_SECONDS;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("PNR high-water mark " + HIGH_WATER_PATH + " is unreadable, starting from the clock: " +
+                    e.getMessage());
+            return -1;
+        }
+    }
+
+    private static long currentSeconds() {
+        return System.currentTimeMillis() / 1000L - EPOCH_SECONDS;
+    }
 
     /**
-     * FIXED: Generates a shorter PNR to fit inside VARCHAR(10).
-     * Old logic: PNR + Timestamp (13) + Random (3) = 19 chars (Too Long)
-     * New logic: PNR + Random (6) = 9 chars (Fits perfectly)
+     * Returns a new PNR, e.g. "0F3K9ZQ21M". Safe to call from any number of threads.
      */
     public static String generatePNR() {
-        // Generate a random 6-digit number (100000 to 999999)
-        int randomNum = 100000 + random.nextInt(900000);
-        
-        // Example Result: "PNR123456" (9 Characters)
-        return PREFIX + randomNum;
+        long now = currentSeconds() << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = lastTick.get();
+            next = Math.max(prev + 1, now);
+            if ((next >>> SEQUENCE_BITS) > reservedUntil) {
+                reserve(next >>> SEQUENCE_BITS);
+            }
+        } while (!lastTick.compareAndSet(prev, next));
+
+        long seconds = next >>> SEQUENCE_BITS;
+        if (seconds >>> TIME_BITS != 0) {
+            throw new IllegalStateException("PNR timestamp space exhausted");
+        }
+        long id = (seconds << (NODE_BITS + SEQUENCE_BITS))
+                | (NODE_ID << SEQUENCE_BITS)
+                | (next & SEQUENCE_MASK);
+        return encode(id);
+    }
+
+    // Saves a new high-water mark covering the second before any id in it is issued. A failed
+    // write is logged, not thrown (as for the seat hold journal): only a restart is affected by it
+    private static void reserve(long second) {
+        highWaterLock.lock();
+        try {
+            if (second <= reservedUntil) {
+                return;
+            }
+            long until = second + RESERVE_SECONDS;
+            try {
+                Path parent = HIGH_WATER_PATH.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Path temp = HIGH_WATER_PATH.resolveSibling(HIGH_WATER_PATH.getFileName() + ".tmp");
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    channel.write(ByteBuffer.wrap(Long.toString(until + EPOCH_SECONDS).getBytes(StandardCharsets.US_ASCII)));
+                    channel.force(true);
+                }
+                Files.move(temp, HIGH_WATER_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("PNR high-water mark could not be saved, a restart may reissue PNRs: " + e.getMessage());
+            }
+            reservedUntil = until;
+        } finally {
+            highWaterLock.unlock();
+        }
     }
 
     // Keeping this method just in case other parts of the app use it
     public static String generateSimplePNR() {
         return generatePNR();
     }
+
+    /**
+     * Checks length, alphabet and check character. Legacy PNRs (e.g. "PNR001") are not valid.
+     */
+    public static boolean isValid(String pnr) {
+        if (pnr == null || pnr.length() != PNR_LENGTH) {
+            return false;
+        }
+        int check = decodeChar(pnr.charAt(PAYLOAD_CHARS));
+        return check >= 0 && checkCharacter(pnr) == check;
+    }
+
+    /**
+     * Epoch second at which a valid PNR was issued (useful for support and auditing).
+     */
+    public static long issuedAtEpochSecond(String pnr) {
+        if (!isValid(pnr)) {
+            throw new IllegalArgumentException("Invalid PNR: " + pnr);
+        }
+        long id = 0;
+        for (int i = 0; i < PAYLOAD_CHARS; i++) {
+            id = id * RADIX + decodeChar(pnr.charAt(i));
+        }
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_SECONDS;
+    }
+
+    // --- Encoding helpers ---
+
+    // Writes the 9 payload characters right to left and folds each digit into the check sum,
+    // so the only allocations are the char[] and the resulting String.
+    private static String encode(long id) {
+        char[] chars = new char[PNR_LENGTH];
+        int factor = 2;
+        int sum = 0;
+        for (int i = PAYLOAD_CHARS - 1; i >= 0; i--) {
+            int digit = (int) (id & (RADIX - 1));
+            id >>>= 5;
+            chars[i] = ALPHABET[digit];
+            int addend = factor * digit;
+            factor = 3 - factor;
+            sum += addend / RADIX + addend % RADIX;
+        }
+        chars[PAYLOAD_CHARS] = ALPHABET[(RADIX - sum % RADIX) % RADIX];
+        return new String(chars);
+    }
+
+    /**
+     * Luhn mod N check value over the payload characters, or -1 if one is not base-32.
+     * Catches every single-character error and most adjacent transpositions.
+     */
+    private static int checkCharacter(CharSequence pnr) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = PAYLOAD_CHARS - 1; i >= 0; i--) {
+            int digit = decodeChar(pnr.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            int addend = factor * digit;
+            factor = 3 - factor;
+            sum += addend / RADIX + addend % RADIX;
+        }
+        return (RADIX - sum % RADIX) % RADIX;
+    }
+
+    private static int decodeChar(char c) {
+        return c < DECODE.length ? DECODE[c] : -1;
+    }
 }
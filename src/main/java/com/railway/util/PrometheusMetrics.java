@@ -0,0 +1,213 @@
+package com.railway.util;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders HttpMetrics, JdbcMetrics, the connection pool and the JVM in the Prometheus text
+ * exposition format (version 0.0.4) for GET /metrics.
+ *
+ * Latencies are exported as histograms over the LatencyHistogram buckets, so percentiles across
+ * instances come from histogram_quantile(); the per-instance p50/p99/p999 are on
+ * /api/metrics/http. Nothing here is computed until a scrape asks for it.
+ */
+public final class PrometheusMetrics {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] BOUNDS = LatencyHistogram.bucketBoundsSeconds();
+
+    private PrometheusMetrics() {
+    }
+
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        http(out);
+        jdbc(out);
+        pool(out);
+        jvm(out);
+        return out.toString();
+    }
+
+    private static void http(StringBuilder out) {
+        header(out, "railway_http_requests_in_flight", "gauge", "Requests being served right now");
+        sample(out, "railway_http_requests_in_flight", "", HttpMetrics.getInFlight());
+
+        header(out, "railway_http_requests_total", "counter", "Requests served, by endpoint and status code");
+        for (HttpMetrics.EndpointStats stats : HttpMetrics.getEndpointStats()) {
+            for (Map.Entry<Integer, Long> status : stats.getStatusCounts().entrySet()) {
+                sample(out, "railway_http_requests_total",
+                        labels("server", stats.getServer(), "method", stats.getMethod(), "route", stats.getRoute(),
+                                "status", String.valueOf(status.getKey())), status.getValue());
+            }
+        }
+
+        header(out, "railway_http_request_errors_total", "counter",
+                "Requests that failed, by endpoint and the exception the controller caught");
+        for (HttpMetrics.EndpointStats stats : HttpMetrics.getEndpointStats()) {
+            for (Map.Entry<String, Long> error : stats.getErrorCounts().entrySet()) {
+                sample(out, "railway_http_request_errors_total",
+                        labels("server", stats.getServer(), "method", stats.getMethod(), "route", stats.getRoute(),
+                                "exception", error.getKey()), error.getValue());
+            }
+        }
+
+        header(out, "railway_http_request_duration_seconds", "histogram", "Time to serve a request, by endpoint");
+        for (HttpMetrics.EndpointStats stats : HttpMetrics.getEndpointStats()) {
+            histogram(out, "railway_http_request_duration_seconds",
+                    labels("server", stats.getServer(), "method", stats.getMethod(), "route", stats.getRoute()),
+                    stats.getLatency());
+        }
+    }
+
+    private static void jdbc(StringBuilder out) {
+        long executed = 0;
+        long errors = 0;
+        long slow = 0;
+        for (JdbcMetrics.StatementStats stats : JdbcMetrics.getStatementStats()) {
+            executed += stats.getLatency().getCount();
+            errors += stats.getErrors();
+            slow += stats.getSlow();
+        }
+        header(out, "railway_jdbc_statements_total", "counter", "SQL statements executed");
+        sample(out, "railway_jdbc_statements_total", "", executed);
+        header(out, "railway_jdbc_statement_errors_total", "counter", "SQL statements that threw");
+        sample(out, "railway_jdbc_statement_errors_total", "", errors);
+        header(out, "railway_jdbc_slow_statements_total", "counter", "SQL statements slower than jdbc.slowQueryMs");
+        sample(out, "railway_jdbc_slow_statements_total", "", slow);
+
+        header(out, "railway_jdbc_connection_acquire_seconds", "histogram", "Time to borrow a pooled connection");
+        histogram(out, "railway_jdbc_connection_acquire_seconds", "", JdbcMetrics.getConnectionAcquire());
+
+        header(out, "railway_jdbc_transactions_total", "counter", "DAO transactions, by DAO method and outcome");
+        for (JdbcMetrics.TransactionStats stats : JdbcMetrics.getTransactionStats()) {
+            sample(out, "railway_jdbc_transactions_total",
+                    labels("transaction", stats.getName(), "outcome", "commit"), stats.getCommitted());
+            sample(out, "railway_jdbc_transactions_total",
+                    labels("transaction", stats.getName(), "outcome", "rollback"), stats.getRolledBack());
+        }
+        header(out, "railway_jdbc_transaction_duration_seconds", "histogram", "Time a DAO transaction stayed open");
+        for (JdbcMetrics.TransactionStats stats : JdbcMetrics.getTransactionStats()) {
+            histogram(out, "railway_jdbc_transaction_duration_seconds",
+                    labels("transaction", stats.getName()), stats.getDuration());
+        }
+    }
+
+    private static void pool(StringBuilder out) {
+        ConnectionPoolStats stats;
+        try {
+            stats = DatabaseConnection.getPoolStats();
+        } catch (RuntimeException e) {
+            // No pool yet (database unreachable); the rest of the scrape is still useful
+            return;
+        }
+        header(out, "railway_db_pool_connections", "gauge", "Pooled connections, by state");
+        sample(out, "railway_db_pool_connections", labels("state", "active"), stats.getActiveConnections());
+        sample(out, "railway_db_pool_connections", labels("state", "idle"), stats.getIdleConnections());
+        header(out, "railway_db_pool_max_connections", "gauge", "db.pool.maxSize");
+        sample(out, "railway_db_pool_max_connections", "", stats.getMaxPoolSize());
+        header(out, "railway_db_pool_threads_awaiting", "gauge", "Threads waiting for a pooled connection");
+        sample(out, "railway_db_pool_threads_awaiting", "", stats.getThreadsAwaiting());
+        header(out, "railway_db_pool_acquire_timeouts_total", "counter", "Connection requests that timed out");
+        sample(out, "railway_db_pool_acquire_timeouts_total", "", stats.getTimeoutCount());
+    }
+
+    private static void jvm(StringBuilder out) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        header(out, "jvm_memory_used_bytes", "gauge", "Memory in use");
+        sample(out, "jvm_memory_used_bytes", labels("area", "heap"), heap.getUsed());
+        sample(out, "jvm_memory_used_bytes", labels("area", "nonheap"), nonHeap.getUsed());
+        header(out, "jvm_memory_committed_bytes", "gauge", "Memory committed by the JVM");
+        sample(out, "jvm_memory_committed_bytes", labels("area", "heap"), heap.getCommitted());
+        sample(out, "jvm_memory_committed_bytes", labels("area", "nonheap"), nonHeap.getCommitted());
+        header(out, "jvm_memory_max_bytes", "gauge", "Most memory the JVM will use (-1 = no limit)");
+        sample(out, "jvm_memory_max_bytes", labels("area", "heap"), heap.getMax());
+
+        header(out, "jvm_gc_collections_total", "counter", "Garbage collections, by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample(out, "jvm_gc_collections_total", labels("gc", gc.getName()), Math.max(0, gc.getCollectionCount()));
+        }
+        header(out, "jvm_gc_collection_seconds_total", "counter", "Time spent in garbage collection, by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample(out, "jvm_gc_collection_seconds_total", labels("gc", gc.getName()),
+                    Math.max(0, gc.getCollectionTime()) / 1_000.0);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        header(out, "jvm_threads", "gauge", "Platform threads, by kind");
+        sample(out, "jvm_threads", labels("kind", "live"), threads.getThreadCount());
+        sample(out, "jvm_threads", labels("kind", "daemon"), threads.getDaemonThreadCount());
+        sample(out, "jvm_threads", labels("kind", "peak"), threads.getPeakThreadCount());
+
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        header(out, "jvm_classes_loaded", "gauge", "Classes currently loaded");
+        sample(out, "jvm_classes_loaded", "", classes.getLoadedClassCount());
+
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            header(out, "process_cpu_seconds_total", "counter", "CPU time used by this process");
+            sample(out, "process_cpu_seconds_total", "",
+                    ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime() / 1e9);
+        }
+        header(out, "system_load_average_1m", "gauge", "System load average over the last minute (-1 = unknown)");
+        sample(out, "system_load_average_1m", "", os.getSystemLoadAverage());
+        header(out, "process_uptime_seconds", "gauge", "Time since the JVM started");
+        sample(out, "process_uptime_seconds", "", ManagementFactory.getRuntimeMXBean().getUptime() / 1_000.0);
+    }
+
+    // --- Text format ---
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(String.format(Locale.ROOT, "%.6f", value));
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Cumulative buckets as Prometheus expects them; the count is the sum of the buckets read,
+     * so +Inf and _count always agree even while requests are being recorded.
+     */
+    private static void histogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        long[] counts = histogram.bucketCounts();
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String le = i < BOUNDS.length ? String.valueOf(BOUNDS[i]) : "+Inf";
+            sample(out, name + "_bucket", prefix + "le=\"" + le + "\"}", cumulative);
+        }
+        sample(out, name + "_sum", labels, histogram.getTotalMillis() / 1_000.0);
+        sample(out, name + "_count", labels, cumulative);
+    }
+
+    private static String labels(String... namesAndValues) {
+        StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(namesAndValues[i]).append("=\"").append(escape(namesAndValues[i + 1])).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,90 @@
+package com.railway.util;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pooled non-blocking (R2DBC) connections for the reactive API, the counterpart of
+ * DatabaseConnection. The database is given by r2dbc.url in database.properties, e.g.
+ * r2dbc:mssql://localhost:1433/RailwaySystem or r2dbc:mariadb://localhost:3306/RailwaySystem
+ * (the MariaDB driver also talks to MySQL). User name and password default to db.username and
+ * db.password.
+ */
+public class ReactiveDatabaseConnection {
+
+    private static volatile ConnectionPool pool;
+    private static final ReentrantLock INIT_LOCK = new ReentrantLock();
+
+    private ReactiveDatabaseConnection() {
+    }
+
+    /**
+     * Returns the shared pool, creating it on first use. Connections taken from it go back to
+     * the pool when closed.
+     */
+    public static ConnectionFactory getConnectionFactory() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            INIT_LOCK.lock();
+            try {
+                p = pool;
+                if (p == null) {
+                    p = createPool();
+                    pool = p;
+                }
+            } finally {
+                INIT_LOCK.unlock();
+            }
+        }
+        return p;
+    }
+
+    private static ConnectionPool createPool() {
+        String url = DatabaseConnection.getProperty("r2dbc.url", null);
+        if (url == null || url.isEmpty()) {
+            throw new IllegalStateException("r2dbc.url is not configured");
+        }
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        String username = DatabaseConnection.getProperty("r2dbc.username",
+                DatabaseConnection.getProperty("db.username", null));
+        String password = DatabaseConnection.getProperty("r2dbc.password",
+                DatabaseConnection.getProperty("db.password", null));
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionFactory factory = ConnectionFactories.get(options.build());
+
+        int maxSize = DatabaseConnection.getIntProperty("r2dbc.pool.maxSize", 10);
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(factory)
+                .name("RailwayReactivePool")
+                .initialSize(Math.min(maxSize, DatabaseConnection.getIntProperty("r2dbc.pool.initialSize", 2)))
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMillis(DatabaseConnection.getLongProperty("r2dbc.pool.idleTimeoutMs", 600_000L)))
+                .maxAcquireTime(Duration.ofMillis(DatabaseConnection.getLongProperty("r2dbc.pool.acquireTimeoutMs", 30_000L)))
+                .build());
+    }
+
+    /**
+     * Closes the pool; the next call to getConnectionFactory() opens a new one.
+     */
+    public static void shutdown() {
+        INIT_LOCK.lock();
+        try {
+            if (pool != null) {
+                pool.dispose();
+                pool = null;
+            }
+        } finally {
+            INIT_LOCK.unlock();
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.railway.util;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Brings the database schema up to date from the versioned scripts in
+ * db/migration/{sqlserver|mysql}/V{n}__{description}.sql, in version order. Each applied
+ * version is recorded in the SchemaVersion table, so a script runs once per database.
+ *
+ * Runs at application startup (schema.migrate=true) before requests are served, or by hand:
+ * java com.railway.util.SchemaMigrator [--info]
+ *
+ * A database that has tables but no SchemaVersion table was created from a setup script
+ * before versions were recorded; it is taken as being at schema.baselineVersion (default 1)
+ * and only later scripts are run. SQL Server scripts run in one transaction each; MySQL
+ * commits DDL immediately, so a failed MySQL script may be left partly applied.
+ */
+public class SchemaMigrator {
+
+    static final String HISTORY_TABLE = "SchemaVersion";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern GO_LINE = Pattern.compile("(?im)^\\s*GO\\s*$");
+    private static final String LOCK_NAME = "RailwaySchemaMigration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    /**
+     * One versioned script.
+     */
+    static final class Migration {
+        final int version;
+        final String description;
+        final String script;
+        final String checksum;
+
+        Migration(int version, String description, String script) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.checksum = sha256(script);
+        }
+    }
+
+    private SchemaMigrator() {
+    }
+
+    public static void main(String[] args) {
+        boolean infoOnly = args.length > 0 && "--info".equals(args[0]);
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (infoOnly) {
+                printInfo(conn);
+            } else {
+                int applied = migrate(conn);
+                System.out.println(applied == 0 ? "Schema is up to date" : "Applied " + applied + " migration(s)");
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("Schema migration failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    /**
+     * Applies the pending migrations on a pooled connection and returns how many ran.
+     */
+    public static int migrate() throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return migrate(conn);
+        }
+    }
+
+    static int migrate(Connection conn) throws SQLException, IOException {
+        String dialect = dialect(conn);
+        List<Migration> migrations = load(dialect);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(true);
+        // Several instances may start at once; the first one migrates, the others wait and find nothing to do
+        lock(conn, dialect);
+        try {
+            Map<Integer, String> applied = appliedVersions(conn, migrations);
+            int count = 0;
+            for (Migration migration : migrations) {
+                if (applied.containsKey(migration.version)) {
+                    String checksum = applied.get(migration.version);
+                    if (checksum != null && !checksum.equals(migration.checksum)) {
+                        System.err.println("Schema migration V" + migration.version + "__" + migration.description +
+                                " was changed after it was applied; the change is not run again");
+                    }
+                    continue;
+                }
+                apply(conn, dialect, migration);
+                count++;
+            }
+            return count;
+        } finally {
+            unlock(conn, dialect);
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * "sqlserver" or "mysql": schema.dialect if set, otherwise from the connected database.
+     */
+    public static String dialect(Connection conn) throws SQLException {
+        String configured = DatabaseConnection.getProperty("schema.dialect", null);
+        if (configured != null && !configured.isEmpty()) {
+            return configured.toLowerCase(Locale.ROOT);
+        }
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (product.contains("sql server")) {
+            return "sqlserver";
+        }
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return "mysql";
+        }
+        throw new SQLException("No schema migrations for " + conn.getMetaData().getDatabaseProductName() +
+                "; set schema.dialect or schema.migrate=false");
+    }
+
+    /**
+     * The scripts for a dialect, in version order.
+     */
+    static List<Migration> load(String dialect) throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver(SchemaMigrator.class.getClassLoader())
+                .getResources("classpath*:db/migration/" + dialect + "/V*__*.sql");
+        List<Migration> migrations = new ArrayList<>();
+        Map<Integer, String> seen = new HashMap<>();
+        for (Resource resource : resources) {
+            Matcher name = SCRIPT_NAME.matcher(resource.getFilename());
+            if (!name.matches()) {
+                continue;
+            }
+            int version = Integer.parseInt(name.group(1));
+            String previous = seen.put(version, resource.getFilename());
+            if (previous != null) {
+                throw new IOException("Two migrations with version " + version + ": " + previous + ", " + resource.getFilename());
+            }
+            try (InputStream in = resource.getInputStream()) {
+                String script = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+                migrations.add(new Migration(version, name.group(2), script));
+            }
+        }
+        if (migrations.isEmpty()) {
+            throw new IOException("No migrations found under db/migration/" + dialect);
+        }
+        migrations.sort(Comparator.comparingInt(m -> m.version));
+        return migrations;
+    }
+
+    /**
+     * Splits a script into statements: batches separated by GO lines for SQL Server,
+     * statements ending in a semicolon at the end of a line for MySQL. Comment-only
+     * pieces are dropped.
+     */
+    static List<String> statements(String script, String dialect) {
+        String[] pieces = "sqlserver".equals(dialect)
+                ? GO_LINE.split(script)
+                : script.split(";[ \\t]*(\\n|$)");
+        List<String> statements = new ArrayList<>();
+        for (String piece : pieces) {
+            if (hasCode(piece)) {
+                statements.add(piece.trim());
+            }
+        }
+        return statements;
+    }
+
+    private static boolean hasCode(String piece) {
+        for (String line : piece.split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("--")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The recorded versions and their checksums, creating the history table (and recording
+     * the baseline for a database set up before versions were recorded) if needed.
+     */
+    private static Map<Integer, String> appliedVersions(Connection conn, List<Migration> migrations) throws SQLException {
+        if (!tableExists(conn, HISTORY_TABLE)) {
+            boolean existingSchema = tableExists(conn, "Train");
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE " + HISTORY_TABLE + " (" +
+                        "Version INT NOT NULL PRIMARY KEY, " +
+                        "Description VARCHAR(200) NOT NULL, " +
+                        "Checksum CHAR(64), " +
+                        "AppliedAt DATETIME NOT NULL, " +
+                        "ExecutionMs INT)");
+            }
+            if (existingSchema) {
+                int baseline = DatabaseConnection.getIntProperty("schema.baselineVersion", 1);
+                for (Migration migration : migrations) {
+                    if (migration.version <= baseline) {
+                        record(conn, migration.version, migration.description + " (baseline)", null, null);
+                    }
+                }
+                System.out.println("Existing schema recorded as version " + baseline);
+            }
+        }
+
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT Version, Checksum FROM " + HISTORY_TABLE)) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(Connection conn, String dialect, Migration migration) throws SQLException {
+        String name = "V" + migration.version + "__" + migration.description;
+        long start = System.nanoTime();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements(migration.script, dialect)) {
+                stmt.execute(sql);
+            }
+            record(conn, migration.version, migration.description, migration.checksum,
+                    (int) ((System.nanoTime() - start) / 1_000_000));
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException(name + " failed: " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        System.out.println("Applied schema migration " + name + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void record(Connection conn, int version, String description, String checksum, Integer executionMs)
+            throws SQLException {
+        String sql = "INSERT INTO " + HISTORY_TABLE + " (Version, Description, Checksum, AppliedAt, ExecutionMs) " +
+                "VALUES (?, ?, ?, CURRENT_TIMESTAMP, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, version);
+            stmt.setString(2, description);
+            stmt.setString(3, checksum);
+            if (executionMs != null) {
+                stmt.setInt(4, executionMs);
+            } else {
+                stmt.setNull(4, java.sql.Types.INTEGER);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getTables(conn.getCatalog(), null, "%", new String[]{"TABLE"})) {
+            while (rs.next()) {
+                if (table.equalsIgnoreCase(rs.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void lock(Connection conn, String dialect) throws SQLException {
+        String sql = "sqlserver".equals(dialect)
+                ? "SET NOCOUNT ON; DECLARE @r INT; EXEC @r = sp_getapplock @Resource = '" + LOCK_NAME + "', @LockMode = 'Exclusive', " +
+                  "@LockOwner = 'Session', @LockTimeout = " + LOCK_TIMEOUT_SECONDS * 1000 + "; SELECT @r"
+                : "SELECT GET_LOCK('" + LOCK_NAME + "', " + LOCK_TIMEOUT_SECONDS + ")";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            // sp_getapplock: 0 or 1 = granted; GET_LOCK: 1 = granted
+            int result = rs.next() ? rs.getInt(1) : -1;
+            if ("sqlserver".equals(dialect) ? result < 0 : result != 1) {
+                throw new SQLException("Another instance is migrating the schema; timed out after " +
+                        LOCK_TIMEOUT_SECONDS + " s");
+            }
+        }
+    }
+
+    private static void unlock(Connection conn, String dialect) {
+        String sql = "sqlserver".equals(dialect)
+                ? "EXEC sp_releaseapplock @Resource = '" + LOCK_NAME + "', @LockOwner = 'Session'"
+                : "SELECT RELEASE_LOCK('" + LOCK_NAME + "')";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            // Released with the session anyway
+            System.err.println("Could not release the schema migration lock: " + e.getMessage());
+        }
+    }
+
+    private static void printInfo(Connection conn) throws SQLException, IOException {
+        String dialect = dialect(conn);
+        Map<Integer, String> applied = new HashMap<>();
+        if (tableExists(conn, HISTORY_TABLE)) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT Version, Checksum FROM " + HISTORY_TABLE)) {
+                while (rs.next()) {
+                    applied.put(rs.getInt(1), rs.getString(2));
+                }
+            }
+        }
+        System.out.println("Schema migrations (" + dialect + "):");
+        for (Migration migration : load(dialect)) {
+            String state;
+            if (!applied.containsKey(migration.version)) {
+                state = "pending";
+            } else if (applied.get(migration.version) == null) {
+                state = "baseline";
+            } else {
+                state = applied.get(migration.version).equals(migration.checksum) ? "applied" : "applied (changed since)";
+            }
+            System.out.printf("  V%-3d %-30s %s%n", migration.version, migration.description, state);
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] bytes = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+-- ========================================
+-- V2: Persisted per-train booked-seat counter
+-- Adds Train.BookedSeats and back-fills it from CONFIRMED tickets.
+-- ========================================
+
+ALTER TABLE Train ADD COLUMN BookedSeats INT NOT NULL DEFAULT 0 CHECK (BookedSeats >= 0);
+
+UPDATE Train SET BookedSeats = (
+    SELECT COUNT(*) FROM Ticket t
+    WHERE t.TrainNumber = Train.TrainNumber AND t.Status = 'CONFIRMED'
+);
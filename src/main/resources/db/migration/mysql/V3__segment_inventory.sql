@@ -0,0 +1,17 @@
+-- ========================================
+-- V3: Segment-level seat inventory
+-- Ticket boarding/deboarding stops now reference Schedule.ScheduleID (VARCHAR(10)), and
+-- TrainLeg holds the seats booked per leg of a scheduled train. TrainLeg rows are created
+-- by the application the first time a train is booked, seeded from its CONFIRMED tickets.
+-- ========================================
+
+ALTER TABLE Ticket MODIFY COLUMN BoardingScheduleID VARCHAR(10) NULL;
+ALTER TABLE Ticket MODIFY COLUMN DeboardingScheduleID VARCHAR(10) NULL;
+
+CREATE TABLE IF NOT EXISTS TrainLeg (
+    TrainNumber VARCHAR(10) NOT NULL,
+    LegIndex INT NOT NULL,
+    Booked INT NOT NULL DEFAULT 0 CHECK (Booked >= 0),
+    PRIMARY KEY (TrainNumber, LegIndex),
+    FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,17 @@
+-- ========================================
+-- V4: Waitlist
+-- Ticket.Status is limited to the states in TicketStatus, and Waitlist keeps the queue order
+-- of WAITLISTED tickets per train. CHECK constraints are enforced from MySQL 8.0.16.
+-- ========================================
+
+ALTER TABLE Ticket ADD CONSTRAINT CK_Ticket_Status CHECK (Status IN ('WAITLISTED', 'CONFIRMED', 'CANCELLED'));
+
+CREATE TABLE IF NOT EXISTS Waitlist (
+    WaitlistID BIGINT PRIMARY KEY AUTO_INCREMENT,
+    PNR VARCHAR(50) NOT NULL,
+    TrainNumber VARCHAR(10) NOT NULL,
+    CreatedAt DATETIME DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (PNR, TrainNumber),
+    FOREIGN KEY (PNR, TrainNumber) REFERENCES Ticket(PNR, TrainNumber) ON DELETE CASCADE,
+    INDEX IX_Waitlist_Train (TrainNumber, WaitlistID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
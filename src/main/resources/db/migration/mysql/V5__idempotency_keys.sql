@@ -0,0 +1,17 @@
+-- ========================================
+-- V5: Idempotency keys
+-- Remembers the response to each Idempotency-Key so a retried booking request is answered
+-- without booking again (idempotency.store=database).
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS IdempotencyKey (
+    Username VARCHAR(50) NOT NULL,
+    IdempotencyKey VARCHAR(200) NOT NULL,
+    RequestHash CHAR(64) NOT NULL,
+    StatusCode INT NULL,
+    ResponseBody TEXT NULL,
+    CreatedAt DATETIME DEFAULT CURRENT_TIMESTAMP,
+    ExpiresAt DATETIME NOT NULL,
+    PRIMARY KEY (Username, IdempotencyKey),
+    INDEX IX_IdempotencyKey_Expires (ExpiresAt)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
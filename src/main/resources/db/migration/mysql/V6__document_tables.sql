@@ -0,0 +1,34 @@
+-- ========================================
+-- V6: Document tables
+-- Uploaded documents and their links to passengers and bookings. These used to be created
+-- by DocumentDAO on every construction (SQL Server syntax only).
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS Document (
+    DocumentID INT PRIMARY KEY AUTO_INCREMENT,
+    DocumentType VARCHAR(50) NOT NULL,
+    FileName VARCHAR(255) NOT NULL,
+    FilePath VARCHAR(500) NOT NULL,
+    FileSize BIGINT,
+    UploadedBy VARCHAR(50),
+    UploadDate DATETIME DEFAULT CURRENT_TIMESTAMP,
+    Status VARCHAR(20) DEFAULT 'ACTIVE'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS PassengerDocument (
+    PNR VARCHAR(50) NOT NULL,
+    DocumentID INT NOT NULL,
+    Purpose VARCHAR(100),
+    PRIMARY KEY (PNR, DocumentID),
+    FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+    FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE IF NOT EXISTS BookingDocument (
+    PNR VARCHAR(50) NOT NULL,
+    DocumentID INT NOT NULL,
+    DocumentCategory VARCHAR(20) CHECK (DocumentCategory IN ('TICKET', 'RECEIPT', 'INVOICE')),
+    PRIMARY KEY (PNR, DocumentID),
+    FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+    FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,7 @@
+-- ========================================
+-- V7: Foreign key indexes
+-- InnoDB already indexes every foreign key column. Only the ticket lookup by train is
+-- widened so seat counts per train (TrainNumber + Status) are answered from the index.
+-- ========================================
+
+CREATE INDEX IX_Ticket_TrainNumber ON Ticket (TrainNumber, Status);
@@ -0,0 +1,22 @@
+-- ========================================
+-- V8: Query indexes
+-- Indexes for the lookups the DAOs run per request, checked by
+-- com.railway.test.QueryPlanRegression. Passenger.Username already has the index InnoDB
+-- creates for its foreign key, and secondary indexes carry the primary key columns.
+-- ========================================
+
+-- Pending feedback is now AdminResponse IS NULL only; older rows may still hold ''
+UPDATE Feedback SET AdminResponse = NULL WHERE AdminResponse = '';
+
+-- Train search, in Date, TrainNumber order without a filesort
+CREATE INDEX IX_Train_Route ON Train (Source, Destination, Date);
+
+-- Booking and passenger exports by time window
+CREATE INDEX IX_Ticket_BookingDate ON Ticket (BookingDate);
+
+-- Feedback listing pages (DateSubmitted DESC, FeedbackID DESC) and exports
+CREATE INDEX IX_Feedback_DateSubmitted ON Feedback (DateSubmitted);
+
+-- MySQL has no partial indexes; a one-character prefix of AdminResponse is enough to find
+-- the NULLs and keeps the response text out of the index
+CREATE INDEX IX_Feedback_Pending ON Feedback (AdminResponse(1), DateSubmitted);
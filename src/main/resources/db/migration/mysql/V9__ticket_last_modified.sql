@@ -0,0 +1,13 @@
+-- ========================================
+-- V9: Ticket.LastModified
+-- Stamped when a ticket is booked and again when its status changes (waitlist promotion), so
+-- incremental booking exports pick up a promoted ticket a second time. Existing rows take
+-- their BookingDate.
+-- ========================================
+
+ALTER TABLE Ticket ADD COLUMN LastModified DATETIME DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE Ticket SET LastModified = BookingDate;
+
+-- Booking and passenger exports by time window
+CREATE INDEX IX_Ticket_LastModified ON Ticket (LastModified);
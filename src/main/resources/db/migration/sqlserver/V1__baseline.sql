@@ -0,0 +1,117 @@
+-- ========================================
+-- V1: Baseline schema
+-- The tables as first created by database_setup.sql. Only run on an empty database; a
+-- database created from a setup script before schema versions were recorded is taken
+-- as already at this version (see SchemaMigrator, schema.baselineVersion).
+-- ========================================
+
+-- Create User table (SECURE: WITH Role Column)
+CREATE TABLE [User] (
+    Username VARCHAR(50) PRIMARY KEY NOT NULL,
+    Name VARCHAR(100) NOT NULL,
+    Address VARCHAR(255),
+    City VARCHAR(80),
+    Age INT,
+    Contact VARCHAR(15),
+    Gender CHAR(1),
+    Role VARCHAR(20) NOT NULL DEFAULT 'passenger' CHECK (Role IN ('passenger', 'admin'))
+);
+
+-- Create Login table
+CREATE TABLE Login (
+    Username VARCHAR(50) PRIMARY KEY NOT NULL,
+    Password VARCHAR(255) NOT NULL,
+    FOREIGN KEY (Username) REFERENCES [User](Username) ON DELETE CASCADE
+);
+
+-- Create Passenger table (NORMALIZED: Removed Source/Dest/Date. PNR widened for resilience.)
+CREATE TABLE Passenger (
+    PNR VARCHAR(50) PRIMARY KEY NOT NULL,
+    PassengerName VARCHAR(100) NOT NULL,
+    Age INT,
+    Gender CHAR(1),
+    Username VARCHAR(50) NOT NULL,
+    FOREIGN KEY (Username) REFERENCES [User](Username) ON DELETE CASCADE
+);
+
+-- Create Train table
+CREATE TABLE Train (
+    TrainNumber VARCHAR(10) PRIMARY KEY NOT NULL,
+    TrainName VARCHAR(100) NOT NULL,
+    Source VARCHAR(100),
+    Destination VARCHAR(100),
+    Date DATE,
+    Cost DECIMAL(10,2),
+    Seats INT DEFAULT 100
+);
+
+-- Create Ticket table (NORMALIZED: Removed Source/Dest/Date/Amount, now only stores PNR and Train reference)
+CREATE TABLE Ticket (
+    PNR VARCHAR(50) NOT NULL,
+    TrainNumber VARCHAR(10) NOT NULL,
+    Status VARCHAR(20) DEFAULT 'CONFIRMED',
+    BookingDate DATETIME DEFAULT GETDATE(),
+    BoardingScheduleID INT,
+    DeboardingScheduleID INT,
+    PRIMARY KEY (PNR, TrainNumber),
+    FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+    FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
+);
+
+-- Create Admin table
+CREATE TABLE Admin (
+    Username VARCHAR(50) PRIMARY KEY NOT NULL,
+    AdminID INT UNIQUE NOT NULL,
+    FOREIGN KEY (Username) REFERENCES [User](Username) ON DELETE CASCADE
+);
+
+-- Create Station table
+CREATE TABLE Station (
+    StationName VARCHAR(100) PRIMARY KEY NOT NULL,
+    Address VARCHAR(255)
+);
+
+-- Create Admin_Station junction table
+CREATE TABLE Admin_Station (
+    Username VARCHAR(50) NOT NULL,
+    StationName VARCHAR(100) NOT NULL,
+    PRIMARY KEY (Username, StationName),
+    FOREIGN KEY (Username) REFERENCES Admin(Username) ON DELETE CASCADE,
+    FOREIGN KEY (StationName) REFERENCES Station(StationName) ON DELETE CASCADE
+);
+
+-- Create Schedule table
+CREATE TABLE Schedule (
+    TrainNumber VARCHAR(10) NOT NULL,
+    StationName VARCHAR(100) NOT NULL,
+    ScheduleID VARCHAR(10),
+    arrd_arrival_time TIME,
+    dept_departure_time TIME,
+    PRIMARY KEY (TrainNumber, StationName),
+    FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE,
+    FOREIGN KEY (StationName) REFERENCES Station(StationName) ON DELETE CASCADE
+);
+
+-- Create Admin_Train junction table
+CREATE TABLE Admin_Train (
+    Username VARCHAR(50) NOT NULL,
+    TrainNumber VARCHAR(10) NOT NULL,
+    PRIMARY KEY (Username, TrainNumber),
+    FOREIGN KEY (Username) REFERENCES Admin(Username) ON DELETE CASCADE,
+    FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
+);
+
+-- Create Feedback table
+CREATE TABLE Feedback (
+    FeedbackID INT PRIMARY KEY IDENTITY(1,1),
+    Username VARCHAR(50) NOT NULL,
+    TrainNumber VARCHAR(10) NOT NULL,
+    Rating INT CHECK (Rating BETWEEN 1 AND 5),
+    Comment VARCHAR(500),
+    AdminResponse VARCHAR(500),
+    DateSubmitted DATETIME DEFAULT GETDATE(),
+    FOREIGN KEY (Username) REFERENCES [User](Username),
+    FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber)
+);
+
+GO
@@ -0,0 +1,19 @@
+-- ========================================
+-- V2: Persisted per-train booked-seat counter
+-- Adds Train.BookedSeats and back-fills it from CONFIRMED tickets.
+-- Safe to re-run on a database created from an older database_setup.sql.
+-- ========================================
+
+IF COL_LENGTH('Train', 'BookedSeats') IS NULL
+BEGIN
+    ALTER TABLE Train ADD BookedSeats INT NOT NULL
+        CONSTRAINT DF_Train_BookedSeats DEFAULT 0
+        CONSTRAINT CK_Train_BookedSeats CHECK (BookedSeats >= 0);
+END
+GO
+
+UPDATE Train SET BookedSeats = (
+    SELECT COUNT(*) FROM Ticket t
+    WHERE t.TrainNumber = Train.TrainNumber AND t.Status = 'CONFIRMED'
+);
+GO
@@ -0,0 +1,24 @@
+-- ========================================
+-- V3: Segment-level seat inventory
+-- Ticket boarding/deboarding stops now reference Schedule.ScheduleID (VARCHAR(10)), and
+-- TrainLeg holds the seats booked per leg of a scheduled train. TrainLeg rows are created
+-- by the application the first time a train is booked, seeded from its CONFIRMED tickets.
+-- Safe to re-run.
+-- ========================================
+
+ALTER TABLE Ticket ALTER COLUMN BoardingScheduleID VARCHAR(10) NULL;
+ALTER TABLE Ticket ALTER COLUMN DeboardingScheduleID VARCHAR(10) NULL;
+GO
+
+IF OBJECT_ID('TrainLeg', 'U') IS NULL
+BEGIN
+    CREATE TABLE TrainLeg (
+        TrainNumber VARCHAR(10) NOT NULL,
+        LegIndex INT NOT NULL,
+        Booked INT NOT NULL CONSTRAINT DF_TrainLeg_Booked DEFAULT 0
+            CONSTRAINT CK_TrainLeg_Booked CHECK (Booked >= 0),
+        PRIMARY KEY (TrainNumber, LegIndex),
+        FOREIGN KEY (TrainNumber) REFERENCES Train(TrainNumber) ON DELETE CASCADE
+    );
+END
+GO
@@ -0,0 +1,23 @@
+-- ========================================
+-- V4: Waitlist
+-- Ticket.Status is limited to the states in TicketStatus, and Waitlist keeps the queue order
+-- of WAITLISTED tickets per train. Safe to re-run.
+-- ========================================
+
+IF NOT EXISTS (SELECT 1 FROM sys.check_constraints WHERE name = 'CK_Ticket_Status')
+    ALTER TABLE Ticket ADD CONSTRAINT CK_Ticket_Status CHECK (Status IN ('WAITLISTED', 'CONFIRMED', 'CANCELLED'));
+GO
+
+IF OBJECT_ID('Waitlist', 'U') IS NULL
+BEGIN
+    CREATE TABLE Waitlist (
+        WaitlistID BIGINT IDENTITY(1,1) PRIMARY KEY,
+        PNR VARCHAR(50) NOT NULL,
+        TrainNumber VARCHAR(10) NOT NULL,
+        CreatedAt DATETIME CONSTRAINT DF_Waitlist_CreatedAt DEFAULT GETDATE(),
+        CONSTRAINT UQ_Waitlist_Ticket UNIQUE (PNR, TrainNumber),
+        FOREIGN KEY (PNR, TrainNumber) REFERENCES Ticket(PNR, TrainNumber) ON DELETE CASCADE
+    );
+    CREATE INDEX IX_Waitlist_Train ON Waitlist (TrainNumber, WaitlistID);
+END
+GO
@@ -0,0 +1,21 @@
+-- ========================================
+-- V5: Idempotency keys
+-- Remembers the response to each Idempotency-Key so a retried booking request is answered
+-- without booking again (idempotency.store=database). Safe to re-run.
+-- ========================================
+
+IF OBJECT_ID('IdempotencyKey', 'U') IS NULL
+BEGIN
+    CREATE TABLE IdempotencyKey (
+        Username VARCHAR(50) NOT NULL,
+        IdempotencyKey VARCHAR(200) NOT NULL,
+        RequestHash CHAR(64) NOT NULL,
+        StatusCode INT NULL,
+        ResponseBody NVARCHAR(MAX) NULL,
+        CreatedAt DATETIME CONSTRAINT DF_IdempotencyKey_CreatedAt DEFAULT GETDATE(),
+        ExpiresAt DATETIME NOT NULL,
+        CONSTRAINT PK_IdempotencyKey PRIMARY KEY (Username, IdempotencyKey)
+    );
+    CREATE INDEX IX_IdempotencyKey_Expires ON IdempotencyKey (ExpiresAt);
+END
+GO
@@ -0,0 +1,48 @@
+-- ========================================
+-- V6: Document tables
+-- Uploaded documents and their links to passengers and bookings. These used to be created
+-- by DocumentDAO on every construction; PNR now has the width of Passenger.PNR, which the
+-- foreign key requires. Safe to re-run.
+-- ========================================
+
+IF OBJECT_ID('Document', 'U') IS NULL
+BEGIN
+    CREATE TABLE Document (
+        DocumentID INT IDENTITY(1,1) PRIMARY KEY,
+        DocumentType VARCHAR(50) NOT NULL,
+        FileName VARCHAR(255) NOT NULL,
+        FilePath VARCHAR(500) NOT NULL,
+        FileSize BIGINT,
+        UploadedBy VARCHAR(50),
+        UploadDate DATETIME CONSTRAINT DF_Document_UploadDate DEFAULT GETDATE(),
+        Status VARCHAR(20) CONSTRAINT DF_Document_Status DEFAULT 'ACTIVE'
+    );
+END
+GO
+
+IF OBJECT_ID('PassengerDocument', 'U') IS NULL
+BEGIN
+    CREATE TABLE PassengerDocument (
+        PNR VARCHAR(50) NOT NULL,
+        DocumentID INT NOT NULL,
+        Purpose VARCHAR(100),
+        PRIMARY KEY (PNR, DocumentID),
+        FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+        FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+    );
+END
+GO
+
+IF OBJECT_ID('BookingDocument', 'U') IS NULL
+BEGIN
+    CREATE TABLE BookingDocument (
+        PNR VARCHAR(50) NOT NULL,
+        DocumentID INT NOT NULL,
+        DocumentCategory VARCHAR(20) CONSTRAINT CK_BookingDocument_Category
+            CHECK (DocumentCategory IN ('TICKET', 'RECEIPT', 'INVOICE')),
+        PRIMARY KEY (PNR, DocumentID),
+        FOREIGN KEY (PNR) REFERENCES Passenger(PNR) ON DELETE CASCADE,
+        FOREIGN KEY (DocumentID) REFERENCES Document(DocumentID) ON DELETE CASCADE
+    );
+END
+GO
@@ -0,0 +1,24 @@
+-- ========================================
+-- V7: Foreign key indexes
+-- SQL Server does not index foreign key columns by itself. Without these, every lookup of
+-- a train's tickets (seat counts, waitlist, cascading train deletes) and every join from a
+-- station or document scans the whole child table. Safe to re-run.
+-- ========================================
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Ticket_TrainNumber' AND object_id = OBJECT_ID('Ticket'))
+    CREATE INDEX IX_Ticket_TrainNumber ON Ticket (TrainNumber, Status);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Feedback_TrainNumber' AND object_id = OBJECT_ID('Feedback'))
+    CREATE INDEX IX_Feedback_TrainNumber ON Feedback (TrainNumber);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Feedback_Username' AND object_id = OBJECT_ID('Feedback'))
+    CREATE INDEX IX_Feedback_Username ON Feedback (Username);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Schedule_StationName' AND object_id = OBJECT_ID('Schedule'))
+    CREATE INDEX IX_Schedule_StationName ON Schedule (StationName);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Admin_Station_StationName' AND object_id = OBJECT_ID('Admin_Station'))
+    CREATE INDEX IX_Admin_Station_StationName ON Admin_Station (StationName);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Admin_Train_TrainNumber' AND object_id = OBJECT_ID('Admin_Train'))
+    CREATE INDEX IX_Admin_Train_TrainNumber ON Admin_Train (TrainNumber);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_PassengerDocument_DocumentID' AND object_id = OBJECT_ID('PassengerDocument'))
+    CREATE INDEX IX_PassengerDocument_DocumentID ON PassengerDocument (DocumentID);
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_BookingDocument_DocumentID' AND object_id = OBJECT_ID('BookingDocument'))
+    CREATE INDEX IX_BookingDocument_DocumentID ON BookingDocument (DocumentID);
+GO
@@ -0,0 +1,36 @@
+-- ========================================
+-- V8: Query indexes
+-- Indexes for the lookups the DAOs run per request, checked by
+-- com.railway.test.QueryPlanRegression. Ticket and document lookups by PNR are already seeks
+-- on their primary keys. Safe to re-run.
+-- ========================================
+
+-- Pending feedback is now AdminResponse IS NULL only (a filtered index cannot match an OR);
+-- the service never stores an empty response, older rows may still hold one
+UPDATE Feedback SET AdminResponse = NULL WHERE AdminResponse = '';
+GO
+
+-- A user's tickets (BookingDAO.getTicketsByUsername); PNR comes with the clustered key
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Passenger_Username' AND object_id = OBJECT_ID('Passenger'))
+    CREATE INDEX IX_Passenger_Username ON Passenger (Username);
+
+-- Train search; rows come out in Date, TrainNumber order without a sort. Not covering on
+-- purpose: BookedSeats changes on every booking and would be written twice
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Train_Route' AND object_id = OBJECT_ID('Train'))
+    CREATE INDEX IX_Train_Route ON Train (Source, Destination, Date);
+
+-- Booking and passenger exports by time window; covers every Ticket column they read
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Ticket_BookingDate' AND object_id = OBJECT_ID('Ticket'))
+    CREATE INDEX IX_Ticket_BookingDate ON Ticket (BookingDate)
+        INCLUDE (Status, BoardingScheduleID, DeboardingScheduleID);
+
+-- Feedback listing pages (DateSubmitted DESC, FeedbackID DESC) and exports
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Feedback_DateSubmitted' AND object_id = OBJECT_ID('Feedback'))
+    CREATE INDEX IX_Feedback_DateSubmitted ON Feedback (DateSubmitted);
+
+-- Pending feedback only, newest first, covering SELECT f.*; as small as the admins' backlog
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Feedback_Pending' AND object_id = OBJECT_ID('Feedback'))
+    CREATE INDEX IX_Feedback_Pending ON Feedback (DateSubmitted)
+        INCLUDE (Username, TrainNumber, Rating, Comment, AdminResponse)
+        WHERE AdminResponse IS NULL;
+GO
@@ -0,0 +1,19 @@
+-- ========================================
+-- V9: Ticket.LastModified
+-- Stamped when a ticket is booked and again when its status changes (waitlist promotion), so
+-- incremental booking exports pick up a promoted ticket a second time. Existing rows take
+-- their BookingDate. Safe to re-run.
+-- ========================================
+
+IF COL_LENGTH('Ticket', 'LastModified') IS NULL
+    ALTER TABLE Ticket ADD LastModified DATETIME CONSTRAINT DF_Ticket_LastModified DEFAULT GETDATE();
+GO
+
+UPDATE Ticket SET LastModified = BookingDate WHERE LastModified IS NULL;
+GO
+
+-- Booking and passenger exports by time window; covers every Ticket column they read
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Ticket_LastModified' AND object_id = OBJECT_ID('Ticket'))
+    CREATE INDEX IX_Ticket_LastModified ON Ticket (LastModified)
+        INCLUDE (Status, BookingDate, BoardingScheduleID, DeboardingScheduleID);
+GO